@@ -0,0 +1,102 @@
+package com.example.analytics_service.anomaly;
+
+/**
+ * Sliding window of incident counts per fixed-width time bucket, kept in a
+ * ring buffer of primitive longs, with an EWMA of the per-bucket rate.
+ *
+ * Buckets are absolute (epoch time divided by the bucket width), so a slot
+ * is reused once its bucket falls out of the window. Not thread-safe.
+ */
+public final class RateWindow {
+    
+    private final long[] counts;
+    private final int bucketsPerDay;
+    private final double alpha;
+    
+    private long firstBucket = Long.MIN_VALUE;
+    private long currentBucket = Long.MIN_VALUE;
+    private long closedBuckets;
+    private double ewma;
+    private long alertedBucket = Long.MIN_VALUE;
+    
+    public RateWindow(int bucketCount, int bucketsPerDay, double alpha) {
+        this.counts = new long[bucketCount];
+        this.bucketsPerDay = bucketsPerDay;
+        this.alpha = alpha;
+    }
+    
+    /**
+     * Counts one incident in {@code bucket}, advancing the window if needed.
+     * Incidents older than the window are ignored.
+     *
+     * @return the bucket's count after the update, or 0 if it was ignored
+     */
+    public long record(long bucket) {
+        if (currentBucket == Long.MIN_VALUE) {
+            firstBucket = bucket;
+            currentBucket = bucket;
+        } else if (bucket > currentBucket) {
+            advanceTo(bucket);
+        } else if (bucket <= currentBucket - counts.length) {
+            return 0;
+        }
+        return ++counts[slot(bucket)];
+    }
+    
+    private void advanceTo(long bucket) {
+        long gap = bucket - currentBucket;
+        // Close the current bucket, then every skipped (empty) one
+        ewma = alpha * counts[slot(currentBucket)] + (1 - alpha) * ewma;
+        long empty = gap - 1;
+        if (empty > 0) {
+            ewma *= Math.pow(1 - alpha, empty);
+        }
+        closedBuckets += gap;
+        
+        for (long b = currentBucket + 1, cleared = 0; b <= bucket && cleared < counts.length; b++, cleared++) {
+            counts[slot(b)] = 0;
+        }
+        currentBucket = bucket;
+    }
+    
+    public long count(long bucket) {
+        if (bucket > currentBucket || bucket <= currentBucket - counts.length) {
+            return 0;
+        }
+        return counts[slot(bucket)];
+    }
+    
+    /**
+     * Expected count for {@code bucket}: the larger of the EWMA rate and the
+     * mean of the same time-of-day bucket on previous days in the window, so
+     * regular daily peaks are not reported as spikes.
+     */
+    public double expected(long bucket) {
+        long sum = 0;
+        int days = 0;
+        for (long b = bucket - bucketsPerDay; b > currentBucket - counts.length && b >= firstBucket; b -= bucketsPerDay) {
+            sum += counts[slot(b)];
+            days++;
+        }
+        double seasonal = days > 0 ? (double) sum / days : 0;
+        return Math.max(ewma, seasonal);
+    }
+    
+    /** Number of buckets the window has seen close. */
+    public long getClosedBuckets() {
+        return closedBuckets;
+    }
+    
+    /** Returns true the first time it is called for a given bucket. */
+    public boolean markAlerted(long bucket) {
+        if (alertedBucket == bucket) {
+            return false;
+        }
+        alertedBucket = bucket;
+        return true;
+    }
+    
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) counts.length);
+    }
+}
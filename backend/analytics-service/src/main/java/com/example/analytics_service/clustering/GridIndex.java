@@ -0,0 +1,171 @@
+package com.example.analytics_service.clustering;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Uniform grid over projected points, stored CSR-style: point indexes sorted
+ * by cell, a sorted array of the non-empty cell keys and the offset where each
+ * cell's points start. Built with a single parallel sort and no per-cell objects.
+ * When times are given, points within each cell are ordered by time so callers
+ * can binary-search a time window.
+ */
+public final class GridIndex {
+    
+    private final double minX;
+    private final double minY;
+    private final double cellSize;
+    private final long rows;
+    private final long[] cellKeys;
+    private final int[] cellStart;
+    private final int[] order;
+    private final int[] cellOfPoint;
+    
+    public GridIndex(double[] x, double[] y, long[] times, int size, double cellSize) {
+        this.cellSize = cellSize;
+        
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        this.minX = size > 0 ? minX : 0;
+        this.minY = size > 0 ? minY : 0;
+        long columns = size > 0 ? (long) ((maxX - this.minX) / cellSize) + 1 : 1;
+        this.rows = size > 0 ? (long) ((maxY - this.minY) / cellSize) + 1 : 1;
+        if ((double) columns * rows * Math.max(size, 1) >= Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Search radius too small for the extent of the data");
+        }
+        
+        // Sort (cell, rank) pairs packed into one long, where rank is a
+        // permutation of the points in time order (or just the point index)
+        int[] byRank = times != null ? rankByTime(times, size) : null;
+        long[] packed = new long[size];
+        for (int i = 0; i < size; i++) {
+            long column = (long) ((x[i] - this.minX) / cellSize);
+            long row = (long) ((y[i] - this.minY) / cellSize);
+            packed[i] = (column * rows + row) * size + i;
+        }
+        if (byRank != null) {
+            for (int rank = 0; rank < size; rank++) {
+                int point = byRank[rank];
+                packed[point] = packed[point] - point + rank;
+            }
+        }
+        Arrays.parallelSort(packed);
+        
+        order = new int[size];
+        cellOfPoint = new int[size];
+        long[] keys = new long[size];
+        int[] starts = new int[size + 1];
+        int cells = 0;
+        long previous = -1;
+        for (int k = 0; k < size; k++) {
+            long key = packed[k] / size;
+            int rank = (int) (packed[k] % size);
+            int point = byRank != null ? byRank[rank] : rank;
+            if (key != previous) {
+                keys[cells] = key;
+                starts[cells] = k;
+                cells++;
+                previous = key;
+            }
+            order[k] = point;
+            cellOfPoint[point] = cells - 1;
+        }
+        starts[cells] = size;
+        cellKeys = Arrays.copyOf(keys, cells);
+        cellStart = Arrays.copyOf(starts, cells + 1);
+    }
+    
+    /** Point indexes in time order, ties broken arbitrarily. */
+    private static int[] rankByTime(long[] times, int size) {
+        long[] sorted = Arrays.copyOf(times, size);
+        Arrays.parallelSort(sorted);
+        int[] taken = new int[size];
+        int[] byRank = new int[size];
+        for (int i = 0; i < size; i++) {
+            int first = lowerBound(sorted, times[i]);
+            byRank[first + taken[first]++] = i;
+        }
+        return byRank;
+    }
+    
+    private static int lowerBound(long[] sorted, long value) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    public int cellCount() {
+        return cellKeys.length;
+    }
+    
+    /** Offset of the cell's first point in {@link #pointAt(int)} order. */
+    public int cellStart(int cell) {
+        return cellStart[cell];
+    }
+    
+    public int cellEnd(int cell) {
+        return cellStart[cell + 1];
+    }
+    
+    public int cellSize(int cell) {
+        return cellStart[cell + 1] - cellStart[cell];
+    }
+    
+    public int pointAt(int offset) {
+        return order[offset];
+    }
+    
+    public int cellOf(int point) {
+        return cellOfPoint[point];
+    }
+    
+    public double getCellSize() {
+        return cellSize;
+    }
+    
+    /** Squared distance from a point to the nearest edge of the cell, 0 inside it. */
+    public double distanceSquaredToCell(int cell, double px, double py) {
+        double left = minX + (cellKeys[cell] / rows) * cellSize;
+        double bottom = minY + (cellKeys[cell] % rows) * cellSize;
+        double dx = Math.max(0, Math.max(left - px, px - (left + cellSize)));
+        double dy = Math.max(0, Math.max(bottom - py, py - (bottom + cellSize)));
+        return dx * dx + dy * dy;
+    }
+    
+    /**
+     * Calls {@code visitor} with every non-empty cell within {@code radius}
+     * cells of {@code cell} in both directions (including the cell itself)
+     * until it returns false.
+     */
+    public void forEachNeighborCell(int cell, int radius, IntPredicate visitor) {
+        long column = cellKeys[cell] / rows;
+        long row = cellKeys[cell] % rows;
+        for (long c = column - radius; c <= column + radius; c++) {
+            if (c < 0) {
+                continue;
+            }
+            for (long r = row - radius; r <= row + radius; r++) {
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                int neighbor = Arrays.binarySearch(cellKeys, c * rows + r);
+                if (neighbor >= 0 && !visitor.test(neighbor)) {
+                    return;
+                }
+            }
+        }
+    }
+}
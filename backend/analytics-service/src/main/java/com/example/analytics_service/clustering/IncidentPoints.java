@@ -0,0 +1,71 @@
+package com.example.analytics_service.clustering;
+
+import java.util.Arrays;
+
+/**
+ * Incident locations and times held in parallel primitive arrays, so a
+ * million points cost tens of megabytes rather than a million objects.
+ */
+public class IncidentPoints {
+    
+    private long[] ids;
+    private double[] latitudes;
+    private double[] longitudes;
+    private long[] times;
+    private int size;
+    
+    public IncidentPoints() {
+        this(1024);
+    }
+    
+    public IncidentPoints(int capacity) {
+        ids = new long[capacity];
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        times = new long[capacity];
+    }
+    
+    public void add(long id, double latitude, double longitude, long timeMillis) {
+        if (size == ids.length) {
+            int capacity = Math.max(16, size * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            times = Arrays.copyOf(times, capacity);
+        }
+        ids[size] = id;
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        times[size] = timeMillis;
+        size++;
+    }
+    
+    public int size() { return size; }
+    public long id(int i) { return ids[i]; }
+    public double latitude(int i) { return latitudes[i]; }
+    public double longitude(int i) { return longitudes[i]; }
+    public long time(int i) { return times[i]; }
+    
+    /**
+     * Projects the points onto a local equirectangular plane in meters, centered
+     * on the mean latitude. Accurate enough for city-scale neighbor distances.
+     *
+     * @return x coordinates in [0, size) and y coordinates in [size, 2 * size)
+     */
+    public double[] projectToMeters() {
+        double meanLatitude = 0;
+        for (int i = 0; i < size; i++) {
+            meanLatitude += latitudes[i];
+        }
+        meanLatitude = size > 0 ? meanLatitude / size : 0;
+        double metersPerDegreeLng = 111_320.0 * Math.cos(Math.toRadians(meanLatitude));
+        double metersPerDegreeLat = 110_540.0;
+        
+        double[] xy = new double[size * 2];
+        for (int i = 0; i < size; i++) {
+            xy[i] = longitudes[i] * metersPerDegreeLng;
+            xy[size + i] = latitudes[i] * metersPerDegreeLat;
+        }
+        return xy;
+    }
+}
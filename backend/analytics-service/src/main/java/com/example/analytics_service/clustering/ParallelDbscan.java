@@ -0,0 +1,317 @@
+package com.example.analytics_service.clustering;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Spatio-temporal DBSCAN parallelized over the fork-join common pool.
+ *
+ * Two points are neighbors when they are within {@code eps} meters and, if a
+ * time window is given, within {@code epsMillis} of each other. Points are
+ * bucketed in a grid whose cell diagonal equals eps, so any two points in the
+ * same cell are spatial neighbors. That lets dense cells skip the pairwise
+ * work that makes textbook DBSCAN quadratic in hotspots. With a time window,
+ * each cell is time-ordered and scans are limited to the window. Cells
+ * farther than eps from the point are skipped.
+ * <ol>
+ *   <li>mark core points: every point of a cell holding minPoints points is
+ *       core outright (spatial-only), others count neighbors with early exit,
+ *       starting with their own cell's time window, which needs no distances;</li>
+ *   <li>union neighboring cells in a lock-free union-find when any pair of their
+ *       core points are neighbors. With a time window, a cell's core points are
+ *       first chained in time order, and a chain already joined to the point
+ *       being linked is skipped whole;</li>
+ *   <li>attach each non-core point to the cluster of any neighboring core point.</li>
+ * </ol>
+ * The result is the same clustering as sequential DBSCAN, up to the usual
+ * ambiguity of border points reachable from two clusters.
+ */
+public final class ParallelDbscan {
+    
+    public static final int NOISE = -1;
+    
+    // With cell side eps / sqrt(2), neighbors can be up to two cells away
+    private static final int CELL_RADIUS = 2;
+    
+    private final double[] x;
+    private final double[] y;
+    private final long[] times;
+    private final int size;
+    private final double epsSquared;
+    private final long epsMillis;
+    private final int minPoints;
+    private final GridIndex index;
+    
+    private int clusterCount;
+    
+    public ParallelDbscan(IncidentPoints points, double eps, long epsMillis, int minPoints) {
+        double[] xy = points.projectToMeters();
+        this.size = points.size();
+        this.x = Arrays.copyOfRange(xy, 0, size);
+        this.y = Arrays.copyOfRange(xy, size, size * 2);
+        this.times = new long[size];
+        for (int i = 0; i < size; i++) {
+            times[i] = points.time(i);
+        }
+        this.epsSquared = eps * eps;
+        this.epsMillis = epsMillis;
+        this.minPoints = minPoints;
+        this.index = new GridIndex(x, y, epsMillis > 0 ? times : null, size, eps / Math.sqrt(2));
+    }
+    
+    /**
+     * @return the cluster of each point, numbered from 0, or {@link #NOISE}
+     */
+    public int[] run() {
+        int cells = index.cellCount();
+        boolean spatialOnly = epsMillis <= 0;
+        boolean[] core = new boolean[size];
+        // First core point of each cell, or NOISE if the cell has none
+        int[] cellRep = new int[cells];
+        IntStream.range(0, cells).parallel().forEach(cell -> {
+            boolean denseCell = spatialOnly && index.cellSize(cell) >= minPoints;
+            cellRep[cell] = NOISE;
+            for (int k = index.cellStart(cell); k < index.cellEnd(cell); k++) {
+                int i = index.pointAt(k);
+                core[i] = denseCell || isCore(i);
+                if (core[i] && cellRep[cell] == NOISE) {
+                    cellRep[cell] = i;
+                }
+            }
+        });
+        
+        AtomicIntegerArray parent = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            parent.set(i, i);
+        }
+        if (spatialOnly) {
+            // Core points sharing a cell are neighbors, so each cell is linked
+            // through its representative and only cell pairs need checking
+            IntStream.range(0, cells).parallel().filter(cell -> cellRep[cell] != NOISE).forEach(cell -> {
+                for (int k = index.cellStart(cell); k < index.cellEnd(cell); k++) {
+                    int i = index.pointAt(k);
+                    if (core[i]) {
+                        union(parent, cellRep[cell], i);
+                    }
+                }
+                index.forEachNeighborCell(cell, CELL_RADIUS, other -> {
+                    if (other > cell && cellRep[other] != NOISE
+                            && find(parent, cellRep[cell]) != find(parent, cellRep[other])
+                            && coreLinked(core, cell, other)) {
+                        union(parent, cellRep[cell], cellRep[other]);
+                    }
+                    return true;
+                });
+            });
+        } else {
+            int[] chainEnd = chainCores(core, parent, cells);
+            IntStream.range(0, cells).parallel().forEach(cell -> {
+                for (int ka = index.cellStart(cell); ka < index.cellEnd(cell); ka++) {
+                    int i = index.pointAt(ka);
+                    if (core[i]) {
+                        linkToLaterCells(core, parent, chainEnd, cell, i);
+                    }
+                }
+            });
+        }
+        
+        int[] attachedTo = new int[size];
+        IntStream.range(0, size).parallel().forEach(i -> attachedTo[i] = core[i] ? i : nearestCore(core, i));
+        
+        // Number the clusters densely in order of their root
+        int[] clusterOfRoot = new int[size];
+        Arrays.fill(clusterOfRoot, NOISE);
+        int[] labels = new int[size];
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            if (attachedTo[i] == NOISE) {
+                labels[i] = NOISE;
+                continue;
+            }
+            int root = find(parent, attachedTo[i]);
+            if (clusterOfRoot[root] == NOISE) {
+                clusterOfRoot[root] = next++;
+            }
+            labels[i] = clusterOfRoot[root];
+        }
+        clusterCount = next;
+        return labels;
+    }
+    
+    public int getClusterCount() {
+        return clusterCount;
+    }
+    
+    /**
+     * Unions each cell's core points with the next one in time order when
+     * within epsMillis. Points sharing a cell are spatial neighbors, so this
+     * connects every same-cell pair of neighboring core points.
+     *
+     * @return for each offset, the offset just past the last core point of its chain
+     */
+    private int[] chainCores(boolean[] core, AtomicIntegerArray parent, int cells) {
+        int[] chainEnd = new int[size];
+        IntStream.range(0, cells).parallel().forEach(cell -> {
+            int start = index.cellStart(cell);
+            int end = index.cellEnd(cell);
+            int previous = NOISE;
+            for (int k = start; k < end; k++) {
+                int i = index.pointAt(k);
+                if (core[i]) {
+                    if (previous != NOISE && times[i] - times[previous] <= epsMillis) {
+                        union(parent, previous, i);
+                    }
+                    previous = i;
+                }
+            }
+            // Walk back so each core point can inherit the end of the next one's chain
+            int nextCore = NOISE;
+            for (int k = end - 1; k >= start; k--) {
+                int i = index.pointAt(k);
+                if (core[i]) {
+                    boolean chained = nextCore != NOISE && times[index.pointAt(nextCore)] - times[i] <= epsMillis;
+                    chainEnd[k] = chained ? chainEnd[nextCore] : k + 1;
+                    nextCore = k;
+                }
+            }
+        });
+        return chainEnd;
+    }
+    
+    /** Unions core point {@code i} of {@code cell} with its core neighbors in later cells. */
+    private void linkToLaterCells(boolean[] core, AtomicIntegerArray parent, int[] chainEnd, int cell, int i) {
+        index.forEachNeighborCell(cell, CELL_RADIUS, other -> {
+            if (other <= cell || index.distanceSquaredToCell(other, x[i], y[i]) > epsSquared) {
+                return true;
+            }
+            for (int k = scanStart(other, i), end = scanEnd(other, i); k < end; k++) {
+                int j = index.pointAt(k);
+                if (!core[j]) {
+                    continue;
+                }
+                if (find(parent, i) == find(parent, j)) {
+                    // The rest of j's chain is in the same cluster already
+                    k = chainEnd[k] - 1;
+                } else if (isNeighbor(i, j)) {
+                    union(parent, i, j);
+                    k = chainEnd[k] - 1;
+                }
+            }
+            return true;
+        });
+    }
+    
+    private boolean isCore(int i) {
+        int own = index.cellOf(i);
+        int[] count = {scanEnd(own, i) - scanStart(own, i)};
+        if (count[0] >= minPoints) {
+            return true;
+        }
+        index.forEachNeighborCell(own, CELL_RADIUS, cell -> {
+            if (cell == own || index.distanceSquaredToCell(cell, x[i], y[i]) > epsSquared) {
+                return true;
+            }
+            for (int k = scanStart(cell, i), end = scanEnd(cell, i); k < end && count[0] < minPoints; k++) {
+                if (isNeighbor(i, index.pointAt(k))) {
+                    count[0]++;
+                }
+            }
+            return count[0] < minPoints;
+        });
+        return count[0] >= minPoints;
+    }
+    
+    /** Whether some core point of {@code a} is a neighbor of some core point of {@code b}. */
+    private boolean coreLinked(boolean[] core, int a, int b) {
+        for (int ka = index.cellStart(a); ka < index.cellEnd(a); ka++) {
+            int i = index.pointAt(ka);
+            if (!core[i]) {
+                continue;
+            }
+            for (int kb = index.cellStart(b); kb < index.cellEnd(b); kb++) {
+                int j = index.pointAt(kb);
+                if (core[j] && isNeighbor(i, j)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private int nearestCore(boolean[] core, int i) {
+        int[] found = {NOISE};
+        index.forEachNeighborCell(index.cellOf(i), CELL_RADIUS, cell -> {
+            if (index.distanceSquaredToCell(cell, x[i], y[i]) > epsSquared) {
+                return true;
+            }
+            for (int k = scanStart(cell, i), end = scanEnd(cell, i); k < end; k++) {
+                int j = index.pointAt(k);
+                if (core[j] && isNeighbor(i, j)) {
+                    found[0] = j;
+                    return false;
+                }
+            }
+            return true;
+        });
+        return found[0];
+    }
+    
+    /** First offset in {@code cell} that can be a neighbor of {@code i} in time. */
+    private int scanStart(int cell, int i) {
+        return epsMillis > 0 ? firstAtOrAfter(cell, times[i] - epsMillis) : index.cellStart(cell);
+    }
+    
+    private int scanEnd(int cell, int i) {
+        return epsMillis > 0 ? firstAtOrAfter(cell, times[i] + epsMillis + 1) : index.cellEnd(cell);
+    }
+    
+    private int firstAtOrAfter(int cell, long time) {
+        int low = index.cellStart(cell), high = index.cellEnd(cell);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[index.pointAt(mid)] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private boolean isNeighbor(int i, int j) {
+        double dx = x[i] - x[j];
+        double dy = y[i] - y[j];
+        return dx * dx + dy * dy <= epsSquared
+            && (epsMillis <= 0 || Math.abs(times[i] - times[j]) <= epsMillis);
+    }
+    
+    private static int find(AtomicIntegerArray parent, int i) {
+        int p;
+        while ((p = parent.get(i)) != i) {
+            int grandparent = parent.get(p);
+            if (p != grandparent) {
+                // Path halving; losing the race is harmless
+                parent.compareAndSet(i, p, grandparent);
+            }
+            i = grandparent;
+        }
+        return i;
+    }
+    
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            int rootA = find(parent, a);
+            int rootB = find(parent, b);
+            if (rootA == rootB) {
+                return;
+            }
+            // Always link the larger root under the smaller so no cycle can form
+            int high = Math.max(rootA, rootB);
+            int low = Math.min(rootA, rootB);
+            if (parent.compareAndSet(high, high, low)) {
+                return;
+            }
+        }
+    }
+}
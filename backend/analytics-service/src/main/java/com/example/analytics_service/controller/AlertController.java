@@ -0,0 +1,35 @@
+package com.example.analytics_service.controller;
+
+import com.example.analytics_service.dto.AnomalyAlertDTO;
+import com.example.analytics_service.service.AnomalyDetectionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/analytics/alerts")
+@RequiredArgsConstructor
+@Tag(name = "Anomaly Alerts", description = "APIs for real-time incident rate spike alerts")
+public class AlertController {
+    
+    private final AnomalyDetectionService anomalyDetectionService;
+    
+    @GetMapping
+    @Operation(summary = "Get anomaly alerts",
+               description = "Retrieves recent abnormal spikes in incident rates per boundary and incident type, newest first")
+    public ResponseEntity<List<AnomalyAlertDTO>> getAlerts(
+            @Parameter(description = "Only return alerts with an id greater than this") 
+            @RequestParam(defaultValue = "0") long afterId,
+            @Parameter(description = "Maximum number of alerts to return") 
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        return ResponseEntity.ok(anomalyDetectionService.getAlerts(afterId, limit));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.analytics_service.controller;
+
+import com.example.analytics_service.dto.AuditEventDTO;
+import com.example.analytics_service.dto.AuditVerificationDTO;
+import com.example.analytics_service.service.AuditService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/analytics/audit")
+@RequiredArgsConstructor
+@Tag(name = "Audit Trail", description = "APIs for querying and verifying the audit trail of incident and user access")
+public class AuditController {
+    
+    private final AuditService auditService;
+    
+    @GetMapping
+    @Operation(summary = "Get audit events",
+               description = "Retrieves reads and changes of incidents and users in a time range, newest first")
+    public ResponseEntity<List<AuditEventDTO>> getEvents(
+            @Parameter(description = "Start date (ISO format)") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End date, exclusive (ISO format)") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Only events by this user") 
+            @RequestParam(required = false) Long actorId,
+            @Parameter(description = "Only this resource type (INCIDENT or USER)") 
+            @RequestParam(required = false) String resourceType,
+            @Parameter(description = "Only this resource id") 
+            @RequestParam(required = false) String resourceId,
+            @Parameter(description = "Maximum number of events to return") 
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(auditService.findEvents(from, to, actorId, resourceType, resourceId, limit));
+    }
+    
+    @GetMapping("/chains/{chainId}/verify")
+    @Operation(summary = "Verify an audit chain",
+               description = "Recomputes the hash chain of one service process and reports the first row that does not match")
+    public ResponseEntity<AuditVerificationDTO> verifyChain(@PathVariable UUID chainId) {
+        return ResponseEntity.ok(auditService.verifyChain(chainId));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.analytics_service.controller;
+
+import com.example.analytics_service.dto.ClusterResultDTO;
+import com.example.analytics_service.service.ClusterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/v1/analytics/clusters")
+@RequiredArgsConstructor
+@Tag(name = "Hotspot Analysis", description = "APIs for density-based clustering of incidents")
+public class ClusterController {
+    
+    private final ClusterService clusterService;
+    
+    @GetMapping
+    @Operation(summary = "Find incident clusters",
+               description = "Runs spatio-temporal DBSCAN over incidents of a type in a time window and returns cluster hulls and centroids")
+    public ResponseEntity<ClusterResultDTO> getClusters(
+            @Parameter(description = "Incident type (all types if omitted)") 
+            @RequestParam(required = false) String type,
+            @Parameter(description = "Start date (ISO format)") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "End date (ISO format)") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @Parameter(description = "Neighborhood radius in meters") 
+            @RequestParam(defaultValue = "200") double epsMeters,
+            @Parameter(description = "Neighborhood time window in minutes (0 = spatial only)") 
+            @RequestParam(defaultValue = "0") long epsMinutes,
+            @Parameter(description = "Minimum incidents in a neighborhood to form a cluster") 
+            @RequestParam(defaultValue = "5") int minPoints) {
+        ClusterResultDTO result = clusterService.findClusters(type, startDate, endDate, epsMeters, epsMinutes, minPoints);
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.analytics_service.controller;
+
+import com.example.analytics_service.dto.ResponseTimeStatsDTO;
+import com.example.analytics_service.service.ResponseTimeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/analytics/response-times")
+@RequiredArgsConstructor
+@Tag(name = "Response Times", description = "APIs for time-to-status percentiles of incidents")
+public class ResponseTimeController {
+    
+    private final ResponseTimeService responseTimeService;
+    
+    @GetMapping
+    @Operation(summary = "Get time-to-status percentiles",
+               description = "Retrieves the time from report to each status per boundary and incident type, "
+                   + "as count, mean and 50th/90th/99th percentiles in seconds")
+    public ResponseEntity<List<ResponseTimeStatsDTO>> getResponseTimes(
+            @Parameter(description = "Only this boundary (police station jurisdiction)") 
+            @RequestParam(required = false) Integer boundaryId,
+            @Parameter(description = "Only this incident type") 
+            @RequestParam(required = false) String incidentType) {
+        return ResponseEntity.ok(responseTimeService.getStats(boundaryId, incidentType));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.analytics_service.controller;
+
+import com.example.analytics_service.dto.IncidentSnapshotSummaryDTO;
+import com.example.analytics_service.service.IncidentSnapshotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/v1/analytics/snapshot")
+@RequiredArgsConstructor
+@Tag(name = "Incident Snapshot", description = "APIs for aggregations over the offline columnar incident snapshot")
+public class SnapshotController {
+    
+    private final IncidentSnapshotService snapshotService;
+    
+    @GetMapping("/summary")
+    @Operation(summary = "Summarize incidents",
+               description = "Counts incidents by type, priority, status and boundary in a time range from the last "
+                   + "snapshot, without querying the database")
+    public ResponseEntity<IncidentSnapshotSummaryDTO> getSummary(
+            @Parameter(description = "Start date (ISO format)") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "End date, exclusive (ISO format)") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @Parameter(description = "Incident type (all types if omitted)") 
+            @RequestParam(required = false) String type,
+            @Parameter(description = "Boundary id (all boundaries if omitted)") 
+            @RequestParam(required = false) Integer boundaryId,
+            @Parameter(description = "Bounding box as minLng,minLat,maxLng,maxLat") 
+            @RequestParam(required = false) double[] bbox) {
+        if (bbox != null && bbox.length != 4) {
+            throw new IllegalArgumentException("bbox must be minLng,minLat,maxLng,maxLat");
+        }
+        return ResponseEntity.ok(snapshotService.summarize(startDate, endDate, type, boundaryId, bbox));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.analytics_service.dto;
+
+import java.time.LocalDateTime;
+
+public class AnomalyAlertDTO {
+    private long id;
+    private Integer boundaryId;
+    private String boundaryName;
+    private String incidentType;
+    private LocalDateTime bucketStart;
+    private int bucketMinutes;
+    private long observed;
+    private double expected;
+    private double score;
+    private LocalDateTime raisedAt;
+    
+    public AnomalyAlertDTO() {}
+    
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    
+    public Integer getBoundaryId() { return boundaryId; }
+    public void setBoundaryId(Integer boundaryId) { this.boundaryId = boundaryId; }
+    
+    public String getBoundaryName() { return boundaryName; }
+    public void setBoundaryName(String boundaryName) { this.boundaryName = boundaryName; }
+    
+    public String getIncidentType() { return incidentType; }
+    public void setIncidentType(String incidentType) { this.incidentType = incidentType; }
+    
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+    
+    public int getBucketMinutes() { return bucketMinutes; }
+    public void setBucketMinutes(int bucketMinutes) { this.bucketMinutes = bucketMinutes; }
+    
+    public long getObserved() { return observed; }
+    public void setObserved(long observed) { this.observed = observed; }
+    
+    public double getExpected() { return expected; }
+    public void setExpected(double expected) { this.expected = expected; }
+    
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+    
+    public LocalDateTime getRaisedAt() { return raisedAt; }
+    public void setRaisedAt(LocalDateTime raisedAt) { this.raisedAt = raisedAt; }
+}
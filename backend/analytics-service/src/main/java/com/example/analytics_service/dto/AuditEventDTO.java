@@ -0,0 +1,54 @@
+package com.example.analytics_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class AuditEventDTO {
+    private UUID chainId;
+    private long seq;
+    private LocalDateTime occurredAt;
+    private String service;
+    private Long actorId;
+    private String action;
+    private String resourceType;
+    private String resourceId;
+    private String route;
+    private int statusCode;
+    private String clientAddress;
+    
+    public AuditEventDTO() {}
+    
+    // Getters and Setters
+    public UUID getChainId() { return chainId; }
+    public void setChainId(UUID chainId) { this.chainId = chainId; }
+    
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+    
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+    
+    public String getService() { return service; }
+    public void setService(String service) { this.service = service; }
+    
+    public Long getActorId() { return actorId; }
+    public void setActorId(Long actorId) { this.actorId = actorId; }
+    
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+    
+    public String getResourceType() { return resourceType; }
+    public void setResourceType(String resourceType) { this.resourceType = resourceType; }
+    
+    public String getResourceId() { return resourceId; }
+    public void setResourceId(String resourceId) { this.resourceId = resourceId; }
+    
+    public String getRoute() { return route; }
+    public void setRoute(String route) { this.route = route; }
+    
+    public int getStatusCode() { return statusCode; }
+    public void setStatusCode(int statusCode) { this.statusCode = statusCode; }
+    
+    public String getClientAddress() { return clientAddress; }
+    public void setClientAddress(String clientAddress) { this.clientAddress = clientAddress; }
+}
@@ -0,0 +1,32 @@
+package com.example.analytics_service.dto;
+
+import java.util.UUID;
+
+public class AuditVerificationDTO {
+    private UUID chainId;
+    private long rowsChecked;
+    private boolean valid;
+    private Long firstInvalidSeq;
+    
+    public AuditVerificationDTO() {}
+    
+    public AuditVerificationDTO(UUID chainId, long rowsChecked, boolean valid, Long firstInvalidSeq) {
+        this.chainId = chainId;
+        this.rowsChecked = rowsChecked;
+        this.valid = valid;
+        this.firstInvalidSeq = firstInvalidSeq;
+    }
+    
+    // Getters and Setters
+    public UUID getChainId() { return chainId; }
+    public void setChainId(UUID chainId) { this.chainId = chainId; }
+    
+    public long getRowsChecked() { return rowsChecked; }
+    public void setRowsChecked(long rowsChecked) { this.rowsChecked = rowsChecked; }
+    
+    public boolean isValid() { return valid; }
+    public void setValid(boolean valid) { this.valid = valid; }
+    
+    public Long getFirstInvalidSeq() { return firstInvalidSeq; }
+    public void setFirstInvalidSeq(Long firstInvalidSeq) { this.firstInvalidSeq = firstInvalidSeq; }
+}
@@ -0,0 +1,44 @@
+package com.example.analytics_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ClusterDTO {
+    private int id;
+    private int size;
+    private LocationDTO centroid;
+    private List<LocationDTO> hull;
+    private LocalDateTime firstOccurredAt;
+    private LocalDateTime lastOccurredAt;
+    
+    public ClusterDTO() {}
+    
+    public ClusterDTO(int id, int size, LocationDTO centroid, List<LocationDTO> hull,
+                      LocalDateTime firstOccurredAt, LocalDateTime lastOccurredAt) {
+        this.id = id;
+        this.size = size;
+        this.centroid = centroid;
+        this.hull = hull;
+        this.firstOccurredAt = firstOccurredAt;
+        this.lastOccurredAt = lastOccurredAt;
+    }
+    
+    // Getters and Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+    
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    
+    public LocationDTO getCentroid() { return centroid; }
+    public void setCentroid(LocationDTO centroid) { this.centroid = centroid; }
+    
+    public List<LocationDTO> getHull() { return hull; }
+    public void setHull(List<LocationDTO> hull) { this.hull = hull; }
+    
+    public LocalDateTime getFirstOccurredAt() { return firstOccurredAt; }
+    public void setFirstOccurredAt(LocalDateTime firstOccurredAt) { this.firstOccurredAt = firstOccurredAt; }
+    
+    public LocalDateTime getLastOccurredAt() { return lastOccurredAt; }
+    public void setLastOccurredAt(LocalDateTime lastOccurredAt) { this.lastOccurredAt = lastOccurredAt; }
+}
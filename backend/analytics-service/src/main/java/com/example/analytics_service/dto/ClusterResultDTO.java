@@ -0,0 +1,39 @@
+package com.example.analytics_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ClusterResultDTO {
+    private int pointCount;
+    private int noiseCount;
+    private List<ClusterDTO> clusters;
+    private LocalDateTime computedAt;
+    private long durationMs;
+    
+    public ClusterResultDTO() {}
+    
+    public ClusterResultDTO(int pointCount, int noiseCount, List<ClusterDTO> clusters,
+                            LocalDateTime computedAt, long durationMs) {
+        this.pointCount = pointCount;
+        this.noiseCount = noiseCount;
+        this.clusters = clusters;
+        this.computedAt = computedAt;
+        this.durationMs = durationMs;
+    }
+    
+    // Getters and Setters
+    public int getPointCount() { return pointCount; }
+    public void setPointCount(int pointCount) { this.pointCount = pointCount; }
+    
+    public int getNoiseCount() { return noiseCount; }
+    public void setNoiseCount(int noiseCount) { this.noiseCount = noiseCount; }
+    
+    public List<ClusterDTO> getClusters() { return clusters; }
+    public void setClusters(List<ClusterDTO> clusters) { this.clusters = clusters; }
+    
+    public LocalDateTime getComputedAt() { return computedAt; }
+    public void setComputedAt(LocalDateTime computedAt) { this.computedAt = computedAt; }
+    
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+}
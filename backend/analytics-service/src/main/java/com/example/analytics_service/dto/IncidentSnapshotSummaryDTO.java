@@ -0,0 +1,38 @@
+package com.example.analytics_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class IncidentSnapshotSummaryDTO {
+    private LocalDateTime snapshotAt;
+    private long total;
+    private Map<String, Integer> byType;
+    private Map<String, Integer> byPriority;
+    private Map<String, Integer> byStatus;
+    private Map<String, Integer> byBoundary;
+    private long scanMicros;
+    
+    public IncidentSnapshotSummaryDTO() {}
+    
+    // Getters and Setters
+    public LocalDateTime getSnapshotAt() { return snapshotAt; }
+    public void setSnapshotAt(LocalDateTime snapshotAt) { this.snapshotAt = snapshotAt; }
+    
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+    
+    public Map<String, Integer> getByType() { return byType; }
+    public void setByType(Map<String, Integer> byType) { this.byType = byType; }
+    
+    public Map<String, Integer> getByPriority() { return byPriority; }
+    public void setByPriority(Map<String, Integer> byPriority) { this.byPriority = byPriority; }
+    
+    public Map<String, Integer> getByStatus() { return byStatus; }
+    public void setByStatus(Map<String, Integer> byStatus) { this.byStatus = byStatus; }
+    
+    public Map<String, Integer> getByBoundary() { return byBoundary; }
+    public void setByBoundary(Map<String, Integer> byBoundary) { this.byBoundary = byBoundary; }
+    
+    public long getScanMicros() { return scanMicros; }
+    public void setScanMicros(long scanMicros) { this.scanMicros = scanMicros; }
+}
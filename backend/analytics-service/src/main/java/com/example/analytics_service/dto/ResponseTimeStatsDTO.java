@@ -0,0 +1,43 @@
+package com.example.analytics_service.dto;
+
+public class ResponseTimeStatsDTO {
+    private Integer boundaryId;
+    private String boundaryName;
+    private String incidentType;
+    private String status;
+    private long count;
+    private double meanSeconds;
+    private double p50Seconds;
+    private double p90Seconds;
+    private double p99Seconds;
+    
+    public ResponseTimeStatsDTO() {}
+    
+    // Getters and Setters
+    public Integer getBoundaryId() { return boundaryId; }
+    public void setBoundaryId(Integer boundaryId) { this.boundaryId = boundaryId; }
+    
+    public String getBoundaryName() { return boundaryName; }
+    public void setBoundaryName(String boundaryName) { this.boundaryName = boundaryName; }
+    
+    public String getIncidentType() { return incidentType; }
+    public void setIncidentType(String incidentType) { this.incidentType = incidentType; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+    
+    public double getMeanSeconds() { return meanSeconds; }
+    public void setMeanSeconds(double meanSeconds) { this.meanSeconds = meanSeconds; }
+    
+    public double getP50Seconds() { return p50Seconds; }
+    public void setP50Seconds(double p50Seconds) { this.p50Seconds = p50Seconds; }
+    
+    public double getP90Seconds() { return p90Seconds; }
+    public void setP90Seconds(double p90Seconds) { this.p90Seconds = p90Seconds; }
+    
+    public double getP99Seconds() { return p99Seconds; }
+    public void setP99Seconds(double p99Seconds) { this.p99Seconds = p99Seconds; }
+}
@@ -0,0 +1,8 @@
+package com.example.analytics_service.exception;
+
+public class SnapshotUnavailableException extends RuntimeException {
+    
+    public SnapshotUnavailableException() {
+        super("Incident snapshot has not been built yet");
+    }
+}
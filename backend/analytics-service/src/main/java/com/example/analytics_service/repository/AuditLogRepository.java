@@ -0,0 +1,97 @@
+package com.example.analytics_service.repository;
+
+import com.example.analytics_service.dto.AuditEventDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads the audit_log table written by incident-service and user-service, and
+ * its audit_log_quarantine companion when verifying chains.
+ */
+@Repository
+public class AuditLogRepository {
+    
+    private static final int FETCH_SIZE = 10_000;
+    
+    private static final String COLUMNS = """
+        chain_id, seq, occurred_at, service, actor_id, action, resource_type,
+        resource_id, route, status_code, client_address""";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /** Events in {@code [from, to)}, newest first, optionally for one actor and/or resource. */
+    public List<AuditEventDTO> findEvents(LocalDateTime from, LocalDateTime to, Long actorId,
+                                          String resourceType, String resourceId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM audit_log WHERE occurred_at >= ? AND occurred_at < ?");
+        List<Object> args = new ArrayList<>(List.of(from, to));
+        if (actorId != null) {
+            sql.append(" AND actor_id = ?");
+            args.add(actorId);
+        }
+        if (resourceType != null) {
+            sql.append(" AND resource_type = ?");
+            args.add(resourceType);
+        }
+        if (resourceId != null) {
+            sql.append(" AND resource_id = ?");
+            args.add(resourceId);
+        }
+        sql.append(" ORDER BY occurred_at DESC, chain_id, seq DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> map(rs), args.toArray());
+    }
+    
+    /**
+     * Streams every row of a chain with its stored hashes, in sequence order.
+     * Rows the writers moved to audit_log_quarantine are still links of the
+     * chain, so both tables are read together.
+     */
+    @Transactional(readOnly = true)
+    public void streamChain(UUID chainId, ChainRowHandler handler) {
+        String sql = "SELECT " + COLUMNS + ", prev_hash, hash FROM audit_log WHERE chain_id = ?"
+            + " UNION ALL SELECT " + COLUMNS + ", prev_hash, hash FROM audit_log_quarantine WHERE chain_id = ?"
+            + " ORDER BY seq";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setObject(1, chainId);
+            ps.setObject(2, chainId);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            handler.onRow(map(rs), rs.getTimestamp("occurred_at").getTime(), rs.getBytes("prev_hash"), rs.getBytes("hash"));
+        });
+    }
+    
+    private static AuditEventDTO map(ResultSet rs) throws SQLException {
+        AuditEventDTO event = new AuditEventDTO();
+        event.setChainId(rs.getObject("chain_id", UUID.class));
+        event.setSeq(rs.getLong("seq"));
+        event.setOccurredAt(rs.getTimestamp("occurred_at").toLocalDateTime());
+        event.setService(rs.getString("service"));
+        event.setActorId(rs.getObject("actor_id") != null ? rs.getLong("actor_id") : null);
+        event.setAction(rs.getString("action"));
+        event.setResourceType(rs.getString("resource_type"));
+        event.setResourceId(rs.getString("resource_id"));
+        event.setRoute(rs.getString("route"));
+        event.setStatusCode(rs.getInt("status_code"));
+        event.setClientAddress(rs.getString("client_address"));
+        return event;
+    }
+    
+    @FunctionalInterface
+    public interface ChainRowHandler {
+        void onRow(AuditEventDTO event, long occurredAtMillis, byte[] prevHash, byte[] hash);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.analytics_service.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+
+/**
+ * Tails status transitions from incident_events in change-version order,
+ * tagging each with the incident's type, report time and boundary (police
+ * station jurisdiction).
+ *
+ * Only versions below the snapshot xmin are read: every transaction below it
+ * has finished, so a transition that commits late with a smaller version is
+ * never skipped. Only the first time an incident reaches a status is
+ * returned, and events of deleted incidents are left out.
+ */
+@Repository
+public class IncidentEventFeedRepository {
+    
+    private static final String TRANSITIONS_SQL = """
+        WITH horizon AS (SELECT txid_snapshot_xmin(txid_current_snapshot()) AS snapshot_xmin)
+        SELECT t.* FROM horizon h
+        JOIN LATERAL (
+            SELECT e.id, e.change_version, s.name AS to_status, e.occurred_at, i.created_at AS reported_at,
+                   t.name AS incident_type, b.id AS boundary_id, b.name AS boundary_name
+            FROM incident_events e
+            JOIN incident_statuses s ON s.id = e.to_status_id
+            JOIN incidents i ON i.id = e.incident_id
+            LEFT JOIN incident_types t ON t.id = i.incident_type_id
+            LEFT JOIN LATERAL (
+                SELECT id, name FROM boundaries WHERE ST_Contains(geom, i.location) LIMIT 1
+            ) b ON true
+            WHERE (e.change_version, e.id) > (?, ?) AND e.change_version < h.snapshot_xmin
+              AND e.from_status_id IS NOT NULL
+              AND NOT EXISTS (
+                  SELECT 1 FROM incident_events p
+                  WHERE p.incident_id = e.incident_id AND p.to_status_id = e.to_status_id AND p.id < e.id
+              )
+            ORDER BY e.change_version, e.id
+            LIMIT ?
+        ) t ON true
+        """;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /** Up to {@code limit} transitions after the ({@code afterVersion}, {@code afterId}) position. */
+    public void findTransitionsAfter(long afterVersion, long afterId, int limit, TransitionHandler handler) {
+        jdbcTemplate.query(TRANSITIONS_SQL, rs -> {
+            Timestamp reportedAt = rs.getTimestamp("reported_at");
+            Timestamp occurredAt = rs.getTimestamp("occurred_at");
+            handler.onTransition(rs.getLong("id"), rs.getLong("change_version"),
+                rs.getInt("boundary_id"), rs.getString("boundary_name"), rs.getString("incident_type"),
+                rs.getString("to_status"),
+                reportedAt != null ? reportedAt.getTime() : occurredAt.getTime(), occurredAt.getTime());
+        }, afterVersion, afterId, limit);
+    }
+    
+    @FunctionalInterface
+    public interface TransitionHandler {
+        /** {@code boundaryId} is 0 when the incident lies outside every boundary. */
+        void onTransition(long eventId, long changeVersion, int boundaryId, String boundaryName,
+                          String incidentType, String status, long reportedAtMillis, long occurredAtMillis);
+    }
+}
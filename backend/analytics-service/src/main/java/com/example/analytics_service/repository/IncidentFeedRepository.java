@@ -0,0 +1,122 @@
+package com.example.analytics_service.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Tails newly created incidents, tagging each with the boundary (police
+ * station jurisdiction) that contains it.
+ *
+ * The feed follows each incident's creation event in incident_events in
+ * (change_version, id) order. Only versions below the snapshot xmin are read:
+ * every transaction below it has finished, so an incident whose transaction
+ * commits late with a smaller version is never skipped, as it would be by
+ * tailing incident ids. Deleted incidents are left out.
+ */
+@Repository
+public class IncidentFeedRepository {
+    
+    private static final int FETCH_SIZE = 10_000;
+    
+    private static final String FEED_SQL = """
+        SELECT i.id, b.id AS boundary_id, b.name AS boundary_name, t.name AS incident_type, i.created_at,
+               e.change_version, e.id AS event_id
+        FROM incident_events e
+        JOIN incidents i ON i.id = e.incident_id
+        LEFT JOIN incident_types t ON t.id = i.incident_type_id
+        LEFT JOIN LATERAL (
+            SELECT id, name FROM boundaries WHERE ST_Contains(geom, i.location) LIMIT 1
+        ) b ON true
+        """;
+    
+    private static final String HORIZON_SQL = """
+        WITH horizon AS (SELECT txid_snapshot_xmin(txid_current_snapshot()) AS snapshot_xmin)
+        SELECT e.change_version, e.id FROM horizon h
+        JOIN LATERAL (
+            SELECT change_version, id FROM incident_events
+            WHERE change_version < h.snapshot_xmin
+            ORDER BY change_version DESC, id DESC
+            LIMIT 1
+        ) e ON true
+        """;
+    
+    private static final String CREATED_AFTER_SQL = """
+        WITH horizon AS (SELECT txid_snapshot_xmin(txid_current_snapshot()) AS snapshot_xmin)
+        SELECT f.* FROM horizon h
+        JOIN LATERAL (
+        """ + FEED_SQL + """
+            WHERE (e.change_version, e.id) > (?, ?) AND e.change_version < h.snapshot_xmin
+              AND e.from_status_id IS NULL
+            ORDER BY e.change_version, e.id
+            LIMIT ?
+        ) f ON true
+        """;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /**
+     * The newest feed position every open transaction is past. Tailing from
+     * it skips incidents created before the call but none created after.
+     */
+    public FeedPosition findFeedHorizon() {
+        List<FeedPosition> rows = jdbcTemplate.query(HORIZON_SQL,
+            (rs, rowNum) -> new FeedPosition(rs.getLong(1), rs.getLong(2)));
+        return rows.isEmpty() ? new FeedPosition(0, 0) : rows.get(0);
+    }
+    
+    /**
+     * Incidents created at or after {@code since} whose creation event is at
+     * or before {@code upTo}, in creation order.
+     */
+    @Transactional(readOnly = true)
+    public void streamCreatedSince(Instant since, FeedPosition upTo, IncidentCreatedHandler handler) {
+        String sql = FEED_SQL + """
+             WHERE i.created_at >= ? AND e.from_status_id IS NULL AND (e.change_version, e.id) <= (?, ?)
+            ORDER BY i.created_at, i.id
+            """;
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setTimestamp(1, Timestamp.from(since));
+            ps.setLong(2, upTo.changeVersion());
+            ps.setLong(3, upTo.eventId());
+            return ps;
+        }, rs -> {
+            emit(rs, handler);
+        });
+    }
+    
+    /** Up to {@code limit} incidents created after the ({@code afterVersion}, {@code afterEventId}) position. */
+    public void findCreatedAfter(long afterVersion, long afterEventId, int limit, IncidentCreatedHandler handler) {
+        jdbcTemplate.query(CREATED_AFTER_SQL, rs -> {
+            emit(rs, handler);
+        }, afterVersion, afterEventId, limit);
+    }
+    
+    private static void emit(ResultSet rs, IncidentCreatedHandler handler) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        handler.onIncident(rs.getLong("event_id"), rs.getLong("change_version"), rs.getLong("id"),
+            rs.getInt("boundary_id"), rs.getString("boundary_name"), rs.getString("incident_type"),
+            createdAt != null ? createdAt.getTime() : System.currentTimeMillis());
+    }
+    
+    /** A point in the feed: an incident_events (change_version, id). */
+    public record FeedPosition(long changeVersion, long eventId) {}
+    
+    @FunctionalInterface
+    public interface IncidentCreatedHandler {
+        /** {@code boundaryId} is 0 when the incident lies outside every boundary. */
+        void onIncident(long eventId, long changeVersion, long id, int boundaryId, String boundaryName,
+                        String incidentType, long createdAtMillis);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.analytics_service.repository;
+
+import com.example.analytics_service.clustering.IncidentPoints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Reads incident coordinates straight into primitive arrays through a
+ * server-side cursor, without materializing entities.
+ */
+@Repository
+public class IncidentPointRepository {
+    
+    private static final int FETCH_SIZE = 10_000;
+    
+    private static final String POINTS_SQL = """
+        SELECT id, ST_Y(location) AS lat, ST_X(location) AS lng, occurred_at
+        FROM incidents
+        WHERE occurred_at >= ? AND occurred_at < ?
+        """;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // The PostgreSQL driver only streams with a fetch size inside a transaction
+    @Transactional(readOnly = true)
+    public IncidentPoints findPoints(String incidentType, LocalDateTime start, LocalDateTime end) {
+        IncidentPoints points = new IncidentPoints();
+        String sql = incidentType != null ? POINTS_SQL + " AND incident_type_id = (SELECT id FROM incident_types WHERE name = ?)" : POINTS_SQL;
+        
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setTimestamp(1, Timestamp.valueOf(start));
+            ps.setTimestamp(2, Timestamp.valueOf(end));
+            if (incidentType != null) {
+                ps.setString(3, incidentType);
+            }
+            return ps;
+        }, rs -> {
+            Timestamp occurredAt = rs.getTimestamp(4);
+            points.add(rs.getLong(1), rs.getDouble(2), rs.getDouble(3),
+                occurredAt != null ? occurredAt.getTime() : 0L);
+        });
+        return points;
+    }
+}
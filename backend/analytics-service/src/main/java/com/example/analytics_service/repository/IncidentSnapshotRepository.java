@@ -0,0 +1,58 @@
+package com.example.analytics_service.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+
+/**
+ * Streams the whole incidents table in occurrence-time order for the
+ * columnar snapshot, tagging each incident with the boundary containing it.
+ */
+@Repository
+public class IncidentSnapshotRepository {
+    
+    private static final int FETCH_SIZE = 10_000;
+    
+    private static final String SNAPSHOT_SQL = """
+        SELECT i.id, EXTRACT(EPOCH FROM COALESCE(i.occurred_at, i.created_at))::bigint AS epoch_second,
+               ST_Y(i.location) AS latitude, ST_X(i.location) AS longitude,
+               t.name AS incident_type, p.name AS priority, s.name AS status,
+               b.id AS boundary_id, b.name AS boundary_name
+        FROM incidents i
+        LEFT JOIN incident_types t ON t.id = i.incident_type_id
+        JOIN incident_priorities p ON p.id = i.priority_id
+        JOIN incident_statuses s ON s.id = i.status_id
+        LEFT JOIN LATERAL (
+            SELECT id, name FROM boundaries WHERE ST_Contains(geom, i.location) LIMIT 1
+        ) b ON true
+        WHERE COALESCE(i.occurred_at, i.created_at) IS NOT NULL
+        ORDER BY epoch_second, i.id
+        """;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Transactional(readOnly = true)
+    public void streamAll(SnapshotRowHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SNAPSHOT_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            handler.onRow(rs.getLong("id"), rs.getLong("epoch_second"), rs.getDouble("latitude"),
+                rs.getDouble("longitude"), rs.getString("incident_type"), rs.getString("priority"),
+                rs.getString("status"), rs.getInt("boundary_id"), rs.getString("boundary_name"));
+        });
+    }
+    
+    @FunctionalInterface
+    public interface SnapshotRowHandler {
+        /** {@code boundaryId} is 0 when the incident lies outside every boundary. */
+        void onRow(long id, long epochSecond, double latitude, double longitude, String incidentType,
+                   String priority, String status, int boundaryId, String boundaryName);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.analytics_service.responsetime;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of durations in logarithmic buckets, so any quantile is
+ * reported within a fixed relative error and recording is O(1) in the
+ * number of values seen.
+ *
+ * Bucket k holds durations in (gamma^(k-1), gamma^k] seconds with
+ * gamma = (1 + a) / (1 - a); reporting 2 gamma^k / (gamma + 1) for it is
+ * within a relative error a of every value in the bucket. Durations under
+ * one second share bucket 0. Not thread-safe.
+ */
+public final class DurationHistogram {
+    
+    private final double gamma;
+    private final double logGamma;
+    
+    private long[] counts = new long[64];
+    private long count;
+    private double sumSeconds;
+    
+    public DurationHistogram(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("relativeAccuracy must be between 0 and 1");
+        }
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+    
+    public void record(double seconds) {
+        int bucket = seconds <= 1 ? 0 : (int) Math.ceil(Math.log(seconds) / logGamma);
+        if (bucket >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(bucket + 1, counts.length * 2));
+        }
+        counts[bucket]++;
+        count++;
+        sumSeconds += Math.max(seconds, 0);
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public double getMeanSeconds() {
+        return count > 0 ? sumSeconds / count : 0;
+    }
+    
+    /** Estimated {@code q}-quantile (0 to 1) in seconds, or 0 when empty. */
+    public double quantile(double q) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen > rank) {
+                return bucket == 0 ? 0.5 : 2 * Math.pow(gamma, bucket) / (gamma + 1);
+            }
+        }
+        throw new IllegalStateException("Histogram counts do not add up to " + count);
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.analytics_service.service;
+
+import com.example.analytics_service.anomaly.RateWindow;
+import com.example.analytics_service.dto.AnomalyAlertDTO;
+import com.example.analytics_service.repository.IncidentFeedRepository;
+import com.example.analytics_service.repository.IncidentFeedRepository.FeedPosition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps per-boundary, per-type sliding-window incident counters and raises an
+ * alert when the current bucket's count is an outlier against its expected
+ * rate, using the Poisson z-score (observed - expected) / sqrt(expected).
+ *
+ * New incidents are tailed by their creation events in commit order (see
+ * {@link IncidentFeedRepository}), so every creation path (sync, async
+ * intake, replayed retries) is counted exactly once, even when its
+ * transaction commits late. On the first poll the window is backfilled from
+ * history without raising alerts.
+ */
+@Service
+public class AnomalyDetectionService {
+    
+    private static final Logger log = LoggerFactory.getLogger(AnomalyDetectionService.class);
+    
+    private static final long MINUTE_MILLIS = 60_000L;
+    
+    @Autowired
+    private IncidentFeedRepository feedRepository;
+    
+    @Value("${analytics.anomaly.bucket-minutes:15}")
+    private int bucketMinutes;
+    
+    @Value("${analytics.anomaly.window-days:28}")
+    private int windowDays;
+    
+    @Value("${analytics.anomaly.ewma-alpha:0.05}")
+    private double alpha;
+    
+    @Value("${analytics.anomaly.z-threshold:4.0}")
+    private double zThreshold;
+    
+    @Value("${analytics.anomaly.min-count:3}")
+    private long minCount;
+    
+    // Floor on the expected rate so a single incident of a rare type is not a spike
+    @Value("${analytics.anomaly.min-expected:0.5}")
+    private double minExpected;
+    
+    @Value("${analytics.anomaly.min-history-hours:24}")
+    private int minHistoryHours;
+    
+    @Value("${analytics.anomaly.poll-batch-size:5000}")
+    private int pollBatchSize;
+    
+    @Value("${analytics.anomaly.max-alerts:1000}")
+    private int maxAlerts;
+    
+    // Only touched by the polling thread
+    private final Map<WindowKey, RateWindow> windows = new HashMap<>();
+    private boolean backfilled;
+    private long lastChangeVersion;
+    private long lastEventId;
+    
+    private final Deque<AnomalyAlertDTO> alerts = new ArrayDeque<>();
+    private long nextAlertId = 1;
+    
+    @Scheduled(fixedDelayString = "${analytics.anomaly.poll-interval-ms:5000}")
+    public void poll() {
+        try {
+            if (!backfilled) {
+                backfill();
+            }
+            int[] read = {0};
+            do {
+                read[0] = 0;
+                feedRepository.findCreatedAfter(lastChangeVersion, lastEventId, pollBatchSize,
+                        (eventId, changeVersion, id, boundaryId, boundaryName, type, createdAt) -> {
+                    record(boundaryId, boundaryName, type, createdAt, true);
+                    lastChangeVersion = changeVersion;
+                    lastEventId = eventId;
+                    read[0]++;
+                });
+            } while (read[0] == pollBatchSize);
+        } catch (DataAccessException e) {
+            log.warn("Could not read new incidents for anomaly detection: {}", e.getMessage());
+        }
+    }
+    
+    private void backfill() {
+        long start = System.currentTimeMillis();
+        FeedPosition horizon = feedRepository.findFeedHorizon();
+        Instant since = Instant.ofEpochMilli(start).minusSeconds(windowDays * 86_400L);
+        int[] count = {0};
+        feedRepository.streamCreatedSince(since, horizon,
+                (eventId, changeVersion, id, boundaryId, boundaryName, type, createdAt) -> {
+            record(boundaryId, boundaryName, type, createdAt, false);
+            count[0]++;
+        });
+        lastChangeVersion = horizon.changeVersion();
+        lastEventId = horizon.eventId();
+        backfilled = true;
+        log.info("Anomaly detection backfilled {} incidents into {} windows in {} ms",
+                count[0], windows.size(), System.currentTimeMillis() - start);
+    }
+    
+    private void record(int boundaryId, String boundaryName, String incidentType, long createdAt, boolean detect) {
+        long bucketMillis = bucketMinutes * MINUTE_MILLIS;
+        long bucket = createdAt / bucketMillis;
+        RateWindow window = windows.computeIfAbsent(new WindowKey(boundaryId, incidentType), key -> {
+            int bucketsPerDay = (int) (1440 / bucketMinutes);
+            return new RateWindow(bucketsPerDay * windowDays, bucketsPerDay, alpha);
+        });
+        long observed = window.record(bucket);
+        
+        if (!detect || observed < minCount
+                || window.getClosedBuckets() * bucketMinutes < minHistoryHours * 60L) {
+            return;
+        }
+        double expected = window.expected(bucket);
+        double score = (observed - expected) / Math.sqrt(Math.max(expected, minExpected));
+        if (score >= zThreshold && window.markAlerted(bucket)) {
+            raise(boundaryId, boundaryName, incidentType, bucket * bucketMillis, observed, expected, score);
+        }
+    }
+    
+    private void raise(int boundaryId, String boundaryName, String incidentType, long bucketStart,
+                       long observed, double expected, double score) {
+        AnomalyAlertDTO alert = new AnomalyAlertDTO();
+        alert.setBoundaryId(boundaryId != 0 ? boundaryId : null);
+        alert.setBoundaryName(boundaryName);
+        alert.setIncidentType(incidentType);
+        alert.setBucketStart(LocalDateTime.ofInstant(Instant.ofEpochMilli(bucketStart), ZoneId.systemDefault()));
+        alert.setBucketMinutes(bucketMinutes);
+        alert.setObserved(observed);
+        alert.setExpected(expected);
+        alert.setScore(score);
+        alert.setRaisedAt(LocalDateTime.now());
+        
+        synchronized (alerts) {
+            alert.setId(nextAlertId++);
+            alerts.addFirst(alert);
+            if (alerts.size() > maxAlerts) {
+                alerts.removeLast();
+            }
+        }
+        log.info("Incident rate spike in boundary {} for type {}: {} observed, {} expected, z={}",
+                boundaryName, incidentType, observed, String.format("%.2f", expected), String.format("%.1f", score));
+    }
+    
+    /**
+     * Alerts newer than {@code afterId}, newest first.
+     */
+    public List<AnomalyAlertDTO> getAlerts(long afterId, int limit) {
+        List<AnomalyAlertDTO> result = new ArrayList<>();
+        synchronized (alerts) {
+            Iterator<AnomalyAlertDTO> it = alerts.iterator();
+            while (it.hasNext() && result.size() < limit) {
+                AnomalyAlertDTO alert = it.next();
+                if (alert.getId() <= afterId) {
+                    break;
+                }
+                result.add(alert);
+            }
+        }
+        return result;
+    }
+    
+    private record WindowKey(int boundaryId, String incidentType) {}
+}
@@ -0,0 +1,110 @@
+package com.example.analytics_service.service;
+
+import com.example.analytics_service.dto.AuditEventDTO;
+import com.example.analytics_service.dto.AuditVerificationDTO;
+import com.example.analytics_service.repository.AuditLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Queries the audit trail and checks its hash chains. The row encoding must
+ * match the AuditWriter of the services that write audit_log.
+ */
+@Service
+public class AuditService {
+    
+    private static final Logger log = LoggerFactory.getLogger(AuditService.class);
+    
+    private static final int MAX_LIMIT = 1000;
+    
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+    
+    public List<AuditEventDTO> findEvents(LocalDateTime from, LocalDateTime to, Long actorId,
+                                          String resourceType, String resourceId, int limit) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return auditLogRepository.findEvents(from, to, actorId, resourceType, resourceId, limit);
+    }
+    
+    /**
+     * Recomputes every hash of a chain from its first row. The chain is valid
+     * if sequences have no gaps and each row's hashes match the recomputed ones;
+     * a quarantined row fills its sequence like any other.
+     */
+    public AuditVerificationDTO verifyChain(UUID chainId) {
+        MessageDigest digest = sha256();
+        byte[][] expectedPrev = {new byte[32]};
+        long[] checked = {0};
+        Long[] firstInvalid = {null};
+        auditLogRepository.streamChain(chainId, (event, occurredAt, prevHash, hash) -> {
+            if (firstInvalid[0] != null) {
+                return;
+            }
+            if (event.getSeq() != checked[0] || !Arrays.equals(prevHash, expectedPrev[0])
+                    || !Arrays.equals(hash, hash(digest, expectedPrev[0], event, occurredAt))) {
+                firstInvalid[0] = checked[0];
+                return;
+            }
+            expectedPrev[0] = hash;
+            checked[0]++;
+        });
+        if (firstInvalid[0] != null) {
+            log.warn("Audit chain {} is broken at seq {}", chainId, firstInvalid[0]);
+        }
+        return new AuditVerificationDTO(chainId, checked[0], firstInvalid[0] == null, firstInvalid[0]);
+    }
+    
+    private static byte[] hash(MessageDigest digest, byte[] prev, AuditEventDTO event, long occurredAt) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(event.getChainId().toString());
+            out.writeLong(event.getSeq());
+            out.writeLong(occurredAt);
+            out.writeUTF(event.getService());
+            out.writeLong(event.getActorId() != null ? event.getActorId() : -1);
+            out.writeUTF(event.getAction());
+            out.writeUTF(event.getResourceType());
+            writeNullable(out, event.getResourceId());
+            out.writeUTF(event.getRoute());
+            out.writeInt(event.getStatusCode());
+            writeNullable(out, event.getClientAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        digest.update(prev);
+        return digest.digest(bytes.toByteArray());
+    }
+    
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.analytics_service.service;
+
+import com.example.analytics_service.clustering.IncidentPoints;
+import com.example.analytics_service.clustering.ParallelDbscan;
+import com.example.analytics_service.dto.ClusterDTO;
+import com.example.analytics_service.dto.ClusterResultDTO;
+import com.example.analytics_service.dto.LocationDTO;
+import com.example.analytics_service.repository.IncidentPointRepository;
+import org.locationtech.jts.algorithm.ConvexHull;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ClusterService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ClusterService.class);
+    
+    @Autowired
+    private IncidentPointRepository pointRepository;
+    
+    @Value("${analytics.clusters.cache-ttl-seconds:300}")
+    private long cacheTtlSeconds;
+    
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    
+    private final Map<ClusterQuery, CachedResult> cache;
+    
+    public ClusterService(@Value("${analytics.clusters.cache-max-entries:100}") int maxEntries) {
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ClusterQuery, CachedResult> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    
+    public ClusterResultDTO findClusters(String incidentType, LocalDateTime start, LocalDateTime end,
+                                         double epsMeters, long epsMinutes, int minPoints) {
+        if (epsMeters <= 0 || minPoints < 1 || epsMinutes < 0) {
+            throw new IllegalArgumentException("epsMeters must be positive, minPoints at least 1 and epsMinutes not negative");
+        }
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("startDate must be before endDate");
+        }
+        
+        ClusterQuery query = new ClusterQuery(incidentType, start, end, epsMeters, epsMinutes, minPoints);
+        synchronized (cache) {
+            CachedResult cached = cache.get(query);
+            if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+                log.debug("Cluster cache hit for {}", query);
+                return cached.result();
+            }
+        }
+        
+        ClusterResultDTO result = computeClusters(query);
+        synchronized (cache) {
+            cache.put(query, new CachedResult(result, System.currentTimeMillis() + cacheTtlSeconds * 1000));
+        }
+        return result;
+    }
+    
+    private ClusterResultDTO computeClusters(ClusterQuery query) {
+        long started = System.nanoTime();
+        IncidentPoints points = pointRepository.findPoints(query.incidentType(), query.start(), query.end());
+        long loaded = System.nanoTime();
+        
+        ParallelDbscan dbscan = new ParallelDbscan(points, query.epsMeters(), query.epsMinutes() * 60_000, query.minPoints());
+        int[] labels = dbscan.run();
+        List<ClusterDTO> clusters = summarize(points, labels, dbscan.getClusterCount());
+        
+        int noise = 0;
+        for (int label : labels) {
+            if (label == ParallelDbscan.NOISE) {
+                noise++;
+            }
+        }
+        long finished = System.nanoTime();
+        log.info("Clustered {} incidents into {} clusters ({} noise): load {} ms, cluster {} ms",
+            points.size(), clusters.size(), noise, (loaded - started) / 1_000_000, (finished - loaded) / 1_000_000);
+        
+        return new ClusterResultDTO(points.size(), noise, clusters, LocalDateTime.now(), (finished - started) / 1_000_000);
+    }
+    
+    private List<ClusterDTO> summarize(IncidentPoints points, int[] labels, int clusterCount) {
+        // Group point indexes by cluster with a counting sort
+        int[] start = new int[clusterCount + 1];
+        for (int label : labels) {
+            if (label != ParallelDbscan.NOISE) {
+                start[label + 1]++;
+            }
+        }
+        for (int c = 0; c < clusterCount; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] members = new int[start[clusterCount]];
+        int[] fill = start.clone();
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i] != ParallelDbscan.NOISE) {
+                members[fill[labels[i]]++] = i;
+            }
+        }
+        
+        List<ClusterDTO> clusters = new ArrayList<>(clusterCount);
+        for (int c = 0; c < clusterCount; c++) {
+            int size = start[c + 1] - start[c];
+            Coordinate[] coordinates = new Coordinate[size];
+            double sumLat = 0, sumLng = 0;
+            long first = Long.MAX_VALUE, last = Long.MIN_VALUE;
+            for (int k = 0; k < size; k++) {
+                int i = members[start[c] + k];
+                coordinates[k] = new Coordinate(points.longitude(i), points.latitude(i));
+                sumLat += points.latitude(i);
+                sumLng += points.longitude(i);
+                first = Math.min(first, points.time(i));
+                last = Math.max(last, points.time(i));
+            }
+            
+            List<LocationDTO> hull = new ArrayList<>();
+            for (Coordinate coordinate : new ConvexHull(coordinates, geometryFactory).getConvexHull().getCoordinates()) {
+                hull.add(new LocationDTO(coordinate.getY(), coordinate.getX()));
+            }
+            clusters.add(new ClusterDTO(c, size, new LocationDTO(sumLat / size, sumLng / size), hull,
+                new Timestamp(first).toLocalDateTime(), new Timestamp(last).toLocalDateTime()));
+        }
+        clusters.sort(Comparator.comparingInt(ClusterDTO::getSize).reversed());
+        return clusters;
+    }
+    
+    private record ClusterQuery(String incidentType, LocalDateTime start, LocalDateTime end,
+                                double epsMeters, long epsMinutes, int minPoints) {}
+    
+    private record CachedResult(ClusterResultDTO result, long expiresAt) {}
+}
@@ -0,0 +1,137 @@
+package com.example.analytics_service.service;
+
+import com.example.analytics_service.dto.IncidentSnapshotSummaryDTO;
+import com.example.analytics_service.exception.SnapshotUnavailableException;
+import com.example.analytics_service.repository.IncidentSnapshotRepository;
+import com.example.analytics_service.snapshot.IncidentSnapshot;
+import com.example.analytics_service.snapshot.SnapshotWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a columnar snapshot of the incidents table on local disk, rebuilt on
+ * a schedule, and answers aggregations from its memory-mapped columns so
+ * they never reach PostgreSQL. Results are as of the last snapshot.
+ */
+@Service
+public class IncidentSnapshotService {
+    
+    private static final Logger log = LoggerFactory.getLogger(IncidentSnapshotService.class);
+    
+    private static final String FILE_NAME = "incidents.snapshot";
+    private static final String UNKNOWN = "UNKNOWN";
+    
+    @Autowired
+    private IncidentSnapshotRepository snapshotRepository;
+    
+    @Value("${analytics.snapshot.dir}")
+    private Path dir;
+    
+    private volatile IncidentSnapshot snapshot;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Path file = dir.resolve(FILE_NAME);
+        if (Files.exists(file)) {
+            try {
+                snapshot = IncidentSnapshot.open(file);
+                log.info("Loaded incident snapshot with {} incident(s) from {}", snapshot.getRowCount(), file);
+                return;
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Could not read incident snapshot {}, rebuilding: {}", file, e.getMessage());
+            }
+        }
+        rebuild();
+    }
+    
+    @Scheduled(cron = "${analytics.snapshot.cron:0 30 3 * * *}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Path file = dir.resolve(FILE_NAME);
+        try (SnapshotWriter writer = new SnapshotWriter(dir)) {
+            snapshotRepository.streamAll((id, epochSecond, latitude, longitude, type, priority, status, boundaryId, boundaryName) -> {
+                try {
+                    writer.add(id, epochSecond, latitude, longitude, type, priority, status, boundaryId, boundaryName);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.finish(file, start);
+            snapshot = IncidentSnapshot.open(file);
+            log.info("Built incident snapshot with {} incident(s) in {} ms",
+                writer.getRowCount(), System.currentTimeMillis() - start);
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Could not read incidents for the snapshot: {}", e.getMessage());
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Could not write incident snapshot to {}", file, e);
+        }
+    }
+    
+    /**
+     * Incident counts by type, priority, status and boundary over
+     * {@code [startDate, endDate)}, optionally for one type, one boundary
+     * and/or a bounding box (minLng, minLat, maxLng, maxLat).
+     */
+    public IncidentSnapshotSummaryDTO summarize(LocalDateTime startDate, LocalDateTime endDate, String type,
+                                                Integer boundaryId, double[] bbox) {
+        IncidentSnapshot current = snapshot;
+        if (current == null) {
+            throw new SnapshotUnavailableException();
+        }
+        if (!startDate.isBefore(endDate)) {
+            throw new IllegalArgumentException("startDate must be before endDate");
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        int typeCode = type != null ? current.typeCode(type) : -1;
+        int boundaryCode = boundaryId != null ? current.boundaryCode(boundaryId) : -1;
+        
+        long start = System.nanoTime();
+        IncidentSnapshot.Counts counts = (type != null && typeCode < 0) || (boundaryId != null && boundaryCode < 0)
+            ? null
+            : current.count(startDate.atZone(zone).toEpochSecond(), endDate.atZone(zone).toEpochSecond(),
+                typeCode, boundaryCode, bbox);
+        long scanMicros = (System.nanoTime() - start) / 1_000;
+        
+        IncidentSnapshotSummaryDTO summary = new IncidentSnapshotSummaryDTO();
+        summary.setSnapshotAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(current.getSnapshotAtMillis()), zone));
+        summary.setTotal(counts != null ? counts.total : 0);
+        summary.setByType(toMap(current.getTypeValues(), counts != null ? counts.byType : null));
+        summary.setByPriority(toMap(current.getPriorityValues(), counts != null ? counts.byPriority : null));
+        summary.setByStatus(toMap(current.getStatusValues(), counts != null ? counts.byStatus : null));
+        summary.setByBoundary(toMap(current.getBoundaryNames(), counts != null ? counts.byBoundary : null));
+        summary.setScanMicros(scanMicros);
+        return summary;
+    }
+    
+    private static Map<String, Integer> toMap(List<String> values, int[] counts) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        if (counts == null) {
+            return result;
+        }
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.merge(values.get(code) != null ? values.get(code) : UNKNOWN, counts[code], Integer::sum);
+            }
+        }
+        return result;
+    }
+}
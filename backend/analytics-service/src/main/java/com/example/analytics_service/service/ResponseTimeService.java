@@ -0,0 +1,119 @@
+package com.example.analytics_service.service;
+
+import com.example.analytics_service.dto.ResponseTimeStatsDTO;
+import com.example.analytics_service.repository.IncidentEventFeedRepository;
+import com.example.analytics_service.responsetime.DurationHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Time from report to each status (dispatched, in progress, resolved, ...)
+ * per boundary and incident type, kept as histograms that are updated as new
+ * transitions are tailed from incident_events, so percentiles are read
+ * without going back over the history. The first poll reads the whole
+ * history once.
+ */
+@Service
+public class ResponseTimeService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ResponseTimeService.class);
+    
+    @Autowired
+    private IncidentEventFeedRepository eventFeedRepository;
+    
+    @Value("${analytics.response-times.relative-accuracy:0.01}")
+    private double relativeAccuracy;
+    
+    @Value("${analytics.response-times.poll-batch-size:5000}")
+    private int pollBatchSize;
+    
+    // Written by the polling thread, read by requests; guarded by itself
+    private final Map<StatsKey, DurationHistogram> histograms = new HashMap<>();
+    private final Map<Integer, String> boundaryNames = new HashMap<>();
+    
+    // Only touched by the polling thread
+    private long lastChangeVersion;
+    private long lastEventId;
+    
+    @Scheduled(fixedDelayString = "${analytics.response-times.poll-interval-ms:10000}")
+    public void poll() {
+        try {
+            long start = System.currentTimeMillis();
+            int[] read = {0};
+            int total = 0;
+            do {
+                read[0] = 0;
+                eventFeedRepository.findTransitionsAfter(lastChangeVersion, lastEventId, pollBatchSize,
+                        (eventId, changeVersion, boundaryId, boundaryName, type, status, reportedAt, occurredAt) -> {
+                    record(boundaryId, boundaryName, type, status, Math.max(occurredAt - reportedAt, 0) / 1000.0);
+                    lastChangeVersion = changeVersion;
+                    lastEventId = eventId;
+                    read[0]++;
+                });
+                total += read[0];
+            } while (read[0] == pollBatchSize);
+            if (total > 0) {
+                log.debug("Recorded {} status transitions in {} ms", total, System.currentTimeMillis() - start);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not read status transitions for response times: {}", e.getMessage());
+        }
+    }
+    
+    private void record(int boundaryId, String boundaryName, String incidentType, String status, double seconds) {
+        synchronized (histograms) {
+            if (boundaryId != 0) {
+                boundaryNames.put(boundaryId, boundaryName);
+            }
+            histograms.computeIfAbsent(new StatsKey(boundaryId, incidentType, status),
+                key -> new DurationHistogram(relativeAccuracy)).record(seconds);
+        }
+    }
+    
+    /**
+     * Time-to-status percentiles, optionally for one boundary and/or incident
+     * type. Incidents outside every boundary are reported with a null boundary.
+     */
+    public List<ResponseTimeStatsDTO> getStats(Integer boundaryId, String incidentType) {
+        List<ResponseTimeStatsDTO> result = new ArrayList<>();
+        synchronized (histograms) {
+            for (Map.Entry<StatsKey, DurationHistogram> entry : histograms.entrySet()) {
+                StatsKey key = entry.getKey();
+                if ((boundaryId != null && boundaryId != key.boundaryId())
+                        || (incidentType != null && !Objects.equals(incidentType, key.incidentType()))) {
+                    continue;
+                }
+                DurationHistogram histogram = entry.getValue();
+                ResponseTimeStatsDTO stats = new ResponseTimeStatsDTO();
+                stats.setBoundaryId(key.boundaryId() != 0 ? key.boundaryId() : null);
+                stats.setBoundaryName(boundaryNames.get(key.boundaryId()));
+                stats.setIncidentType(key.incidentType());
+                stats.setStatus(key.status());
+                stats.setCount(histogram.getCount());
+                stats.setMeanSeconds(histogram.getMeanSeconds());
+                stats.setP50Seconds(histogram.quantile(0.5));
+                stats.setP90Seconds(histogram.quantile(0.9));
+                stats.setP99Seconds(histogram.quantile(0.99));
+                result.add(stats);
+            }
+        }
+        result.sort(Comparator.comparing(ResponseTimeStatsDTO::getBoundaryName, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ResponseTimeStatsDTO::getIncidentType, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ResponseTimeStatsDTO::getStatus, Comparator.nullsLast(Comparator.naturalOrder())));
+        return result;
+    }
+    
+    private record StatsKey(int boundaryId, String incidentType, String status) {}
+}
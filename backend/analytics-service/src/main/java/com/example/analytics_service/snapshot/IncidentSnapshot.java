@@ -0,0 +1,247 @@
+package com.example.analytics_service.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only, memory-mapped view of a snapshot file (see {@link SnapshotFormat}).
+ * Scans are plain counted loops over primitive column views, with filters
+ * reduced to integer compares against dictionary codes and fixed-point
+ * coordinates, so nothing is decoded or allocated per row. Safe for
+ * concurrent readers. A single mapping limits the file to 2 GB, about 90
+ * million incidents.
+ */
+public final class IncidentSnapshot {
+    
+    private final int rowCount;
+    private final int blockSize;
+    private final long snapshotAtMillis;
+    
+    private final IntBuffer ids;
+    private final LongBuffer timeBases;
+    private final IntBuffer timeDeltas;
+    private final IntBuffer latitudes;
+    private final IntBuffer longitudes;
+    private final ShortBuffer types;
+    private final ShortBuffer boundaries;
+    private final ByteBuffer priorities;
+    private final ByteBuffer statuses;
+    
+    private final List<String> typeValues;
+    private final List<String> priorityValues;
+    private final List<String> statusValues;
+    private final int[] boundaryIds;
+    private final List<String> boundaryNames;
+    
+    private IncidentSnapshot(MappedByteBuffer file) {
+        ByteBuffer header = file.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt() != SnapshotFormat.MAGIC || header.getInt() != SnapshotFormat.VERSION) {
+            throw new IllegalArgumentException("Not an incident snapshot of version " + SnapshotFormat.VERSION);
+        }
+        this.rowCount = header.getInt();
+        this.blockSize = header.getInt();
+        this.snapshotAtMillis = header.getLong();
+        long[] offsets = new long[SnapshotFormat.SECTION_COUNT];
+        for (int section = 0; section < offsets.length; section++) {
+            offsets[section] = header.getLong();
+        }
+        
+        this.typeValues = readStrings(header);
+        this.priorityValues = readStrings(header);
+        this.statusValues = readStrings(header);
+        int boundaryCount = header.getInt();
+        this.boundaryIds = new int[boundaryCount];
+        List<String> names = new ArrayList<>(boundaryCount);
+        for (int code = 0; code < boundaryCount; code++) {
+            boundaryIds[code] = header.getInt();
+            names.add(readString(header));
+        }
+        this.boundaryNames = Collections.unmodifiableList(names);
+        
+        int blocks = (rowCount + blockSize - 1) / blockSize;
+        this.ids = section(file, offsets[SnapshotFormat.ID], rowCount * 4L).asIntBuffer();
+        this.timeBases = section(file, offsets[SnapshotFormat.TIME_BASE], blocks * 8L).asLongBuffer();
+        this.timeDeltas = section(file, offsets[SnapshotFormat.TIME_DELTA], rowCount * 4L).asIntBuffer();
+        this.latitudes = section(file, offsets[SnapshotFormat.LATITUDE], rowCount * 4L).asIntBuffer();
+        this.longitudes = section(file, offsets[SnapshotFormat.LONGITUDE], rowCount * 4L).asIntBuffer();
+        this.types = section(file, offsets[SnapshotFormat.TYPE], rowCount * 2L).asShortBuffer();
+        this.boundaries = section(file, offsets[SnapshotFormat.BOUNDARY], rowCount * 2L).asShortBuffer();
+        this.priorities = section(file, offsets[SnapshotFormat.PRIORITY], rowCount);
+        this.statuses = section(file, offsets[SnapshotFormat.STATUS], rowCount);
+    }
+    
+    public static IncidentSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new IncidentSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+    
+    private static ByteBuffer section(ByteBuffer file, long offset, long length) {
+        return file.slice(Math.toIntExact(offset), Math.toIntExact(length)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    
+    private static List<String> readStrings(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(buffer));
+        }
+        return Collections.unmodifiableList(values);
+    }
+    
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    public int getRowCount() { return rowCount; }
+    public long getSnapshotAtMillis() { return snapshotAtMillis; }
+    public List<String> getTypeValues() { return typeValues; }
+    public List<String> getPriorityValues() { return priorityValues; }
+    public List<String> getStatusValues() { return statusValues; }
+    public List<String> getBoundaryNames() { return boundaryNames; }
+    
+    public int getBoundaryId(int code) {
+        return boundaryIds[code];
+    }
+    
+    public int getId(int row) {
+        return ids.get(row);
+    }
+    
+    public long getEpochSecond(int row) {
+        return timeBases.get(row / blockSize) + timeDeltas.get(row);
+    }
+    
+    /** First row whose time is at or after {@code epochSecond}; rowCount if none. */
+    public int lowerBound(long epochSecond) {
+        // Last block whose base is below the target; earlier blocks end before it
+        int lo = 0;
+        int hi = timeBases.limit();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timeBases.get(mid) < epochSecond) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int block = Math.max(lo - 1, 0);
+        int from = block * blockSize;
+        int to = Math.min(from + blockSize, rowCount);
+        long base = timeBases.limit() > 0 ? timeBases.get(block) : 0;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (base + timeDeltas.get(mid) < epochSecond) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+    
+    /** Dictionary code of a type, or -1 if no incident in the snapshot has it. */
+    public int typeCode(String type) {
+        return typeValues.indexOf(type);
+    }
+    
+    /** Dictionary code of a boundary id, or -1 if no incident in the snapshot lies in it. */
+    public int boundaryCode(int boundaryId) {
+        for (int code = 1; code < boundaryIds.length; code++) {
+            if (boundaryIds[code] == boundaryId) {
+                return code;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Counts incidents in {@code [fromSecond, toSecond)} by type, priority,
+     * status and boundary code. {@code typeCode} and {@code boundaryCode}
+     * filter when not negative; {@code bbox} (minLng, minLat, maxLng, maxLat)
+     * when not null.
+     */
+    public Counts count(long fromSecond, long toSecond, int typeCode, int boundaryCode, double[] bbox) {
+        int from = lowerBound(fromSecond);
+        int to = lowerBound(toSecond);
+        Counts counts = new Counts(typeValues.size(), priorityValues.size(), statusValues.size(), boundaryIds.length);
+        if (typeCode < 0 && boundaryCode < 0 && bbox == null) {
+            countAll(from, to, counts);
+        } else {
+            countFiltered(from, to, typeCode, boundaryCode, bbox, counts);
+        }
+        return counts;
+    }
+    
+    private void countAll(int from, int to, Counts counts) {
+        int[] byType = counts.byType;
+        int[] byPriority = counts.byPriority;
+        int[] byStatus = counts.byStatus;
+        int[] byBoundary = counts.byBoundary;
+        for (int row = from; row < to; row++) {
+            byType[types.get(row) & 0xFFFF]++;
+            byPriority[priorities.get(row) & 0xFF]++;
+            byStatus[statuses.get(row) & 0xFF]++;
+            byBoundary[boundaries.get(row) & 0xFFFF]++;
+        }
+        counts.total = to - from;
+    }
+    
+    private void countFiltered(int from, int to, int typeCode, int boundaryCode, double[] bbox, Counts counts) {
+        int minLng = bbox != null ? SnapshotFormat.toFixedPoint(bbox[0]) : Integer.MIN_VALUE;
+        int minLat = bbox != null ? SnapshotFormat.toFixedPoint(bbox[1]) : Integer.MIN_VALUE;
+        int maxLng = bbox != null ? SnapshotFormat.toFixedPoint(bbox[2]) : Integer.MAX_VALUE;
+        int maxLat = bbox != null ? SnapshotFormat.toFixedPoint(bbox[3]) : Integer.MAX_VALUE;
+        int total = 0;
+        for (int row = from; row < to; row++) {
+            int type = types.get(row) & 0xFFFF;
+            int boundary = boundaries.get(row) & 0xFFFF;
+            int lat = latitudes.get(row);
+            int lng = longitudes.get(row);
+            if ((typeCode >= 0 && type != typeCode) || (boundaryCode >= 0 && boundary != boundaryCode)
+                    || lat < minLat || lat > maxLat || lng < minLng || lng > maxLng) {
+                continue;
+            }
+            counts.byType[type]++;
+            counts.byPriority[priorities.get(row) & 0xFF]++;
+            counts.byStatus[statuses.get(row) & 0xFF]++;
+            counts.byBoundary[boundary]++;
+            total++;
+        }
+        counts.total = total;
+    }
+    
+    /** Counts indexed by dictionary code. */
+    public static final class Counts {
+        public final int[] byType;
+        public final int[] byPriority;
+        public final int[] byStatus;
+        public final int[] byBoundary;
+        public int total;
+        
+        Counts(int types, int priorities, int statuses, int boundaries) {
+            this.byType = new int[types];
+            this.byPriority = new int[priorities];
+            this.byStatus = new int[statuses];
+            this.byBoundary = new int[boundaries];
+        }
+    }
+}
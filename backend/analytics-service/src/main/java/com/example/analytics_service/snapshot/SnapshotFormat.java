@@ -0,0 +1,54 @@
+package com.example.analytics_service.snapshot;
+
+/**
+ * Layout of the incident snapshot file. All values are little-endian.
+ *
+ * <pre>
+ * int  magic, version, rowCount, blockSize
+ * long snapshotAtMillis
+ * long sectionOffset[SECTION_COUNT]
+ * dictionaries: type, priority, status as (int count, count x string),
+ *               boundary as (int count, count x (int id, string name));
+ *               a string is (int byteLength, UTF-8 bytes), length -1 for null
+ * sections, each starting at an 8-byte aligned offset:
+ *   ID          int32 per row
+ *   TIME_BASE   int64 epoch second of the first row of each block
+ *   TIME_DELTA  int32 seconds since the row's block base
+ *   LATITUDE    int32 degrees x 1e7
+ *   LONGITUDE   int32 degrees x 1e7
+ *   TYPE        uint16 dictionary code
+ *   BOUNDARY    uint16 dictionary code, 0 = outside every boundary
+ *   PRIORITY    uint8 dictionary code
+ *   STATUS      uint8 dictionary code
+ * </pre>
+ *
+ * Rows are sorted by occurrence time, so a time range is a contiguous run
+ * of rows found by binary search over the block bases.
+ */
+final class SnapshotFormat {
+    
+    static final int MAGIC = 0x4E534E50;
+    static final int VERSION = 1;
+    static final int BLOCK_SIZE = 4096;
+    static final double COORDINATE_SCALE = 1e7;
+    
+    static final int ID = 0;
+    static final int TIME_BASE = 1;
+    static final int TIME_DELTA = 2;
+    static final int LATITUDE = 3;
+    static final int LONGITUDE = 4;
+    static final int TYPE = 5;
+    static final int BOUNDARY = 6;
+    static final int PRIORITY = 7;
+    static final int STATUS = 8;
+    static final int SECTION_COUNT = 9;
+    
+    // Fixed part of the header before the dictionaries
+    static final int FIXED_HEADER_BYTES = 4 * 4 + 8 + 8 * SECTION_COUNT;
+    
+    private SnapshotFormat() {}
+    
+    static int toFixedPoint(double degrees) {
+        return (int) Math.round(degrees * COORDINATE_SCALE);
+    }
+}
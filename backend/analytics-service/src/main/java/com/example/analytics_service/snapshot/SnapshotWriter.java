@@ -0,0 +1,262 @@
+package com.example.analytics_service.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a snapshot file from rows added in time order. Each column is
+ * streamed to its own temporary file, so memory does not grow with the row
+ * count; {@link #finish} writes the header and concatenates the columns, then
+ * moves the result over the target atomically. Not thread-safe.
+ */
+public final class SnapshotWriter implements Closeable {
+    
+    private final Path dir;
+    private final ColumnFile[] columns = new ColumnFile[SnapshotFormat.SECTION_COUNT];
+    
+    private final Dictionary types = new Dictionary(0xFFFF);
+    private final Dictionary priorities = new Dictionary(0xFF);
+    private final Dictionary statuses = new Dictionary(0xFF);
+    private final Map<Integer, Integer> boundaryCodes = new HashMap<>();
+    private final List<Integer> boundaryIds = new ArrayList<>();
+    private final List<String> boundaryNames = new ArrayList<>();
+    
+    private int rowCount;
+    private long blockBase;
+    private long lastTime = Long.MIN_VALUE;
+    
+    public SnapshotWriter(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        for (int section = 0; section < columns.length; section++) {
+            columns[section] = new ColumnFile(Files.createTempFile(dir, "column-" + section + "-", ".tmp"));
+        }
+        boundaryIds.add(0);
+        boundaryNames.add(null);
+    }
+    
+    /**
+     * Appends one incident. Rows must come in non-decreasing
+     * {@code epochSecond} order; {@code boundaryId} 0 means no boundary.
+     */
+    public void add(long id, long epochSecond, double latitude, double longitude, String type,
+                    String priority, String status, int boundaryId, String boundaryName) throws IOException {
+        if (epochSecond < lastTime) {
+            throw new IllegalArgumentException("Rows must be added in time order");
+        }
+        if (rowCount % SnapshotFormat.BLOCK_SIZE == 0) {
+            blockBase = epochSecond;
+            columns[SnapshotFormat.TIME_BASE].putLong(blockBase);
+        }
+        long delta = epochSecond - blockBase;
+        if (delta > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Time gap within one block is too large: " + delta + "s");
+        }
+        lastTime = epochSecond;
+        
+        columns[SnapshotFormat.ID].putInt(Math.toIntExact(id));
+        columns[SnapshotFormat.TIME_DELTA].putInt((int) delta);
+        columns[SnapshotFormat.LATITUDE].putInt(SnapshotFormat.toFixedPoint(latitude));
+        columns[SnapshotFormat.LONGITUDE].putInt(SnapshotFormat.toFixedPoint(longitude));
+        columns[SnapshotFormat.TYPE].putShort((short) types.code(type));
+        columns[SnapshotFormat.BOUNDARY].putShort((short) boundaryCode(boundaryId, boundaryName));
+        columns[SnapshotFormat.PRIORITY].putByte((byte) priorities.code(priority));
+        columns[SnapshotFormat.STATUS].putByte((byte) statuses.code(status));
+        rowCount++;
+    }
+    
+    private int boundaryCode(int boundaryId, String boundaryName) {
+        if (boundaryId == 0) {
+            return 0;
+        }
+        return boundaryCodes.computeIfAbsent(boundaryId, id -> {
+            if (boundaryIds.size() > 0xFFFF) {
+                throw new IllegalStateException("Too many boundaries for a snapshot");
+            }
+            boundaryIds.add(id);
+            boundaryNames.add(boundaryName);
+            return boundaryIds.size() - 1;
+        });
+    }
+    
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    /** Writes the complete file and atomically replaces {@code target} with it. */
+    public void finish(Path target, long snapshotAtMillis) throws IOException {
+        for (ColumnFile column : columns) {
+            column.flush();
+        }
+        ByteBuffer dictionaries = encodeDictionaries();
+        long[] offsets = new long[SnapshotFormat.SECTION_COUNT];
+        long offset = align(SnapshotFormat.FIXED_HEADER_BYTES + dictionaries.remaining());
+        for (int section = 0; section < columns.length; section++) {
+            offsets[section] = offset;
+            offset = align(offset + columns[section].channel.size());
+        }
+        
+        ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.FIXED_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(SnapshotFormat.MAGIC).putInt(SnapshotFormat.VERSION).putInt(rowCount)
+            .putInt(SnapshotFormat.BLOCK_SIZE).putLong(snapshotAtMillis);
+        for (long sectionOffset : offsets) {
+            header.putLong(sectionOffset);
+        }
+        header.flip();
+        
+        Path tmp = Files.createTempFile(dir, "snapshot-", ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, header, 0);
+            writeFully(out, dictionaries, SnapshotFormat.FIXED_HEADER_BYTES);
+            for (int section = 0; section < columns.length; section++) {
+                FileChannel in = columns[section].channel;
+                long size = in.size();
+                for (long copied = 0; copied < size; ) {
+                    copied += in.transferTo(copied, size - copied, out.position(offsets[section] + copied));
+                }
+            }
+            // Trailing padding, so the last section can be mapped as a whole
+            writeFully(out, ByteBuffer.allocate((int) (offset - out.size())), out.size());
+            out.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private ByteBuffer encodeDictionaries() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+        for (Dictionary dictionary : List.of(types, priorities, statuses)) {
+            buffer = ensure(buffer, 4);
+            buffer.putInt(dictionary.values.size());
+            for (String value : dictionary.values) {
+                buffer = putString(buffer, value);
+            }
+        }
+        buffer = ensure(buffer, 4);
+        buffer.putInt(boundaryIds.size());
+        for (int code = 0; code < boundaryIds.size(); code++) {
+            buffer = ensure(buffer, 4);
+            buffer.putInt(boundaryIds.get(code));
+            buffer = putString(buffer, boundaryNames.get(code));
+        }
+        return buffer.flip();
+    }
+    
+    private static ByteBuffer putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+        buffer = ensure(buffer, 4 + (bytes != null ? bytes.length : 0));
+        buffer.putInt(bytes != null ? bytes.length : -1);
+        if (bytes != null) {
+            buffer.put(bytes);
+        }
+        return buffer;
+    }
+    
+    private static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        return larger.put(buffer.flip());
+    }
+    
+    private static void writeFully(FileChannel out, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += out.write(buffer, position);
+        }
+    }
+    
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        for (ColumnFile column : columns) {
+            if (column != null) {
+                column.channel.close();
+                Files.deleteIfExists(column.path);
+            }
+        }
+    }
+    
+    private static final class Dictionary {
+        private final int maxCode;
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        
+        Dictionary(int maxCode) {
+            this.maxCode = maxCode;
+        }
+        
+        int code(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                if (values.size() > maxCode) {
+                    throw new IllegalStateException("Too many distinct values for a snapshot dictionary");
+                }
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+    }
+    
+    private static final class ColumnFile {
+        private final Path path;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        
+        ColumnFile(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        
+        void putLong(long value) throws IOException {
+            reserve(8).putLong(value);
+        }
+        
+        void putInt(int value) throws IOException {
+            reserve(4).putInt(value);
+        }
+        
+        void putShort(short value) throws IOException {
+            reserve(2).putShort(value);
+        }
+        
+        void putByte(byte value) throws IOException {
+            reserve(1).put(value);
+        }
+        
+        private ByteBuffer reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+        
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
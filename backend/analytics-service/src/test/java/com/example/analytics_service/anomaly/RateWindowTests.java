@@ -0,0 +1,67 @@
+package com.example.analytics_service.anomaly;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateWindowTests {
+    
+    @Test
+    void slotsAreReusedOnceTheirBucketLeavesTheWindow() {
+        RateWindow window = new RateWindow(4, 100, 0.5);
+        window.record(10);
+        window.record(10);
+        assertEquals(1, window.record(11));
+        assertEquals(2, window.count(10));
+        
+        // Bucket 15 reuses bucket 11's slot, and 11 is no longer in the window
+        assertEquals(1, window.record(15));
+        assertEquals(0, window.count(11));
+        assertEquals(0, window.count(10));
+        assertEquals(0, window.record(11));
+        assertEquals(1, window.count(15));
+        // A late incident still inside the window is counted
+        assertEquals(1, window.record(13));
+    }
+    
+    @Test
+    void theRateDecaysOverEmptyBuckets() {
+        RateWindow window = new RateWindow(8, 100, 0.5);
+        for (int i = 0; i < 4; i++) {
+            window.record(0);
+        }
+        window.record(1);
+        assertEquals(2.0, window.expected(1), 1e-9);
+        assertEquals(1, window.getClosedBuckets());
+        
+        // Bucket 1 (one incident) closes, then bucket 2 closes empty
+        window.record(3);
+        assertEquals(0.75, window.expected(3), 1e-9);
+        assertEquals(3, window.getClosedBuckets());
+    }
+    
+    @Test
+    void aDailyPeakIsExpectedAtTheSameTimeOfDay() {
+        RateWindow window = new RateWindow(8, 2, 0.01);
+        for (int i = 0; i < 6; i++) {
+            window.record(0);
+            window.record(2);
+        }
+        window.record(3);
+        window.record(4);
+        
+        // The mean of buckets 2 and 0, the same time on the two previous days
+        assertEquals(6.0, window.expected(4), 1e-9);
+        assertTrue(window.expected(5) < 1);
+    }
+    
+    @Test
+    void aBucketIsAlertedOnce() {
+        RateWindow window = new RateWindow(4, 100, 0.5);
+        assertTrue(window.markAlerted(7));
+        assertFalse(window.markAlerted(7));
+        assertTrue(window.markAlerted(8));
+    }
+}
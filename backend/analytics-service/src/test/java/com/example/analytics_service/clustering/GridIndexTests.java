@@ -0,0 +1,93 @@
+package com.example.analytics_service.clustering;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GridIndexTests {
+    
+    @Test
+    void everyPointIsInExactlyOneCell() {
+        int n = 5_000;
+        double[] x = new double[n], y = new double[n];
+        Random random = new Random(7);
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * 10_000;
+            y[i] = random.nextDouble() * 10_000;
+        }
+        GridIndex index = new GridIndex(x, y, null, n, 100);
+        
+        Set<Integer> seen = new HashSet<>();
+        for (int cell = 0; cell < index.cellCount(); cell++) {
+            assertTrue(index.cellSize(cell) > 0);
+            for (int k = index.cellStart(cell); k < index.cellEnd(cell); k++) {
+                int point = index.pointAt(k);
+                assertTrue(seen.add(point));
+                assertEquals(cell, index.cellOf(point));
+            }
+        }
+        assertEquals(n, seen.size());
+    }
+    
+    @Test
+    void neighborCellsCoverEveryPointWithinTheRadius() {
+        int n = 3_000;
+        double cellSize = 50;
+        int radius = 2;
+        double[] x = new double[n], y = new double[n];
+        Random random = new Random(8);
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * 2_000;
+            y[i] = random.nextDouble() * 2_000;
+        }
+        GridIndex index = new GridIndex(x, y, null, n, cellSize);
+        
+        for (int i = 0; i < n; i += 37) {
+            Set<Integer> reachable = new HashSet<>();
+            index.forEachNeighborCell(index.cellOf(i), radius, cell -> {
+                for (int k = index.cellStart(cell); k < index.cellEnd(cell); k++) {
+                    reachable.add(index.pointAt(k));
+                }
+                return true;
+            });
+            for (int j = 0; j < n; j++) {
+                if (Math.hypot(x[i] - x[j], y[i] - y[j]) <= cellSize * radius) {
+                    assertTrue(reachable.contains(j), "point " + j + " near " + i + " not reached");
+                }
+            }
+        }
+    }
+    
+    @Test
+    void pointsWithinACellAreInTimeOrder() {
+        int n = 2_000;
+        double[] x = new double[n], y = new double[n];
+        long[] times = new long[n];
+        Random random = new Random(9);
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * 500;
+            y[i] = random.nextDouble() * 500;
+            times[i] = random.nextInt(1_000);
+        }
+        GridIndex index = new GridIndex(x, y, times, n, 100);
+        
+        for (int cell = 0; cell < index.cellCount(); cell++) {
+            for (int k = index.cellStart(cell) + 1; k < index.cellEnd(cell); k++) {
+                assertTrue(times[index.pointAt(k - 1)] <= times[index.pointAt(k)]);
+            }
+        }
+    }
+    
+    @Test
+    void rejectsACellSizeTooSmallForTheExtent() {
+        double[] x = {0, 1e12};
+        double[] y = {0, 1e12};
+        assertThrows(IllegalArgumentException.class, () -> new GridIndex(x, y, null, 2, 0.001));
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.analytics_service.clustering;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the parallel clustering against a brute-force sequential DBSCAN:
+ * core points must be partitioned identically, noise must match, and every
+ * border point must join the cluster of one of its core neighbors.
+ */
+class ParallelDbscanTests {
+    
+    private static final double BASE_LATITUDE = 9.03;
+    private static final double BASE_LONGITUDE = 38.74;
+    private static final long HOUR = 3_600_000L;
+    
+    @Test
+    void matchesSequentialDbscanSpatially() {
+        IncidentPoints points = randomHotspots(new Random(1), 3_000, 0);
+        assertMatchesReference(points, 150, 0, 5);
+    }
+    
+    @Test
+    void matchesSequentialDbscanInSpaceAndTime() {
+        IncidentPoints points = randomHotspots(new Random(2), 3_000, 30 * 24 * HOUR);
+        assertMatchesReference(points, 200, 12 * HOUR, 4);
+    }
+    
+    @Test
+    void denseCellsAndSparseNoise() {
+        IncidentPoints points = new IncidentPoints();
+        for (int i = 0; i < 50; i++) {
+            points.add(i, BASE_LATITUDE + i * 1e-6, BASE_LONGITUDE, 0);
+            points.add(100 + i, BASE_LATITUDE + 0.1 + i * 1e-6, BASE_LONGITUDE, 0);
+        }
+        points.add(999, BASE_LATITUDE + 0.05, BASE_LONGITUDE + 0.05, 0);
+        
+        ParallelDbscan dbscan = new ParallelDbscan(points, 50, 0, 5);
+        int[] labels = dbscan.run();
+        
+        assertEquals(2, dbscan.getClusterCount());
+        assertEquals(ParallelDbscan.NOISE, labels[points.size() - 1]);
+        assertTrue(labels[0] != labels[1] || points.latitude(0) == points.latitude(1));
+        for (int i = 0; i < 100; i += 2) {
+            assertEquals(labels[0], labels[i]);
+            assertEquals(labels[1], labels[i + 1]);
+        }
+    }
+    
+    @Test
+    void pointsOutsideTheTimeWindowDoNotCluster() {
+        IncidentPoints points = new IncidentPoints();
+        for (int i = 0; i < 10; i++) {
+            // Same place, a day apart each
+            points.add(i, BASE_LATITUDE, BASE_LONGITUDE, i * 24 * HOUR);
+        }
+        ParallelDbscan dbscan = new ParallelDbscan(points, 100, HOUR, 3);
+        dbscan.run();
+        assertEquals(0, dbscan.getClusterCount());
+    }
+    
+    @Test
+    void emptyInput() {
+        ParallelDbscan dbscan = new ParallelDbscan(new IncidentPoints(), 100, 0, 3);
+        assertEquals(0, dbscan.run().length);
+        assertEquals(0, dbscan.getClusterCount());
+    }
+    
+    /** The request's target: a million points in seconds, not minutes. */
+    @Test
+    void clustersOneMillionPointsInSeconds() {
+        IncidentPoints points = randomHotspots(new Random(3), 1_000_000, 30 * 24 * HOUR);
+        
+        long start = System.nanoTime();
+        ParallelDbscan dbscan = new ParallelDbscan(points, 100, 6 * HOUR, 10);
+        int[] labels = dbscan.run();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        
+        assertEquals(points.size(), labels.length);
+        assertTrue(dbscan.getClusterCount() > 0);
+        assertTrue(millis < 20_000, "1M points took " + millis + " ms");
+    }
+    
+    /** Hotspots of varying density over a city-sized area, plus uniform noise. */
+    private static IncidentPoints randomHotspots(Random random, int count, long timeSpanMillis) {
+        IncidentPoints points = new IncidentPoints(count);
+        double[][] centers = new double[40][];
+        for (int c = 0; c < centers.length; c++) {
+            centers[c] = new double[] {BASE_LATITUDE + random.nextDouble() * 0.2, BASE_LONGITUDE + random.nextDouble() * 0.2,
+                0.0005 + random.nextDouble() * 0.003};
+        }
+        for (int i = 0; i < count; i++) {
+            double latitude, longitude;
+            if (random.nextInt(5) == 0) {
+                latitude = BASE_LATITUDE + random.nextDouble() * 0.2;
+                longitude = BASE_LONGITUDE + random.nextDouble() * 0.2;
+            } else {
+                double[] center = centers[random.nextInt(centers.length)];
+                latitude = center[0] + random.nextGaussian() * center[2];
+                longitude = center[1] + random.nextGaussian() * center[2];
+            }
+            long time = timeSpanMillis > 0 ? (long) (random.nextDouble() * timeSpanMillis) : 0;
+            points.add(i, latitude, longitude, time);
+        }
+        return points;
+    }
+    
+    private static void assertMatchesReference(IncidentPoints points, double eps, long epsMillis, int minPoints) {
+        int[] labels = new ParallelDbscan(points, eps, epsMillis, minPoints).run();
+        Reference reference = new Reference(points, eps, epsMillis, minPoints);
+        int n = points.size();
+        
+        for (int i = 0; i < n; i++) {
+            if (reference.core[i]) {
+                assertTrue(labels[i] != ParallelDbscan.NOISE, "core point " + i + " is noise");
+            } else if (reference.labels[i] == ParallelDbscan.NOISE) {
+                assertEquals(ParallelDbscan.NOISE, labels[i], "noise point " + i + " was clustered");
+            } else {
+                boolean joinedNeighbor = false;
+                for (int j = 0; j < n && !joinedNeighbor; j++) {
+                    joinedNeighbor = reference.core[j] && reference.neighbors(i, j) && labels[j] == labels[i];
+                }
+                assertTrue(joinedNeighbor, "border point " + i + " is not in a neighboring core point's cluster");
+            }
+        }
+        // Core points: same cluster in one result exactly when in the other
+        int[] referenceToLabel = new int[n];
+        int[] labelToReference = new int[n];
+        Arrays.fill(referenceToLabel, -2);
+        Arrays.fill(labelToReference, -2);
+        for (int i = 0; i < n; i++) {
+            if (!reference.core[i]) {
+                continue;
+            }
+            int expected = reference.labels[i];
+            if (referenceToLabel[expected] == -2) {
+                referenceToLabel[expected] = labels[i];
+            }
+            if (labelToReference[labels[i]] == -2) {
+                labelToReference[labels[i]] = expected;
+            }
+            assertEquals(referenceToLabel[expected], labels[i], "core point " + i + " split from its cluster");
+            assertEquals(labelToReference[labels[i]], expected, "core point " + i + " merged into another cluster");
+        }
+    }
+    
+    /** Textbook O(n^2) DBSCAN on the same projection. */
+    private static final class Reference {
+        private final double[] xy;
+        private final long[] times;
+        private final int n;
+        private final double epsSquared;
+        private final long epsMillis;
+        private final boolean[] core;
+        private final int[] labels;
+        
+        Reference(IncidentPoints points, double eps, long epsMillis, int minPoints) {
+            this.xy = points.projectToMeters();
+            this.n = points.size();
+            this.times = new long[n];
+            for (int i = 0; i < n; i++) {
+                times[i] = points.time(i);
+            }
+            this.epsSquared = eps * eps;
+            this.epsMillis = epsMillis;
+            this.core = new boolean[n];
+            this.labels = new int[n];
+            
+            for (int i = 0; i < n; i++) {
+                int count = 0;
+                for (int j = 0; j < n; j++) {
+                    if (neighbors(i, j)) {
+                        count++;
+                    }
+                }
+                core[i] = count >= minPoints;
+            }
+            Arrays.fill(labels, ParallelDbscan.NOISE);
+            int cluster = 0;
+            int[] stack = new int[n];
+            for (int seed = 0; seed < n; seed++) {
+                if (!core[seed] || labels[seed] != ParallelDbscan.NOISE) {
+                    continue;
+                }
+                int top = 0;
+                stack[top++] = seed;
+                labels[seed] = cluster;
+                while (top > 0) {
+                    int i = stack[--top];
+                    for (int j = 0; j < n; j++) {
+                        if (labels[j] == ParallelDbscan.NOISE && neighbors(i, j)) {
+                            labels[j] = cluster;
+                            if (core[j]) {
+                                stack[top++] = j;
+                            }
+                        }
+                    }
+                }
+                cluster++;
+            }
+        }
+        
+        boolean neighbors(int i, int j) {
+            double dx = xy[i] - xy[j];
+            double dy = xy[n + i] - xy[n + j];
+            return dx * dx + dy * dy <= epsSquared && (epsMillis <= 0 || Math.abs(times[i] - times[j]) <= epsMillis);
+        }
+    }
+}
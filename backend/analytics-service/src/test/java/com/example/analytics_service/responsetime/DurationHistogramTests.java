@@ -0,0 +1,80 @@
+package com.example.analytics_service.responsetime;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DurationHistogramTests {
+    
+    @Test
+    void quantilesAreWithinTheRelativeAccuracy() {
+        double accuracy = 0.01;
+        DurationHistogram histogram = new DurationHistogram(accuracy);
+        Random random = new Random(5);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Response times from seconds to days, log-normally spread
+            values[i] = 2 + Math.exp(5 + 2 * random.nextGaussian());
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        
+        for (double q : new double[] {0, 0.01, 0.25, 0.5, 0.9, 0.95, 0.99, 0.999, 1}) {
+            double exact = values[(int) Math.floor(q * (values.length - 1))];
+            double estimate = histogram.quantile(q);
+            assertTrue(Math.abs(estimate - exact) <= accuracy * exact * (1 + 1e-9),
+                "q=" + q + " exact=" + exact + " estimate=" + estimate);
+        }
+    }
+    
+    @Test
+    void countAndMeanAreExact() {
+        DurationHistogram histogram = new DurationHistogram(0.02);
+        histogram.record(10);
+        histogram.record(20);
+        histogram.record(60);
+        assertEquals(3, histogram.getCount());
+        assertEquals(30, histogram.getMeanSeconds(), 1e-9);
+    }
+    
+    @Test
+    void subSecondAndNegativeDurationsShareTheFirstBucket() {
+        DurationHistogram histogram = new DurationHistogram(0.02);
+        histogram.record(0.2);
+        histogram.record(-3);
+        histogram.record(1);
+        assertEquals(0.5, histogram.quantile(0.5));
+        assertEquals(0.5, histogram.quantile(1));
+        // Clock skew must not pull the mean below zero
+        assertEquals(0.4, histogram.getMeanSeconds(), 1e-9);
+    }
+    
+    @Test
+    void growsForVeryLongDurations() {
+        DurationHistogram histogram = new DurationHistogram(0.01);
+        double year = 365 * 86_400.0;
+        histogram.record(5);
+        histogram.record(year);
+        assertEquals(year, histogram.quantile(1), year * 0.01);
+        assertEquals(5, histogram.quantile(0), 5 * 0.01);
+    }
+    
+    @Test
+    void emptyHistogramReportsZero() {
+        DurationHistogram histogram = new DurationHistogram(0.02);
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMeanSeconds());
+        assertEquals(0, histogram.quantile(0.5));
+    }
+    
+    @Test
+    void rejectsAccuracyOutsideTheUnitInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new DurationHistogram(0));
+        assertThrows(IllegalArgumentException.class, () -> new DurationHistogram(1));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.analytics_service.service;
+
+import com.example.analytics_service.dto.AnomalyAlertDTO;
+import com.example.analytics_service.repository.IncidentFeedRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnomalyDetectionServiceTests {
+    
+    private static final long BUCKET_MILLIS = 15 * 60_000L;
+    
+    private final long currentBucket = System.currentTimeMillis() / BUCKET_MILLIS;
+    private final Feed feed = new Feed();
+    
+    @Test
+    void aSpikeAgainstTheHistoryRaisesOneAlert() {
+        // A quiet six hours: one fire per bucket
+        for (long bucket = currentBucket - 24; bucket < currentBucket; bucket++) {
+            feed.history.add(bucket);
+        }
+        AnomalyDetectionService service = service();
+        service.poll();
+        
+        for (int i = 0; i < 10; i++) {
+            feed.created.add(currentBucket);
+        }
+        service.poll();
+        
+        List<AnomalyAlertDTO> alerts = service.getAlerts(0, 10);
+        assertEquals(1, alerts.size());
+        AnomalyAlertDTO alert = alerts.get(0);
+        assertEquals(3, alert.getBoundaryId());
+        assertEquals("Bole", alert.getBoundaryName());
+        assertEquals("Fire", alert.getIncidentType());
+        assertEquals(LocalDateTime.ofInstant(Instant.ofEpochMilli(currentBucket * BUCKET_MILLIS), ZoneId.systemDefault()),
+            alert.getBucketStart());
+        assertTrue(alert.getObserved() >= 4 && alert.getExpected() < 1 && alert.getScore() >= 4);
+        assertTrue(service.getAlerts(alert.getId(), 10).isEmpty());
+    }
+    
+    @Test
+    void theBackfillAndAShortHistoryRaiseNothing() {
+        // The spike is history, and an hour of it is too little to judge the next one by
+        for (int i = 0; i < 10; i++) {
+            feed.history.add(currentBucket - 2);
+        }
+        AnomalyDetectionService service = service();
+        service.poll();
+        assertEquals(new IncidentFeedRepository.FeedPosition(500, 900), feed.lastPosition);
+        
+        for (int i = 0; i < 10; i++) {
+            feed.created.add(currentBucket);
+        }
+        service.poll();
+        
+        assertTrue(service.getAlerts(0, 10).isEmpty());
+    }
+    
+    @Test
+    void theFeedIsTailedFromTheLastEventRead() {
+        AnomalyDetectionService service = service();
+        service.poll();
+        feed.created.add(currentBucket);
+        feed.created.add(currentBucket);
+        service.poll();
+        service.poll();
+        
+        assertEquals(new IncidentFeedRepository.FeedPosition(502, 902), feed.lastPosition);
+    }
+    
+    private AnomalyDetectionService service() {
+        AnomalyDetectionService service = new AnomalyDetectionService();
+        ReflectionTestUtils.setField(service, "feedRepository", feed);
+        ReflectionTestUtils.setField(service, "bucketMinutes", 15);
+        ReflectionTestUtils.setField(service, "windowDays", 28);
+        ReflectionTestUtils.setField(service, "alpha", 0.05);
+        ReflectionTestUtils.setField(service, "zThreshold", 4.0);
+        ReflectionTestUtils.setField(service, "minCount", 3L);
+        ReflectionTestUtils.setField(service, "minExpected", 0.5);
+        ReflectionTestUtils.setField(service, "minHistoryHours", 2);
+        ReflectionTestUtils.setField(service, "pollBatchSize", 100);
+        ReflectionTestUtils.setField(service, "maxAlerts", 10);
+        return service;
+    }
+    
+    /**
+     * Fires in one boundary: {@code history} before the horizon at (500, 900),
+     * {@code created} after it, each event one version past the previous.
+     */
+    private static class Feed extends IncidentFeedRepository {
+        
+        final List<Long> history = new ArrayList<>();
+        final List<Long> created = new ArrayList<>();
+        FeedPosition lastPosition;
+        
+        @Override
+        public FeedPosition findFeedHorizon() {
+            return new FeedPosition(500, 900);
+        }
+        
+        @Override
+        public void streamCreatedSince(Instant since, FeedPosition upTo, IncidentCreatedHandler handler) {
+            for (int i = 0; i < history.size(); i++) {
+                handler.onIncident(i + 1, i + 1, i + 1, 3, "Bole", "Fire", history.get(i) * BUCKET_MILLIS + 1000);
+            }
+        }
+        
+        @Override
+        public void findCreatedAfter(long afterVersion, long afterEventId, int limit, IncidentCreatedHandler handler) {
+            lastPosition = new FeedPosition(afterVersion, afterEventId);
+            int from = (int) (afterEventId - 900);
+            for (int i = from; i < Math.min(created.size(), from + limit); i++) {
+                handler.onIncident(901 + i, 501 + i, 1000 + i, 3, "Bole", "Fire", created.get(i) * BUCKET_MILLIS + 1000);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.analytics_service.service;
+
+import com.example.analytics_service.dto.AuditEventDTO;
+import com.example.analytics_service.dto.AuditVerificationDTO;
+import com.example.analytics_service.repository.AuditLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditServiceTests {
+    
+    private static final UUID CHAIN = UUID.fromString("6f1c2a1e-0b7d-4c55-9a35-2f0c8f3e1d42");
+    private static final long START = 1_760_000_000_000L;
+    
+    /** A chain row as the writers store it; the hash follows the AuditWriter encoding. */
+    private record Row(AuditEventDTO event, long occurredAt, byte[] prevHash, byte[] hash) {}
+    
+    /** Serves the rows the repository would read from audit_log and audit_log_quarantine, in seq order. */
+    private static AuditService serviceOver(List<Row> rows) {
+        AuditLogRepository repository = new AuditLogRepository() {
+            @Override
+            public void streamChain(UUID chainId, ChainRowHandler handler) {
+                rows.forEach(row -> handler.onRow(row.event(), row.occurredAt(), row.prevHash(), row.hash()));
+            }
+        };
+        AuditService service = new AuditService();
+        ReflectionTestUtils.setField(service, "auditLogRepository", repository);
+        return service;
+    }
+    
+    /** A chain of {@code length} rows whose seq 2 was too long for audit_log's route column. */
+    private static List<Row> chainWithQuarantinedRow(int length) throws Exception {
+        List<Row> rows = new ArrayList<>();
+        byte[] prev = new byte[32];
+        for (int seq = 0; seq < length; seq++) {
+            AuditEventDTO event = new AuditEventDTO();
+            event.setChainId(CHAIN);
+            event.setSeq(seq);
+            long occurredAt = START + seq * 1000L;
+            event.setOccurredAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(occurredAt), ZoneOffset.UTC));
+            event.setService("incident-service");
+            event.setActorId(seq == 1 ? null : 42L);
+            event.setAction("UPDATE");
+            event.setResourceType("incident");
+            event.setResourceId(String.valueOf(100 + seq));
+            event.setRoute(seq == 2 ? "/api/v1/incidents/" + "x".repeat(300) : "/api/v1/incidents/{id}");
+            event.setStatusCode(200);
+            event.setClientAddress(seq == 3 ? null : "10.0.0.7");
+            byte[] hash = hash(prev, event, occurredAt);
+            rows.add(new Row(event, occurredAt, prev, hash));
+            prev = hash;
+        }
+        return rows;
+    }
+    
+    private static byte[] hash(byte[] prev, AuditEventDTO event, long occurredAt) throws IOException, NoSuchAlgorithmException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(event.getChainId().toString());
+            out.writeLong(event.getSeq());
+            out.writeLong(occurredAt);
+            out.writeUTF(event.getService());
+            out.writeLong(event.getActorId() != null ? event.getActorId() : -1);
+            out.writeUTF(event.getAction());
+            out.writeUTF(event.getResourceType());
+            out.writeBoolean(event.getResourceId() != null);
+            if (event.getResourceId() != null) {
+                out.writeUTF(event.getResourceId());
+            }
+            out.writeUTF(event.getRoute());
+            out.writeInt(event.getStatusCode());
+            out.writeBoolean(event.getClientAddress() != null);
+            if (event.getClientAddress() != null) {
+                out.writeUTF(event.getClientAddress());
+            }
+        }
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(prev);
+        return digest.digest(bytes.toByteArray());
+    }
+    
+    @Test
+    void chainWithAQuarantinedRowVerifiesClean() throws Exception {
+        AuditVerificationDTO result = serviceOver(chainWithQuarantinedRow(5)).verifyChain(CHAIN);
+        
+        assertTrue(result.isValid());
+        assertEquals(5, result.getRowsChecked());
+        assertNull(result.getFirstInvalidSeq());
+    }
+    
+    @Test
+    void missingRowBreaksTheChainAtItsSeq() throws Exception {
+        List<Row> rows = chainWithQuarantinedRow(5);
+        // What audit_log alone holds: the quarantined row looks like a gap
+        rows.remove(2);
+        
+        AuditVerificationDTO result = serviceOver(rows).verifyChain(CHAIN);
+        
+        assertFalse(result.isValid());
+        assertEquals(2, result.getRowsChecked());
+        assertEquals(2L, result.getFirstInvalidSeq());
+    }
+    
+    @Test
+    void alteredRowBreaksTheChainAtItsSeq() throws Exception {
+        List<Row> rows = chainWithQuarantinedRow(5);
+        rows.get(3).event().setStatusCode(403);
+        
+        AuditVerificationDTO result = serviceOver(rows).verifyChain(CHAIN);
+        
+        assertFalse(result.isValid());
+        assertEquals(3L, result.getFirstInvalidSeq());
+    }
+}
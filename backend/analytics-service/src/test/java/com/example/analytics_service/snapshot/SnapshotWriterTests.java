@@ -0,0 +1,179 @@
+package com.example.analytics_service.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnapshotWriterTests {
+    
+    private static final String[] TYPES = {"FIRE", "THEFT", "ASSAULT", "TRAFFIC_ACCIDENT", "MEDICAL"};
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "HIGH", "CRITICAL", null};
+    private static final String[] STATUSES = {"REPORTED", "DISPATCHED", "RESOLVED"};
+    
+    @TempDir
+    Path dir;
+    
+    private record Row(int id, long epochSecond, double latitude, double longitude, String type,
+                       String priority, String status, int boundaryId) {}
+    
+    /** Rows spanning several blocks, with bursts of equal timestamps and long quiet gaps. */
+    private static List<Row> sampleRows(int count) {
+        Random random = new Random(9);
+        List<Row> rows = new ArrayList<>();
+        long time = 1_700_000_000L;
+        for (int i = 0; i < count; i++) {
+            int step = random.nextInt(10);
+            time += step < 3 ? 0 : step == 9 ? random.nextInt(86_400) : random.nextInt(120);
+            rows.add(new Row(i + 1, time, 9.0 + random.nextDouble() * 0.1, 38.7 + random.nextDouble() * 0.1,
+                TYPES[random.nextInt(TYPES.length)], PRIORITIES[random.nextInt(PRIORITIES.length)],
+                STATUSES[random.nextInt(STATUSES.length)], random.nextInt(4)));
+        }
+        return rows;
+    }
+    
+    private Path write(List<Row> rows, String name, long snapshotAt) throws IOException {
+        Path target = dir.resolve(name);
+        try (SnapshotWriter writer = new SnapshotWriter(dir.resolve("work"))) {
+            for (Row row : rows) {
+                writer.add(row.id(), row.epochSecond(), row.latitude(), row.longitude(), row.type(), row.priority(),
+                    row.status(), row.boundaryId(), row.boundaryId() == 0 ? null : "Sub-city " + row.boundaryId());
+            }
+            assertEquals(rows.size(), writer.getRowCount());
+            writer.finish(target, snapshotAt);
+        }
+        return target;
+    }
+    
+    @Test
+    void rowsAndDictionariesRoundTrip() throws IOException {
+        List<Row> rows = sampleRows(3 * SnapshotFormat.BLOCK_SIZE + 123);
+        IncidentSnapshot snapshot = IncidentSnapshot.open(write(rows, "incidents.snapshot", 42L));
+        
+        assertEquals(rows.size(), snapshot.getRowCount());
+        assertEquals(42L, snapshot.getSnapshotAtMillis());
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            assertEquals(row.id(), snapshot.getId(i));
+            assertEquals(row.epochSecond(), snapshot.getEpochSecond(i));
+        }
+        assertEquals(List.of(TYPES).stream().sorted().toList(),
+            snapshot.getTypeValues().stream().sorted().toList());
+        assertEquals(PRIORITIES.length, snapshot.getPriorityValues().size());
+        assertEquals(null, snapshot.getBoundaryNames().get(0));
+        for (int boundary = 1; boundary < 4; boundary++) {
+            int code = snapshot.boundaryCode(boundary);
+            assertEquals(boundary, snapshot.getBoundaryId(code));
+            assertEquals("Sub-city " + boundary, snapshot.getBoundaryNames().get(code));
+        }
+        assertEquals(-1, snapshot.boundaryCode(77));
+        assertEquals(-1, snapshot.typeCode("FLOOD"));
+    }
+    
+    @Test
+    void lowerBoundFindsTheFirstRowAtOrAfterATime() throws IOException {
+        List<Row> rows = sampleRows(2 * SnapshotFormat.BLOCK_SIZE + 7);
+        IncidentSnapshot snapshot = IncidentSnapshot.open(write(rows, "incidents.snapshot", 0));
+        
+        long first = rows.get(0).epochSecond(), last = rows.get(rows.size() - 1).epochSecond();
+        Random random = new Random(10);
+        for (int probe = 0; probe < 2_000; probe++) {
+            long time = first - 10 + (long) (random.nextDouble() * (last - first + 20));
+            int expected = 0;
+            while (expected < rows.size() && rows.get(expected).epochSecond() < time) {
+                expected++;
+            }
+            assertEquals(expected, snapshot.lowerBound(time), "time " + time);
+        }
+        // Exact block boundaries
+        for (int block = 0; block * SnapshotFormat.BLOCK_SIZE < rows.size(); block++) {
+            long time = rows.get(block * SnapshotFormat.BLOCK_SIZE).epochSecond();
+            int expected = 0;
+            while (rows.get(expected).epochSecond() < time) {
+                expected++;
+            }
+            assertEquals(expected, snapshot.lowerBound(time));
+        }
+    }
+    
+    @Test
+    void countsMatchAScanOfTheRows() throws IOException {
+        List<Row> rows = sampleRows(2 * SnapshotFormat.BLOCK_SIZE + 500);
+        IncidentSnapshot snapshot = IncidentSnapshot.open(write(rows, "incidents.snapshot", 0));
+        long first = rows.get(0).epochSecond(), last = rows.get(rows.size() - 1).epochSecond();
+        double[] bbox = {38.72, 9.01, 38.77, 9.06};
+        
+        Random random = new Random(11);
+        for (int query = 0; query < 50; query++) {
+            long from = first + (long) (random.nextDouble() * (last - first));
+            long to = from + random.nextInt(500_000);
+            String type = random.nextBoolean() ? TYPES[random.nextInt(TYPES.length)] : null;
+            int boundary = random.nextInt(3) == 0 ? random.nextInt(4) : -1;
+            boolean boxed = random.nextBoolean();
+            
+            IncidentSnapshot.Counts counts = snapshot.count(from, to, type != null ? snapshot.typeCode(type) : -1,
+                boundary > 0 ? snapshot.boundaryCode(boundary) : boundary == 0 ? 0 : -1, boxed ? bbox : null);
+            
+            int[] byType = new int[snapshot.getTypeValues().size()];
+            int[] byStatus = new int[snapshot.getStatusValues().size()];
+            int total = 0;
+            for (Row row : rows) {
+                if (row.epochSecond() < from || row.epochSecond() >= to
+                        || (type != null && !type.equals(row.type()))
+                        || (boundary >= 0 && row.boundaryId() != boundary)
+                        || (boxed && (row.longitude() < bbox[0] || row.latitude() < bbox[1]
+                            || row.longitude() > bbox[2] || row.latitude() > bbox[3]))) {
+                    continue;
+                }
+                byType[snapshot.typeCode(row.type())]++;
+                byStatus[snapshot.getStatusValues().indexOf(row.status())]++;
+                total++;
+            }
+            assertEquals(total, counts.total);
+            assertArrayEquals(byType, counts.byType);
+            assertArrayEquals(byStatus, counts.byStatus);
+            assertEquals(total, Arrays.stream(counts.byPriority).sum());
+        }
+    }
+    
+    @Test
+    void emptySnapshotRoundTrips() throws IOException {
+        IncidentSnapshot snapshot = IncidentSnapshot.open(write(List.of(), "empty.snapshot", 7L));
+        assertEquals(0, snapshot.getRowCount());
+        assertEquals(0, snapshot.lowerBound(1_700_000_000L));
+        assertEquals(0, snapshot.count(0, Long.MAX_VALUE, -1, -1, null).total);
+    }
+    
+    @Test
+    void finishReplacesTheTargetAndCloseRemovesColumnFiles() throws IOException {
+        Path target = write(sampleRows(10), "incidents.snapshot", 1L);
+        write(sampleRows(20), "incidents.snapshot", 2L);
+        
+        IncidentSnapshot snapshot = IncidentSnapshot.open(target);
+        assertEquals(20, snapshot.getRowCount());
+        assertEquals(2L, snapshot.getSnapshotAtMillis());
+        try (Stream<Path> leftovers = Files.list(dir.resolve("work"))) {
+            assertEquals(0, leftovers.count());
+        }
+    }
+    
+    @Test
+    void rejectsRowsOutOfTimeOrder() throws IOException {
+        try (SnapshotWriter writer = new SnapshotWriter(dir)) {
+            writer.add(1, 1_000, 9.0, 38.7, "FIRE", "HIGH", "REPORTED", 0, null);
+            assertThrows(IllegalArgumentException.class,
+                () -> writer.add(2, 999, 9.0, 38.7, "FIRE", "HIGH", "REPORTED", 0, null));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.api_gateway.filter;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sets the user header the services record as the actor of a request.
+ *
+ * Whatever the client sent in that header is removed; it is set again only
+ * from the userId claim of a bearer token whose signature and expiry check
+ * out against the auth-service secret. The gateway does not start without
+ * that secret, since no token could be trusted and every request would reach
+ * the services anonymous.
+ */
+@Component
+public class AuthenticatedUserFilter implements GlobalFilter, Ordered {
+    
+    private static final Logger log = LoggerFactory.getLogger(AuthenticatedUserFilter.class);
+    
+    @Value("${gateway.user-header:X-User-Id}")
+    private String userHeader;
+    
+    @Value("${jwt.secret}")
+    private String secret;
+    
+    private SecretKey signingKey;
+    
+    @PostConstruct
+    void init() {
+        if (secret.isBlank()) {
+            throw new IllegalStateException("jwt.secret is not set; set JWT_SECRET to the auth-service signing secret");
+        }
+        // Padded the same way auth-service pads it when signing
+        String paddedSecret = secret.length() >= 32 ? secret : secret + "0".repeat(32 - secret.length());
+        signingKey = Keys.hmacShaKeyFor(paddedSecret.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Long userId = authenticatedUser(request);
+        if (userId == null && !request.getHeaders().containsKey(userHeader)) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest mutated = request.mutate()
+            .headers(headers -> {
+                headers.remove(userHeader);
+                if (userId != null) {
+                    headers.set(userHeader, userId.toString());
+                }
+            })
+            .build();
+        return chain.filter(exchange.mutate().request(mutated).build());
+    }
+    
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+    
+    private Long authenticatedUser(ServerHttpRequest request) {
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            return Jwts.parser()
+                .verifyWith(signingKey)
+                .build()
+                .parseSignedClaims(authorization.substring(7))
+                .getPayload()
+                .get("userId", Long.class);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Bearer token not accepted: {}", e.getMessage());
+            return null;
+        }
+    }
+}
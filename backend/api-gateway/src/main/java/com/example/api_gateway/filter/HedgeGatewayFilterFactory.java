@@ -0,0 +1,225 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.loadbalancer.InstanceStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hedged requests for idempotent GETs on lb:// routes.
+ *
+ * The request is sent to one instance; if no response has arrived after the
+ * hedge delay, the same request goes to another instance (the latency-aware
+ * load balancer steers away from the one still busy). The first attempt to
+ * receive response headers with a status below 500 wins and its body is
+ * streamed to the client as it arrives; the others are cancelled. A 5xx or a
+ * timeout waiting for headers only fails its attempt, and the request fails
+ * once every attempt has. Other methods pass through untouched.
+ *
+ * Usage: {@code filters[n]=Hedge=<delayMs>,<maxAttempts>,<timeoutMs>}
+ */
+@Component
+public class HedgeGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgeGatewayFilterFactory.Config> {
+    
+    private static final Logger log = LoggerFactory.getLogger(HedgeGatewayFilterFactory.class);
+    
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+        HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH,
+        HttpHeaders.HOST, HttpHeaders.UPGRADE, "Keep-Alive", HttpHeaders.TE, HttpHeaders.TRAILER);
+    
+    // Set by the WebClient's own observation to the attempt's client span;
+    // copying the caller's values as well would send two parents
+    private static final Set<String> TRACE_CONTEXT_HEADERS = Set.of("traceparent", "tracestate");
+    
+    private final LoadBalancerClientFactory clientFactory;
+    private final InstanceStats stats;
+    private final WebClient webClient;
+    
+    public HedgeGatewayFilterFactory(LoadBalancerClientFactory clientFactory, InstanceStats stats,
+                                     WebClient.Builder webClientBuilder) {
+        super(Config.class);
+        this.clientFactory = clientFactory;
+        this.stats = stats;
+        this.webClient = webClientBuilder.build();
+    }
+    
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("delayMs", "maxAttempts", "timeoutMs");
+    }
+    
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            if (route == null || exchange.getRequest().getMethod() != HttpMethod.GET
+                    || !"lb".equals(route.getUri().getScheme())) {
+                return chain.filter(exchange);
+            }
+            
+            String serviceId = route.getUri().getHost();
+            Hedge hedge = new Hedge(config.getMaxAttempts());
+            List<Mono<Void>> attempts = new ArrayList<>(config.getMaxAttempts());
+            for (int i = 0; i < config.getMaxAttempts(); i++) {
+                int index = i;
+                Mono<Void> attempt = attempt(serviceId, exchange, config, hedge, index);
+                if (index > 0) {
+                    attempt = Mono.delay(Duration.ofMillis(config.getDelayMs() * index)).then(attempt);
+                }
+                attempts.add(attempt
+                    // Stop, or never start, once another attempt has won. The companion
+                    // must not complete for the winner, or it would cut the winner short
+                    .takeUntilOther(hedge.winner.asMono().flatMap(winner -> winner != index ? Mono.just(winner) : Mono.never()))
+                    .onErrorResume(e -> hedge.failed(index) ? Mono.error(e) : Mono.empty()));
+            }
+            return Mono.when(attempts);
+        };
+    }
+    
+    private Mono<Void> attempt(String serviceId, ServerWebExchange exchange, Config config, Hedge hedge, int index) {
+        ReactiveLoadBalancer<ServiceInstance> loadBalancer = clientFactory.getInstance(serviceId);
+        if (loadBalancer == null) {
+            return Mono.error(NotFoundException.create(true, "No loadbalancer available for " + serviceId));
+        }
+        return Mono.from(loadBalancer.choose()).flatMap(selected -> {
+            if (!selected.hasServer()) {
+                return Mono.error(NotFoundException.create(true, "Unable to find instance for " + serviceId));
+            }
+            return send(selected, exchange, config, hedge, index);
+        });
+    }
+    
+    private Mono<Void> send(Response<ServiceInstance> selected, ServerWebExchange exchange, Config config,
+                            Hedge hedge, int index) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServiceInstance instance = selected.getServer();
+        URI uri = UriComponentsBuilder.fromUri(instance.getUri())
+            .replacePath(request.getURI().getRawPath())
+            .replaceQuery(request.getURI().getRawQuery())
+            .build(true)
+            .toUri();
+        
+        return Mono.defer(() -> {
+            stats.start(instance);
+            long start = System.nanoTime();
+            AtomicBoolean responded = new AtomicBoolean();
+            // Bounds the wait for headers only; a winning body streams for as long as it takes
+            Mono<Long> headerTimeout = Mono.delay(Duration.ofMillis(config.getTimeoutMs()))
+                .flatMap(tick -> responded.get() ? Mono.never() : Mono.just(tick));
+            return webClient.get()
+                .uri(uri)
+                .headers(headers -> request.getHeaders().forEach((name, values) -> {
+                    if (!HOP_BY_HOP_HEADERS.contains(name)
+                            && !TRACE_CONTEXT_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                        headers.addAll(name, values);
+                    }
+                }))
+                .exchangeToMono(response -> {
+                    responded.set(true);
+                    if (response.statusCode().is5xxServerError()) {
+                        return response.releaseBody().then(Mono.error(new UpstreamErrorException(uri, response.statusCode())));
+                    }
+                    if (!hedge.claim(index)) {
+                        return response.releaseBody();
+                    }
+                    return write(exchange.getResponse(), response);
+                })
+                .timeout(headerTimeout)
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        log.debug("Hedged attempt to {} cancelled", uri);
+                        stats.cancel(instance);
+                    } else {
+                        stats.complete(instance, System.nanoTime() - start, signal == SignalType.ON_ERROR);
+                    }
+                });
+        });
+    }
+    
+    private Mono<Void> write(ServerHttpResponse response, ClientResponse upstream) {
+        response.setStatusCode(upstream.statusCode());
+        upstream.headers().asHttpHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name)) {
+                response.getHeaders().addAll(name, values);
+            }
+        });
+        return response.writeWith(upstream.bodyToFlux(DataBuffer.class));
+    }
+    
+    /** Shared state of one hedged request: which attempt won and how many failed. */
+    private static final class Hedge {
+        private final Sinks.One<Integer> winner = Sinks.one();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final int attempts;
+        private volatile int winnerIndex = -1;
+        
+        Hedge(int attempts) {
+            this.attempts = attempts;
+        }
+        
+        boolean claim(int index) {
+            if (winner.tryEmitValue(index).isSuccess()) {
+                winnerIndex = index;
+                return true;
+            }
+            return false;
+        }
+        
+        /** Whether this failure fails the request: the winner's, or the last attempt's. */
+        boolean failed(int index) {
+            return winnerIndex == index || failures.incrementAndGet() == attempts;
+        }
+    }
+    
+    static class UpstreamErrorException extends RuntimeException {
+        UpstreamErrorException(URI uri, HttpStatusCode status) {
+            super("Hedged attempt to " + uri + " returned " + status.value());
+        }
+    }
+    
+    public static class Config {
+        private long delayMs = 50;
+        private int maxAttempts = 2;
+        private long timeoutMs = 5000;
+        
+        public long getDelayMs() { return delayMs; }
+        public void setDelayMs(long delayMs) { this.delayMs = delayMs; }
+        
+        public int getMaxAttempts() { return maxAttempts; }
+        public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+        
+        public long getTimeoutMs() { return timeoutMs; }
+        public void setTimeoutMs(long timeoutMs) { this.timeoutMs = timeoutMs; }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.limit.AdaptiveConcurrencyLimiter;
+import com.example.api_gateway.limit.LoadSheddingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds load with 503 once a route's adaptive concurrency limit is reached,
+ * before the downstream connection and thread pools saturate.
+ */
+@Component
+public class LoadSheddingFilter implements GlobalFilter, Ordered {
+    
+    private static final Logger log = LoggerFactory.getLogger(LoadSheddingFilter.class);
+    
+    @Autowired
+    private LoadSheddingProperties properties;
+    
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+        
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(route.getId(), this::newLimiter);
+        if (!limiter.tryAcquire()) {
+            log.debug("Shedding request on route {}: {} in flight, limit {}",
+                route.getId(), limiter.getInFlight(), limiter.getLimit());
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return exchange.getResponse().setComplete();
+        }
+        
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            if (signal == SignalType.CANCEL) {
+                limiter.ignore();
+                return;
+            }
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            boolean dropped = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+            limiter.release(System.nanoTime() - start, dropped);
+        });
+    }
+    
+    @Override
+    public int getOrder() {
+        return RateLimitFilter.ORDER + 1;
+    }
+    
+    public Map<String, AdaptiveConcurrencyLimiter> getLimiters() {
+        return limiters;
+    }
+    
+    private AdaptiveConcurrencyLimiter newLimiter(String routeId) {
+        long latencyThresholdNanos = properties.getLatencyExemptRoutes().contains(routeId)
+            ? Long.MAX_VALUE
+            : TimeUnit.MILLISECONDS.toNanos(properties.getLatencyThresholdMs());
+        return new AdaptiveConcurrencyLimiter(
+            properties.getInitialLimit(),
+            properties.getMinLimit(),
+            properties.getMaxLimit(),
+            properties.getBackoffRatio(),
+            latencyThresholdNanos
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.limit.RateLimitProperties;
+import com.example.api_gateway.limit.RateLimitStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket admission control per route and per user.
+ *
+ * The user is the one AuthenticatedUserFilter put in the user header after
+ * verifying the bearer token, falling back to the client address for anonymous
+ * calls. An unverified claim would let a caller pick a fresh bucket for every
+ * request, and grow the bucket map with each one.
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+    
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+    
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+    
+    @Autowired
+    private RateLimitStore rateLimitStore;
+    
+    @Autowired
+    private RateLimitProperties properties;
+    
+    @Value("${gateway.user-header:X-User-Id}")
+    private String userHeader;
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+        
+        String routeId = route.getId();
+        RateLimitProperties.Limits limits = properties.forRoute(routeId);
+        String client = resolveClient(exchange.getRequest());
+        
+        long wait = rateLimitStore.tryAcquire(routeId + '|' + client, limits.getUserRate(), limits.getUserBurst());
+        if (wait == 0) {
+            wait = rateLimitStore.tryAcquire(routeId, limits.getRouteRate(), limits.getRouteBurst());
+        }
+        if (wait == 0) {
+            return chain.filter(exchange);
+        }
+        
+        log.debug("Rate limited {} on route {}", client, routeId);
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+            String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999))));
+        return exchange.getResponse().setComplete();
+    }
+    
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+    
+    private String resolveClient(ServerHttpRequest request) {
+        String userId = request.getHeaders().getFirst(userHeader);
+        if (userId != null) {
+            return "user:" + userId;
+        }
+        InetSocketAddress remote = request.getRemoteAddress();
+        return "ip:" + (remote != null ? remote.getAddress().getHostAddress() : "unknown");
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.api_gateway.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AIMD concurrency limit for one route.
+ *
+ * The limit grows by 1/limit for every request that completes quickly and
+ * successfully, and is cut by the backoff ratio when a request is slow or the
+ * downstream fails. Requests beyond the current limit are rejected up front
+ * instead of queueing behind a saturated instance pool.
+ */
+public class AdaptiveConcurrencyLimiter {
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Current limit stored as double bits so it can be updated with CAS
+    private final AtomicLong limitBits;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, long latencyThresholdNanos) {
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(initialLimit));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+    }
+    
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Releases the slot taken by {@link #tryAcquire()} and adjusts the limit.
+     *
+     * @param dropped whether the downstream failed or timed out
+     */
+    public void release(long latencyNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        boolean overloaded = dropped || latencyNanos > latencyThresholdNanos;
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            double next = overloaded
+                ? Math.max(minLimit, limit * backoffRatio)
+                : Math.min(maxLimit, limit + 1.0 / limit);
+            if (next == limit || limitBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+    
+    /** Releases the slot without feeding a sample, e.g. when the client cancelled. */
+    public void ignore() {
+        inFlight.decrementAndGet();
+    }
+    
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
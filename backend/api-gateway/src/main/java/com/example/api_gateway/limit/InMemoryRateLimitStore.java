@@ -0,0 +1,57 @@
+package com.example.api_gateway.limit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets using the generic cell rate algorithm (GCRA).
+ *
+ * Each bucket is a single AtomicLong holding the theoretical arrival time of
+ * the next request, updated with CAS, so there is no lock and no allocation
+ * on the hot path once a key exists. ConcurrentHashMap provides the striping.
+ * A bucket whose arrival time is in the past is full and is swept away.
+ */
+@Component
+public class InMemoryRateLimitStore implements RateLimitStore {
+    
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    
+    @Override
+    public long tryAcquire(String key, int ratePerSecond, int burstCapacity) {
+        long interval = NANOS_PER_SECOND / ratePerSecond;
+        long tolerance = interval * burstCapacity;
+        long now = System.nanoTime();
+        
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + interval;
+            long wait = next - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.sweep-interval-ms:60000}")
+    public void sweepIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+    
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.api_gateway.limit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Component
+@ConfigurationProperties(prefix = "gateway.load-shedding")
+public class LoadSheddingProperties {
+    
+    private boolean enabled = true;
+    private int initialLimit = 50;
+    private int minLimit = 5;
+    private int maxLimit = 500;
+    private double backoffRatio = 0.9;
+    private long latencyThresholdMs = 2000;
+    // Routes whose responses are long by design; only errors count as overload there
+    private Set<String> latencyExemptRoutes = new HashSet<>();
+    
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public int getInitialLimit() { return initialLimit; }
+    public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+    
+    public int getMinLimit() { return minLimit; }
+    public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+    
+    public int getMaxLimit() { return maxLimit; }
+    public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+    
+    public double getBackoffRatio() { return backoffRatio; }
+    public void setBackoffRatio(double backoffRatio) { this.backoffRatio = backoffRatio; }
+    
+    public long getLatencyThresholdMs() { return latencyThresholdMs; }
+    public void setLatencyThresholdMs(long latencyThresholdMs) { this.latencyThresholdMs = latencyThresholdMs; }
+    
+    public Set<String> getLatencyExemptRoutes() { return latencyExemptRoutes; }
+    public void setLatencyExemptRoutes(Set<String> latencyExemptRoutes) { this.latencyExemptRoutes = latencyExemptRoutes; }
+}
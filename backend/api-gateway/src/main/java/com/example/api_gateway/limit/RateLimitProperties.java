@@ -0,0 +1,70 @@
+package com.example.api_gateway.limit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+    
+    private boolean enabled = true;
+    
+    private Limits defaults = new Limits(20, 40, 500, 1000);
+    
+    // Per-route overrides keyed by route id; unset values fall back to the defaults
+    private Map<String, Limits> routes = new HashMap<>();
+    
+    public Limits forRoute(String routeId) {
+        Limits override = routes.get(routeId);
+        if (override == null) {
+            return defaults;
+        }
+        return new Limits(
+            override.getUserRate() != null ? override.getUserRate() : defaults.getUserRate(),
+            override.getUserBurst() != null ? override.getUserBurst() : defaults.getUserBurst(),
+            override.getRouteRate() != null ? override.getRouteRate() : defaults.getRouteRate(),
+            override.getRouteBurst() != null ? override.getRouteBurst() : defaults.getRouteBurst()
+        );
+    }
+    
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public Limits getDefaults() { return defaults; }
+    public void setDefaults(Limits defaults) { this.defaults = defaults; }
+    
+    public Map<String, Limits> getRoutes() { return routes; }
+    public void setRoutes(Map<String, Limits> routes) { this.routes = routes; }
+    
+    public static class Limits {
+        private Integer userRate;
+        private Integer userBurst;
+        private Integer routeRate;
+        private Integer routeBurst;
+        
+        public Limits() {}
+        
+        public Limits(Integer userRate, Integer userBurst, Integer routeRate, Integer routeBurst) {
+            this.userRate = userRate;
+            this.userBurst = userBurst;
+            this.routeRate = routeRate;
+            this.routeBurst = routeBurst;
+        }
+        
+        public Integer getUserRate() { return userRate; }
+        public void setUserRate(Integer userRate) { this.userRate = userRate; }
+        
+        public Integer getUserBurst() { return userBurst; }
+        public void setUserBurst(Integer userBurst) { this.userBurst = userBurst; }
+        
+        public Integer getRouteRate() { return routeRate; }
+        public void setRouteRate(Integer routeRate) { this.routeRate = routeRate; }
+        
+        public Integer getRouteBurst() { return routeBurst; }
+        public void setRouteBurst(Integer routeBurst) { this.routeBurst = routeBurst; }
+    }
+}
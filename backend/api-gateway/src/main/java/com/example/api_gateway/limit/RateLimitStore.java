@@ -0,0 +1,17 @@
+package com.example.api_gateway.limit;
+
+/**
+ * Backend holding token-bucket state. The in-memory implementation is the
+ * default; a shared store (e.g. Redis) can be plugged in by declaring another
+ * implementation as a {@code @Primary} bean.
+ */
+public interface RateLimitStore {
+    
+    /**
+     * Takes one token from the bucket identified by {@code key}.
+     *
+     * @return 0 if the request is allowed, otherwise the number of nanoseconds
+     *         until a token becomes available
+     */
+    long tryAcquire(String key, int ratePerSecond, int burstCapacity);
+}
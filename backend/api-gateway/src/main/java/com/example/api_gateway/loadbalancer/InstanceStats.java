@@ -0,0 +1,75 @@
+package com.example.api_gateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outstanding requests and peak-EWMA latency per downstream instance, fed by
+ * the gateway's own calls and used to score instances for load balancing.
+ */
+@Component
+public class InstanceStats {
+    
+    private final ConcurrentHashMap<String, Stats> stats = new ConcurrentHashMap<>();
+    
+    @Value("${gateway.loadbalancer.decay-ms:10000}")
+    private long decayMs;
+    
+    @Value("${gateway.loadbalancer.failure-penalty-ms:5000}")
+    private long failurePenaltyMs;
+    
+    public void start(ServiceInstance instance) {
+        get(instance).outstanding.incrementAndGet();
+    }
+    
+    public void complete(ServiceInstance instance, long latencyNanos, boolean failed) {
+        Stats s = get(instance);
+        s.outstanding.decrementAndGet();
+        // A failure counts as a very slow response so the instance is avoided until it recovers
+        double sample = failed ? Math.max(latencyNanos, failurePenaltyMs * 1_000_000d) : latencyNanos;
+        s.record(sample, decayMs * 1_000_000d);
+    }
+    
+    /** Releases an attempt that was abandoned (e.g. a losing hedge) without recording a sample. */
+    public void cancel(ServiceInstance instance) {
+        get(instance).outstanding.decrementAndGet();
+    }
+    
+    /**
+     * Expected cost of sending one more request to the instance. Instances with
+     * no history score zero so that new instances get probed.
+     */
+    public double score(ServiceInstance instance) {
+        Stats s = get(instance);
+        return s.ewmaNanos * (s.outstanding.get() + 1);
+    }
+    
+    private Stats get(ServiceInstance instance) {
+        String key = instance.getInstanceId() != null
+            ? instance.getInstanceId()
+            : instance.getHost() + ':' + instance.getPort();
+        return stats.computeIfAbsent(key, k -> new Stats());
+    }
+    
+    private static final class Stats {
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile double ewmaNanos;
+        private long lastUpdate = System.nanoTime();
+        
+        synchronized void record(double sample, double decayNanos) {
+            long now = System.nanoTime();
+            if (sample > ewmaNanos) {
+                // Peak sensitivity: jump up immediately, decay down slowly
+                ewmaNanos = sample;
+            } else {
+                double weight = Math.exp(-(now - lastUpdate) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + sample * (1 - weight);
+            }
+            lastUpdate = now;
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.example.api_gateway;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "jwt.secret=gateway-test-signing-secret")
 class ApiGatewayApplicationTests {
 
 	@Test
@@ -0,0 +1,95 @@
+package com.example.api_gateway.filter;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AuthenticatedUserFilterTests {
+    
+    private static final String SECRET = "gateway-test-signing-secret";
+    private static final String HEADER = "X-User-Id";
+    
+    private static AuthenticatedUserFilter filter(String secret) {
+        AuthenticatedUserFilter filter = new AuthenticatedUserFilter();
+        ReflectionTestUtils.setField(filter, "userHeader", HEADER);
+        ReflectionTestUtils.setField(filter, "secret", secret);
+        filter.init();
+        return filter;
+    }
+    
+    /** Signs the way auth-service does, padding short secrets to 32 bytes with zeros. */
+    static String token(String secret, long userId, long ttlMillis) {
+        String padded = secret.length() >= 32 ? secret : secret + "0".repeat(32 - secret.length());
+        return Jwts.builder()
+            .claim("userId", userId)
+            .subject("officer" + userId)
+            .issuedAt(new Date())
+            .expiration(new Date(System.currentTimeMillis() + ttlMillis))
+            .signWith(Keys.hmacShaKeyFor(padded.getBytes(StandardCharsets.UTF_8)))
+            .compact();
+    }
+    
+    /** Runs the filter and returns the request the rest of the chain sees. */
+    private static HttpHeaders forwarded(AuthenticatedUserFilter filter, MockServerHttpRequest request) {
+        AtomicReference<ServerWebExchange> seen = new AtomicReference<>();
+        GatewayFilterChain chain = exchange -> {
+            seen.set(exchange);
+            return Mono.empty();
+        };
+        filter.filter(MockServerWebExchange.from(request), chain).block();
+        return seen.get().getRequest().getHeaders();
+    }
+    
+    @Test
+    void refusesToStartWithoutASecret() {
+        assertThrows(IllegalStateException.class, () -> filter(""));
+        assertThrows(IllegalStateException.class, () -> filter("  "));
+    }
+    
+    @Test
+    void verifiedTokenSetsTheUserHeader() {
+        HttpHeaders headers = forwarded(filter(SECRET), MockServerHttpRequest.get("/api/v1/incidents")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(SECRET, 42, 60_000))
+            .header(HEADER, "7")
+            .build());
+        
+        assertEquals("42", headers.getFirst(HEADER));
+    }
+    
+    @Test
+    void clientSuppliedHeaderIsDropped() {
+        HttpHeaders headers = forwarded(filter(SECRET), MockServerHttpRequest.post("/api/v1/incidents")
+            .header(HEADER, "1")
+            .build());
+        
+        assertFalse(headers.containsKey(HEADER));
+    }
+    
+    @Test
+    void forgedOrExpiredTokensAreNotTrusted() {
+        AuthenticatedUserFilter filter = filter(SECRET);
+        for (String token : new String[] {token("some-other-secret", 42, 60_000), token(SECRET, 42, -60_000), "not-a-jwt"}) {
+            HttpHeaders headers = forwarded(filter, MockServerHttpRequest.post("/api/v1/incidents")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header(HEADER, "42")
+                .build());
+            
+            assertFalse(headers.containsKey(HEADER), token);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.limit.AdaptiveConcurrencyLimiter;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs an export through the real route table against a stub incident-service
+ * that streams for longer than the circuit breaker's 10s time limiter.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "jwt.secret=gateway-test-signing-secret")
+@AutoConfigureWebTestClient(timeout = "60s")
+class IncidentStreamRouteTests {
+    
+    private static final int ROWS = 12;
+    private static final long ROW_INTERVAL_MS = 1000;
+    
+    private static final HttpServer incidentService = startIncidentService();
+    
+    @Autowired
+    private WebTestClient client;
+    
+    @Autowired
+    private LoadSheddingFilter loadSheddingFilter;
+    
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakers;
+    
+    @DynamicPropertySource
+    static void routeToStub(DynamicPropertyRegistry registry) {
+        registry.add("eureka.client.enabled", () -> "false");
+        registry.add("spring.cloud.discovery.client.simple.instances.incident-service[0].uri",
+            () -> "http://localhost:" + incidentService.getAddress().getPort());
+    }
+    
+    @AfterAll
+    static void stopIncidentService() {
+        incidentService.stop(0);
+    }
+    
+    @Test
+    void exportLongerThanTheTimeLimiterGetsThrough() {
+        long start = System.nanoTime();
+        String body = client.get().uri("/api/v1/incidents/export")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        
+        assertTrue(elapsedMs > 10_000, "stub should have streamed for over 10s, took " + elapsedMs + "ms");
+        assertNotNull(body);
+        assertEquals(ROWS, body.lines().count());
+        
+        AdaptiveConcurrencyLimiter limiter = loadSheddingFilter.getLimiters().get("incident-service-streams");
+        assertNotNull(limiter, "export should have gone through the streams route");
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.getLimit() >= 50, "a long response must not back the limit off");
+        
+        circuitBreakers.find("incident-service").ifPresent(breaker ->
+            assertEquals(0, breaker.getMetrics().getNumberOfBufferedCalls(),
+                "a long response must not count towards opening the breaker"));
+    }
+    
+    private static HttpServer startIncidentService() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/api/v1/incidents/export", exchange -> {
+                exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    for (int i = 0; i < ROWS; i++) {
+                        out.write(("{\"id\":" + i + "}\n").getBytes(StandardCharsets.UTF_8));
+                        out.flush();
+                        Thread.sleep(ROW_INTERVAL_MS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
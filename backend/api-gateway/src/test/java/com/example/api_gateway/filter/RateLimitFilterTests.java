@@ -0,0 +1,97 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.limit.InMemoryRateLimitStore;
+import com.example.api_gateway.limit.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RateLimitFilterTests {
+    
+    private static final String HEADER = "X-User-Id";
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("10.0.0.7", 40000);
+    
+    private final InMemoryRateLimitStore store = new InMemoryRateLimitStore();
+    private final RateLimitFilter filter = new RateLimitFilter();
+    
+    private final Route route = Route.async()
+        .id("incident-service")
+        .uri("lb://incident-service")
+        .predicate(exchange -> true)
+        .build();
+    
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        // One request per user, refilled once a second; the route itself is not a limit here
+        properties.setDefaults(new RateLimitProperties.Limits(1, 1, 1000, 1000));
+        ReflectionTestUtils.setField(filter, "rateLimitStore", store);
+        ReflectionTestUtils.setField(filter, "properties", properties);
+        ReflectionTestUtils.setField(filter, "userHeader", HEADER);
+    }
+    
+    /** Runs the request through the filter and returns the status it was answered with, null if forwarded. */
+    private HttpStatus send(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request.remoteAddress(CLIENT));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        GatewayFilterChain chain = forwarded -> Mono.empty();
+        filter.filter(exchange, chain).block();
+        return (HttpStatus) exchange.getResponse().getStatusCode();
+    }
+    
+    /** An unsigned token with the given userId claim, as a client could make up. */
+    private static String forgedToken(long userId) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8)) + '.'
+            + encoder.encodeToString(("{\"userId\":" + userId + "}").getBytes(StandardCharsets.UTF_8)) + ".c2ln";
+    }
+    
+    @Test
+    void verifiedUsersHaveTheirOwnBuckets() {
+        assertNull(send(MockServerHttpRequest.get("/api/v1/incidents").header(HEADER, "1")));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, send(MockServerHttpRequest.get("/api/v1/incidents").header(HEADER, "1")));
+        
+        assertNull(send(MockServerHttpRequest.get("/api/v1/incidents").header(HEADER, "2")));
+    }
+    
+    @Test
+    void unverifiedClaimsFallBackToTheClientAddress() {
+        assertNull(send(MockServerHttpRequest.get("/api/v1/incidents")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + forgedToken(1))));
+        
+        // A new made-up user id per request does not buy a new bucket
+        for (long userId = 2; userId < 50; userId++) {
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS, send(MockServerHttpRequest.get("/api/v1/incidents")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + forgedToken(userId))));
+        }
+        // The client's bucket and the route's bucket
+        assertEquals(2, store.size());
+    }
+    
+    @Test
+    void rejectionTellsTheClientWhenToRetry() {
+        send(MockServerHttpRequest.get("/api/v1/incidents").header(HEADER, "1"));
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/api/v1/incidents").header(HEADER, "1").remoteAddress(CLIENT));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        filter.filter(exchange, forwarded -> Mono.empty()).block();
+        
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exchange.getResponse().getStatusCode());
+        assertEquals("1", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}
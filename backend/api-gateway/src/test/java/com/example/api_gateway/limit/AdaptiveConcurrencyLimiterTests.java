@@ -0,0 +1,80 @@
+package com.example.api_gateway.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTests {
+    
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+    
+    @Test
+    void rejectsRequestsBeyondTheLimitUntilOneCompletes() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, THRESHOLD);
+        
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        
+        limiter.release(FAST, false);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+    
+    @Test
+    void slowOrFailedRequestsCutTheLimitDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, 0.5, THRESHOLD);
+        
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+        assertEquals(10, limiter.getLimit());
+        
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+        assertEquals(5, limiter.getLimit());
+        
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+        assertEquals(4, limiter.getLimit());
+    }
+    
+    @Test
+    void fastRequestsGrowTheLimitByAboutOnePerLimitRequests() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 12, 0.5, THRESHOLD);
+        
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, false);
+        }
+        // 10 + 1/10 + 1/10.1 + ... stays just under 11 after ten requests
+        assertEquals(10, limiter.getLimit());
+        
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+        assertEquals(11, limiter.getLimit());
+        
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, false);
+        }
+        assertEquals(12, limiter.getLimit(), "capped at the maximum");
+    }
+    
+    @Test
+    void ignoredRequestsFreeTheirSlotWithoutMovingTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 0.5, THRESHOLD);
+        
+        assertTrue(limiter.tryAcquire());
+        limiter.ignore();
+        
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1, limiter.getLimit());
+        assertTrue(limiter.tryAcquire());
+    }
+}
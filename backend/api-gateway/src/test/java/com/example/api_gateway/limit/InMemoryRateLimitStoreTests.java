@@ -0,0 +1,64 @@
+package com.example.api_gateway.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryRateLimitStoreTests {
+    
+    private final InMemoryRateLimitStore store = new InMemoryRateLimitStore();
+    
+    @Test
+    void burstIsAdmittedThenTheNextRequestWaitsAboutOneInterval() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, store.tryAcquire("k", 10, 5), "request " + i);
+        }
+        
+        long wait = store.tryAcquire("k", 10, 5);
+        assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(100), "wait " + wait);
+    }
+    
+    @Test
+    void rejectedRequestsDoNotUseUpTheBucket() {
+        assertEquals(0, store.tryAcquire("k", 10, 1));
+        long first = store.tryAcquire("k", 10, 1);
+        long second = store.tryAcquire("k", 10, 1);
+        
+        assertTrue(first > 0);
+        // Only the time between the two calls was taken off; no extra debt accrued
+        assertTrue(second > 0 && second <= first, first + " then " + second);
+    }
+    
+    @Test
+    void refillsAtTheConfiguredRate() throws InterruptedException {
+        assertEquals(0, store.tryAcquire("k", 20, 1));
+        assertTrue(store.tryAcquire("k", 20, 1) > 0);
+        
+        // One 50ms interval later there is room for one more request
+        Thread.sleep(60);
+        assertEquals(0, store.tryAcquire("k", 20, 1));
+    }
+    
+    @Test
+    void keysHaveTheirOwnBuckets() {
+        assertEquals(0, store.tryAcquire("a", 1, 1));
+        assertTrue(store.tryAcquire("a", 1, 1) > 0);
+        
+        assertEquals(0, store.tryAcquire("b", 1, 1));
+    }
+    
+    @Test
+    void sweepRemovesOnlyFullBuckets() throws InterruptedException {
+        store.tryAcquire("idle", 1000, 1);
+        store.tryAcquire("busy", 1, 1);
+        Thread.sleep(10);
+        
+        store.sweepIdleBuckets();
+        
+        assertEquals(1, store.size());
+        assertTrue(store.tryAcquire("busy", 1, 1) > 0, "the busy bucket kept its state");
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.common.audit;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * The audit trail for a servlet service that names the resource it serves in
+ * audit.resource-type and has the audit_log and audit_log_quarantine tables:
+ * every /api/** request is recorded and written by {@link AuditWriter}. The
+ * writer flushes on a schedule, so the service enables scheduling.
+ */
+@AutoConfiguration(after = JdbcTemplateAutoConfiguration.class)
+@ConditionalOnClass({JdbcTemplate.class, WebMvcConfigurer.class})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "audit.resource-type")
+@Import({AuditRingBuffer.class, AuditWriter.class, AuditInterceptor.class})
+public class AuditConfig {
+    
+    @Bean
+    WebMvcConfigurer auditWebMvcConfigurer(AuditInterceptor auditInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(auditInterceptor).addPathPatterns("/api/**");
+            }
+        };
+    }
+}
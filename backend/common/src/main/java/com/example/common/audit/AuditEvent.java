@@ -0,0 +1,28 @@
+package com.example.common.audit;
+
+/**
+ * One audit record. Instances are slots of the ring buffer and of the
+ * writer's batch and are reused, so fields are plain and mutable.
+ */
+final class AuditEvent {
+    
+    static final long NO_ACTOR = -1;
+    
+    long occurredAt;
+    long actorId = NO_ACTOR;
+    String action;
+    String resourceId;
+    String route;
+    int statusCode;
+    String clientAddress;
+    
+    void copyFrom(AuditEvent other) {
+        occurredAt = other.occurredAt;
+        actorId = other.actorId;
+        action = other.action;
+        resourceId = other.resourceId;
+        route = other.route;
+        statusCode = other.statusCode;
+        clientAddress = other.clientAddress;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.common.audit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Records every completed API request (who, what action, which resource,
+ * outcome) into the audit ring buffer. Nothing here touches the database.
+ *
+ * Values come from the client, so they are cut to what the audit_log columns
+ * hold before they are queued; an event the writer cannot store would
+ * otherwise hold up every event after it.
+ */
+public class AuditInterceptor implements HandlerInterceptor {
+    
+    // Column sizes in audit_log
+    private static final int MAX_ACTION = 10;
+    private static final int MAX_RESOURCE_ID = 100;
+    private static final int MAX_ROUTE = 255;
+    private static final int MAX_CLIENT_ADDRESS = 64;
+    
+    @Autowired
+    private AuditRingBuffer ringBuffer;
+    
+    // Set by the gateway once it has authenticated the caller
+    @Value("${audit.actor-header:X-User-Id}")
+    private String actorHeader;
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        String route = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route == null) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables =
+            (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        ringBuffer.publish(System.currentTimeMillis(), actorId(request.getHeader(actorHeader)),
+            fit(action(request.getMethod()), MAX_ACTION),
+            fit(variables != null ? variables.get("id") : null, MAX_RESOURCE_ID),
+            fit(route, MAX_ROUTE), response.getStatus(), fit(request.getRemoteAddr(), MAX_CLIENT_ADDRESS));
+    }
+    
+    /** The user id, or none unless it is a positive id that fits actor_id (INT). */
+    private static long actorId(String header) {
+        if (header == null || header.isEmpty()) {
+            return AuditEvent.NO_ACTOR;
+        }
+        try {
+            long id = Long.parseLong(header);
+            return id > 0 && id <= Integer.MAX_VALUE ? id : AuditEvent.NO_ACTOR;
+        } catch (NumberFormatException e) {
+            return AuditEvent.NO_ACTOR;
+        }
+    }
+    
+    /**
+     * Cuts a value to at most {@code max} characters without splitting a
+     * surrogate pair, and replaces NUL, which PostgreSQL text cannot store.
+     */
+    private static String fit(String value, int max) {
+        if (value == null) {
+            return null;
+        }
+        if (value.length() > max) {
+            int end = Character.isHighSurrogate(value.charAt(max - 1)) ? max - 1 : max;
+            value = value.substring(0, end);
+        }
+        return value.indexOf('\0') >= 0 ? value.replace('\0', '\uFFFD') : value;
+    }
+    
+    private static String action(String method) {
+        return switch (method) {
+            case "GET", "HEAD" -> "READ";
+            case "POST" -> "CREATE";
+            case "PUT", "PATCH" -> "UPDATE";
+            case "DELETE" -> "DELETE";
+            default -> method;
+        };
+    }
+}
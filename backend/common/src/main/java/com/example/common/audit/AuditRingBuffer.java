@@ -0,0 +1,92 @@
+package com.example.common.audit;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated audit slots.
+ *
+ * A request thread claims the next sequence with a CAS, fills the slot it
+ * alone owns and publishes it by storing the sequence in the slot's marker,
+ * so recording allocates nothing and never blocks. The writer reads slots in
+ * sequence order up to the first unpublished one and releases them by
+ * advancing its consumed sequence. When the ring is full the event is dropped
+ * and counted rather than making the request wait.
+ */
+public class AuditRingBuffer {
+    
+    private final AuditEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private volatile long consumed = -1;
+    private final LongAdder dropped = new LongAdder();
+    
+    public AuditRingBuffer(@Value("${audit.buffer-size:65536}") int bufferSize) {
+        int capacity = Integer.highestOneBit(Math.max(bufferSize - 1, 1)) << 1;
+        this.slots = new AuditEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AuditEvent();
+            published.set(i, -1);
+        }
+    }
+    
+    /** Records an event, or drops it if the writer has fallen a full ring behind. */
+    public boolean publish(long occurredAt, long actorId, String action, String resourceId,
+                           String route, int statusCode, String clientAddress) {
+        long sequence;
+        do {
+            sequence = claimed.get() + 1;
+            if (sequence - consumed > slots.length) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence - 1, sequence));
+        
+        int index = (int) sequence & mask;
+        AuditEvent event = slots[index];
+        event.occurredAt = occurredAt;
+        event.actorId = actorId;
+        event.action = action;
+        event.resourceId = resourceId;
+        event.route = route;
+        event.statusCode = statusCode;
+        event.clientAddress = clientAddress;
+        published.lazySet(index, sequence);
+        return true;
+    }
+    
+    /**
+     * Copies up to {@code into.length} published events into {@code into} in
+     * sequence order and frees their slots. Single consumer only.
+     *
+     * @return the number of events copied
+     */
+    int drain(AuditEvent[] into) {
+        long next = consumed + 1;
+        int count = 0;
+        while (count < into.length) {
+            int index = (int) next & mask;
+            if (published.get(index) != next) {
+                break;
+            }
+            into[count++].copyFrom(slots[index]);
+            next++;
+        }
+        if (count > 0) {
+            consumed = next - 1;
+        }
+        return count;
+    }
+    
+    /** Events dropped because the ring was full, since the last call. */
+    long takeDropped() {
+        return dropped.sumThenReset();
+    }
+}
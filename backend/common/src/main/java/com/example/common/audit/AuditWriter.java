@@ -0,0 +1,245 @@
+package com.example.common.audit;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Drains the audit ring buffer into audit_log in batches.
+ *
+ * Each process writes its own chain: rows carry a per-process chain id and a
+ * gap-free sequence, and hash = SHA-256(prev_hash || row), so editing,
+ * removing or reordering a stored row breaks every later hash. A batch that
+ * fails to write is kept and retried before anything newer, so the chain
+ * never has holes; while the database is down the ring fills and further
+ * events are dropped and counted.
+ *
+ * A batch the database rejects for its data is written again row by row, and
+ * a row that is rejected on its own goes to audit_log_quarantine with the same
+ * chain id, sequence and hashes, so one bad row neither blocks the chain nor
+ * leaves a hole in it: the chain is audit_log and audit_log_quarantine
+ * together.
+ */
+public class AuditWriter {
+    
+    private static final Logger log = LoggerFactory.getLogger(AuditWriter.class);
+    
+    private static final String INSERT_SQL = """
+        INSERT INTO audit_log (chain_id, seq, occurred_at, service, actor_id, action, resource_type,
+                               resource_id, route, status_code, client_address, prev_hash, hash)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+    
+    private static final String QUARANTINE_SQL = """
+        INSERT INTO audit_log_quarantine (chain_id, seq, occurred_at, service, actor_id, action, resource_type,
+                                          resource_id, route, status_code, client_address, prev_hash, hash, error)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+    
+    @Autowired
+    private AuditRingBuffer ringBuffer;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${spring.application.name}")
+    private String service;
+    
+    @Value("${audit.resource-type}")
+    private String resourceType;
+    
+    private final UUID chainId = UUID.randomUUID();
+    private final MessageDigest digest;
+    private final AuditEvent[] batch;
+    private final byte[][] hashes;
+    
+    private byte[] prevHash = new byte[32];
+    private long nextSeq;
+    private int pending;
+    private int written;
+    private boolean failing;
+    
+    public AuditWriter(@Value("${audit.batch-size:1000}") int batchSize, PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        this.batch = new AuditEvent[batchSize];
+        this.hashes = new byte[batchSize][];
+        for (int i = 0; i < batchSize; i++) {
+            batch[i] = new AuditEvent();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${audit.flush-interval-ms:200}")
+    public synchronized void flush() {
+        long dropped = ringBuffer.takeDropped();
+        if (dropped > 0) {
+            log.warn("Audit buffer full, {} event(s) were not recorded", dropped);
+        }
+        while (pending > 0 || (pending = ringBuffer.drain(batch)) > 0) {
+            try {
+                try {
+                    write();
+                } catch (DataIntegrityViolationException e) {
+                    writeEach();
+                }
+            } catch (DataAccessException e) {
+                if (!failing) {
+                    log.warn("Audit write failed, {} event(s) will be retried: {}", pending - written, e.getMessage());
+                    failing = true;
+                }
+                return;
+            }
+            failing = false;
+            pending = 0;
+            written = 0;
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+    
+    /** Writes the unwritten rest of the batch in one transaction. */
+    private void write() {
+        int from = written;
+        int count = pending - from;
+        byte[] prev = prevHash;
+        for (int i = from; i < pending; i++) {
+            hashes[i] = hash(prev, nextSeq + i - from, batch[i]);
+            prev = hashes[i];
+        }
+        byte[] first = prevHash;
+        long firstSeq = nextSeq;
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                bind(ps, batch[from + i], firstSeq + i, i == 0 ? first : hashes[from + i - 1], hashes[from + i]);
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return count;
+            }
+        }));
+        advance(count, hashes[pending - 1]);
+    }
+    
+    /**
+     * Writes the unwritten rest of the batch one row at a time, quarantining
+     * each row the database rejects for its data.
+     */
+    private void writeEach() {
+        while (written < pending) {
+            AuditEvent event = batch[written];
+            byte[] prev = prevHash;
+            byte[] hash = hash(prev, nextSeq, event);
+            long seq = nextSeq;
+            try {
+                jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, event, seq, prev, hash));
+            } catch (DataIntegrityViolationException e) {
+                quarantine(event, seq, prev, hash, e);
+            }
+            advance(1, hash);
+        }
+    }
+    
+    private void quarantine(AuditEvent event, long seq, byte[] prev, byte[] hash, DataIntegrityViolationException cause) {
+        String error = cause.getMostSpecificCause().getMessage();
+        log.error("Audit event {}/{} rejected by audit_log, quarantined: {}", chainId, seq, error);
+        try {
+            jdbcTemplate.update(QUARANTINE_SQL, ps -> {
+                bind(ps, event, seq, prev, hash);
+                ps.setString(14, error);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Nothing left to store it in; the log line is its only record
+            log.error("Audit event {}/{} could not be quarantined either ({}): {} {} {} {} {} {} {} {}",
+                chainId, seq, e.getMostSpecificCause().getMessage(), event.occurredAt, event.actorId,
+                event.action, event.resourceId, event.route, event.statusCode, event.clientAddress,
+                HexFormat.of().formatHex(hash));
+        }
+    }
+    
+    private void advance(int count, byte[] lastHash) {
+        prevHash = lastHash;
+        nextSeq += count;
+        written += count;
+    }
+    
+    private void bind(PreparedStatement ps, AuditEvent event, long seq, byte[] prev, byte[] hash) throws SQLException {
+        ps.setObject(1, chainId);
+        ps.setLong(2, seq);
+        ps.setTimestamp(3, new Timestamp(event.occurredAt));
+        ps.setString(4, service);
+        ps.setObject(5, event.actorId != AuditEvent.NO_ACTOR ? event.actorId : null, Types.BIGINT);
+        ps.setString(6, event.action);
+        ps.setString(7, resourceType);
+        ps.setString(8, event.resourceId);
+        ps.setString(9, event.route);
+        ps.setInt(10, event.statusCode);
+        ps.setString(11, event.clientAddress);
+        ps.setBytes(12, prev);
+        ps.setBytes(13, hash);
+    }
+    
+    /**
+     * SHA-256 over the previous hash and the row's fields, each written with
+     * DataOutput (strings as writeUTF, a false boolean standing for null).
+     */
+    private byte[] hash(byte[] prev, long seq, AuditEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(chainId.toString());
+            out.writeLong(seq);
+            out.writeLong(event.occurredAt);
+            out.writeUTF(service);
+            out.writeLong(event.actorId);
+            out.writeUTF(event.action);
+            out.writeUTF(resourceType);
+            writeNullable(out, event.resourceId);
+            out.writeUTF(event.route);
+            out.writeInt(event.statusCode);
+            writeNullable(out, event.clientAddress);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        digest.update(prev);
+        return digest.digest(bytes.toByteArray());
+    }
+    
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.common.cache;
+
+import org.postgresql.PGConnection;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The {@link InvalidationBus} for a service that names its channel in
+ * cache.invalidation.channel; the service declares its {@link LocalCache}s
+ * against it. Flushing is scheduled, so the service enables scheduling.
+ */
+@AutoConfiguration(after = JdbcTemplateAutoConfiguration.class)
+@ConditionalOnClass({JdbcTemplate.class, PGConnection.class})
+@ConditionalOnProperty(name = "cache.invalidation.channel")
+@Import(InvalidationBus.class)
+public class CacheInvalidationConfig {
+}
@@ -0,0 +1,282 @@
+package com.example.common.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps {@link LocalCache}s coherent across instances over PostgreSQL
+ * LISTEN/NOTIFY, so no other infrastructure is needed.
+ *
+ * An invalidation evicts the key locally at once and again after the writing
+ * transaction commits; only then is it queued for the other instances, so a
+ * rolled-back write publishes nothing. Queued keys are coalesced per cache
+ * and sent every {@code cache.invalidation.flush-interval-ms} as compact
+ * NOTIFY payloads ({@code instance|cache:key,key|cache:*}, "*" clearing the
+ * cache), split to stay under PostgreSQL's 8000-byte payload limit.
+ *
+ * Each instance listens on its own connection. Notifications sent while it is
+ * not listening are lost, so the caches are bypassed until the listener is
+ * connected and are cleared each time it (re)connects.
+ */
+public class InvalidationBus {
+    
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+    
+    private static final String ALL_KEYS = "*";
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final String channel;
+    private final int pollIntervalMillis;
+    private final long reconnectDelayMillis;
+    private final int maxPendingKeys;
+    
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, LocalCache<?, ?>> caches = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> pending = new HashMap<>();
+    
+    private volatile boolean listening;
+    private volatile boolean running;
+    private Thread listener;
+    
+    public InvalidationBus(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                           @Value("${cache.invalidation.enabled:true}") boolean enabled,
+                           @Value("${cache.invalidation.channel}") String channel,
+                           @Value("${cache.invalidation.poll-interval-ms:500}") int pollIntervalMillis,
+                           @Value("${cache.invalidation.reconnect-delay-ms:5000}") long reconnectDelayMillis,
+                           @Value("${cache.invalidation.max-pending-keys:1000}") int maxPendingKeys) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid invalidation channel name: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+        this.maxPendingKeys = maxPendingKeys;
+    }
+    
+    void register(LocalCache<?, ?> cache) {
+        if (caches.putIfAbsent(cache.getName(), cache) != null) {
+            throw new IllegalStateException("Duplicate cache name " + cache.getName());
+        }
+    }
+    
+    /** True while this instance receives invalidations, so cached reads are safe. */
+    public boolean isListening() {
+        return listening;
+    }
+    
+    /** Evicts the keys from the named cache on every instance. */
+    public void invalidate(String cacheName, Collection<?> keys) {
+        Set<String> wireKeys = new LinkedHashSet<>();
+        for (Object key : keys) {
+            wireKeys.add(String.valueOf(key));
+        }
+        if (wireKeys.isEmpty()) {
+            return;
+        }
+        applyLocally(cacheName, wireKeys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A reader may have loaded the old row between the eviction and the commit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyLocally(cacheName, wireKeys);
+                    enqueue(cacheName, wireKeys);
+                }
+            });
+        } else {
+            enqueue(cacheName, wireKeys);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+    
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        listening = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        flush();
+    }
+    
+    @Scheduled(fixedDelayString = "${cache.invalidation.flush-interval-ms:20}")
+    public void flush() {
+        Map<String, Set<String>> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new HashMap<>(pending);
+            pending.clear();
+        }
+        try {
+            for (String payload : encode(instanceId, batch)) {
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, payload);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not publish cache invalidations, will retry: {}", e.getMessage());
+            batch.forEach(this::enqueue);
+        }
+    }
+    
+    private void enqueue(String cacheName, Set<String> keys) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (pending) {
+            Set<String> queued = pending.computeIfAbsent(cacheName, name -> new LinkedHashSet<>());
+            if (queued.contains(ALL_KEYS)) {
+                return;
+            }
+            queued.addAll(keys);
+            if (queued.size() > maxPendingKeys) {
+                queued.clear();
+                queued.add(ALL_KEYS);
+            }
+        }
+    }
+    
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                // Whatever was published while not listening has been missed
+                caches.values().forEach(LocalCache::invalidateAll);
+                listening = true;
+                log.info("Listening for cache invalidations on {}", channel);
+                
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollIntervalMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (listening) {
+                    log.warn("Cache invalidation listener disconnected, caches bypassed: {}", e.getMessage());
+                } else if (running) {
+                    log.debug("Cache invalidation listener could not connect: {}", e.getMessage());
+                }
+            } finally {
+                listening = false;
+            }
+            if (running) {
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    void apply(String payload) {
+        int separator = payload.indexOf('|');
+        if (separator < 0 || payload.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        for (String entry : payload.substring(separator + 1).split("\\|")) {
+            int colon = entry.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            Set<String> keys = new LinkedHashSet<>();
+            for (String key : entry.substring(colon + 1).split(",")) {
+                keys.add(URLDecoder.decode(key, StandardCharsets.UTF_8));
+            }
+            applyLocally(entry.substring(0, colon), keys);
+        }
+    }
+    
+    private void applyLocally(String cacheName, Set<String> keys) {
+        LocalCache<?, ?> cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (keys.contains(ALL_KEYS)) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(keys);
+        }
+    }
+    
+    /**
+     * Payloads of at most {@link #MAX_PAYLOAD_BYTES}. Keys are URL-encoded so
+     * they cannot contain the separators; "*" is left as is.
+     */
+    static List<String> encode(String instanceId, Map<String, Set<String>> batch) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(instanceId);
+        for (Map.Entry<String, Set<String>> entry : batch.entrySet()) {
+            String prefix = "|" + entry.getKey() + ":";
+            boolean open = false;
+            for (String key : entry.getValue()) {
+                String encoded = key.equals(ALL_KEYS) ? ALL_KEYS : URLEncoder.encode(key, StandardCharsets.UTF_8);
+                int needed = (open ? 1 : prefix.length()) + encoded.length();
+                if (payload.length() + needed > MAX_PAYLOAD_BYTES && payload.length() > instanceId.length()) {
+                    payloads.add(payload.toString());
+                    payload = new StringBuilder(instanceId);
+                    open = false;
+                }
+                payload.append(open ? "," : prefix).append(encoded);
+                open = true;
+            }
+        }
+        if (payload.length() > instanceId.length()) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+}
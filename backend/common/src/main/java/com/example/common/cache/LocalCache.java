@@ -0,0 +1,93 @@
+package com.example.common.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU read-through cache whose entries are evicted on every instance
+ * through the {@link InvalidationBus}. Entries also expire after {@code ttl}
+ * as a safety net, and reads go straight to the loader while the bus is not
+ * listening. Keys travel as their string form.
+ *
+ * A value loaded while any invalidation of this cache arrived is returned but
+ * not kept, since it may have been read before the write committed.
+ */
+public class LocalCache<K, V> {
+    
+    private final String name;
+    private final long ttlMillis;
+    private final InvalidationBus bus;
+    private final Map<String, Entry<V>> entries;
+    private final AtomicLong invalidations = new AtomicLong();
+    
+    public LocalCache(String name, int maxEntries, Duration ttl, InvalidationBus bus) {
+        this.name = name;
+        this.ttlMillis = ttl.toMillis();
+        this.bus = bus;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        bus.register(this);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /** The cached value for the key, or the loader's value, kept when not null. */
+    public V get(K key, Supplier<V> loader) {
+        if (!bus.isListening()) {
+            return loader.get();
+        }
+        String cacheKey = String.valueOf(key);
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(cacheKey);
+            if (entry != null) {
+                if (entry.expiresAt() > now) {
+                    return entry.value();
+                }
+                entries.remove(cacheKey);
+            }
+        }
+        
+        long stamp = invalidations.get();
+        V value = loader.get();
+        if (value != null) {
+            synchronized (entries) {
+                if (invalidations.get() == stamp) {
+                    entries.put(cacheKey, new Entry<>(value, now + ttlMillis));
+                }
+            }
+        }
+        return value;
+    }
+    
+    /** Evicts the keys here and on the other instances. */
+    public void evict(Collection<? extends K> keys) {
+        bus.invalidate(name, keys);
+    }
+    
+    void invalidate(Collection<String> keys) {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            keys.forEach(entries::remove);
+        }
+    }
+    
+    void invalidateAll() {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.clear();
+        }
+    }
+    
+    private record Entry<V>(V value, long expiresAt) {}
+}
@@ -0,0 +1,22 @@
+package com.example.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The {@link IdempotencyStore} for a service that sets idempotency.enabled=true
+ * and has the idempotency_keys table. The service maps the store's
+ * exceptions to 409 and 422 and enables scheduling for the purge.
+ */
+@AutoConfiguration(after = JdbcTemplateAutoConfiguration.class)
+@ConditionalOnClass({JdbcTemplate.class, ObjectMapper.class, ResponseEntity.class})
+@ConditionalOnProperty(name = "idempotency.enabled", havingValue = "true")
+@Import(IdempotencyStore.class)
+public class IdempotencyConfig {
+}
@@ -0,0 +1,7 @@
+package com.example.common.idempotency;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String idempotencyKey) {
+        super("A request with idempotency key " + idempotencyKey + " is already in progress");
+    }
+}
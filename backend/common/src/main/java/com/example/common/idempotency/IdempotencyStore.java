@@ -0,0 +1,203 @@
+package com.example.common.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the response produced for each Idempotency-Key so a retried POST
+ * is answered without executing the write again.
+ *
+ * Recent keys live in a bounded LRU map; every key is also written to the
+ * idempotency_keys table (in the caller's transaction) so replays survive
+ * restarts and work across instances until the TTL expires.
+ *
+ * Each key also stores a fingerprint of the request it was first used with;
+ * reusing the key for a different request is rejected rather than answered
+ * with the other request's response.
+ */
+public class IdempotencyStore {
+    
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+    
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final String SELECT_SQL =
+        "SELECT status_code, response_body, request_fingerprint, EXTRACT(EPOCH FROM expires_at) * 1000 AS expires_at_ms FROM idempotency_keys " +
+        "WHERE scope = ? AND idempotency_key = ? AND expires_at > CURRENT_TIMESTAMP";
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO idempotency_keys (scope, idempotency_key, status_code, response_body, request_fingerprint, expires_at) " +
+        "VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP + make_interval(secs => ?))";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+    
+    private final Map<String, StoredResponse> cache;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    
+    public IdempotencyStore(@Value("${idempotency.max-entries:10000}") int maxEntries) {
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    
+    /** Hex SHA-256 of the request's JSON form, identifying what a key was used for. */
+    public String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+    
+    /**
+     * Returns the original response for a key that has already been processed,
+     * marked with an Idempotent-Replayed header. Fails with
+     * {@link IdempotencyKeyReusedException} when the key was used for a
+     * request with another fingerprint.
+     */
+    public <T> Optional<ResponseEntity<T>> find(String scope, String key, String fingerprint, Class<T> type) {
+        StoredResponse stored = lookup(scope, key);
+        if (stored == null || stored.body() == null) {
+            return Optional.empty();
+        }
+        if (stored.fingerprint() != null && !stored.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        try {
+            return Optional.of(ResponseEntity.status(stored.statusCode())
+                .header(REPLAYED_HEADER, "true")
+                .body(objectMapper.readValue(stored.body(), type)));
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable stored response for idempotency key {}:{}", scope, key);
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Claims the key for the current request. Returns false if another request
+     * with the same key is still executing.
+     */
+    public boolean begin(String scope, String key) {
+        return inFlight.add(cacheKey(scope, key));
+    }
+    
+    public void end(String scope, String key) {
+        inFlight.remove(cacheKey(scope, key));
+    }
+    
+    /**
+     * Records the response for the key. Call inside the transaction that
+     * performs the write so the key and the row commit together; a concurrent
+     * duplicate on another instance fails on the primary key with
+     * {@link IdempotencyConflictException} and rolls back.
+     */
+    public void save(String scope, String key, String fingerprint, int statusCode, Object response) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize response for idempotency key " + key, e);
+        }
+        try {
+            jdbcTemplate.update(INSERT_SQL, scope, key, statusCode, body, fingerprint, ttlSeconds);
+        } catch (DuplicateKeyException e) {
+            throw new IdempotencyConflictException(key);
+        }
+        
+        StoredResponse stored = new StoredResponse(statusCode, body, fingerprint,
+            System.currentTimeMillis() + ttlSeconds * 1000);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Only cache once the write is durable; a rolled-back request must stay retryable
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(scope, key, stored);
+                }
+            });
+        } else {
+            remember(scope, key, stored);
+        }
+    }
+    
+    private void remember(String scope, String key, StoredResponse stored) {
+        synchronized (cache) {
+            cache.put(cacheKey(scope, key), stored);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}",
+               initialDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            cache.values().removeIf(stored -> stored.expiresAt() <= now);
+        }
+        try {
+            int purged = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= CURRENT_TIMESTAMP");
+            log.debug("Purged {} expired idempotency key(s)", purged);
+        } catch (DataAccessException e) {
+            log.warn("Error purging expired idempotency keys: {}", e.getMessage());
+        }
+    }
+    
+    private StoredResponse lookup(String scope, String key) {
+        String cacheKey = cacheKey(scope, key);
+        synchronized (cache) {
+            StoredResponse stored = cache.get(cacheKey);
+            if (stored != null) {
+                if (stored.expiresAt() > System.currentTimeMillis()) {
+                    return stored;
+                }
+                cache.remove(cacheKey);
+            }
+        }
+        
+        List<StoredResponse> rows = jdbcTemplate.query(SELECT_SQL,
+            (rs, rowNum) -> new StoredResponse(rs.getInt("status_code"), rs.getString("response_body"),
+                rs.getString("request_fingerprint"), rs.getLong("expires_at_ms")),
+            scope, key);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        remember(scope, key, rows.get(0));
+        return rows.get(0);
+    }
+    
+    private static String cacheKey(String scope, String key) {
+        return scope + ':' + key;
+    }
+    
+    private record StoredResponse(int statusCode, String body, String fingerprint, long expiresAt) {}
+}
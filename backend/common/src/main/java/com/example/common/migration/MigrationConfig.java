@@ -0,0 +1,94 @@
+package com.example.common.migration;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.ConnectException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * How every service with Flyway migrates its schema at startup; a service
+ * that declares its own {@link FlywayMigrationStrategy} keeps it.
+ */
+@AutoConfiguration(before = FlywayAutoConfiguration.class)
+@ConditionalOnClass(Flyway.class)
+public class MigrationConfig {
+    
+    private static final Logger log = LoggerFactory.getLogger(MigrationConfig.class);
+    
+    // Indexes left invalid by an interrupted CREATE INDEX CONCURRENTLY, except
+    // those another session is building right now
+    private static final String INVALID_INDEXES_SQL = """
+        SELECT quote_ident(n.nspname) || '.' || quote_ident(c.relname) AS name,
+               pg_get_indexdef(i.indexrelid) AS definition
+        FROM pg_index i
+        JOIN pg_class c ON c.oid = i.indexrelid
+        JOIN pg_namespace n ON n.oid = c.relnamespace
+        WHERE NOT i.indisvalid
+          AND n.nspname = current_schema()
+          AND NOT EXISTS (SELECT 1 FROM pg_stat_progress_create_index p WHERE p.index_relid = i.indexrelid)
+        """;
+    
+    /**
+     * Applies pending migrations at startup. A failed migration stops the
+     * service, since it would otherwise run against a schema it does not
+     * expect. Only an unreachable database is tolerated: nothing can be
+     * migrated then, and the next start retries.
+     *
+     * The index migrations use CREATE INDEX CONCURRENTLY IF NOT EXISTS, which
+     * would keep an invalid index from an interrupted build, so those are
+     * dropped and built again first, from their own definition since the
+     * migration that created one may already be recorded as applied.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public FlywayMigrationStrategy migrationStrategy() {
+        return flyway -> {
+            try {
+                rebuildInvalidIndexes(flyway.getConfiguration().getDataSource());
+                flyway.migrate();
+            } catch (RuntimeException e) {
+                if (!isConnectionFailure(e)) {
+                    throw e;
+                }
+                log.warn("Database unreachable, schema migrations not applied: {}", e.getMessage());
+            }
+        };
+    }
+    
+    private void rebuildInvalidIndexes(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Map<String, Object>> invalid = jdbcTemplate.queryForList(INVALID_INDEXES_SQL);
+        for (Map<String, Object> index : invalid) {
+            String name = (String) index.get("name");
+            String definition = (String) index.get("definition");
+            log.warn("Rebuilding invalid index {}", name);
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+            jdbcTemplate.execute(definition.replaceFirst("^CREATE (UNIQUE )?INDEX ", "CREATE $1INDEX CONCURRENTLY "));
+        }
+    }
+    
+    private static boolean isConnectionFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException) {
+                return true;
+            }
+            // SQLSTATE class 08: connection exception
+            if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.common.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One HTTP request handled by this service, so a recording knows how many requests it covers. */
+@Name(HttpRequestEvent.NAME)
+@Label("HTTP Server Request")
+@Category("NISIRCOP")
+@Description("An HTTP request handled by this service")
+@StackTrace(false)
+class HttpRequestEvent extends Event {
+    
+    static final String NAME = "nisircop.HttpServerRequest";
+    
+    @Label("Method")
+    String method;
+    
+    @Label("URI Template")
+    String uri;
+    
+    @Label("Status")
+    String status;
+}
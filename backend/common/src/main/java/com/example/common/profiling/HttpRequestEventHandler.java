@@ -0,0 +1,44 @@
+package com.example.common.profiling;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.transport.RequestReplyReceiverContext;
+
+/** Emits an {@link HttpRequestEvent} for every server request observation. */
+public class HttpRequestEventHandler implements ObservationHandler<Observation.Context> {
+    
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return context instanceof RequestReplyReceiverContext<?, ?>;
+    }
+    
+    @Override
+    public void onStart(Observation.Context context) {
+        HttpRequestEvent event = new HttpRequestEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            context.put(HttpRequestEvent.class, event);
+        }
+    }
+    
+    @Override
+    public void onStop(Observation.Context context) {
+        HttpRequestEvent event = context.get(HttpRequestEvent.class);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = value(context, "method");
+            event.uri = value(context, "uri");
+            event.status = value(context, "status");
+            event.commit();
+        }
+    }
+    
+    private static String value(Observation.Context context, String key) {
+        KeyValue keyValue = context.getLowCardinalityKeyValue(key);
+        return keyValue != null ? keyValue.getValue() : null;
+    }
+}
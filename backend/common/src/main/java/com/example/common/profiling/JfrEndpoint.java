@@ -0,0 +1,84 @@
+package com.example.common.profiling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Actuator operations for Flight Recorder profiling.
+ *
+ * GET /actuator/jfr lists recordings and files; GET /actuator/jfr/{file}
+ * summarizes a recording file, where "continuous" dumps the ring recording
+ * first. POST /actuator/jfr/start (with optional "profile" and
+ * "durationSeconds"), /stop and /dump control the recordings.
+ */
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+    
+    private static final String CONTINUOUS = "continuous";
+    
+    private final JfrRecorder recorder;
+    private final String applicationPackage;
+    private final List<String> passThroughPackages;
+    private final int defaultTop;
+    private final long defaultDurationSeconds;
+    
+    public JfrEndpoint(JfrRecorder recorder,
+                       @Value("${profiling.jfr.application-package:com.example}") String applicationPackage,
+                       @Value("${profiling.jfr.pass-through-packages:com.example.common}") List<String> passThroughPackages,
+                       @Value("${profiling.jfr.summary-top:20}") int defaultTop,
+                       @Value("${profiling.jfr.default-duration-seconds:60}") long defaultDurationSeconds) {
+        this.recorder = recorder;
+        this.applicationPackage = applicationPackage;
+        this.passThroughPackages = passThroughPackages;
+        this.defaultTop = defaultTop;
+        this.defaultDurationSeconds = defaultDurationSeconds;
+    }
+    
+    @ReadOperation
+    public JfrStatus status() throws IOException {
+        return new JfrStatus(recorder.getRecordings(), recorder.getFiles());
+    }
+    
+    @ReadOperation
+    public RecordingSummary.Summary summary(@Selector String file, @Nullable Integer top) throws IOException {
+        try {
+            Path path = file.equals(CONTINUOUS) ? recorder.dump() : recorder.file(file);
+            return RecordingSummary.summarize(path, applicationPackage, passThroughPackages,
+                top != null ? top : defaultTop);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+    
+    @WriteOperation
+    public JfrAction control(@Selector String action, @Nullable String profile, @Nullable Long durationSeconds) {
+        try {
+            return switch (action) {
+                case "start" -> new JfrAction(action, null, recorder.start(profile != null ? profile : "profile",
+                    Duration.ofSeconds(durationSeconds != null ? durationSeconds : defaultDurationSeconds)));
+                case "stop" -> new JfrAction(action, recorder.stop().getFileName().toString(), null);
+                case "dump" -> new JfrAction(action, recorder.dump().getFileName().toString(), null);
+                default -> throw new IllegalArgumentException("Unknown action " + action + ", expected start, stop or dump");
+            };
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public record JfrStatus(List<JfrRecorder.RecordingInfo> recordings, List<JfrRecorder.RecordingFileInfo> files) {}
+    
+    public record JfrAction(String action, String file, JfrRecorder.RecordingInfo recording) {}
+}
@@ -0,0 +1,43 @@
+package com.example.common.profiling;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import java.util.Set;
+
+/**
+ * Refuses to start a service that would serve the jfr endpoint on its
+ * application port, where the gateway or a published port could reach it.
+ * Exposing jfr over HTTP requires a management.server.port of its own; a
+ * service that does not expose it, like the gateway, needs none.
+ */
+public class JfrPortGuard implements InitializingBean {
+    
+    private static final String ENDPOINT = "jfr";
+    
+    private final Environment environment;
+    
+    public JfrPortGuard(Environment environment) {
+        this.environment = environment;
+    }
+    
+    @Override
+    public void afterPropertiesSet() {
+        Binder binder = Binder.get(environment);
+        Set<String> include = binder.bind("management.endpoints.web.exposure.include", Bindable.setOf(String.class))
+            .orElse(Set.of());
+        Set<String> exclude = binder.bind("management.endpoints.web.exposure.exclude", Bindable.setOf(String.class))
+            .orElse(Set.of());
+        if (!(include.contains(ENDPOINT) || include.contains("*")) || exclude.contains(ENDPOINT)) {
+            return;
+        }
+        Integer managementPort = binder.bind("management.server.port", Integer.class).orElse(null);
+        int serverPort = binder.bind("server.port", Integer.class).orElse(8080);
+        if (managementPort == null || (managementPort > 0 && managementPort == serverPort)) {
+            throw new IllegalStateException("The " + ENDPOINT + " endpoint is exposed on the application port "
+                + serverPort + "; set management.server.port to a port of its own or stop exposing it");
+        }
+    }
+}
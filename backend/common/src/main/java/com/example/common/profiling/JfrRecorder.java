@@ -0,0 +1,227 @@
+package com.example.common.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Java Flight Recorder sessions on the running instance.
+ *
+ * A continuous recording with the low-overhead "default" settings keeps the
+ * last {@code profiling.jfr.continuous.max-age-minutes} on disk and can be
+ * dumped at any time, so a latency spike can be examined after the fact. One
+ * on-demand recording with a chosen settings profile ("default", or "profile"
+ * for more detail at a few percent overhead) can run beside it and is written
+ * when it stops or its duration ends. Files go to {@code profiling.jfr.dir},
+ * which keeps the newest {@code profiling.jfr.max-files}.
+ */
+public class JfrRecorder {
+    
+    private static final Logger log = LoggerFactory.getLogger(JfrRecorder.class);
+    
+    private static final String CONTINUOUS = "continuous";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS")
+        .withZone(ZoneOffset.UTC);
+    
+    private final String serviceName;
+    private final Path directory;
+    private final int maxFiles;
+    private final Duration maxDuration;
+    private final boolean continuousEnabled;
+    private final Duration continuousMaxAge;
+    private final long continuousMaxBytes;
+    
+    private Recording continuous;
+    private Recording onDemand;
+    
+    public JfrRecorder(@Value("${spring.application.name}") String serviceName,
+                       @Value("${profiling.jfr.dir:${JFR_DIR:${java.io.tmpdir}/nisircop/${spring.application.name}-jfr}}") String directory,
+                       @Value("${profiling.jfr.max-files:10}") int maxFiles,
+                       @Value("${profiling.jfr.max-duration-seconds:900}") long maxDurationSeconds,
+                       @Value("${profiling.jfr.continuous.enabled:true}") boolean continuousEnabled,
+                       @Value("${profiling.jfr.continuous.max-age-minutes:30}") long continuousMaxAgeMinutes,
+                       @Value("${profiling.jfr.continuous.max-size-mb:100}") long continuousMaxSizeMb) {
+        this.serviceName = serviceName;
+        this.directory = Path.of(directory);
+        this.maxFiles = maxFiles;
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.continuousEnabled = continuousEnabled;
+        this.continuousMaxAge = Duration.ofMinutes(continuousMaxAgeMinutes);
+        this.continuousMaxBytes = continuousMaxSizeMb * 1024 * 1024;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void startContinuous() {
+        if (!continuousEnabled || continuous != null || !FlightRecorder.isAvailable()) {
+            return;
+        }
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration("default"));
+            recording.setName(serviceName + "-" + CONTINUOUS);
+            recording.setToDisk(true);
+            recording.setMaxAge(continuousMaxAge);
+            recording.setMaxSize(continuousMaxBytes);
+            recording.start();
+            continuous = recording;
+            log.info("Continuous flight recording started (max age {}, max size {} bytes)",
+                continuousMaxAge, continuousMaxBytes);
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            log.warn("Could not start continuous flight recording: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Starts an on-demand recording with the named settings profile, written
+     * to a new file when it is stopped or {@code duration} has passed.
+     */
+    public synchronized RecordingInfo start(String profile, Duration duration) throws IOException {
+        if (onDemand != null && onDemand.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("Recording " + onDemand.getName() + " is already running");
+        }
+        if (!FlightRecorder.isAvailable()) {
+            throw new IllegalStateException("Flight Recorder is not available in this JVM");
+        }
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            throw new IllegalArgumentException("Duration must be between 1 and " + maxDuration.toSeconds() + " seconds");
+        }
+        Configuration configuration = Configuration.getConfigurations().stream()
+            .filter(candidate -> candidate.getName().equals(profile))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown profile " + profile + ", expected one of "
+                + Configuration.getConfigurations().stream().map(Configuration::getName).toList()));
+        
+        Files.createDirectories(directory);
+        Recording recording = new Recording(configuration);
+        recording.setName(serviceName + "-" + profile);
+        recording.setToDisk(true);
+        recording.setDuration(duration);
+        recording.setDestination(newFile(profile));
+        recording.start();
+        if (onDemand != null) {
+            onDemand.close();
+        }
+        onDemand = recording;
+        prune();
+        log.info("Flight recording {} started for {}", recording.getName(), duration);
+        return RecordingInfo.of(recording);
+    }
+    
+    /** Stops the on-demand recording and returns the file it was written to. */
+    public synchronized Path stop() {
+        if (onDemand == null || onDemand.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No on-demand recording is running");
+        }
+        Path file = onDemand.getDestination();
+        onDemand.stop();
+        onDemand.close();
+        onDemand = null;
+        log.info("Flight recording written to {}", file);
+        return file;
+    }
+    
+    /** Writes the current contents of the continuous recording to a new file. */
+    public synchronized Path dump() throws IOException {
+        if (continuous == null || continuous.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("The continuous recording is not running");
+        }
+        Files.createDirectories(directory);
+        Path file = newFile(CONTINUOUS);
+        continuous.dump(file);
+        prune();
+        return file;
+    }
+    
+    /** A recording file in the recording directory, by its file name. */
+    public Path file(String name) {
+        if (!name.matches("[\\w.-]+\\.jfr") || !Files.isRegularFile(directory.resolve(name))) {
+            throw new IllegalArgumentException("No recording file named " + name);
+        }
+        return directory.resolve(name);
+    }
+    
+    /** All recordings in this JVM, including any started outside this class. */
+    public List<RecordingInfo> getRecordings() {
+        if (!FlightRecorder.isAvailable()) {
+            return List.of();
+        }
+        return FlightRecorder.getFlightRecorder().getRecordings().stream().map(RecordingInfo::of).toList();
+    }
+    
+    /** Recording files, newest first. */
+    public List<RecordingFileInfo> getFiles() throws IOException {
+        List<RecordingFileInfo> infos = new ArrayList<>();
+        for (Path file : listFiles()) {
+            infos.add(new RecordingFileInfo(file.getFileName().toString(), Files.size(file),
+                Files.getLastModifiedTime(file).toInstant()));
+        }
+        return infos;
+    }
+    
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (onDemand != null && onDemand.getState() == RecordingState.RUNNING) {
+            onDemand.stop();
+        }
+        if (onDemand != null) {
+            onDemand.close();
+        }
+        if (continuous != null) {
+            continuous.close();
+        }
+    }
+    
+    private Path newFile(String label) {
+        return directory.resolve(serviceName + "-" + label + "-" + FILE_TIME.format(Instant.now()) + ".jfr");
+    }
+    
+    private void prune() throws IOException {
+        List<Path> files = listFiles();
+        for (Path file : files.subList(Math.min(maxFiles, files.size()), files.size())) {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    private List<Path> listFiles() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> file.getFileName().toString().endsWith(".jfr"))
+                .sorted(Comparator.comparing((Path file) -> file.toFile().lastModified()).reversed())
+                .toList();
+        }
+    }
+    
+    public record RecordingInfo(long id, String name, String state, Instant startTime, Duration duration,
+                                Duration maxAge, long sizeBytes, String destination) {
+        
+        static RecordingInfo of(Recording recording) {
+            return new RecordingInfo(recording.getId(), recording.getName(), recording.getState().name(),
+                recording.getStartTime(), recording.getDuration(), recording.getMaxAge(), recording.getSize(),
+                recording.getDestination() != null ? recording.getDestination().getFileName().toString() : null);
+        }
+    }
+    
+    public record RecordingFileInfo(String name, long sizeBytes, Instant modified) {}
+}
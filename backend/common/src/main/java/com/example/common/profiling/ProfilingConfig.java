@@ -0,0 +1,19 @@
+package com.example.common.profiling;
+
+import io.micrometer.observation.ObservationHandler;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Flight Recorder profiling for every service that has the actuator: the
+ * recorder, the jfr endpoint, request events for per-request figures, and the
+ * guard that keeps the endpoint off the application port. Settings default to
+ * the same values everywhere and are overridden with profiling.jfr.*.
+ */
+@AutoConfiguration
+@ConditionalOnClass({Endpoint.class, ObservationHandler.class})
+@Import({JfrRecorder.class, JfrEndpoint.class, HttpRequestEventHandler.class, JfrPortGuard.class})
+public class ProfilingConfig {
+}
@@ -0,0 +1,148 @@
+package com.example.common.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where a recording's memory was allocated and where its CPU time went, so a
+ * dump can be read without opening JDK Mission Control.
+ *
+ * Allocation comes from jdk.ObjectAllocationSample, whose weights estimate the
+ * bytes allocated since the thread's previous sample, and CPU from
+ * jdk.ExecutionSample. Each is grouped twice: by the frame that allocated or
+ * ran, usually JDK code such as ArrayList.grow, and by the first frame in the
+ * application package, which charges it to the service method responsible.
+ * Frames in pass-through packages, instrumentation that only wraps calls such
+ * as the SQL monitor's JDBC proxies, are skipped for that.
+ * Per-request figures divide by the {@link HttpRequestEvent}s in the same
+ * recording, so they average over all requests, not only those that reached
+ * the method.
+ */
+public final class RecordingSummary {
+    
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    
+    private RecordingSummary() {
+    }
+    
+    static Summary summarize(Path file, String applicationPackage, List<String> passThroughPackages, int top)
+            throws IOException {
+        String packagePrefix = applicationPackage + ".";
+        List<String> passThroughPrefixes = passThroughPackages.stream().map(name -> name + ".").toList();
+        Map<String, Tally> allocationSites = new HashMap<>();
+        Map<String, Tally> applicationAllocations = new HashMap<>();
+        Map<String, Tally> hotMethods = new HashMap<>();
+        Map<String, Tally> hotApplicationMethods = new HashMap<>();
+        long requests = 0;
+        long allocatedBytes = 0;
+        long executionSamples = 0;
+        Instant start = null;
+        Instant end = null;
+        
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                start = start == null || event.getStartTime().isBefore(start) ? event.getStartTime() : start;
+                end = end == null || event.getEndTime().isAfter(end) ? event.getEndTime() : end;
+                switch (event.getEventType().getName()) {
+                    case HttpRequestEvent.NAME -> requests++;
+                    case ALLOCATION_SAMPLE -> {
+                        long weight = event.getLong("weight");
+                        allocatedBytes += weight;
+                        tally(event.getStackTrace(), packagePrefix, passThroughPrefixes, weight,
+                            allocationSites, applicationAllocations, true);
+                    }
+                    case EXECUTION_SAMPLE -> {
+                        executionSamples++;
+                        tally(event.getStackTrace(), packagePrefix, passThroughPrefixes, 0,
+                            hotMethods, hotApplicationMethods, false);
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        
+        return new Summary(start, end, requests, allocatedBytes, executionSamples,
+            allocations(allocationSites, allocatedBytes, requests, top),
+            allocations(applicationAllocations, allocatedBytes, requests, top),
+            methods(hotMethods, executionSamples, top),
+            methods(hotApplicationMethods, executionSamples, top));
+    }
+    
+    private static void tally(RecordedStackTrace stackTrace, String packagePrefix, List<String> passThroughPrefixes,
+                              long bytes, Map<String, Tally> byFrame, Map<String, Tally> byApplicationFrame,
+                              boolean withLine) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return;
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        byFrame.computeIfAbsent(frame(frames.get(0), withLine), key -> new Tally()).add(bytes);
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            // Spring proxies only pass the call on, like the pass-through packages
+            if (type.startsWith(packagePrefix) && !type.contains("$$")
+                    && passThroughPrefixes.stream().noneMatch(type::startsWith)) {
+                byApplicationFrame.computeIfAbsent(frame(frame, false), key -> new Tally()).add(bytes);
+                return;
+            }
+        }
+    }
+    
+    private static String frame(RecordedFrame frame, boolean withLine) {
+        String method = frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+        return withLine && frame.getLineNumber() >= 0 ? method + ":" + frame.getLineNumber() : method;
+    }
+    
+    private static List<Allocation> allocations(Map<String, Tally> tallies, long totalBytes, long requests, int top) {
+        return tallies.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, Tally> entry) -> entry.getValue().bytes).reversed())
+            .limit(top)
+            .map(entry -> new Allocation(entry.getKey(), entry.getValue().samples, entry.getValue().bytes,
+                share(entry.getValue().bytes, totalBytes), requests > 0 ? entry.getValue().bytes / requests : null))
+            .toList();
+    }
+    
+    private static List<HotMethod> methods(Map<String, Tally> tallies, long totalSamples, int top) {
+        return tallies.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, Tally> entry) -> entry.getValue().samples).reversed())
+            .limit(top)
+            .map(entry -> new HotMethod(entry.getKey(), entry.getValue().samples,
+                share(entry.getValue().samples, totalSamples)))
+            .toList();
+    }
+    
+    private static double share(long part, long total) {
+        return total > 0 ? Math.round(part * 10000.0 / total) / 100.0 : 0;
+    }
+    
+    private static final class Tally {
+        
+        private long samples;
+        private long bytes;
+        
+        void add(long bytes) {
+            this.samples++;
+            this.bytes += bytes;
+        }
+    }
+    
+    public record Summary(Instant start, Instant end, long requests, long allocatedBytes, long executionSamples,
+                          List<Allocation> allocationSites, List<Allocation> applicationAllocations,
+                          List<HotMethod> hotMethods, List<HotMethod> hotApplicationMethods) {}
+    
+    public record Allocation(String frame, long samples, long bytes, double percent, Long bytesPerRequest) {}
+    
+    public record HotMethod(String frame, long samples, double percent) {}
+}
@@ -0,0 +1,78 @@
+package com.example.common.sqlmonitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent histogram of latencies in logarithmic buckets, so quantiles are
+ * reported within a fixed relative error without locking on record.
+ *
+ * Bucket k holds latencies in (gamma^(k-1), gamma^k] microseconds with
+ * gamma = (1 + a) / (1 - a); latencies up to one microsecond share bucket 0
+ * and those beyond the last bucket are counted in it.
+ */
+public final class LatencyHistogram {
+    
+    private static final double RELATIVE_ACCURACY = 0.02;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    
+    // gamma^600 is about 2.6e10 microseconds, over 7 hours
+    private static final int BUCKETS = 600;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+    
+    public void record(long nanos) {
+        long micros = Math.max(nanos / 1000, 0);
+        int bucket = micros <= 1 ? 0 : Math.min((int) Math.ceil(Math.log(micros) / LOG_GAMMA), BUCKETS - 1);
+        counts.incrementAndGet(bucket);
+        count.incrementAndGet();
+        sumMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+    
+    public long getCount() {
+        return count.get();
+    }
+    
+    public double getMeanMillis() {
+        long n = count.get();
+        return n > 0 ? sumMicros.get() / 1000.0 / n : 0;
+    }
+    
+    public double getTotalMillis() {
+        return sumMicros.get() / 1000.0;
+    }
+    
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+    
+    /**
+     * Estimated {@code q}-quantile (0 to 1) in milliseconds, or 0 when empty.
+     * Counts recorded while this reads may or may not be included.
+     */
+    public double quantileMillis(double q) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            snapshot[bucket] = counts.get(bucket);
+            total += snapshot[bucket];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.floor(q * (total - 1));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += snapshot[bucket];
+            if (seen > rank) {
+                return bucket == 0 ? 0.001 : 2 * Math.pow(GAMMA, bucket) / (GAMMA + 1) / 1000;
+            }
+        }
+        return getMaxMillis();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.common.sqlmonitor;
+
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * JDK proxies over a DataSource and the connections and statements it hands
+ * out, timing every execute call and passing it to the {@link SqlMonitor}.
+ * Prepared statements also keep their bound parameters so a slow execution
+ * can be replayed under EXPLAIN; batches and streamed values are timed but
+ * not replayed.
+ *
+ * For a query the time is to the first result, not the full fetch.
+ */
+final class MonitoringDataSource {
+    
+    private static final ClassLoader CLASS_LOADER = MonitoringDataSource.class.getClassLoader();
+    
+    private MonitoringDataSource() {
+    }
+    
+    static DataSource wrap(DataSource target, SqlMonitor monitor) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(target.getClass(), CLASS_LOADER);
+        return (DataSource) Proxy.newProxyInstance(CLASS_LOADER, interfaces, (proxy, method, args) -> {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result = invoke(target, method, args);
+            return method.getName().equals("getConnection") ? connection((Connection) result, monitor) : result;
+        });
+    }
+    
+    private static Connection connection(Connection target, SqlMonitor monitor) {
+        return (Connection) Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result = invoke(target, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> statement(Statement.class, result, null, monitor);
+                case "prepareStatement" -> statement(PreparedStatement.class, result, (String) args[0], monitor);
+                case "prepareCall" -> statement(CallableStatement.class, result, (String) args[0], monitor);
+                default -> result;
+            };
+        });
+    }
+    
+    private static Object statement(Class<?> type, Object target, String preparedSql, SqlMonitor monitor) {
+        return Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[] {type},
+            new StatementHandler((Statement) target, preparedSql, monitor));
+    }
+    
+    // Proxies are their own identity, so Spring can key transaction
+    // resources by them
+    private static boolean isIdentityMethod(Method method) {
+        return method.getDeclaringClass() == Object.class && !method.getName().equals("toString");
+    }
+    
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private static final class StatementHandler implements InvocationHandler {
+        
+        private final Statement target;
+        private final String preparedSql;
+        private final SqlMonitor monitor;
+        
+        // Bound values by 1-based index, up to the highest index set
+        private Object[] parameters = new Object[8];
+        private int parameterCount;
+        private boolean replayable = true;
+        private boolean batched;
+        
+        StatementHandler(Statement target, String preparedSql, SqlMonitor monitor) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.monitor = monitor;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                track(name, args);
+                return MonitoringDataSource.invoke(target, method, args);
+            }
+            boolean prepared = args == null || args.length == 0 || !(args[0] instanceof String);
+            String sql = prepared ? preparedSql : (String) args[0];
+            long start = System.nanoTime();
+            try {
+                return MonitoringDataSource.invoke(target, method, args);
+            } finally {
+                if (sql != null) {
+                    boolean replay = prepared && replayable && !batched && !name.equals("executeBatch");
+                    monitor.record(sql, replay ? Arrays.copyOf(parameters, parameterCount + 1) : null,
+                        System.nanoTime() - start);
+                }
+                if (name.equals("executeBatch")) {
+                    batched = false;
+                }
+            }
+        }
+        
+        private void track(String name, Object[] args) {
+            if (name.equals("addBatch")) {
+                batched = true;
+            } else if (name.equals("clearParameters")) {
+                Arrays.fill(parameters, null);
+                parameterCount = 0;
+                replayable = true;
+            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                if (index >= parameters.length) {
+                    parameters = Arrays.copyOf(parameters, Math.max(index + 1, parameters.length * 2));
+                }
+                parameters[index] = name.equals("setNull") ? null : args[1];
+                parameterCount = Math.max(parameterCount, index);
+                if (args[1] instanceof InputStream || args[1] instanceof Reader) {
+                    replayable = false;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.common.sqlmonitor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only text file of slow-query samples, rolled by size: when the next
+ * entry would take the file past {@code maxBytes} it becomes file.1, older
+ * files shift up, and anything past {@code maxFiles} is deleted.
+ */
+class SlowQueryLog {
+    
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+    
+    SlowQueryLog(Path file, long maxBytes, int maxFiles) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+    }
+    
+    synchronized void append(String entry) throws IOException {
+        byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        if (Files.exists(file) && Files.size(file) + bytes.length > maxBytes) {
+            roll();
+        }
+        Files.write(file, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+    
+    private void roll() throws IOException {
+        Files.deleteIfExists(rolled(maxFiles));
+        for (int index = maxFiles - 1; index >= 1; index--) {
+            if (Files.exists(rolled(index))) {
+                Files.move(rolled(index), rolled(index + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.common.sqlmonitor;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency per normalized statement, recorded by {@link MonitoringDataSource},
+ * and EXPLAIN (ANALYZE, BUFFERS) samples of statements slower than
+ * {@code sql.monitor.slow-threshold-ms}.
+ *
+ * A sample re-runs the statement with its parameters on a separate, unmonitored
+ * connection in a read-only transaction that is rolled back. Only queries are
+ * sampled, at most once per statement per {@code sql.monitor.explain-interval-ms},
+ * on one background thread whose queue drops work when full, so a slow database
+ * is not loaded further by its own diagnostics.
+ */
+public class SqlMonitor {
+    
+    private static final Logger log = LoggerFactory.getLogger(SqlMonitor.class);
+    
+    // Statements past this many distinct texts are counted together
+    private static final int MAX_STATEMENTS = 2000;
+    private static final String OTHER_STATEMENTS = "<other>";
+    
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Deque<Sample> samples = new ArrayDeque<>();
+    private final ThreadPoolExecutor explainExecutor;
+    private final SlowQueryLog slowQueryLog;
+    
+    private final long slowThresholdNanos;
+    private final long explainIntervalMillis;
+    private final int explainTimeoutMillis;
+    private final int recentSamples;
+    
+    private volatile DataSource explainDataSource;
+    
+    public SqlMonitor(@Value("${sql.monitor.slow-threshold-ms:200}") long slowThresholdMillis,
+                      @Value("${sql.monitor.explain-interval-ms:60000}") long explainIntervalMillis,
+                      @Value("${sql.monitor.explain-timeout-ms:30000}") int explainTimeoutMillis,
+                      @Value("${sql.monitor.recent-samples:50}") int recentSamples,
+                      @Value("${sql.monitor.log.file:${SQL_MONITOR_LOG:${java.io.tmpdir}/nisircop/${spring.application.name}-slow-queries.log}}") String logFile,
+                      @Value("${sql.monitor.log.max-bytes:10485760}") long logMaxBytes,
+                      @Value("${sql.monitor.log.max-files:5}") int logMaxFiles) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.explainIntervalMillis = explainIntervalMillis;
+        this.explainTimeoutMillis = explainTimeoutMillis;
+        this.recentSamples = recentSamples;
+        this.slowQueryLog = new SlowQueryLog(Path.of(logFile), logMaxBytes, logMaxFiles);
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), runnable -> {
+                Thread thread = new Thread(runnable, "sql-explain");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+    
+    /** The unmonitored data source samples run on. */
+    void setExplainDataSource(DataSource dataSource) {
+        this.explainDataSource = dataSource;
+    }
+    
+    /**
+     * Records one execution. {@code parameters} are the bound values by
+     * 1-based index, or null when the statement cannot be replayed.
+     */
+    void record(String sql, Object[] parameters, long nanos) {
+        String key = SqlText.normalize(sql);
+        StatementStats stats = statements.get(key);
+        if (stats == null) {
+            stats = statements.size() < MAX_STATEMENTS
+                ? statements.computeIfAbsent(key, StatementStats::new)
+                : statements.computeIfAbsent(OTHER_STATEMENTS, StatementStats::new);
+        }
+        stats.histogram.record(nanos);
+        if (nanos < slowThresholdNanos) {
+            return;
+        }
+        stats.slowCount.incrementAndGet();
+        if (parameters != null && explainDataSource != null && SqlText.isQuery(sql) && stats.claimSample(explainIntervalMillis)) {
+            explainExecutor.execute(() -> sample(key, sql, parameters, nanos));
+        }
+    }
+    
+    private void sample(String key, String sql, Object[] parameters, long nanos) {
+        List<String> plan = new ArrayList<>();
+        try (Connection connection = explainDataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET LOCAL statement_timeout = " + explainTimeoutMillis);
+                }
+                try (PreparedStatement ps = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                    for (int index = 1; index < parameters.length; index++) {
+                        if (parameters[index] == null) {
+                            ps.setNull(index, Types.NULL);
+                        } else {
+                            ps.setObject(index, parameters[index]);
+                        }
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            plan.add(rs.getString(1));
+                        }
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setReadOnly(false);
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Could not explain slow statement {}: {}", key, e.getMessage());
+            return;
+        }
+        
+        Sample sample = new Sample(Instant.now(), key, nanos / 1_000_000.0, plan);
+        synchronized (samples) {
+            samples.addFirst(sample);
+            while (samples.size() > recentSamples) {
+                samples.removeLast();
+            }
+        }
+        try {
+            slowQueryLog.append(format(sample));
+        } catch (IOException e) {
+            log.warn("Could not write slow query sample: {}", e.getMessage());
+        }
+    }
+    
+    private static String format(Sample sample) {
+        StringBuilder entry = new StringBuilder()
+            .append(sample.sampledAt()).append(" duration_ms=").append(String.format("%.3f", sample.durationMillis()))
+            .append('\n').append(sample.sql()).append('\n');
+        for (String line : sample.plan()) {
+            entry.append("  ").append(line).append('\n');
+        }
+        return entry.append('\n').toString();
+    }
+    
+    /** Statement latencies, the most total time first. */
+    public List<StatementSummary> getStatements() {
+        return statements.values().stream()
+            .map(StatementStats::summarize)
+            .sorted(Comparator.comparingDouble(StatementSummary::totalMs).reversed())
+            .toList();
+    }
+    
+    /** The most recent slow-query plans, newest first. */
+    public List<Sample> getSamples() {
+        synchronized (samples) {
+            return List.copyOf(samples);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+    
+    private static final class StatementStats {
+        
+        private final String sql;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final AtomicLong slowCount = new AtomicLong();
+        private final AtomicLong lastSampledAt = new AtomicLong(Long.MIN_VALUE / 2);
+        
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+        
+        boolean claimSample(long intervalMillis) {
+            long now = System.currentTimeMillis();
+            long last = lastSampledAt.get();
+            return now - last >= intervalMillis && lastSampledAt.compareAndSet(last, now);
+        }
+        
+        StatementSummary summarize() {
+            return new StatementSummary(sql, histogram.getCount(), slowCount.get(), histogram.getTotalMillis(),
+                histogram.getMeanMillis(), histogram.quantileMillis(0.5), histogram.quantileMillis(0.95),
+                histogram.quantileMillis(0.99), histogram.getMaxMillis());
+        }
+    }
+    
+    public record StatementSummary(String sql, long count, long slowCount, double totalMs, double meanMs,
+                                   double p50Ms, double p95Ms, double p99Ms, double maxMs) {}
+    
+    public record Sample(Instant sampledAt, String sql, double durationMillis, List<String> plan) {}
+}
@@ -0,0 +1,40 @@
+package com.example.common.sqlmonitor;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+
+/**
+ * Per-statement SQL latency and slow-query plans for a service that sets
+ * sql.monitor.enabled=true. Ordered before the JDBC tracing proxy so the
+ * monitor wraps the pool directly and its EXPLAIN samples are not traced.
+ */
+@AutoConfiguration(beforeName = "net.ttddyy.observation.boot.autoconfigure.DataSourceObservationAutoConfiguration")
+@ConditionalOnClass(Endpoint.class)
+@ConditionalOnProperty(name = "sql.monitor.enabled", havingValue = "true")
+@Import({SqlMonitor.class, SqlMonitorEndpoint.class})
+public class SqlMonitorConfig {
+    
+    /** Wraps the data source so every statement is timed by the {@link SqlMonitor}. */
+    @Bean
+    public static BeanPostProcessor monitoringDataSourcePostProcessor(ObjectProvider<SqlMonitor> monitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                SqlMonitor sqlMonitor = monitor.getObject();
+                sqlMonitor.setExplainDataSource(dataSource);
+                return MonitoringDataSource.wrap(dataSource, sqlMonitor);
+            }
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.common.sqlmonitor;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/** Actuator view of statement latencies and recent slow-query plans. */
+@Endpoint(id = "sqlmonitor")
+public class SqlMonitorEndpoint {
+    
+    private final SqlMonitor monitor;
+    
+    public SqlMonitorEndpoint(SqlMonitor monitor) {
+        this.monitor = monitor;
+    }
+    
+    @ReadOperation
+    public SqlMonitorReport report() {
+        return new SqlMonitorReport(monitor.getStatements(), monitor.getSamples());
+    }
+    
+    public record SqlMonitorReport(List<SqlMonitor.StatementSummary> statements, List<SqlMonitor.Sample> samples) {}
+}
@@ -0,0 +1,36 @@
+package com.example.common.sqlmonitor;
+
+import java.util.regex.Pattern;
+
+/** SQL text helpers for grouping statements. */
+final class SqlText {
+    
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?:[eE][-+]?\\d+)?(?![\\w$])");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern LEADING_COMMENTS = Pattern.compile("^(?:\\s+|--[^\\n]*\\n|/\\*.*?\\*/)*", Pattern.DOTALL);
+    
+    private SqlText() {
+    }
+    
+    /**
+     * The statement with literals replaced by ?, placeholder lists collapsed
+     * to one and whitespace collapsed, so executions that differ only in
+     * their values share a key.
+     */
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = PLACEHOLDER_LIST.matcher(normalized).replaceAll("?, ...");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+    
+    /** True for a plain query, which EXPLAIN ANALYZE can run without side effects. */
+    static boolean isQuery(String sql) {
+        String body = LEADING_COMMENTS.matcher(sql).replaceFirst("");
+        String keyword = body.length() >= 6 ? body.substring(0, 6).toLowerCase() : "";
+        return keyword.equals("select") || keyword.startsWith("with") && !body.toLowerCase().matches(
+            "(?s).*\\b(insert|update|delete|merge)\\b.*");
+    }
+}
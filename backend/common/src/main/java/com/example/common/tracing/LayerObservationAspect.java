@@ -0,0 +1,68 @@
+package com.example.common.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+
+/**
+ * A span (and timer) per controller, service and repository call, so a trace
+ * shows where a request spends its time between the HTTP server span and the
+ * JDBC spans under it. Calls a bean makes on itself are not proxied and so
+ * not observed.
+ */
+@Aspect
+public class LayerObservationAspect {
+    
+    private static final String OBSERVATION_NAME = "method.observed";
+    
+    private final ObservationRegistry registry;
+    
+    public LayerObservationAspect(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+    
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object observeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "controller");
+    }
+    
+    // Scheduled jobs run outside any request; each call would start a trace of its own
+    @Around("@within(org.springframework.stereotype.Service) "
+        + "&& !@annotation(org.springframework.scheduling.annotation.Scheduled)")
+    public Object observeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "service");
+    }
+    
+    @Around("@within(org.springframework.stereotype.Repository) "
+        + "|| execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object observeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "repository");
+    }
+    
+    private Object observe(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        String type = typeName(joinPoint);
+        String method = joinPoint.getSignature().getName();
+        Observation.CheckedCallable<Object, Throwable> call = joinPoint::proceed;
+        return Observation.createNotStarted(OBSERVATION_NAME, registry)
+            .contextualName(type + "." + method)
+            .lowCardinalityKeyValue("layer", layer)
+            .lowCardinalityKeyValue("class", type)
+            .lowCardinalityKeyValue("method", method)
+            .observeChecked(call);
+    }
+    
+    // Spring Data repositories are proxies over a generic implementation, so
+    // they are named by their own interface rather than SimpleJpaRepository
+    private static String typeName(ProceedingJoinPoint joinPoint) {
+        for (Class<?> type : joinPoint.getThis().getClass().getInterfaces()) {
+            if (Repository.class.isAssignableFrom(type) && type != Repository.class) {
+                return type.getSimpleName();
+            }
+        }
+        return ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName();
+    }
+}
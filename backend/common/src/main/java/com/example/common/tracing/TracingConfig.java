@@ -0,0 +1,20 @@
+package com.example.common.tracing;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Layer spans for every servlet service with Spring Data and AOP; the
+ * reactive gateway only forwards and gets none.
+ */
+@AutoConfiguration
+@ConditionalOnClass({Aspect.class, ObservationRegistry.class, Repository.class})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Import(LayerObservationAspect.class)
+public class TracingConfig {
+}
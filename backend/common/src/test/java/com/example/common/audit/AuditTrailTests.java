@@ -0,0 +1,222 @@
+package com.example.common.audit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditTrailTests {
+    
+    // Parameter positions in the audit_log insert, from zero
+    private static final int SEQ = 1;
+    private static final int ACTOR = 4;
+    private static final int ACTION = 5;
+    private static final int RESOURCE_ID = 7;
+    private static final int ROUTE = 8;
+    private static final int PREV_HASH = 11;
+    private static final int HASH = 12;
+    
+    private final AuditRingBuffer ringBuffer = new AuditRingBuffer(8);
+    private final AuditTable table = new AuditTable();
+    
+    @Test
+    void requestsAreRecordedWithWhatTheColumnsHold() {
+        AuditInterceptor interceptor = new AuditInterceptor();
+        ReflectionTestUtils.setField(interceptor, "ringBuffer", ringBuffer);
+        ReflectionTestUtils.setField(interceptor, "actorHeader", "X-User-Id");
+        
+        MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/api/v1/incidents/7");
+        request.addHeader("X-User-Id", "42");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/incidents/{id}");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", "7".repeat(150) + "\0"));
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        MockHttpServletRequest anonymous = new MockHttpServletRequest("GET", "/api/v1/incidents");
+        anonymous.addHeader("X-User-Id", "99999999999");
+        anonymous.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/incidents");
+        interceptor.afterCompletion(anonymous, new MockHttpServletResponse(), null, null);
+        // Not matched to a handler, so not recorded
+        interceptor.afterCompletion(new MockHttpServletRequest("GET", "/api/missing"), new MockHttpServletResponse(), null, null);
+        writer(10).flush();
+        
+        assertEquals(2, table.rows.size());
+        Object[] update = table.rows.get(0);
+        assertEquals(42L, update[ACTOR]);
+        assertEquals("UPDATE", update[ACTION]);
+        assertEquals("7".repeat(100), update[RESOURCE_ID]);
+        assertEquals("/api/v1/incidents/{id}", update[ROUTE]);
+        Object[] read = table.rows.get(1);
+        assertNull(read[ACTOR]);
+        assertEquals("READ", read[ACTION]);
+        assertNull(read[RESOURCE_ID]);
+    }
+    
+    @Test
+    void rowsFormAGapFreeHashChain() {
+        publish(5);
+        writer(2).flush();
+        
+        assertEquals(5, table.rows.size());
+        assertArrayEquals(new byte[32], (byte[]) table.rows.get(0)[PREV_HASH]);
+        for (int i = 0; i < 5; i++) {
+            assertEquals((long) i, table.rows.get(i)[SEQ]);
+            if (i > 0) {
+                assertArrayEquals((byte[]) table.rows.get(i - 1)[HASH], (byte[]) table.rows.get(i)[PREV_HASH]);
+            }
+        }
+    }
+    
+    @Test
+    void aRejectedRowIsQuarantinedInItsPlaceInTheChain() {
+        table.rejects = row -> "/route/1".equals(row[ROUTE]);
+        publish(3);
+        writer(10).flush();
+        
+        assertEquals(List.of(0L, 2L), table.rows.stream().map(row -> row[SEQ]).toList());
+        assertEquals(1, table.quarantined.size());
+        Object[] quarantined = table.quarantined.get(0);
+        assertEquals(1L, quarantined[SEQ]);
+        assertEquals("bad row", quarantined[13]);
+        assertArrayEquals((byte[]) table.rows.get(0)[HASH], (byte[]) quarantined[PREV_HASH]);
+        assertArrayEquals((byte[]) quarantined[HASH], (byte[]) table.rows.get(1)[PREV_HASH]);
+    }
+    
+    @Test
+    void aFailedBatchIsRetriedBeforeAnythingNewer() {
+        AuditWriter writer = writer(10);
+        publish(2);
+        table.down = true;
+        writer.flush();
+        assertTrue(table.rows.isEmpty());
+        
+        table.down = false;
+        ringBuffer.publish(3, 1, "READ", null, "/route/2", 200, null);
+        writer.flush();
+        
+        assertEquals(List.of("/route/0", "/route/1", "/route/2"), table.rows.stream().map(row -> row[ROUTE]).toList());
+        assertEquals(List.of(0L, 1L, 2L), table.rows.stream().map(row -> row[SEQ]).toList());
+    }
+    
+    @Test
+    void aFullRingDropsAndCountsInsteadOfBlocking() {
+        for (int i = 0; i < 8; i++) {
+            assertTrue(ringBuffer.publish(i, 1, "READ", null, "/route/" + i, 200, null));
+        }
+        assertFalse(ringBuffer.publish(8, 1, "READ", null, "/route/8", 200, null));
+        assertEquals(1, ringBuffer.takeDropped());
+        assertEquals(0, ringBuffer.takeDropped());
+        
+        writer(4).flush();
+        
+        assertEquals(8, table.rows.size());
+        assertTrue(ringBuffer.publish(9, 1, "READ", null, "/route/9", 200, null));
+    }
+    
+    private void publish(int count) {
+        for (int i = 0; i < count; i++) {
+            ringBuffer.publish(i, 1, "READ", null, "/route/" + i, 200, "127.0.0.1");
+        }
+    }
+    
+    private AuditWriter writer(int batchSize) {
+        AuditWriter writer = new AuditWriter(batchSize, new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+            
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+            
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        });
+        ReflectionTestUtils.setField(writer, "ringBuffer", ringBuffer);
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", table);
+        ReflectionTestUtils.setField(writer, "service", "test-service");
+        ReflectionTestUtils.setField(writer, "resourceType", "INCIDENT");
+        return writer;
+    }
+    
+    /** audit_log and audit_log_quarantine, rejecting rows the way a constraint would. */
+    private static class AuditTable extends JdbcTemplate {
+        
+        final List<Object[]> rows = new ArrayList<>();
+        final List<Object[]> quarantined = new ArrayList<>();
+        Predicate<Object[]> rejects = row -> false;
+        boolean down;
+        
+        @Override
+        public int[] batchUpdate(String sql, BatchPreparedStatementSetter setter) {
+            if (down) {
+                throw new TransientDataAccessResourceException("connection refused");
+            }
+            List<Object[]> batch = new ArrayList<>();
+            for (int i = 0; i < setter.getBatchSize(); i++) {
+                int index = i;
+                batch.add(bind(ps -> setter.setValues(ps, index)));
+            }
+            if (batch.stream().anyMatch(rejects)) {
+                throw new DataIntegrityViolationException("batch rejected");
+            }
+            rows.addAll(batch);
+            int[] counts = new int[batch.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        }
+        
+        @Override
+        public int update(String sql, PreparedStatementSetter setter) {
+            Object[] row = bind(setter);
+            if (sql.contains("audit_log_quarantine")) {
+                quarantined.add(row);
+            } else if (rejects.test(row)) {
+                throw new DataIntegrityViolationException("bad row");
+            } else {
+                rows.add(row);
+            }
+            return 1;
+        }
+        
+        private static Object[] bind(PreparedStatementSetter setter) {
+            Object[] values = new Object[14];
+            PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    values[(int) args[0] - 1] = args[1];
+                    return null;
+                });
+            try {
+                setter.setValues(ps);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.common.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvalidationBusTests {
+    
+    private final List<String> published = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    @Test
+    void evictionOnOneInstanceReachesTheOther() {
+        InvalidationBus writerBus = bus(1000);
+        InvalidationBus readerBus = bus(1000);
+        LocalCache<Long, String> writer = cache(writerBus);
+        LocalCache<Long, String> reader = cache(readerBus);
+        reader.get(1L, () -> load("v1"));
+        reader.get(2L, () -> load("v1"));
+        writer.get(1L, () -> load("v1"));
+        
+        writer.evict(List.of(1L));
+        writerBus.flush();
+        published.forEach(readerBus::apply);
+        
+        assertEquals(1, published.size());
+        assertEquals("v2", reader.get(1L, () -> load("v2")));
+        assertEquals("v2", writer.get(1L, () -> load("v2")));
+        // Other keys and the instance's own notifications leave entries alone
+        assertEquals("v1", reader.get(2L, () -> load("v2")));
+        published.forEach(writerBus::apply);
+        assertEquals("v2", writer.get(1L, () -> load("v3")));
+    }
+    
+    @Test
+    void publishesOnlyAfterTheWritingTransactionCommits() {
+        InvalidationBus writerBus = bus(1000);
+        LocalCache<Long, String> writer = cache(writerBus);
+        writer.get(1L, () -> load("v1"));
+        
+        TransactionSynchronizationManager.initSynchronization();
+        writer.evict(List.of(1L));
+        writerBus.flush();
+        
+        // Evicted locally at once, but nothing sent while the write can still roll back
+        assertTrue(published.isEmpty());
+        assertEquals("v2", writer.get(1L, () -> load("v2")));
+        
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        writerBus.flush();
+        
+        assertEquals(1, published.size());
+        // The entry loaded before the commit is evicted again
+        assertEquals("v3", writer.get(1L, () -> load("v3")));
+    }
+    
+    @Test
+    void aRolledBackWritePublishesNothing() {
+        InvalidationBus writerBus = bus(1000);
+        LocalCache<Long, String> writer = cache(writerBus);
+        
+        TransactionSynchronizationManager.initSynchronization();
+        writer.evict(List.of(1L));
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        writerBus.flush();
+        
+        assertTrue(published.isEmpty());
+    }
+    
+    @Test
+    void tooManyPendingKeysClearTheWholeCacheElsewhere() {
+        InvalidationBus writerBus = bus(2);
+        InvalidationBus readerBus = bus(2);
+        LocalCache<Long, String> writer = cache(writerBus);
+        LocalCache<Long, String> reader = cache(readerBus);
+        reader.get(9L, () -> load("v1"));
+        
+        writer.evict(List.of(1L, 2L, 3L));
+        writerBus.flush();
+        published.forEach(readerBus::apply);
+        
+        assertTrue(published.get(0).endsWith("|incidents:*"));
+        assertEquals("v2", reader.get(9L, () -> load("v2")));
+    }
+    
+    @Test
+    void readsBypassTheCacheWhileNotListening() {
+        InvalidationBus bus = bus(1000);
+        ReflectionTestUtils.setField(bus, "listening", false);
+        LocalCache<Long, String> cache = cache(bus);
+        
+        cache.get(1L, () -> load("v1"));
+        cache.get(1L, () -> load("v1"));
+        
+        assertEquals(2, loads.get());
+    }
+    
+    @Test
+    void aValueLoadedDuringAnInvalidationIsNotKept() {
+        InvalidationBus bus = bus(1000);
+        LocalCache<Long, String> cache = cache(bus);
+        
+        String loaded = cache.get(1L, () -> {
+            bus.apply("other|incidents:1");
+            return load("stale");
+        });
+        
+        assertEquals("stale", loaded);
+        assertEquals("fresh", cache.get(1L, () -> load("fresh")));
+    }
+    
+    @Test
+    void payloadsStayUnderTheLimitAndKeysSurviveEncoding() {
+        Set<String> keys = new LinkedHashSet<>(List.of("a,b", "c|d", "e:f", "100%"));
+        for (int i = 0; i < 2000; i++) {
+            keys.add("key-" + i);
+        }
+        
+        List<String> payloads = InvalidationBus.encode("abcd1234", Map.of("users-by-username", keys));
+        
+        assertTrue(payloads.size() > 1);
+        Set<String> received = new HashSet<>();
+        InvalidationBus readerBus = bus(1000);
+        new LocalCache<String, String>("users-by-username", 10, Duration.ofMinutes(1), readerBus) {
+            @Override
+            void invalidate(Collection<String> invalidated) {
+                received.addAll(invalidated);
+            }
+        };
+        for (String payload : payloads) {
+            assertTrue(payload.length() <= 7900, "payload of " + payload.length());
+            readerBus.apply(payload);
+        }
+        assertEquals(keys, received);
+    }
+    
+    private InvalidationBus bus(int maxPendingKeys) {
+        JdbcTemplate notifier = new JdbcTemplate() {
+            @Override
+            public <T> T query(String sql, ResultSetExtractor<T> extractor, Object... args) {
+                assertEquals("SELECT pg_notify(?, ?)", sql);
+                assertEquals("incident_cache_invalidation", args[0]);
+                published.add((String) args[1]);
+                return null;
+            }
+        };
+        InvalidationBus bus = new InvalidationBus(notifier, new DataSourceProperties(), true,
+            "incident_cache_invalidation", 500, 5000, maxPendingKeys);
+        // As if the listener had connected
+        ReflectionTestUtils.setField(bus, "listening", true);
+        return bus;
+    }
+    
+    private LocalCache<Long, String> cache(InvalidationBus bus) {
+        return new LocalCache<>("incidents", 100, Duration.ofMinutes(1), bus);
+    }
+    
+    private String load(String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+}
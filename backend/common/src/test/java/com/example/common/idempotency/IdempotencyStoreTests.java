@@ -0,0 +1,131 @@
+package com.example.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTests {
+    
+    private final IdempotencyTable table = new IdempotencyTable();
+    
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    @Test
+    void aRetryIsAnsweredWithTheOriginalResponse() {
+        IdempotencyStore store = store();
+        String fingerprint = store.fingerprint(Map.of("title", "Theft"));
+        
+        store.save("incidents", "key-1", fingerprint, 201, new Created(7, "Theft"));
+        Optional<ResponseEntity<Created>> replay = store.find("incidents", "key-1", fingerprint, Created.class);
+        
+        assertTrue(replay.isPresent());
+        assertEquals(201, replay.get().getStatusCode().value());
+        assertEquals("true", replay.get().getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(new Created(7, "Theft"), replay.get().getBody());
+        assertTrue(store.find("users", "key-1", fingerprint, Created.class).isEmpty());
+    }
+    
+    @Test
+    void replaysSurviveARestartAndReachOtherInstances() {
+        IdempotencyStore first = store();
+        String fingerprint = first.fingerprint(Map.of("title", "Theft"));
+        first.save("incidents", "key-1", fingerprint, 201, new Created(7, "Theft"));
+        
+        IdempotencyStore second = store();
+        
+        assertEquals(new Created(7, "Theft"),
+            second.find("incidents", "key-1", fingerprint, Created.class).orElseThrow().getBody());
+    }
+    
+    @Test
+    void aKeyReusedForAnotherRequestIsRejected() {
+        IdempotencyStore store = store();
+        store.save("incidents", "key-1", store.fingerprint(Map.of("title", "Theft")), 201, new Created(7, "Theft"));
+        String other = store.fingerprint(Map.of("title", "Assault"));
+        
+        assertThrows(IdempotencyKeyReusedException.class,
+            () -> store.find("incidents", "key-1", other, Created.class));
+    }
+    
+    @Test
+    void aConcurrentWinnerOnAnotherInstanceIsAConflict() {
+        IdempotencyStore winner = store();
+        IdempotencyStore loser = store();
+        String fingerprint = winner.fingerprint(Map.of("title", "Theft"));
+        winner.save("incidents", "key-1", fingerprint, 201, new Created(7, "Theft"));
+        
+        assertThrows(IdempotencyConflictException.class,
+            () -> loser.save("incidents", "key-1", fingerprint, 201, new Created(8, "Theft")));
+        // The loser then answers with the winner's response
+        assertEquals(new Created(7, "Theft"),
+            loser.find("incidents", "key-1", fingerprint, Created.class).orElseThrow().getBody());
+    }
+    
+    @Test
+    void onlyOneRequestAtATimeHoldsAKey() {
+        IdempotencyStore store = store();
+        
+        assertTrue(store.begin("incidents", "key-1"));
+        assertFalse(store.begin("incidents", "key-1"));
+        assertTrue(store.begin("users", "key-1"));
+        store.end("incidents", "key-1");
+        assertTrue(store.begin("incidents", "key-1"));
+    }
+    
+    @Test
+    void aRolledBackRequestStaysRetryable() {
+        IdempotencyStore store = store();
+        String fingerprint = store.fingerprint(Map.of("title", "Theft"));
+        
+        TransactionSynchronizationManager.initSynchronization();
+        store.save("incidents", "key-1", fingerprint, 201, new Created(7, "Theft"));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        // The row goes with the rolled-back transaction, and nothing was cached
+        table.rows.clear();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        
+        assertTrue(store.find("incidents", "key-1", fingerprint, Created.class).isEmpty());
+    }
+    
+    @Test
+    void expiredKeysArePurged() {
+        IdempotencyStore store = store();
+        ReflectionTestUtils.setField(store, "ttlSeconds", 0L);
+        String fingerprint = store.fingerprint(Map.of("title", "Theft"));
+        store.save("incidents", "key-1", fingerprint, 201, new Created(7, "Theft"));
+        
+        store.purgeExpired();
+        
+        assertTrue(table.rows.isEmpty());
+        assertTrue(store.find("incidents", "key-1", fingerprint, Created.class).isEmpty());
+    }
+    
+    private IdempotencyStore store() {
+        IdempotencyStore store = new IdempotencyStore(100);
+        ReflectionTestUtils.setField(store, "jdbcTemplate", table);
+        ReflectionTestUtils.setField(store, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(store, "ttlSeconds", 3600L);
+        return store;
+    }
+    
+    record Created(long id, String title) {}
+}
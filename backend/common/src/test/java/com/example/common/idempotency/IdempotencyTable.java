@@ -0,0 +1,66 @@
+package com.example.common.idempotency;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stands in for the idempotency_keys table, answering the store's three
+ * statements the way PostgreSQL would; shared by every store in a test as
+ * the table is shared by every instance of a service.
+ */
+class IdempotencyTable extends JdbcTemplate {
+    
+    final Map<String, Map<String, Object>> rows = new ConcurrentHashMap<>();
+    
+    @Override
+    public int update(String sql) {
+        // The purge
+        int before = rows.size();
+        rows.values().removeIf(row -> (long) row.get("expires_at_ms") <= System.currentTimeMillis());
+        return before - rows.size();
+    }
+    
+    @Override
+    public int update(String sql, Object... args) {
+        Map<String, Object> row = Map.of("status_code", args[2], "response_body", args[3],
+            "request_fingerprint", args[4],
+            "expires_at_ms", System.currentTimeMillis() + ((Number) args[5]).longValue() * 1000);
+        if (rows.putIfAbsent(args[0] + ":" + args[1], row) != null) {
+            throw new DuplicateKeyException("duplicate key value violates unique constraint \"idempotency_keys_pkey\"");
+        }
+        return 1;
+    }
+    
+    @Override
+    public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+        List<T> result = new ArrayList<>();
+        Map<String, Object> row = rows.get(args[0] + ":" + args[1]);
+        if (row != null && (long) row.get("expires_at_ms") > System.currentTimeMillis()) {
+            try {
+                result.add(rowMapper.mapRow(resultSet(row), 0));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return result;
+    }
+    
+    private static ResultSet resultSet(Map<String, Object> row) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getInt" -> ((Number) row.get((String) args[0])).intValue();
+                case "getLong" -> ((Number) row.get((String) args[0])).longValue();
+                case "getString" -> row.get((String) args[0]);
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
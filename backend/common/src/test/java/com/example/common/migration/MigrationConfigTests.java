@@ -0,0 +1,55 @@
+package com.example.common.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.dao.DataAccessException;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.net.ConnectException;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MigrationConfigTests {
+    
+    private final FlywayMigrationStrategy strategy = new MigrationConfig().migrationStrategy();
+    
+    @Test
+    void anUnreachableDatabaseIsLeftForTheNextStart() {
+        assertDoesNotThrow(() -> strategy.migrate(flyway(new SQLException("Connection refused", "08001"))));
+        assertDoesNotThrow(() -> strategy.migrate(flyway(new SQLException("I/O error", null, new ConnectException()))));
+    }
+    
+    @Test
+    void anyOtherFailureStopsTheService() {
+        assertThrows(DataAccessException.class,
+            () -> strategy.migrate(flyway(new SQLException("permission denied for schema public", "42501"))));
+    }
+    
+    @Test
+    void aServiceStrategyIsKept() {
+        FlywayMigrationStrategy own = flyway -> {};
+        new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(MigrationConfig.class))
+            .withBean(FlywayMigrationStrategy.class, () -> own)
+            .run(context -> assertSame(own, context.getBean(FlywayMigrationStrategy.class)));
+    }
+    
+    /** Flyway over a database whose every connection attempt fails with {@code failure}. */
+    private static Flyway flyway(SQLException failure) {
+        DataSource dataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+            new Class<?>[] {DataSource.class}, (proxy, method, args) -> {
+                if (method.getName().equals("getConnection")) {
+                    throw failure;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        return Flyway.configure().dataSource(dataSource).load();
+    }
+}
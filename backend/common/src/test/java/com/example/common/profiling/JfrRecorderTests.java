@@ -0,0 +1,84 @@
+package com.example.common.profiling;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.transport.RequestReplyReceiverContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrRecorderTests {
+    
+    @TempDir
+    Path directory;
+    
+    private JfrRecorder recorder;
+    private JfrEndpoint endpoint;
+    
+    @BeforeEach
+    void setUp() {
+        recorder = new JfrRecorder("test-service", directory.toString(), 2, 900, false, 30, 100);
+        endpoint = new JfrEndpoint(recorder, "com.example", List.of("com.example.common"), 20, 60);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        recorder.shutdown();
+    }
+    
+    @Test
+    void onDemandRecordingCountsTheRequestsItCovers() throws Exception {
+        recorder.start("default", Duration.ofMinutes(1));
+        HttpRequestEventHandler handler = new HttpRequestEventHandler();
+        for (int i = 0; i < 3; i++) {
+            RequestReplyReceiverContext<Object, Object> context = new RequestReplyReceiverContext<>((carrier, key) -> null);
+            handler.onStart(context);
+            context.addLowCardinalityKeyValue(KeyValue.of("method", "GET"));
+            handler.onStop(context);
+        }
+        Path file = recorder.stop();
+        
+        assertTrue(Files.size(file) > 0);
+        assertEquals(file, recorder.file(file.getFileName().toString()));
+        RecordingSummary.Summary summary = endpoint.summary(file.getFileName().toString(), null);
+        assertEquals(3, summary.requests());
+    }
+    
+    @Test
+    void keepsOnlyTheNewestFiles() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            recorder.start("default", Duration.ofMinutes(1));
+            recorder.stop();
+            Thread.sleep(10);
+        }
+        
+        assertEquals(2, recorder.getFiles().size());
+    }
+    
+    @Test
+    void durationIsCappedAndBadRequestsAreRejected() {
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("start", "default", 0L));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("start", "default", 901L));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("start", "no-such-profile", 10L));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("restart", null, null));
+        // Nothing is running to stop, and the continuous recording is off
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("stop", null, null));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("dump", null, null));
+    }
+    
+    @Test
+    void onlyRecordingFilesInTheDirectoryCanBeRead() {
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.summary("../secrets.jfr", null));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.summary("missing.jfr", null));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.common.profiling;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProfilingConfigTests {
+    
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(ProfilingConfig.class))
+        .withPropertyValues("spring.application.name=test-service", "profiling.jfr.continuous.enabled=false");
+    
+    @Test
+    void registersTheRecorderEndpointAndRequestEvents() {
+        runner.run(context -> {
+            assertNull(context.getStartupFailure());
+            assertNotNull(context.getBean(JfrRecorder.class));
+            assertNotNull(context.getBean(JfrEndpoint.class));
+            assertNotNull(context.getBean(HttpRequestEventHandler.class));
+        });
+    }
+    
+    @Test
+    void startsWhenJfrIsNotExposed() {
+        runner.withPropertyValues("management.endpoints.web.exposure.include=health")
+            .run(context -> assertNull(context.getStartupFailure()));
+    }
+    
+    @Test
+    void startsWhenJfrHasAManagementPortOfItsOwn() {
+        runner.withPropertyValues("management.endpoints.web.exposure.include=health,jfr",
+                "server.port=8083", "management.server.port=9083")
+            .run(context -> assertNull(context.getStartupFailure()));
+    }
+    
+    @Test
+    void refusesJfrOnTheApplicationPort() {
+        runner.withPropertyValues("management.endpoints.web.exposure.include=health,jfr", "server.port=8083")
+            .run(context -> assertInstanceOf(IllegalStateException.class, rootCause(context.getStartupFailure())));
+        runner.withPropertyValues("management.endpoints.web.exposure.include=*",
+                "server.port=8083", "management.server.port=8083")
+            .run(context -> assertInstanceOf(IllegalStateException.class, rootCause(context.getStartupFailure())));
+    }
+    
+    @Test
+    void excludingJfrLiftsTheCheck() {
+        runner.withPropertyValues("management.endpoints.web.exposure.include=*",
+                "management.endpoints.web.exposure.exclude=jfr")
+            .run(context -> assertNull(context.getStartupFailure()));
+    }
+    
+    private static Throwable rootCause(Throwable failure) {
+        assertNotNull(failure);
+        while (failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        return failure;
+    }
+}
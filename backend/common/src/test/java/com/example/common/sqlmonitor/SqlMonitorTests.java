@@ -0,0 +1,228 @@
+package com.example.common.sqlmonitor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlMonitorTests {
+    
+    @TempDir
+    Path directory;
+    
+    private final Map<String, List<Object>> executed = new ConcurrentHashMap<>();
+    private SqlMonitor monitor;
+    
+    @AfterEach
+    void tearDown() {
+        if (monitor != null) {
+            monitor.shutdown();
+        }
+    }
+    
+    @Test
+    void timesStatementsUnderTheirNormalizedText() throws Exception {
+        DataSource dataSource = monitored(60_000);
+        
+        try (Connection connection = dataSource.getConnection()) {
+            for (int id = 1; id <= 3; id++) {
+                try (PreparedStatement ps = connection.prepareStatement("SELECT * FROM incidents WHERE id = ?")) {
+                    ps.setInt(1, id);
+                    ps.executeQuery();
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("UPDATE incidents SET title = 'a' WHERE id IN (1, 2, 3)");
+                statement.execute("UPDATE incidents SET title = 'b' WHERE id IN (4, 5)");
+            }
+        }
+        
+        List<SqlMonitor.StatementSummary> statements = monitor.getStatements();
+        assertEquals(2, statements.size());
+        assertEquals(3, count(statements, "SELECT * FROM incidents WHERE id = ?"));
+        assertEquals(2, count(statements, "UPDATE incidents SET title = ? WHERE id IN (?, ...)"));
+        // Nothing crossed the threshold, so nothing was replayed
+        assertTrue(monitor.getSamples().isEmpty());
+    }
+    
+    @Test
+    void slowQueriesAreReplayedUnderExplainWithTheirParameters() throws Exception {
+        DataSource dataSource = monitored(0);
+        
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT * FROM incidents WHERE status_id = ? AND title = ?")) {
+            ps.setShort(1, (short) 2);
+            ps.setNull(2, java.sql.Types.VARCHAR);
+            ps.executeQuery();
+        }
+        
+        SqlMonitor.Sample sample = awaitSample();
+        assertEquals("SELECT * FROM incidents WHERE status_id = ? AND title = ?", sample.sql());
+        assertEquals(List.of("Seq Scan on incidents"), sample.plan());
+        assertEquals(Arrays.asList((short) 2, null),
+            executed.get("EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM incidents WHERE status_id = ? AND title = ?"));
+        assertTrue(awaitLog().contains("Seq Scan on incidents"));
+    }
+    
+    @Test
+    void writesAndStreamedValuesAreNeverReplayed() throws Exception {
+        DataSource dataSource = monitored(0);
+        
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement ps = connection.prepareStatement("DELETE FROM incidents WHERE id = ?")) {
+                ps.setInt(1, 1);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = connection.prepareStatement("SELECT * FROM incidents WHERE description = ?")) {
+                ps.setBinaryStream(1, new ByteArrayInputStream(new byte[0]));
+                ps.executeQuery();
+            }
+        }
+        Thread.sleep(200);
+        
+        assertEquals(2, monitor.getStatements().size());
+        assertTrue(monitor.getSamples().isEmpty());
+        assertTrue(executed.keySet().stream().noneMatch(sql -> sql.startsWith("EXPLAIN")));
+    }
+    
+    @Test
+    void proxiesAreTheirOwnIdentity() throws Exception {
+        DataSource dataSource = monitored(60_000);
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        
+        assertEquals(first, first);
+        assertNotEquals(first, second);
+        assertEquals(System.identityHashCode(first), first.hashCode());
+    }
+    
+    @Test
+    void monitorsTheDataSourceOnlyWhereEnabled() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(SqlMonitorConfig.class))
+            .withPropertyValues("spring.application.name=test-service",
+                "sql.monitor.log.file=" + directory.resolve("slow.log"))
+            .withBean(DataSource.class, this::stubDataSource);
+        
+        runner.run(context -> assertTrue(context.getBeansOfType(SqlMonitor.class).isEmpty()));
+        runner.withPropertyValues("sql.monitor.enabled=true").run(context -> {
+            assertEquals(1, context.getBeansOfType(SqlMonitorEndpoint.class).size());
+            try (Connection connection = context.getBean(DataSource.class).getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("SELECT 1");
+            }
+            assertEquals(1, context.getBean(SqlMonitor.class).getStatements().size());
+        });
+    }
+    
+    private DataSource monitored(long slowThresholdMillis) {
+        monitor = new SqlMonitor(slowThresholdMillis, 60_000, 1000, 10,
+            directory.resolve("slow.log").toString(), 1 << 20, 2);
+        DataSource target = stubDataSource();
+        monitor.setExplainDataSource(target);
+        return MonitoringDataSource.wrap(target, monitor);
+    }
+    
+    private static long count(List<SqlMonitor.StatementSummary> statements, String sql) {
+        return statements.stream().filter(summary -> summary.sql().equals(sql)).findFirst().orElseThrow().count();
+    }
+    
+    private SqlMonitor.Sample awaitSample() throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && monitor.getSamples().isEmpty(); attempt++) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, monitor.getSamples().size());
+        return monitor.getSamples().get(0);
+    }
+    
+    // The sample is listed just before it is written to the log
+    private String awaitLog() throws Exception {
+        Path log = directory.resolve("slow.log");
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (Files.exists(log) && Files.readString(log).endsWith("\n\n")) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        return Files.readString(log);
+    }
+    
+    // A driver that records each executed statement with its bound values and
+    // answers every query with one plan line
+    private DataSource stubDataSource() {
+        return stub(DataSource.class, (method, args) -> method.equals("getConnection")
+            ? stub(Connection.class, (connectionMethod, connectionArgs) -> switch (connectionMethod) {
+                case "prepareStatement" -> statement(PreparedStatement.class, (String) connectionArgs[0]);
+                case "createStatement" -> statement(Statement.class, null);
+                case "getAutoCommit" -> true;
+                default -> null;
+            })
+            : null);
+    }
+    
+    private <T> T statement(Class<T> type, String preparedSql) {
+        List<Object> parameters = new ArrayList<>();
+        return stub(type, (method, args) -> {
+            if (method.startsWith("set") && args.length >= 2 && args[0] instanceof Integer index) {
+                while (parameters.size() < index) {
+                    parameters.add(null);
+                }
+                parameters.set(index - 1, method.equals("setNull") ? null : args[1]);
+            }
+            if (method.startsWith("execute")) {
+                executed.put(args != null && args.length > 0 ? (String) args[0] : preparedSql, parameters);
+            }
+            if (method.equals("executeQuery")) {
+                boolean[] read = {false};
+                return stub(ResultSet.class, (resultMethod, resultArgs) -> switch (resultMethod) {
+                    case "next" -> !read[0] && (read[0] = true);
+                    case "getString" -> "Seq Scan on incidents";
+                    default -> null;
+                });
+            }
+            return null;
+        });
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, StubMethod answer) {
+        return (T) Proxy.newProxyInstance(SqlMonitorTests.class.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> {
+                if (method.getDeclaringClass() == Object.class) {
+                    return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+                }
+                Object result = answer.call(method.getName(), args);
+                if (result == null && method.getReturnType() == boolean.class) {
+                    return false;
+                }
+                if (result == null && method.getReturnType() == int.class) {
+                    return 0;
+                }
+                return result;
+            });
+    }
+    
+    private interface StubMethod {
+        Object call(String method, Object[] args);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.common.sqlmonitor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlTextTests {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void literalsAndPlaceholderListsCollapse() {
+        assertEquals("SELECT * FROM t WHERE a = ? AND b IN (?, ...) AND c = ?",
+            SqlText.normalize("SELECT *\n  FROM t WHERE a = 'it''s' AND b IN (?, ?, ?) AND c = -1.5e3"));
+        // Digits inside identifiers and qualified names are kept
+        assertEquals("SELECT t1.col2 FROM t1 LIMIT ?", SqlText.normalize("SELECT t1.col2 FROM t1 LIMIT 10"));
+    }
+    
+    @Test
+    void onlyPlainQueriesAreExplained() {
+        assertTrue(SqlText.isQuery("  select 1"));
+        assertTrue(SqlText.isQuery("/* hint */ -- note\nSELECT 1"));
+        assertTrue(SqlText.isQuery("WITH x AS (SELECT 1) SELECT * FROM x"));
+        assertFalse(SqlText.isQuery("WITH x AS (DELETE FROM t RETURNING id) SELECT * FROM x"));
+        assertFalse(SqlText.isQuery("UPDATE t SET a = 1"));
+        assertFalse(SqlText.isQuery("insert into t values (1)"));
+    }
+    
+    @Test
+    void histogramQuantilesStayWithinTheRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+        
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500, histogram.quantileMillis(0.5), 500 * 0.02);
+        assertEquals(990, histogram.quantileMillis(0.99), 990 * 0.02);
+        assertEquals(1000, histogram.getMaxMillis(), 0.001);
+        assertEquals(0, new LatencyHistogram().quantileMillis(0.5));
+    }
+    
+    @Test
+    void slowQueryLogRollsBySize() throws Exception {
+        Path file = directory.resolve("slow.log");
+        SlowQueryLog log = new SlowQueryLog(file, 10, 2);
+        
+        for (String entry : new String[] {"first\n", "second\n", "third\n", "fourth\n"}) {
+            log.append(entry);
+        }
+        
+        assertEquals("fourth\n", Files.readString(file));
+        assertEquals("third\n", Files.readString(directory.resolve("slow.log.1")));
+        assertEquals("second\n", Files.readString(directory.resolve("slow.log.2")));
+        assertFalse(Files.exists(directory.resolve("slow.log.3")));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.common.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.data.repository.Repository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LayerObservationAspectTests {
+    
+    private final List<Observation.Context> observed = new ArrayList<>();
+    private final ObservationRegistry registry = ObservationRegistry.create();
+    
+    LayerObservationAspectTests() {
+        registry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                observed.add(context);
+            }
+            
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+    }
+    
+    @Test
+    void eachLayerGetsAnObservationNamedAfterItsClass() {
+        proxy(new ReportController()).list();
+        proxy(new ReportService()).summarize();
+        IncidentRepository repository = () -> 3;
+        proxy(repository).count();
+        
+        assertEquals(List.of("ReportController.list", "ReportService.summarize", "IncidentRepository.count"),
+            observed.stream().map(Observation.Context::getContextualName).toList());
+        assertEquals(List.of("controller", "service", "repository"),
+            observed.stream().map(context -> context.getLowCardinalityKeyValue("layer").getValue()).toList());
+        assertTrue(observed.stream().allMatch(context -> context.getName().equals("method.observed")));
+    }
+    
+    @Test
+    void scheduledJobsAreNotObserved() {
+        proxy(new ReportService()).purge();
+        
+        assertTrue(observed.isEmpty());
+    }
+    
+    @Test
+    void failuresAreRecordedAndRethrown() {
+        ReportService service = proxy(new ReportService());
+        
+        assertThrows(IllegalStateException.class, service::fail);
+        assertEquals(IllegalStateException.class, observed.get(0).getError().getClass());
+    }
+    
+    @Test
+    void onlyServletApplicationsAreTraced() {
+        new WebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TracingConfig.class))
+            .withBean(ObservationRegistry.class, () -> registry)
+            .run(context -> assertEquals(1, context.getBeansOfType(LayerObservationAspect.class).size()));
+        new ReactiveWebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TracingConfig.class))
+            .withBean(ObservationRegistry.class, () -> registry)
+            .run(context -> assertTrue(context.getBeansOfType(LayerObservationAspect.class).isEmpty()));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new LayerObservationAspect(registry));
+        return (T) factory.getProxy();
+    }
+    
+    @RestController
+    static class ReportController {
+        public List<String> list() {
+            return List.of();
+        }
+    }
+    
+    @Service
+    static class ReportService {
+        public int summarize() {
+            return 1;
+        }
+        
+        @Scheduled(fixedDelay = 1000)
+        public void purge() {
+        }
+        
+        public void fail() {
+            throw new IllegalStateException("boom");
+        }
+    }
+    
+    interface IncidentRepository extends Repository<Object, Long> {
+        long count();
+    }
+}
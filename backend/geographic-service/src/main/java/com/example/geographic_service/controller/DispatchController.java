@@ -0,0 +1,30 @@
+package com.example.geographic_service.controller;
+
+import com.example.geographic_service.dto.DispatchCandidatesDTO;
+import com.example.geographic_service.service.DispatchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/geo/dispatch")
+@RequiredArgsConstructor
+@Tag(name = "Dispatch", description = "APIs for dispatch recommendations")
+public class DispatchController {
+    
+    private final DispatchService dispatchService;
+    
+    @GetMapping("/candidates")
+    @Operation(summary = "Get dispatch candidates",
+               description = "Retrieves the officers nearest to an incident, ranked by road travel time when routing is available and by great-circle distance otherwise")
+    public ResponseEntity<DispatchCandidatesDTO> getCandidates(
+            @Parameter(description = "Incident ID") @RequestParam Long incidentId,
+            @Parameter(description = "Number of candidates") @RequestParam(defaultValue = "5") int k,
+            @Parameter(description = "Maximum distance in meters") @RequestParam(defaultValue = "10000") double maxRadiusMeters,
+            @Parameter(description = "Only officers of this station") @RequestParam(required = false) Integer stationId) {
+        return ResponseEntity.ok(dispatchService.getCandidates(incidentId, k, maxRadiusMeters, stationId));
+    }
+}
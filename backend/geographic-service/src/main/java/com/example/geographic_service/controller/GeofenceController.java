@@ -0,0 +1,58 @@
+package com.example.geographic_service.controller;
+
+import com.example.geographic_service.dto.CreateGeofenceRequest;
+import com.example.geographic_service.dto.GeofenceDTO;
+import com.example.geographic_service.dto.GeofenceNotificationDTO;
+import com.example.geographic_service.geofence.InMemoryGeofenceNotifier;
+import com.example.geographic_service.service.GeofenceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/geo/geofences")
+@RequiredArgsConstructor
+@Tag(name = "Geofences", description = "APIs for watch areas and incident notifications")
+public class GeofenceController {
+    
+    private final GeofenceService geofenceService;
+    private final InMemoryGeofenceNotifier notifier;
+    
+    @PostMapping
+    @Operation(summary = "Create geofence", description = "Creates a watch area polygon for a user")
+    public ResponseEntity<GeofenceDTO> createGeofence(@RequestBody CreateGeofenceRequest request) {
+        GeofenceDTO geofence = geofenceService.createGeofence(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(geofence);
+    }
+    
+    @GetMapping
+    @Operation(summary = "Get geofences by user", description = "Retrieves all watch areas of a user")
+    public ResponseEntity<List<GeofenceDTO>> getGeofencesByUser(
+            @Parameter(description = "User ID") @RequestParam Long userId) {
+        return ResponseEntity.ok(geofenceService.getGeofencesByUser(userId));
+    }
+    
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete geofence", description = "Deletes a watch area")
+    public ResponseEntity<Void> deleteGeofence(
+            @Parameter(description = "Geofence ID") @PathVariable Long id) {
+        geofenceService.deleteGeofence(id);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @GetMapping("/notifications")
+    @Operation(summary = "Get geofence notifications",
+               description = "Retrieves recent incidents inside a user's watch areas, newest first")
+    public ResponseEntity<List<GeofenceNotificationDTO>> getNotifications(
+            @Parameter(description = "User ID") @RequestParam Long userId,
+            @Parameter(description = "Only return notifications with an id greater than this") 
+            @RequestParam(defaultValue = "0") long afterId) {
+        return ResponseEntity.ok(notifier.getNotifications(userId, afterId));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.geographic_service.controller;
+
+import com.example.geographic_service.dto.OfficerPositionDTO;
+import com.example.geographic_service.dto.PositionBatchResult;
+import com.example.geographic_service.dto.PositionPingDTO;
+import com.example.geographic_service.service.PositionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/geo/positions")
+@RequiredArgsConstructor
+@Tag(name = "Officer Positions", description = "APIs for live officer GPS tracking")
+public class PositionController {
+    
+    private final PositionService positionService;
+    
+    @PostMapping
+    @Operation(summary = "Report positions",
+               description = "Accepts a batch of officer GPS pings; history is persisted asynchronously")
+    public ResponseEntity<PositionBatchResult> reportPositions(@RequestBody List<PositionPingDTO> pings) {
+        PositionBatchResult result = positionService.ingest(pings);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+    }
+    
+    @GetMapping("/{userId}")
+    @Operation(summary = "Get latest position", description = "Retrieves the last known position of an officer")
+    public ResponseEntity<OfficerPositionDTO> getLatestPosition(
+            @Parameter(description = "Officer user ID") @PathVariable Long userId) {
+        return ResponseEntity.ok(positionService.getLatestPosition(userId));
+    }
+    
+    @GetMapping("/nearby")
+    @Operation(summary = "Find officers near location",
+               description = "Retrieves officers with a live position within a radius of a point, nearest first")
+    public ResponseEntity<List<OfficerPositionDTO>> getOfficersNear(
+            @Parameter(description = "Latitude") @RequestParam double latitude,
+            @Parameter(description = "Longitude") @RequestParam double longitude,
+            @Parameter(description = "Radius in meters") @RequestParam(defaultValue = "2000") double radiusMeters,
+            @Parameter(description = "Only officers of this station") @RequestParam(required = false) Integer stationId,
+            @Parameter(description = "Maximum number of officers to return") @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(positionService.findOfficersNear(latitude, longitude, radiusMeters, stationId, limit));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.geographic_service.controller;
+
+import com.example.geographic_service.dto.RouteDTO;
+import com.example.geographic_service.dto.TravelTimeMatrixDTO;
+import com.example.geographic_service.dto.TravelTimeMatrixRequest;
+import com.example.geographic_service.service.RoutingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/geo/route")
+@RequiredArgsConstructor
+@Tag(name = "Routing", description = "APIs for road-network routes and travel times")
+public class RouteController {
+    
+    private final RoutingService routingService;
+    
+    @GetMapping
+    @Operation(summary = "Get fastest route",
+               description = "Retrieves the fastest road route between two points with its duration, length and geometry")
+    public ResponseEntity<RouteDTO> getRoute(
+            @Parameter(description = "Origin latitude") @RequestParam double fromLatitude,
+            @Parameter(description = "Origin longitude") @RequestParam double fromLongitude,
+            @Parameter(description = "Destination latitude") @RequestParam double toLatitude,
+            @Parameter(description = "Destination longitude") @RequestParam double toLongitude) {
+        return ResponseEntity.ok(routingService.route(fromLatitude, fromLongitude, toLatitude, toLongitude));
+    }
+    
+    @PostMapping("/matrix")
+    @Operation(summary = "Get travel-time matrix",
+               description = "Computes road travel times in seconds from every source to every destination")
+    public ResponseEntity<TravelTimeMatrixDTO> getMatrix(@RequestBody TravelTimeMatrixRequest request) {
+        return ResponseEntity.ok(routingService.matrix(request));
+    }
+}
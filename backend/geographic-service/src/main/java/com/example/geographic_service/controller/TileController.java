@@ -0,0 +1,41 @@
+package com.example.geographic_service.controller;
+
+import com.example.geographic_service.service.TileService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/v1/geo/tiles")
+@RequiredArgsConstructor
+@Tag(name = "Vector Tiles", description = "APIs for Mapbox Vector Tiles of boundaries and incidents")
+public class TileController {
+    
+    public static final String MVT_MEDIA_TYPE = "application/vnd.mapbox-vector-tile";
+    
+    private final TileService tileService;
+    
+    @GetMapping(value = "/{layer}/{z}/{x}/{y}.mvt", produces = MVT_MEDIA_TYPE)
+    @Operation(summary = "Get vector tile",
+               description = "Retrieves a web mercator tile of the boundaries or incidents layer; incidents are clustered below the detail zoom")
+    public ResponseEntity<byte[]> getTile(
+            @Parameter(description = "Layer (boundaries or incidents)") @PathVariable String layer,
+            @Parameter(description = "Zoom level") @PathVariable int z,
+            @Parameter(description = "Tile column") @PathVariable int x,
+            @Parameter(description = "Tile row") @PathVariable int y) {
+        byte[] tile = tileService.getTile(layer, z, x, y);
+        CacheControl cacheControl = TileService.INCIDENTS.equals(layer)
+            ? CacheControl.maxAge(30, TimeUnit.SECONDS)
+            : CacheControl.maxAge(1, TimeUnit.HOURS);
+        if (tile.length == 0) {
+            return ResponseEntity.noContent().cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).body(tile);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.geographic_service.dto;
+
+import java.util.List;
+
+public class CreateGeofenceRequest {
+    private String name;
+    private Long userId;
+    private List<LocationDTO> boundary;
+    
+    public CreateGeofenceRequest() {}
+    
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public List<LocationDTO> getBoundary() { return boundary; }
+    public void setBoundary(List<LocationDTO> boundary) { this.boundary = boundary; }
+}
@@ -0,0 +1,38 @@
+package com.example.geographic_service.dto;
+
+import java.util.List;
+
+public class DispatchCandidatesDTO {
+    private Long incidentId;
+    private String priority;
+    private Double latitude;
+    private Double longitude;
+    private List<OfficerPositionDTO> candidates;
+    
+    public DispatchCandidatesDTO() {}
+    
+    public DispatchCandidatesDTO(Long incidentId, String priority, Double latitude, Double longitude,
+                                 List<OfficerPositionDTO> candidates) {
+        this.incidentId = incidentId;
+        this.priority = priority;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.candidates = candidates;
+    }
+    
+    // Getters and Setters
+    public Long getIncidentId() { return incidentId; }
+    public void setIncidentId(Long incidentId) { this.incidentId = incidentId; }
+    
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public List<OfficerPositionDTO> getCandidates() { return candidates; }
+    public void setCandidates(List<OfficerPositionDTO> candidates) { this.candidates = candidates; }
+}
@@ -0,0 +1,38 @@
+package com.example.geographic_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class GeofenceDTO {
+    private Long id;
+    private String name;
+    private Long userId;
+    private List<LocationDTO> boundary;
+    private LocalDateTime createdAt;
+    
+    public GeofenceDTO() {}
+    
+    public GeofenceDTO(Long id, String name, Long userId, List<LocationDTO> boundary, LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.userId = userId;
+        this.boundary = boundary;
+        this.createdAt = createdAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public List<LocationDTO> getBoundary() { return boundary; }
+    public void setBoundary(List<LocationDTO> boundary) { this.boundary = boundary; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
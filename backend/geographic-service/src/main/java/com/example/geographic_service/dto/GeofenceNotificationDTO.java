@@ -0,0 +1,46 @@
+package com.example.geographic_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class GeofenceNotificationDTO {
+    private long id;
+    private Long userId;
+    private Long incidentId;
+    private String incidentType;
+    private String priority;
+    private Double latitude;
+    private Double longitude;
+    private List<Long> geofenceIds;
+    private LocalDateTime createdAt;
+    
+    public GeofenceNotificationDTO() {}
+    
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public Long getIncidentId() { return incidentId; }
+    public void setIncidentId(Long incidentId) { this.incidentId = incidentId; }
+    
+    public String getIncidentType() { return incidentType; }
+    public void setIncidentType(String incidentType) { this.incidentType = incidentType; }
+    
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public List<Long> getGeofenceIds() { return geofenceIds; }
+    public void setGeofenceIds(List<Long> geofenceIds) { this.geofenceIds = geofenceIds; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
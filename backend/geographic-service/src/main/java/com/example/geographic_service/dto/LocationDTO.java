@@ -0,0 +1,20 @@
+package com.example.geographic_service.dto;
+
+public class LocationDTO {
+    private double latitude;
+    private double longitude;
+    
+    public LocationDTO() {}
+    
+    public LocationDTO(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+    
+    // Getters and Setters
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+    
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+}
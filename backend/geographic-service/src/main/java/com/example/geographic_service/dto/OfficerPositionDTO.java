@@ -0,0 +1,49 @@
+package com.example.geographic_service.dto;
+
+import java.time.LocalDateTime;
+
+public class OfficerPositionDTO {
+    private Long userId;
+    private Integer stationId;
+    private Double latitude;
+    private Double longitude;
+    private Double speed;
+    private Double heading;
+    private Double accuracy;
+    private LocalDateTime recordedAt;
+    private Double distanceMeters;
+    private Double travelTimeSeconds;
+    
+    public OfficerPositionDTO() {}
+    
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public Integer getStationId() { return stationId; }
+    public void setStationId(Integer stationId) { this.stationId = stationId; }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public Double getSpeed() { return speed; }
+    public void setSpeed(Double speed) { this.speed = speed; }
+    
+    public Double getHeading() { return heading; }
+    public void setHeading(Double heading) { this.heading = heading; }
+    
+    public Double getAccuracy() { return accuracy; }
+    public void setAccuracy(Double accuracy) { this.accuracy = accuracy; }
+    
+    public LocalDateTime getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(LocalDateTime recordedAt) { this.recordedAt = recordedAt; }
+    
+    public Double getDistanceMeters() { return distanceMeters; }
+    public void setDistanceMeters(Double distanceMeters) { this.distanceMeters = distanceMeters; }
+    
+    public Double getTravelTimeSeconds() { return travelTimeSeconds; }
+    public void setTravelTimeSeconds(Double travelTimeSeconds) { this.travelTimeSeconds = travelTimeSeconds; }
+}
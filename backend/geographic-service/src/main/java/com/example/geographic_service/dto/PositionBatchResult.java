@@ -0,0 +1,25 @@
+package com.example.geographic_service.dto;
+
+public class PositionBatchResult {
+    private int accepted;
+    private int stale;
+    private int rejected;
+    
+    public PositionBatchResult() {}
+    
+    public PositionBatchResult(int accepted, int stale, int rejected) {
+        this.accepted = accepted;
+        this.stale = stale;
+        this.rejected = rejected;
+    }
+    
+    // Getters and Setters
+    public int getAccepted() { return accepted; }
+    public void setAccepted(int accepted) { this.accepted = accepted; }
+    
+    public int getStale() { return stale; }
+    public void setStale(int stale) { this.stale = stale; }
+    
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+}
@@ -0,0 +1,37 @@
+package com.example.geographic_service.dto;
+
+import java.time.LocalDateTime;
+
+public class PositionPingDTO {
+    private Long userId;
+    private Double latitude;
+    private Double longitude;
+    private Double speed;
+    private Double heading;
+    private Double accuracy;
+    private LocalDateTime recordedAt;
+    
+    public PositionPingDTO() {}
+    
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public Double getSpeed() { return speed; }
+    public void setSpeed(Double speed) { this.speed = speed; }
+    
+    public Double getHeading() { return heading; }
+    public void setHeading(Double heading) { this.heading = heading; }
+    
+    public Double getAccuracy() { return accuracy; }
+    public void setAccuracy(Double accuracy) { this.accuracy = accuracy; }
+    
+    public LocalDateTime getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(LocalDateTime recordedAt) { this.recordedAt = recordedAt; }
+}
@@ -0,0 +1,27 @@
+package com.example.geographic_service.dto;
+
+import java.util.List;
+
+public class RouteDTO {
+    private double distanceMeters;
+    private double durationSeconds;
+    private List<LocationDTO> path;
+    
+    public RouteDTO() {}
+    
+    public RouteDTO(double distanceMeters, double durationSeconds, List<LocationDTO> path) {
+        this.distanceMeters = distanceMeters;
+        this.durationSeconds = durationSeconds;
+        this.path = path;
+    }
+    
+    // Getters and Setters
+    public double getDistanceMeters() { return distanceMeters; }
+    public void setDistanceMeters(double distanceMeters) { this.distanceMeters = distanceMeters; }
+    
+    public double getDurationSeconds() { return durationSeconds; }
+    public void setDurationSeconds(double durationSeconds) { this.durationSeconds = durationSeconds; }
+    
+    public List<LocationDTO> getPath() { return path; }
+    public void setPath(List<LocationDTO> path) { this.path = path; }
+}
@@ -0,0 +1,18 @@
+package com.example.geographic_service.dto;
+
+import java.util.List;
+
+public class TravelTimeMatrixDTO {
+    // durationsSeconds[i][j] is from source i to destination j, null if unreachable
+    private List<List<Double>> durationsSeconds;
+    
+    public TravelTimeMatrixDTO() {}
+    
+    public TravelTimeMatrixDTO(List<List<Double>> durationsSeconds) {
+        this.durationsSeconds = durationsSeconds;
+    }
+    
+    // Getters and Setters
+    public List<List<Double>> getDurationsSeconds() { return durationsSeconds; }
+    public void setDurationsSeconds(List<List<Double>> durationsSeconds) { this.durationsSeconds = durationsSeconds; }
+}
@@ -0,0 +1,17 @@
+package com.example.geographic_service.dto;
+
+import java.util.List;
+
+public class TravelTimeMatrixRequest {
+    private List<LocationDTO> sources;
+    private List<LocationDTO> destinations;
+    
+    public TravelTimeMatrixRequest() {}
+    
+    // Getters and Setters
+    public List<LocationDTO> getSources() { return sources; }
+    public void setSources(List<LocationDTO> sources) { this.sources = sources; }
+    
+    public List<LocationDTO> getDestinations() { return destinations; }
+    public void setDestinations(List<LocationDTO> destinations) { this.destinations = destinations; }
+}
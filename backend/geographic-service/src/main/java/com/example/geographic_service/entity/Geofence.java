@@ -0,0 +1,47 @@
+package com.example.geographic_service.entity;
+
+import jakarta.persistence.*;
+import org.locationtech.jts.geom.Polygon;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "geofences")
+public class Geofence {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 100)
+    private String name;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(columnDefinition = "geometry(Polygon, 4326)", nullable = false)
+    private Polygon geom;
+    
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public Polygon getGeom() { return geom; }
+    public void setGeom(Polygon geom) { this.geom = geom; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,7 @@
+package com.example.geographic_service.exception;
+
+public class GeofenceNotFoundException extends RuntimeException {
+    public GeofenceNotFoundException(Long id) {
+        super("Geofence not found with id: " + id);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.geographic_service.exception;
+
+public class IncidentNotFoundException extends RuntimeException {
+    public IncidentNotFoundException(Long id) {
+        super("Incident not found with id: " + id);
+    }
+}
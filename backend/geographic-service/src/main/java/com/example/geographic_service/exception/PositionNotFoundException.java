@@ -0,0 +1,7 @@
+package com.example.geographic_service.exception;
+
+public class PositionNotFoundException extends RuntimeException {
+    public PositionNotFoundException(Long userId) {
+        super("No position known for user with id: " + userId);
+    }
+}
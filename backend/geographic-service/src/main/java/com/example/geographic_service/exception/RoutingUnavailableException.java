@@ -0,0 +1,7 @@
+package com.example.geographic_service.exception;
+
+public class RoutingUnavailableException extends RuntimeException {
+    public RoutingUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.geographic_service.feed;
+
+import com.example.geographic_service.repository.IncidentLocationRepository;
+import com.example.geographic_service.repository.IncidentLocationRepository.FeedPosition;
+import com.example.geographic_service.repository.IncidentLocationRepository.NewIncident;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Tails newly created incidents in the order their creation events commit
+ * (see {@link IncidentLocationRepository#findCreatedAfter}) and passes each
+ * one to every {@link NewIncidentListener}. Incidents that existed before
+ * startup are skipped.
+ */
+@Component
+public class IncidentFeedPoller {
+    
+    private static final Logger log = LoggerFactory.getLogger(IncidentFeedPoller.class);
+    
+    @Autowired
+    private IncidentLocationRepository incidentLocationRepository;
+    
+    @Autowired
+    private List<NewIncidentListener> listeners;
+    
+    @Value("${geo.incident-feed.poll-batch-size:1000}")
+    private int batchSize;
+    
+    // Only touched by the polling thread
+    private FeedPosition lastPosition;
+    
+    @Scheduled(fixedDelayString = "${geo.incident-feed.poll-interval-ms:2000}")
+    public void poll() {
+        if (!listeners.stream().allMatch(NewIncidentListener::isReady)) {
+            return;
+        }
+        try {
+            if (lastPosition == null) {
+                lastPosition = incidentLocationRepository.findFeedHorizon();
+            }
+            List<NewIncident> incidents;
+            do {
+                incidents = incidentLocationRepository.findCreatedAfter(lastPosition, batchSize);
+                for (NewIncident incident : incidents) {
+                    for (NewIncidentListener listener : listeners) {
+                        listener.onIncident(incident);
+                    }
+                    lastPosition = incident.position();
+                }
+            } while (incidents.size() == batchSize);
+        } catch (DataAccessException e) {
+            log.warn("Could not read new incidents: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.geographic_service.feed;
+
+import com.example.geographic_service.repository.IncidentLocationRepository.NewIncident;
+
+/**
+ * Receives each newly created incident once, in id order, from the
+ * {@link IncidentFeedPoller}.
+ */
+public interface NewIncidentListener {
+    
+    void onIncident(NewIncident incident);
+    
+    /** The feed does not start until every listener is ready. */
+    default boolean isReady() {
+        return true;
+    }
+}
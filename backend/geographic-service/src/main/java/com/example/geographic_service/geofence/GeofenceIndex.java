@@ -0,0 +1,61 @@
+package com.example.geographic_service.geofence;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable STRtree of prepared geofence polygons. A point lookup only runs
+ * the (cached, indexed) point-in-polygon test on polygons whose envelope
+ * contains the point. Changes are applied by building a new index.
+ */
+public final class GeofenceIndex {
+    
+    public static final GeofenceIndex EMPTY = new GeofenceIndex(List.of());
+    
+    private final STRtree tree;
+    private final int size;
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    
+    public GeofenceIndex(Collection<Entry> geofences) {
+        tree = new STRtree();
+        for (Entry entry : geofences) {
+            tree.insert(entry.geometry().getGeometry().getEnvelopeInternal(), entry);
+        }
+        tree.build();
+        size = geofences.size();
+    }
+    
+    public static Entry entry(Long id, Long userId, Polygon polygon) {
+        return new Entry(id, userId, PreparedGeometryFactory.prepare(polygon));
+    }
+    
+    /** Geofences containing the point, including their boundary. */
+    @SuppressWarnings("unchecked")
+    public List<Entry> match(double latitude, double longitude) {
+        Point point = geometryFactory.createPoint(new Coordinate(longitude, latitude));
+        List<Entry> candidates = tree.query(new Envelope(point.getCoordinate()));
+        List<Entry> matches = new ArrayList<>(candidates.size());
+        for (Entry candidate : candidates) {
+            if (candidate.geometry().covers(point)) {
+                matches.add(candidate);
+            }
+        }
+        return matches;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public record Entry(Long id, Long userId, PreparedGeometry geometry) {}
+}
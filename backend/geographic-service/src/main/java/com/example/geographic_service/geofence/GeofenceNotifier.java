@@ -0,0 +1,12 @@
+package com.example.geographic_service.geofence;
+
+import com.example.geographic_service.dto.GeofenceNotificationDTO;
+
+/**
+ * Delivers geofence matches to their subscribers. Called once per subscriber
+ * per incident from the matching thread, so implementations must not block.
+ */
+public interface GeofenceNotifier {
+    
+    void notify(GeofenceNotificationDTO notification);
+}
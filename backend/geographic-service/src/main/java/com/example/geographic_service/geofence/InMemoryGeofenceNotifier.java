@@ -0,0 +1,59 @@
+package com.example.geographic_service.geofence;
+
+import com.example.geographic_service.dto.GeofenceNotificationDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most recent notifications per subscriber for clients to poll.
+ */
+@Component
+public class InMemoryGeofenceNotifier implements GeofenceNotifier {
+    
+    private final Map<Long, Deque<GeofenceNotificationDTO>> inboxes = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    
+    @Value("${geo.geofences.max-notifications-per-user:200}")
+    private int maxPerUser;
+    
+    @Override
+    public void notify(GeofenceNotificationDTO notification) {
+        notification.setId(nextId.getAndIncrement());
+        Deque<GeofenceNotificationDTO> inbox = inboxes.computeIfAbsent(notification.getUserId(), key -> new ArrayDeque<>());
+        synchronized (inbox) {
+            inbox.addFirst(notification);
+            if (inbox.size() > maxPerUser) {
+                inbox.removeLast();
+            }
+        }
+    }
+    
+    /** Notifications for the user newer than {@code afterId}, newest first. */
+    public List<GeofenceNotificationDTO> getNotifications(Long userId, long afterId) {
+        Deque<GeofenceNotificationDTO> inbox = inboxes.get(userId);
+        List<GeofenceNotificationDTO> result = new ArrayList<>();
+        if (inbox == null) {
+            return result;
+        }
+        synchronized (inbox) {
+            Iterator<GeofenceNotificationDTO> it = inbox.iterator();
+            while (it.hasNext()) {
+                GeofenceNotificationDTO notification = it.next();
+                if (notification.getId() <= afterId) {
+                    break;
+                }
+                result.add(notification);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.geographic_service.geofence;
+
+import com.example.geographic_service.dto.GeofenceNotificationDTO;
+import com.example.geographic_service.feed.NewIncidentListener;
+import com.example.geographic_service.repository.IncidentLocationRepository.NewIncident;
+import com.example.geographic_service.service.GeofenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches each new incident against every geofence with one index lookup,
+ * then hands one notification per subscriber to the {@link GeofenceNotifier}.
+ */
+@Component
+public class IncidentGeofenceMatcher implements NewIncidentListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(IncidentGeofenceMatcher.class);
+    
+    @Autowired
+    private GeofenceService geofenceService;
+    
+    @Autowired
+    private GeofenceNotifier notifier;
+    
+    @Override
+    public boolean isReady() {
+        return geofenceService.isLoaded();
+    }
+    
+    @Override
+    public void onIncident(NewIncident incident) {
+        List<GeofenceIndex.Entry> matches = geofenceService.match(incident.latitude(), incident.longitude());
+        if (matches.isEmpty()) {
+            return;
+        }
+        Map<Long, List<Long>> geofencesBySubscriber = new LinkedHashMap<>();
+        for (GeofenceIndex.Entry match : matches) {
+            geofencesBySubscriber.computeIfAbsent(match.userId(), key -> new ArrayList<>()).add(match.id());
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        geofencesBySubscriber.forEach((userId, geofenceIds) -> {
+            GeofenceNotificationDTO notification = new GeofenceNotificationDTO();
+            notification.setUserId(userId);
+            notification.setIncidentId(incident.id());
+            notification.setIncidentType(incident.incidentType());
+            notification.setPriority(incident.priority());
+            notification.setLatitude(incident.latitude());
+            notification.setLongitude(incident.longitude());
+            notification.setGeofenceIds(geofenceIds);
+            notification.setCreatedAt(now);
+            notifier.notify(notification);
+        });
+        log.debug("Incident {} matched {} geofences for {} subscribers", incident.id(), matches.size(), geofencesBySubscriber.size());
+    }
+}
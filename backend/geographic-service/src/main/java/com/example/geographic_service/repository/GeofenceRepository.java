@@ -0,0 +1,13 @@
+package com.example.geographic_service.repository;
+
+import com.example.geographic_service.entity.Geofence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GeofenceRepository extends JpaRepository<Geofence, Long> {
+    
+    List<Geofence> findByUserId(Long userId);
+}
@@ -0,0 +1,90 @@
+package com.example.geographic_service.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only access to incident locations in the incidents table owned by
+ * incident-service, and to the feed of newly created incidents.
+ */
+@Repository
+public class IncidentLocationRepository {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    public Optional<IncidentLocation> findById(Long id) {
+        List<IncidentLocation> rows = jdbcTemplate.query(
+            """
+            SELECT ST_Y(i.location), ST_X(i.location), p.name
+            FROM incidents i JOIN incident_priorities p ON p.id = i.priority_id
+            WHERE i.id = ?
+            """,
+            (rs, rowNum) -> new IncidentLocation(rs.getDouble(1), rs.getDouble(2), rs.getString(3)),
+            id);
+        return rows.stream().findFirst();
+    }
+    
+    /**
+     * The newest feed position every open transaction is past. Tailing from
+     * it skips incidents created before the call but none created after.
+     */
+    public FeedPosition findFeedHorizon() {
+        List<FeedPosition> rows = jdbcTemplate.query("""
+            WITH horizon AS (SELECT txid_snapshot_xmin(txid_current_snapshot()) AS snapshot_xmin)
+            SELECT e.change_version, e.id FROM horizon h
+            JOIN LATERAL (
+                SELECT change_version, id FROM incident_events
+                WHERE change_version < h.snapshot_xmin
+                ORDER BY change_version DESC, id DESC
+                LIMIT 1
+            ) e ON true
+            """,
+            (rs, rowNum) -> new FeedPosition(rs.getLong(1), rs.getLong(2)));
+        return rows.stream().findFirst().orElse(new FeedPosition(0, 0));
+    }
+    
+    /**
+     * Up to {@code limit} incidents created after {@code position}, in
+     * (change_version, event id) order of their creation events in
+     * incident_events. Only versions below the snapshot xmin are read: every
+     * transaction below it has finished, so an incident whose transaction
+     * commits late with a smaller version is never skipped. Deleted
+     * incidents are left out.
+     */
+    public List<NewIncident> findCreatedAfter(FeedPosition position, int limit) {
+        return jdbcTemplate.query("""
+            WITH horizon AS (SELECT txid_snapshot_xmin(txid_current_snapshot()) AS snapshot_xmin)
+            SELECT t.* FROM horizon h
+            JOIN LATERAL (
+                SELECT i.id, ty.name AS incident_type, p.name AS priority,
+                       ST_Y(i.location) AS latitude, ST_X(i.location) AS longitude, e.change_version, e.id AS event_id
+                FROM incident_events e
+                JOIN incidents i ON i.id = e.incident_id
+                LEFT JOIN incident_types ty ON ty.id = i.incident_type_id
+                JOIN incident_priorities p ON p.id = i.priority_id
+                WHERE (e.change_version, e.id) > (?, ?) AND e.change_version < h.snapshot_xmin
+                  AND e.from_status_id IS NULL
+                ORDER BY e.change_version, e.id
+                LIMIT ?
+            ) t ON true
+            """,
+            (rs, rowNum) -> new NewIncident(rs.getLong("id"), rs.getString("incident_type"), rs.getString("priority"),
+                rs.getDouble("latitude"), rs.getDouble("longitude"),
+                new FeedPosition(rs.getLong("change_version"), rs.getLong("event_id"))),
+            position.changeVersion(), position.eventId(), limit);
+    }
+    
+    public record IncidentLocation(double latitude, double longitude, String priority) {}
+    
+    /** {@code position} is where the feed continues after this incident. */
+    public record NewIncident(long id, String incidentType, String priority, double latitude, double longitude,
+                              FeedPosition position) {}
+    
+    /** A point in the incident creation feed: a creation event's (change_version, id). */
+    public record FeedPosition(long changeVersion, long eventId) {}
+}
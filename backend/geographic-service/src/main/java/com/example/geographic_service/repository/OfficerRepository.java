@@ -0,0 +1,28 @@
+package com.example.geographic_service.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only view of officers in the users table owned by user-service.
+ */
+@Repository
+public class OfficerRepository {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /** Station id of every officer, keyed by user id; the station may be null. */
+    public Map<Integer, Integer> findOfficerStations() {
+        Map<Integer, Integer> stations = new HashMap<>();
+        jdbcTemplate.query("SELECT id, station_id FROM users WHERE role = CAST('OFFICER' AS user_role)", rs -> {
+            int stationId = rs.getInt(2);
+            stations.put(rs.getInt(1), rs.wasNull() ? null : stationId);
+        });
+        return stations;
+    }
+}
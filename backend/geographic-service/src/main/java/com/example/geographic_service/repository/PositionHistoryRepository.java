@@ -0,0 +1,76 @@
+package com.example.geographic_service.repository;
+
+import com.example.geographic_service.tracking.OfficerPosition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes officer position history to the officer_positions table, which is
+ * range-partitioned by UTC day so old history is dropped a partition at a time.
+ */
+@Repository
+public class PositionHistoryRepository {
+    
+    private static final String PARTITION_PREFIX = "officer_positions_";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+    
+    private static final String INSERT_SQL = """
+        INSERT INTO officer_positions (user_id, station_id, location, speed, heading, accuracy, recorded_at)
+        VALUES (?, ?, ST_SetSRID(ST_MakePoint(?, ?), 4326), ?, ?, ?, ?)
+        """;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    public void insertBatch(List<OfficerPosition> positions) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, positions, positions.size(), this::bind);
+    }
+    
+    private void bind(PreparedStatement ps, OfficerPosition position) throws SQLException {
+        ps.setInt(1, position.userId());
+        ps.setObject(2, position.stationId(), Types.INTEGER);
+        ps.setDouble(3, position.longitude());
+        ps.setDouble(4, position.latitude());
+        ps.setObject(5, position.speed(), Types.REAL);
+        ps.setObject(6, position.heading(), Types.REAL);
+        ps.setObject(7, position.accuracy(), Types.REAL);
+        ps.setTimestamp(8, new Timestamp(position.recordedAt()));
+    }
+    
+    public void createPartition(LocalDate day) {
+        jdbcTemplate.execute(String.format(
+            "CREATE TABLE IF NOT EXISTS %s%s PARTITION OF officer_positions FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')",
+            PARTITION_PREFIX, day.format(PARTITION_SUFFIX), day, day.plusDays(1)));
+    }
+    
+    /** Drops every daily partition for a day before {@code day}. */
+    public int dropPartitionsBefore(LocalDate day) {
+        List<String> partitions = jdbcTemplate.queryForList("""
+            SELECT c.relname FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = 'officer_positions'
+            """, String.class);
+        
+        String cutoff = PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+        int dropped = 0;
+        for (String partition : partitions) {
+            // Names embed the day as yyyyMMdd, so they order chronologically
+            if (partition.startsWith(PARTITION_PREFIX) && partition.length() == cutoff.length()
+                    && partition.compareTo(cutoff) < 0) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+}
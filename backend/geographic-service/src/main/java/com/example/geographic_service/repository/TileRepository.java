@@ -0,0 +1,101 @@
+package com.example.geographic_service.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Encodes Mapbox Vector Tiles in PostGIS with ST_AsMVT. Geometries are
+ * filtered with the spatial index on their 4326 column, projected to web
+ * mercator, clipped to the tile plus a buffer and quantized to the tile grid.
+ */
+@Repository
+public class TileRepository {
+    
+    public static final int EXTENT = 4096;
+    public static final int BUFFER = 64;
+    
+    private static final String BOUNDS = """
+        WITH bounds AS (
+            SELECT ST_TileEnvelope(?, ?, ?) AS tile,
+                   ST_Transform(ST_TileEnvelope(?, ?, ?, margin => %1$s), 4326) AS filter
+        )
+        """.formatted((double) BUFFER / EXTENT);
+    
+    // Clip before simplifying so large polygons are not simplified whole for every tile
+    private static final String BOUNDARIES_SQL = BOUNDS + """
+        , features AS (
+            SELECT ST_AsMVTGeom(
+                       ST_SimplifyPreserveTopology(
+                           ST_ClipByBox2D(ST_Transform(b.geom, 3857), ST_Expand(bounds.tile, ?)), ?),
+                       bounds.tile, %1$d, %2$d, true) AS geom,
+                   b.id, b.name
+            FROM boundaries b, bounds
+            WHERE b.geom && bounds.filter
+        )
+        SELECT ST_AsMVT(features.*, 'boundaries', %1$d, 'geom') FROM features WHERE geom IS NOT NULL
+        """.formatted(EXTENT, BUFFER);
+    
+    private static final String INCIDENTS_SQL = BOUNDS + """
+        , features AS (
+            SELECT ST_AsMVTGeom(ST_Transform(i.location, 3857), bounds.tile, %1$d, %2$d, true) AS geom,
+                   i.id, t.name AS incident_type, p.name AS priority
+            FROM incidents i
+            CROSS JOIN bounds
+            LEFT JOIN incident_types t ON t.id = i.incident_type_id
+            JOIN incident_priorities p ON p.id = i.priority_id
+            WHERE i.location && bounds.filter
+        )
+        SELECT ST_AsMVT(features.*, 'incidents', %1$d, 'geom') FROM features WHERE geom IS NOT NULL
+        """.formatted(EXTENT, BUFFER);
+    
+    // Points snapped to a coarse grid in tile coordinates and counted
+    private static final String INCIDENT_CLUSTERS_SQL = BOUNDS + """
+        , points AS (
+            SELECT ST_AsMVTGeom(ST_Transform(i.location, 3857), bounds.tile, %1$d, %2$d, true) AS geom
+            FROM incidents i, bounds
+            WHERE i.location && bounds.filter
+        ), features AS (
+            SELECT ST_SnapToGrid(geom, ?) AS geom, COUNT(*) AS point_count
+            FROM points WHERE geom IS NOT NULL
+            GROUP BY 1
+        )
+        SELECT ST_AsMVT(features.*, 'incidents', %1$d, 'geom') FROM features
+        """.formatted(EXTENT, BUFFER);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /**
+     * @param toleranceMeters Douglas-Peucker tolerance in web mercator meters
+     */
+    public byte[] boundariesTile(int z, int x, int y, double toleranceMeters) {
+        double clipMargin = tileSizeMeters(z) * BUFFER / EXTENT;
+        return tile(BOUNDARIES_SQL, z, x, y, clipMargin, toleranceMeters);
+    }
+    
+    public byte[] incidentsTile(int z, int x, int y) {
+        return tile(INCIDENTS_SQL, z, x, y);
+    }
+    
+    /**
+     * @param gridUnits size of a cluster cell in tile coordinates (of {@link #EXTENT})
+     */
+    public byte[] incidentClustersTile(int z, int x, int y, int gridUnits) {
+        return tile(INCIDENT_CLUSTERS_SQL, z, x, y, gridUnits);
+    }
+    
+    private byte[] tile(String sql, int z, int x, int y, Object... args) {
+        Object[] params = new Object[6 + args.length];
+        params[0] = z; params[1] = x; params[2] = y;
+        params[3] = z; params[4] = x; params[5] = y;
+        System.arraycopy(args, 0, params, 6, args.length);
+        byte[] tile = jdbcTemplate.queryForObject(sql, byte[].class, params);
+        return tile != null ? tile : new byte[0];
+    }
+    
+    /** Width of a tile at zoom {@code z} in web mercator meters. */
+    public static double tileSizeMeters(int z) {
+        return 2 * 20_037_508.342789244 / (1L << z);
+    }
+}
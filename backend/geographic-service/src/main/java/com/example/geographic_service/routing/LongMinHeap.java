@@ -0,0 +1,71 @@
+package com.example.geographic_service.routing;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of primitive longs. Searches push (key << 32 | node) and
+ * skip stale entries on pop instead of using decrease-key.
+ */
+final class LongMinHeap {
+    
+    private long[] heap = new long[1024];
+    private int size;
+    
+    void clear() {
+        size = 0;
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    void push(long value) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+    
+    long pop() {
+        long top = heap[0];
+        long last = heap[--size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+    
+    static long entry(int key, int node) {
+        return ((long) key << 32) | (node & 0xFFFFFFFFL);
+    }
+    
+    static int key(long entry) {
+        return (int) (entry >>> 32);
+    }
+    
+    static int node(long entry) {
+        return (int) entry;
+    }
+}
@@ -0,0 +1,421 @@
+package com.example.geographic_service.routing;
+
+import crosby.binary.BinaryParser;
+import crosby.binary.Osmformat;
+import crosby.binary.file.BlockInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static java.util.Map.entry;
+
+/**
+ * Builds a {@link RoadGraph} from an OpenStreetMap PBF extract.
+ *
+ * The file is read twice: first the drivable ways (kept as flat primitive
+ * lists of node ids, speeds and directions), then only the coordinates of the
+ * nodes those ways use. Only the largest strongly connected component is
+ * kept, so every node the router snaps to can reach every other. Finally the
+ * ALT landmarks are chosen by farthest-point selection and their distance
+ * tables computed.
+ */
+public final class OsmGraphBuilder {
+    
+    private static final Logger log = LoggerFactory.getLogger(OsmGraphBuilder.class);
+    
+    private static final Map<String, Integer> SPEEDS_KMH = Map.ofEntries(
+        entry("motorway", 100), entry("motorway_link", 60),
+        entry("trunk", 80), entry("trunk_link", 50),
+        entry("primary", 60), entry("primary_link", 45),
+        entry("secondary", 50), entry("secondary_link", 40),
+        entry("tertiary", 40), entry("tertiary_link", 35),
+        entry("unclassified", 30), entry("road", 25),
+        entry("residential", 25), entry("living_street", 10),
+        entry("service", 15));
+    
+    private static final int MISSING = Integer.MIN_VALUE;
+    
+    private OsmGraphBuilder() {}
+    
+    public static RoadGraph.Data build(Path pbf, int landmarks) throws IOException {
+        long start = System.currentTimeMillis();
+        WayReader ways = new WayReader();
+        read(pbf, ways);
+        
+        long[] nodeIds = Arrays.copyOf(ways.nodeRefs.values, ways.nodeRefs.size);
+        Arrays.parallelSort(nodeIds);
+        int n = 0;
+        for (int i = 0; i < nodeIds.length; i++) {
+            if (i == 0 || nodeIds[i] != nodeIds[i - 1]) {
+                nodeIds[n++] = nodeIds[i];
+            }
+        }
+        nodeIds = Arrays.copyOf(nodeIds, n);
+        
+        NodeReader nodes = new NodeReader(nodeIds);
+        read(pbf, nodes);
+        log.info("Read {} drivable ways over {} nodes from {}", ways.speeds.size, n, pbf);
+        
+        IntList sources = new IntList(), targets = new IntList(), times = new IntList();
+        for (int w = 0; w < ways.speeds.size; w++) {
+            double metersPerMilli = ways.speeds.values[w] / 3.6 / 1000;
+            int direction = ways.directions.values[w];
+            for (int k = ways.wayStart.values[w]; k + 1 < ways.wayStart.values[w + 1]; k++) {
+                int a = Arrays.binarySearch(nodeIds, ways.nodeRefs.values[k]);
+                int b = Arrays.binarySearch(nodeIds, ways.nodeRefs.values[k + 1]);
+                // Ways clipped by the extract boundary reference nodes it does not contain
+                if (a == b || nodes.latitudes[a] == MISSING || nodes.latitudes[b] == MISSING) {
+                    continue;
+                }
+                double meters = distanceMeters(nodes.latitudes[a], nodes.longitudes[a], nodes.latitudes[b], nodes.longitudes[b]);
+                int time = (int) Math.max(1, Math.round(meters / metersPerMilli));
+                if (direction >= 0) {
+                    sources.add(a); targets.add(b); times.add(time);
+                }
+                if (direction <= 0) {
+                    sources.add(b); targets.add(a); times.add(time);
+                }
+            }
+        }
+        
+        // Keep the largest strongly connected component, renumbered densely
+        int[][] forward = csr(n, sources, targets, times);
+        int[][] backward = csr(n, targets, sources, times);
+        boolean[] keep = largestStronglyConnected(n, forward, backward);
+        int[] newId = new int[n];
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            newId[i] = keep[i] ? kept++ : -1;
+        }
+        int[] latitudes = new int[kept], longitudes = new int[kept];
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                latitudes[newId[i]] = nodes.latitudes[i];
+                longitudes[newId[i]] = nodes.longitudes[i];
+            }
+        }
+        IntList keptSources = new IntList(), keptTargets = new IntList(), keptTimes = new IntList();
+        for (int e = 0; e < sources.size; e++) {
+            int a = newId[sources.values[e]], b = newId[targets.values[e]];
+            if (a >= 0 && b >= 0) {
+                keptSources.add(a); keptTargets.add(b); keptTimes.add(times.values[e]);
+            }
+        }
+        forward = csr(kept, keptSources, keptTargets, keptTimes);
+        backward = csr(kept, keptTargets, keptSources, keptTimes);
+        log.info("Road graph has {} nodes and {} edges after keeping the largest strongly connected component",
+                kept, keptSources.size);
+        
+        int[][] landmarkFrom = new int[Math.min(landmarks, kept)][];
+        int[][] landmarkTo = new int[landmarkFrom.length][];
+        selectLandmarks(kept, forward, backward, landmarkFrom, landmarkTo);
+        log.info("Built road graph with {} landmarks in {} ms", landmarkFrom.length, System.currentTimeMillis() - start);
+        
+        return new RoadGraph.Data(latitudes, longitudes, forward[0], forward[1], forward[2],
+            backward[0], backward[1], backward[2], landmarkFrom, landmarkTo);
+    }
+    
+    private static void read(Path pbf, BinaryParser parser) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(pbf), 1 << 16)) {
+            new BlockInputStream(in, parser).process();
+        }
+    }
+    
+    /** Adjacency grouped by {@code from}: {first offsets, neighbors, times}. */
+    private static int[][] csr(int n, IntList from, IntList to, IntList times) {
+        int[] first = new int[n + 1];
+        for (int e = 0; e < from.size; e++) {
+            first[from.values[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            first[i + 1] += first[i];
+        }
+        int[] next = Arrays.copyOf(first, n);
+        int[] neighbors = new int[from.size];
+        int[] weights = new int[from.size];
+        for (int e = 0; e < from.size; e++) {
+            int slot = next[from.values[e]]++;
+            neighbors[slot] = to.values[e];
+            weights[slot] = times.values[e];
+        }
+        return new int[][] {first, neighbors, weights};
+    }
+    
+    /**
+     * The strongly connected component of a seed is the intersection of what
+     * it reaches and what reaches it. A few seeds are tried; road networks
+     * have one giant component, so the first usually covers most nodes.
+     */
+    private static boolean[] largestStronglyConnected(int n, int[][] forward, int[][] backward) {
+        boolean[] best = new boolean[n];
+        int bestSize = 0;
+        boolean[] covered = new boolean[n];
+        Random random = new Random(42);
+        for (int attempt = 0; attempt < 8 && bestSize <= n / 2 && n > 0; attempt++) {
+            int seed = random.nextInt(n);
+            if (covered[seed] || forward[0][seed] == forward[0][seed + 1]) {
+                continue;
+            }
+            boolean[] reached = reachable(n, forward, seed);
+            boolean[] reaching = reachable(n, backward, seed);
+            boolean[] component = new boolean[n];
+            int size = 0;
+            for (int i = 0; i < n; i++) {
+                if (reached[i] && reaching[i]) {
+                    component[i] = true;
+                    covered[i] = true;
+                    size++;
+                }
+            }
+            if (size > bestSize) {
+                best = component;
+                bestSize = size;
+            }
+        }
+        return best;
+    }
+    
+    private static boolean[] reachable(int n, int[][] graph, int seed) {
+        boolean[] seen = new boolean[n];
+        int[] stack = new int[n];
+        int top = 0;
+        stack[top++] = seed;
+        seen[seed] = true;
+        while (top > 0) {
+            int node = stack[--top];
+            for (int e = graph[0][node]; e < graph[0][node + 1]; e++) {
+                int next = graph[1][e];
+                if (!seen[next]) {
+                    seen[next] = true;
+                    stack[top++] = next;
+                }
+            }
+        }
+        return seen;
+    }
+    
+    /**
+     * Farthest-point landmark selection: each landmark is the node farthest
+     * (round trip) from all landmarks chosen so far, which places them around
+     * the edge of the network where their lower bounds are tightest.
+     */
+    private static void selectLandmarks(int n, int[][] forward, int[][] backward, int[][] from, int[][] to) {
+        if (from.length == 0) {
+            return;
+        }
+        long[] closest = new long[n];
+        Arrays.fill(closest, Long.MAX_VALUE);
+        int landmark = farthest(dijkstra(n, forward, new Random(7).nextInt(n)), null);
+        for (int l = 0; l < from.length; l++) {
+            from[l] = dijkstra(n, forward, landmark);
+            to[l] = dijkstra(n, backward, landmark);
+            for (int i = 0; i < n; i++) {
+                closest[i] = Math.min(closest[i], (long) from[l][i] + to[l][i]);
+            }
+            landmark = farthest(null, closest);
+        }
+    }
+    
+    private static int farthest(int[] distances, long[] roundTrips) {
+        int best = 0;
+        long bestValue = -1;
+        int n = distances != null ? distances.length : roundTrips.length;
+        for (int i = 0; i < n; i++) {
+            long value = distances != null ? distances[i] : roundTrips[i];
+            if (value > bestValue && value < RoadGraph.UNREACHABLE) {
+                best = i;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+    
+    private static int[] dijkstra(int n, int[][] graph, int source) {
+        int[] dist = new int[n];
+        Arrays.fill(dist, RoadGraph.UNREACHABLE);
+        dist[source] = 0;
+        LongMinHeap heap = new LongMinHeap();
+        heap.push(LongMinHeap.entry(0, source));
+        while (!heap.isEmpty()) {
+            long top = heap.pop();
+            int node = LongMinHeap.node(top);
+            int d = LongMinHeap.key(top);
+            if (d > dist[node]) {
+                continue;
+            }
+            for (int e = graph[0][node]; e < graph[0][node + 1]; e++) {
+                int next = graph[1][e];
+                int candidate = d + graph[2][e];
+                if (candidate < dist[next]) {
+                    dist[next] = candidate;
+                    heap.push(LongMinHeap.entry(candidate, next));
+                }
+            }
+        }
+        return dist;
+    }
+    
+    static double distanceMeters(int lat1, int lng1, int lat2, int lng2) {
+        double phi1 = Math.toRadians(lat1 / 1e7), phi2 = Math.toRadians(lat2 / 1e7);
+        double dPhi = phi2 - phi1;
+        double dLambda = Math.toRadians((lng2 - lng1) / 1e7);
+        double a = Math.sin(dPhi / 2) * Math.sin(dPhi / 2)
+            + Math.cos(phi1) * Math.cos(phi2) * Math.sin(dLambda / 2) * Math.sin(dLambda / 2);
+        return 2 * 6_371_000.0 * Math.asin(Math.sqrt(a));
+    }
+    
+    /** First pass: drivable ways as flat lists of node refs, speed and direction. */
+    private static final class WayReader extends BinaryParser {
+        final LongList nodeRefs = new LongList();
+        final IntList wayStart = new IntList();
+        final IntList speeds = new IntList();
+        final IntList directions = new IntList();
+        
+        WayReader() {
+            wayStart.add(0);
+        }
+        
+        @Override
+        protected void parseWays(List<Osmformat.Way> ways) {
+            for (Osmformat.Way way : ways) {
+                String highway = null, maxspeed = null, oneway = null, junction = null, access = null, area = null;
+                for (int t = 0; t < way.getKeysCount(); t++) {
+                    String value = getStringById(way.getVals(t));
+                    switch (getStringById(way.getKeys(t))) {
+                        case "highway" -> highway = value;
+                        case "maxspeed" -> maxspeed = value;
+                        case "oneway" -> oneway = value;
+                        case "junction" -> junction = value;
+                        case "motor_vehicle", "access" -> access = access == null ? value : access;
+                        case "area" -> area = value;
+                        default -> { }
+                    }
+                }
+                Integer speed = highway != null ? SPEEDS_KMH.get(highway) : null;
+                if (speed == null || "yes".equals(area) || "no".equals(access) || way.getRefsCount() < 2) {
+                    continue;
+                }
+                speed = parseMaxspeed(maxspeed, speed);
+                
+                int direction = 0;
+                if ("yes".equals(oneway) || "true".equals(oneway) || "1".equals(oneway)
+                        || (oneway == null && ("motorway".equals(highway) || "roundabout".equals(junction)))) {
+                    direction = 1;
+                } else if ("-1".equals(oneway) || "reverse".equals(oneway)) {
+                    direction = -1;
+                }
+                
+                long ref = 0;
+                for (int r = 0; r < way.getRefsCount(); r++) {
+                    ref += way.getRefs(r);
+                    nodeRefs.add(ref);
+                }
+                wayStart.add(nodeRefs.size);
+                speeds.add(speed);
+                directions.add(direction);
+            }
+        }
+        
+        private static int parseMaxspeed(String maxspeed, int fallback) {
+            if (maxspeed == null) {
+                return fallback;
+            }
+            int end = 0;
+            while (end < maxspeed.length() && Character.isDigit(maxspeed.charAt(end))) {
+                end++;
+            }
+            if (end == 0) {
+                return fallback;
+            }
+            int value = Integer.parseInt(maxspeed.substring(0, Math.min(end, 4)));
+            if (maxspeed.contains("mph")) {
+                value = (int) Math.round(value * 1.609);
+            }
+            return value > 0 ? value : fallback;
+        }
+        
+        @Override protected void parseRelations(List<Osmformat.Relation> relations) { }
+        @Override protected void parseDense(Osmformat.DenseNodes nodes) { }
+        @Override protected void parseNodes(List<Osmformat.Node> nodes) { }
+        @Override protected void parse(Osmformat.HeaderBlock header) { }
+        @Override public void complete() { }
+    }
+    
+    /** Second pass: coordinates of the nodes the drivable ways use. */
+    private static final class NodeReader extends BinaryParser {
+        final long[] nodeIds;
+        final int[] latitudes;
+        final int[] longitudes;
+        
+        NodeReader(long[] nodeIds) {
+            this.nodeIds = nodeIds;
+            this.latitudes = new int[nodeIds.length];
+            this.longitudes = new int[nodeIds.length];
+            Arrays.fill(latitudes, MISSING);
+        }
+        
+        @Override
+        protected void parseDense(Osmformat.DenseNodes nodes) {
+            long id = 0, lat = 0, lon = 0;
+            for (int i = 0; i < nodes.getIdCount(); i++) {
+                id += nodes.getId(i);
+                lat += nodes.getLat(i);
+                lon += nodes.getLon(i);
+                store(id, lat, lon);
+            }
+        }
+        
+        @Override
+        protected void parseNodes(List<Osmformat.Node> nodes) {
+            for (Osmformat.Node node : nodes) {
+                store(node.getId(), node.getLat(), node.getLon());
+            }
+        }
+        
+        private void store(long id, long lat, long lon) {
+            int index = Arrays.binarySearch(nodeIds, id);
+            if (index >= 0) {
+                latitudes[index] = RoadGraph.toFixed(parseLat(lat));
+                longitudes[index] = RoadGraph.toFixed(parseLon(lon));
+            }
+        }
+        
+        @Override protected void parseRelations(List<Osmformat.Relation> relations) { }
+        @Override protected void parseWays(List<Osmformat.Way> ways) { }
+        @Override protected void parse(Osmformat.HeaderBlock header) { }
+        @Override public void complete() { }
+    }
+    
+    static final class IntList {
+        int[] values = new int[1024];
+        int size;
+        
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+    
+    static final class LongList {
+        long[] values = new long[1024];
+        int size;
+        
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.geographic_service.routing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Directed road graph in compressed sparse row form, stored in one file and
+ * memory-mapped read-only, so it lives off-heap and opens without parsing.
+ *
+ * Nodes carry fixed-point coordinates (1e-7 degrees). Edges carry travel time
+ * in milliseconds and are stored twice: grouped by source for forward
+ * searches and by target for backward searches. The file also holds the ALT
+ * landmark tables: for each landmark, the travel time from it to every node
+ * and from every node to it ({@link #UNREACHABLE} if there is no path).
+ */
+public final class RoadGraph implements Closeable {
+    
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    
+    private static final int MAGIC = 0x4E524731; // "NRG1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    private static final double FIXED_POINT = 1e7;
+    
+    private final FileChannel channel;
+    private final int nodeCount;
+    private final int edgeCount;
+    
+    final IntBuffer latitudes;
+    final IntBuffer longitudes;
+    final IntBuffer forwardFirst;
+    final IntBuffer forwardTarget;
+    final IntBuffer forwardTime;
+    final IntBuffer backwardFirst;
+    final IntBuffer backwardSource;
+    final IntBuffer backwardTime;
+    final IntBuffer[] landmarkFrom;
+    final IntBuffer[] landmarkTo;
+    
+    private RoadGraph(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a road graph file of version " + VERSION);
+        }
+        nodeCount = header.getInt();
+        edgeCount = header.getInt();
+        int landmarks = header.getInt();
+        
+        long[] offset = {HEADER_BYTES};
+        latitudes = section(offset, nodeCount);
+        longitudes = section(offset, nodeCount);
+        forwardFirst = section(offset, nodeCount + 1);
+        forwardTarget = section(offset, edgeCount);
+        forwardTime = section(offset, edgeCount);
+        backwardFirst = section(offset, nodeCount + 1);
+        backwardSource = section(offset, edgeCount);
+        backwardTime = section(offset, edgeCount);
+        landmarkFrom = new IntBuffer[landmarks];
+        landmarkTo = new IntBuffer[landmarks];
+        for (int l = 0; l < landmarks; l++) {
+            landmarkFrom[l] = section(offset, nodeCount);
+            landmarkTo[l] = section(offset, nodeCount);
+        }
+    }
+    
+    public static RoadGraph open(Path file) throws IOException {
+        return new RoadGraph(FileChannel.open(file, StandardOpenOption.READ));
+    }
+    
+    private IntBuffer section(long[] offset, int ints) throws IOException {
+        IntBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset[0], (long) ints * 4)
+            .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        offset[0] += (long) ints * 4;
+        return buffer;
+    }
+    
+    /**
+     * Writes a graph file, replacing {@code file} atomically.
+     */
+    public static void write(Path file, Data data) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(data.latitudes().length)
+                .putInt(data.forwardTarget().length).putInt(data.landmarkFrom().length).flip();
+            out.write(header);
+            
+            ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            for (int[] array : new int[][] {data.latitudes(), data.longitudes(), data.forwardFirst(),
+                    data.forwardTarget(), data.forwardTime(), data.backwardFirst(), data.backwardSource(),
+                    data.backwardTime()}) {
+                writeInts(out, chunk, array);
+            }
+            for (int l = 0; l < data.landmarkFrom().length; l++) {
+                writeInts(out, chunk, data.landmarkFrom()[l]);
+                writeInts(out, chunk, data.landmarkTo()[l]);
+            }
+            out.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static void writeInts(FileChannel out, ByteBuffer chunk, int[] values) throws IOException {
+        IntBuffer ints = chunk.clear().asIntBuffer();
+        for (int i = 0; i < values.length; ) {
+            int n = Math.min(ints.capacity(), values.length - i);
+            ints.clear();
+            ints.put(values, i, n);
+            chunk.clear().limit(n * 4);
+            while (chunk.hasRemaining()) {
+                out.write(chunk);
+            }
+            i += n;
+        }
+    }
+    
+    public int nodeCount() {
+        return nodeCount;
+    }
+    
+    public int edgeCount() {
+        return edgeCount;
+    }
+    
+    public int landmarkCount() {
+        return landmarkFrom.length;
+    }
+    
+    public double latitude(int node) {
+        return latitudes.get(node) / FIXED_POINT;
+    }
+    
+    public double longitude(int node) {
+        return longitudes.get(node) / FIXED_POINT;
+    }
+    
+    static int toFixed(double degrees) {
+        return (int) Math.round(degrees * FIXED_POINT);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    /** Heap arrays of a graph being built, in the same layout as the file. */
+    public record Data(
+        int[] latitudes,
+        int[] longitudes,
+        int[] forwardFirst,
+        int[] forwardTarget,
+        int[] forwardTime,
+        int[] backwardFirst,
+        int[] backwardSource,
+        int[] backwardTime,
+        int[][] landmarkFrom,
+        int[][] landmarkTo
+    ) {}
+}
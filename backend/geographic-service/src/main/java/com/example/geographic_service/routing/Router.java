@@ -0,0 +1,377 @@
+package com.example.geographic_service.routing;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shortest travel-time queries over a {@link RoadGraph}.
+ *
+ * Point-to-point routes use A* with ALT lower bounds (landmarks and the
+ * triangle inequality), restricted to the few landmarks that give the best
+ * bound for the query. One-to-many and many-to-one use plain Dijkstra that
+ * stops once every target is settled. Search states hold five arrays the
+ * size of the graph, so a bounded pool of them is shared by all threads and a
+ * query waits when every state is in use. A state is reset by bumping a
+ * stamp, so queries allocate almost nothing.
+ */
+public final class Router {
+    
+    private static final int ACTIVE_LANDMARKS = 4;
+    private static final double SNAP_CELL_DEGREES = 0.005;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    
+    private final RoadGraph graph;
+    private final BlockingQueue<SearchState> idleStates;
+    private final AtomicInteger createdStates = new AtomicInteger();
+    private final int maxStates;
+    
+    // Nodes bucketed by grid cell for snapping coordinates to the graph
+    private final long[] cellKeys;
+    private final int[] cellStart;
+    private final int[] cellNodes;
+    
+    public Router(RoadGraph graph, int maxConcurrentSearches) {
+        this.graph = graph;
+        this.maxStates = Math.max(1, maxConcurrentSearches);
+        this.idleStates = new ArrayBlockingQueue<>(maxStates);
+        int n = graph.nodeCount();
+        
+        long[] keyed = new long[n];
+        for (int node = 0; node < n; node++) {
+            keyed[node] = cellKey(graph.latitude(node), graph.longitude(node));
+        }
+        int[] byCell = sortByKey(keyed);
+        cellNodes = byCell;
+        int cells = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || keyed[byCell[i]] != keyed[byCell[i - 1]]) {
+                cells++;
+            }
+        }
+        cellKeys = new long[cells];
+        cellStart = new int[cells + 1];
+        int c = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || keyed[byCell[i]] != keyed[byCell[i - 1]]) {
+                cellKeys[c] = keyed[byCell[i]];
+                cellStart[c++] = i;
+            }
+        }
+        cellStart[cells] = n;
+    }
+    
+    public RoadGraph getGraph() {
+        return graph;
+    }
+    
+    /** The graph node nearest to a coordinate within {@code maxMeters}, or -1. */
+    public int snap(double latitude, double longitude, double maxMeters) {
+        int latCell = (int) Math.floor(latitude / SNAP_CELL_DEGREES);
+        int lngCell = (int) Math.floor(longitude / SNAP_CELL_DEGREES);
+        double cellMeters = SNAP_CELL_DEGREES * METERS_PER_DEGREE
+            * Math.max(0.01, Math.cos(Math.toRadians(Math.min(89, Math.abs(latitude) + SNAP_CELL_DEGREES))));
+        int maxRing = (int) Math.ceil(maxMeters / cellMeters) + 1;
+        
+        int best = -1;
+        double bestMeters = maxMeters;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Every node in this ring or beyond is at least (ring - 1) cells away
+            if (best >= 0 && (ring - 1) * cellMeters > bestMeters) {
+                break;
+            }
+            for (int dy = -ring; dy <= ring; dy++) {
+                for (int dx = -ring; dx <= ring; dx++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) != ring) {
+                        continue;
+                    }
+                    int c = Arrays.binarySearch(cellKeys, cellKey(latCell + dy, lngCell + dx));
+                    if (c < 0) {
+                        continue;
+                    }
+                    for (int i = cellStart[c]; i < cellStart[c + 1]; i++) {
+                        int node = cellNodes[i];
+                        double meters = distanceMeters(latitude, longitude, graph.latitude(node), graph.longitude(node));
+                        if (meters <= bestMeters) {
+                            best = node;
+                            bestMeters = meters;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+    
+    /** Fastest route between two nodes, or null if the target is unreachable. */
+    public Route route(int source, int target) {
+        SearchState state = acquire();
+        try {
+            return route(state, source, target);
+        } finally {
+            idleStates.add(state);
+        }
+    }
+    
+    private Route route(SearchState state, int source, int target) {
+        int[] landmarks = activeLandmarks(source, target);
+        
+        state.reach(source, 0, -1);
+        state.heap.push(LongMinHeap.entry(lowerBound(landmarks, source, target), source));
+        IntBuffer first = graph.forwardFirst, targets = graph.forwardTarget, times = graph.forwardTime;
+        
+        while (!state.heap.isEmpty()) {
+            int node = LongMinHeap.node(state.heap.pop());
+            if (state.isSettled(node)) {
+                continue;
+            }
+            state.settle(node);
+            if (node == target) {
+                return buildRoute(state, target);
+            }
+            int d = state.dist[node];
+            for (int e = first.get(node), end = first.get(node + 1); e < end; e++) {
+                int next = targets.get(e);
+                int candidate = d + times.get(e);
+                if (!state.isSettled(next) && candidate < state.distance(next)) {
+                    state.reach(next, candidate, node);
+                    state.heap.push(LongMinHeap.entry(candidate + lowerBound(landmarks, next, target), next));
+                }
+            }
+        }
+        return null;
+    }
+    
+    /** Travel times in milliseconds from one node to each target ({@link RoadGraph#UNREACHABLE} if none). */
+    public int[] travelTimesFrom(int source, int[] targets) {
+        return settleAll(source, targets, graph.forwardFirst, graph.forwardTarget, graph.forwardTime);
+    }
+    
+    /** Travel times in milliseconds from each source to one node, using the reverse graph. */
+    public int[] travelTimesTo(int[] sources, int target) {
+        return settleAll(target, sources, graph.backwardFirst, graph.backwardSource, graph.backwardTime);
+    }
+    
+    private int[] settleAll(int origin, int[] nodes, IntBuffer first, IntBuffer adjacent, IntBuffer times) {
+        SearchState state = acquire();
+        try {
+            return settleAll(state, origin, nodes, first, adjacent, times);
+        } finally {
+            idleStates.add(state);
+        }
+    }
+    
+    private int[] settleAll(SearchState state, int origin, int[] nodes, IntBuffer first, IntBuffer adjacent,
+            IntBuffer times) {
+        int remaining = 0;
+        for (int node : nodes) {
+            if (node >= 0 && !state.isMarked(node)) {
+                state.mark(node);
+                remaining++;
+            }
+        }
+        
+        state.reach(origin, 0, -1);
+        state.heap.push(LongMinHeap.entry(0, origin));
+        while (remaining > 0 && !state.heap.isEmpty()) {
+            int node = LongMinHeap.node(state.heap.pop());
+            if (state.isSettled(node)) {
+                continue;
+            }
+            state.settle(node);
+            if (state.isMarked(node)) {
+                remaining--;
+            }
+            int d = state.dist[node];
+            for (int e = first.get(node), end = first.get(node + 1); e < end; e++) {
+                int next = adjacent.get(e);
+                int candidate = d + times.get(e);
+                if (!state.isSettled(next) && candidate < state.distance(next)) {
+                    state.reach(next, candidate, node);
+                    state.heap.push(LongMinHeap.entry(candidate, next));
+                }
+            }
+        }
+        
+        int[] result = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            result[i] = nodes[i] >= 0 && state.isSettled(nodes[i]) ? state.dist[nodes[i]] : RoadGraph.UNREACHABLE;
+        }
+        return result;
+    }
+    
+    /** A reset search state, created while under the limit and otherwise waited for. */
+    private SearchState acquire() {
+        SearchState state = idleStates.poll();
+        if (state == null) {
+            if (createdStates.incrementAndGet() <= maxStates) {
+                state = new SearchState(graph.nodeCount());
+            } else {
+                createdStates.decrementAndGet();
+                try {
+                    state = idleStates.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for a route search state", e);
+                }
+            }
+        }
+        state.reset();
+        return state;
+    }
+    
+    /** The landmarks giving the tightest bound for this source and target. */
+    private int[] activeLandmarks(int source, int target) {
+        int count = graph.landmarkCount();
+        int[] bounds = new int[count];
+        Integer[] order = new Integer[count];
+        for (int l = 0; l < count; l++) {
+            bounds[l] = landmarkBound(l, source, target);
+            order[l] = l;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(bounds[b], bounds[a]));
+        int[] active = new int[Math.min(ACTIVE_LANDMARKS, count)];
+        for (int i = 0; i < active.length; i++) {
+            active[i] = order[i];
+        }
+        return active;
+    }
+    
+    private int lowerBound(int[] landmarks, int node, int target) {
+        int bound = 0;
+        for (int l : landmarks) {
+            bound = Math.max(bound, landmarkBound(l, node, target));
+        }
+        return bound;
+    }
+    
+    /**
+     * By the triangle inequality, d(v,t) >= d(L,t) - d(L,v) and
+     * d(v,t) >= d(v,L) - d(t,L).
+     */
+    private int landmarkBound(int l, int node, int target) {
+        int fromNode = graph.landmarkFrom[l].get(node), fromTarget = graph.landmarkFrom[l].get(target);
+        int toNode = graph.landmarkTo[l].get(node), toTarget = graph.landmarkTo[l].get(target);
+        int bound = 0;
+        if (fromNode != RoadGraph.UNREACHABLE && fromTarget != RoadGraph.UNREACHABLE) {
+            bound = fromTarget - fromNode;
+        }
+        if (toNode != RoadGraph.UNREACHABLE && toTarget != RoadGraph.UNREACHABLE) {
+            bound = Math.max(bound, toNode - toTarget);
+        }
+        return bound;
+    }
+    
+    private Route buildRoute(SearchState state, int target) {
+        int hops = 0;
+        for (int node = target; node >= 0; node = state.parent[node]) {
+            hops++;
+        }
+        int[] path = new int[hops];
+        double meters = 0;
+        for (int node = target, i = hops - 1; node >= 0; node = state.parent[node], i--) {
+            path[i] = node;
+            int previous = state.parent[node];
+            if (previous >= 0) {
+                meters += distanceMeters(graph.latitude(previous), graph.longitude(previous),
+                    graph.latitude(node), graph.longitude(node));
+            }
+        }
+        return new Route(state.dist[target], meters, path);
+    }
+    
+    private static long cellKey(double latitude, double longitude) {
+        return cellKey((int) Math.floor(latitude / SNAP_CELL_DEGREES), (int) Math.floor(longitude / SNAP_CELL_DEGREES));
+    }
+    
+    /** Cell coordinates offset to be non-negative; the key fits in 33 bits. */
+    private static long cellKey(int latCell, int lngCell) {
+        return ((long) (latCell + 18_000) << 17) | (lngCell + 36_000);
+    }
+    
+    /** Node indices ordered by cell key, sorting (key, index) packed into one long. */
+    private static int[] sortByKey(long[] keys) {
+        long[] packed = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            packed[i] = keys[i] << 30 | i;
+        }
+        Arrays.parallelSort(packed);
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = (int) (packed[i] & ((1 << 30) - 1));
+        }
+        return order;
+    }
+    
+    static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double phi1 = Math.toRadians(lat1), phi2 = Math.toRadians(lat2);
+        double dPhi = phi2 - phi1;
+        double dLambda = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dPhi / 2) * Math.sin(dPhi / 2)
+            + Math.cos(phi1) * Math.cos(phi2) * Math.sin(dLambda / 2) * Math.sin(dLambda / 2);
+        return 2 * 6_371_000.0 * Math.asin(Math.sqrt(a));
+    }
+    
+    /** Duration in milliseconds, length in meters and the node sequence. */
+    public record Route(int durationMillis, double distanceMeters, int[] path) {}
+    
+    /**
+     * Distances, parents and flags for one search at a time. An entry is
+     * only valid when its stamp equals the current one, so reset is O(1).
+     */
+    private static final class SearchState {
+        final int[] dist;
+        final int[] parent;
+        final int[] reachedStamp;
+        final int[] settledStamp;
+        final int[] markedStamp;
+        final LongMinHeap heap = new LongMinHeap();
+        int stamp;
+        
+        SearchState(int n) {
+            dist = new int[n];
+            parent = new int[n];
+            reachedStamp = new int[n];
+            settledStamp = new int[n];
+            markedStamp = new int[n];
+        }
+        
+        void reset() {
+            heap.clear();
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(reachedStamp, 0);
+                Arrays.fill(settledStamp, 0);
+                Arrays.fill(markedStamp, 0);
+                stamp = 1;
+            }
+        }
+        
+        int distance(int node) {
+            return reachedStamp[node] == stamp ? dist[node] : RoadGraph.UNREACHABLE;
+        }
+        
+        void reach(int node, int distance, int from) {
+            reachedStamp[node] = stamp;
+            dist[node] = distance;
+            parent[node] = from;
+        }
+        
+        boolean isSettled(int node) {
+            return settledStamp[node] == stamp;
+        }
+        
+        void settle(int node) {
+            settledStamp[node] = stamp;
+        }
+        
+        boolean isMarked(int node) {
+            return markedStamp[node] == stamp;
+        }
+        
+        void mark(int node) {
+            markedStamp[node] = stamp;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.geographic_service.service;
+
+import com.example.geographic_service.dto.DispatchCandidatesDTO;
+import com.example.geographic_service.dto.LocationDTO;
+import com.example.geographic_service.dto.OfficerPositionDTO;
+import com.example.geographic_service.exception.IncidentNotFoundException;
+import com.example.geographic_service.repository.IncidentLocationRepository;
+import com.example.geographic_service.repository.IncidentLocationRepository.IncidentLocation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+public class DispatchService {
+    
+    @Autowired
+    private IncidentLocationRepository incidentLocationRepository;
+    
+    @Autowired
+    private PositionService positionService;
+    
+    @Autowired
+    private RoutingService routingService;
+    
+    @Value("${geo.routing.dispatch-prefilter:50}")
+    private int dispatchPrefilter;
+    
+    /**
+     * Nearest live officers to an incident. The incident is read once; ranking
+     * uses only the in-memory position index. When the road graph is loaded,
+     * the straight-line nearest are re-ranked by road travel time with one
+     * backward search from the incident.
+     */
+    public DispatchCandidatesDTO getCandidates(Long incidentId, int k, double maxRadiusMeters, Integer stationId) {
+        IncidentLocation incident = incidentLocationRepository.findById(incidentId)
+            .orElseThrow(() -> new IncidentNotFoundException(incidentId));
+        
+        if (!routingService.isAvailable()) {
+            List<OfficerPositionDTO> candidates = positionService.findNearestOfficers(
+                incident.latitude(), incident.longitude(), k, maxRadiusMeters, stationId);
+            return new DispatchCandidatesDTO(incidentId, incident.priority(),
+                incident.latitude(), incident.longitude(), candidates);
+        }
+        
+        List<OfficerPositionDTO> candidates = positionService.findNearestOfficers(
+            incident.latitude(), incident.longitude(), Math.max(k, dispatchPrefilter), maxRadiusMeters, stationId);
+        List<LocationDTO> origins = new ArrayList<>(candidates.size());
+        for (OfficerPositionDTO candidate : candidates) {
+            origins.add(new LocationDTO(candidate.getLatitude(), candidate.getLongitude()));
+        }
+        List<Double> travelTimes = routingService.travelTimesTo(origins, incident.latitude(), incident.longitude());
+        for (int i = 0; i < candidates.size(); i++) {
+            candidates.get(i).setTravelTimeSeconds(travelTimes.get(i));
+        }
+        // Officers off the road network keep their straight-line order after the reachable ones
+        candidates.sort(Comparator.comparing(OfficerPositionDTO::getTravelTimeSeconds,
+            Comparator.nullsLast(Comparator.naturalOrder())));
+        if (candidates.size() > k) {
+            candidates = candidates.subList(0, k);
+        }
+        return new DispatchCandidatesDTO(incidentId, incident.priority(),
+            incident.latitude(), incident.longitude(), candidates);
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.geographic_service.service;
+
+import com.example.geographic_service.dto.CreateGeofenceRequest;
+import com.example.geographic_service.dto.GeofenceDTO;
+import com.example.geographic_service.dto.LocationDTO;
+import com.example.geographic_service.entity.Geofence;
+import com.example.geographic_service.exception.GeofenceNotFoundException;
+import com.example.geographic_service.geofence.GeofenceIndex;
+import com.example.geographic_service.repository.GeofenceRepository;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class GeofenceService {
+    
+    private static final Logger log = LoggerFactory.getLogger(GeofenceService.class);
+    
+    @Autowired
+    private GeofenceRepository geofenceRepository;
+    
+    private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+    
+    private final Map<Long, GeofenceIndex.Entry> entries = new ConcurrentHashMap<>();
+    private volatile GeofenceIndex index = GeofenceIndex.EMPTY;
+    private volatile boolean loaded;
+    
+    /**
+     * Reloads every geofence into a fresh index, picking up changes made
+     * through other instances. Runs at startup and then periodically.
+     */
+    @Scheduled(fixedDelayString = "${geo.geofences.reload-interval-ms:60000}")
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public void reloadIndex() {
+        try {
+            Map<Long, GeofenceIndex.Entry> fresh = new ConcurrentHashMap<>();
+            for (Geofence geofence : geofenceRepository.findAll()) {
+                fresh.put(geofence.getId(), GeofenceIndex.entry(geofence.getId(), geofence.getUserId(), geofence.getGeom()));
+            }
+            synchronized (entries) {
+                entries.clear();
+                entries.putAll(fresh);
+                rebuild();
+            }
+            if (!loaded) {
+                log.info("Loaded {} geofences into the index", fresh.size());
+            }
+            loaded = true;
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Could not load geofences: {}", e.getMessage());
+        }
+    }
+    
+    public GeofenceDTO createGeofence(CreateGeofenceRequest request) {
+        if (request.getName() == null || request.getName().isBlank() || request.getName().length() > 100) {
+            throw new IllegalArgumentException("Name is required and must not exceed 100 characters");
+        }
+        if (request.getUserId() == null) {
+            throw new IllegalArgumentException("User ID is required");
+        }
+        
+        Geofence geofence = new Geofence();
+        geofence.setName(request.getName());
+        geofence.setUserId(request.getUserId());
+        geofence.setGeom(createPolygon(request.getBoundary()));
+        
+        Geofence saved;
+        try {
+            saved = geofenceRepository.saveAndFlush(geofence);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("User not found with id: " + request.getUserId());
+        }
+        GeofenceIndex.Entry entry = GeofenceIndex.entry(saved.getId(), saved.getUserId(), saved.getGeom());
+        afterCommit(() -> {
+            synchronized (entries) {
+                entries.put(entry.id(), entry);
+                rebuild();
+            }
+        });
+        log.info("Geofence created: id={}, userId={}", saved.getId(), saved.getUserId());
+        return convertToDTO(saved);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<GeofenceDTO> getGeofencesByUser(Long userId) {
+        return geofenceRepository.findByUserId(userId).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+    
+    public void deleteGeofence(Long id) {
+        if (!geofenceRepository.existsById(id)) {
+            throw new GeofenceNotFoundException(id);
+        }
+        geofenceRepository.deleteById(id);
+        afterCommit(() -> {
+            synchronized (entries) {
+                entries.remove(id);
+                rebuild();
+            }
+        });
+        log.info("Geofence deleted: id={}", id);
+    }
+    
+    /** Geofences containing the point, from the in-memory index. */
+    public List<GeofenceIndex.Entry> match(double latitude, double longitude) {
+        return index.match(latitude, longitude);
+    }
+    
+    public boolean isLoaded() {
+        return loaded;
+    }
+    
+    private void rebuild() {
+        index = new GeofenceIndex(entries.values());
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    private Polygon createPolygon(List<LocationDTO> boundary) {
+        if (boundary == null || boundary.size() < 3) {
+            throw new IllegalArgumentException("Boundary must have at least 3 points");
+        }
+        List<Coordinate> coordinates = new ArrayList<>(boundary.size() + 1);
+        for (LocationDTO location : boundary) {
+            if (Math.abs(location.getLatitude()) > 90 || Math.abs(location.getLongitude()) > 180) {
+                throw new IllegalArgumentException("Invalid coordinates in boundary");
+            }
+            coordinates.add(new Coordinate(location.getLongitude(), location.getLatitude()));
+        }
+        if (!coordinates.get(0).equals2D(coordinates.get(coordinates.size() - 1))) {
+            coordinates.add(new Coordinate(coordinates.get(0)));
+        }
+        
+        Polygon polygon;
+        try {
+            polygon = geometryFactory.createPolygon(coordinates.toArray(new Coordinate[0]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Boundary must have at least 3 distinct points");
+        }
+        if (!polygon.isValid()) {
+            throw new IllegalArgumentException("Boundary must not intersect itself");
+        }
+        polygon.setSRID(4326);
+        return polygon;
+    }
+    
+    private GeofenceDTO convertToDTO(Geofence geofence) {
+        List<LocationDTO> boundary = new ArrayList<>();
+        for (Coordinate coordinate : geofence.getGeom().getExteriorRing().getCoordinates()) {
+            boundary.add(new LocationDTO(coordinate.y, coordinate.x));
+        }
+        return new GeofenceDTO(geofence.getId(), geofence.getName(), geofence.getUserId(), boundary, geofence.getCreatedAt());
+    }
+}
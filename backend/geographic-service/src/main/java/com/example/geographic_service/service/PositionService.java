@@ -0,0 +1,196 @@
+package com.example.geographic_service.service;
+
+import com.example.geographic_service.dto.OfficerPositionDTO;
+import com.example.geographic_service.dto.PositionBatchResult;
+import com.example.geographic_service.dto.PositionPingDTO;
+import com.example.geographic_service.exception.PositionNotFoundException;
+import com.example.geographic_service.repository.OfficerRepository;
+import com.example.geographic_service.tracking.LatestPositionStore;
+import com.example.geographic_service.tracking.OfficerPosition;
+import com.example.geographic_service.tracking.PositionHistoryWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class PositionService {
+    
+    private static final Logger log = LoggerFactory.getLogger(PositionService.class);
+    
+    @Autowired
+    private OfficerRepository officerRepository;
+    
+    @Autowired
+    private PositionHistoryWriter historyWriter;
+    
+    @Value("${geo.positions.max-ping-age-seconds:3600}")
+    private long maxPingAgeSeconds;
+    
+    @Value("${geo.positions.max-clock-skew-seconds:300}")
+    private long maxClockSkewSeconds;
+    
+    @Value("${geo.positions.live-seconds:300}")
+    private long liveSeconds;
+    
+    // Radius and result caps for proximity queries, so one request cannot scan the whole grid
+    @Value("${geo.positions.max-search-radius-meters:50000}")
+    private double maxSearchRadiusMeters;
+    
+    @Value("${geo.positions.max-search-results:500}")
+    private int maxSearchResults;
+    
+    private final LatestPositionStore store;
+    
+    // Officer id -> station id, replaced wholesale on refresh
+    private volatile Map<Integer, Integer> officerStations = Map.of();
+    
+    public PositionService(@Value("${geo.positions.grid-cell-degrees:0.01}") double cellDegrees) {
+        this.store = new LatestPositionStore(cellDegrees);
+    }
+    
+    @Scheduled(fixedDelayString = "${geo.positions.officer-refresh-interval-ms:60000}")
+    public void refreshOfficers() {
+        try {
+            officerStations = officerRepository.findOfficerStations();
+            log.debug("Loaded {} officers for position tracking", officerStations.size());
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh officers for position tracking: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Applies a batch of pings to the latest-position store and queues them for
+     * history. Pings from unknown users or with invalid coordinates or times
+     * are rejected individually; older pings than the stored one are stale.
+     */
+    public PositionBatchResult ingest(List<PositionPingDTO> pings) {
+        Map<Integer, Integer> stations = officerStations;
+        long now = System.currentTimeMillis();
+        int accepted = 0, stale = 0, rejected = 0;
+        
+        for (PositionPingDTO ping : pings) {
+            OfficerPosition position = toPosition(ping, stations, now);
+            if (position == null) {
+                rejected++;
+            } else if (store.update(position)) {
+                historyWriter.enqueue(position);
+                accepted++;
+            } else {
+                stale++;
+            }
+        }
+        if (rejected > 0) {
+            log.debug("Rejected {} of {} position pings", rejected, pings.size());
+        }
+        return new PositionBatchResult(accepted, stale, rejected);
+    }
+    
+    private OfficerPosition toPosition(PositionPingDTO ping, Map<Integer, Integer> stations, long now) {
+        if (ping == null || ping.getUserId() == null || ping.getLatitude() == null || ping.getLongitude() == null) {
+            return null;
+        }
+        int userId = ping.getUserId().intValue();
+        if (!stations.containsKey(userId)
+                || Math.abs(ping.getLatitude()) > 90 || Math.abs(ping.getLongitude()) > 180) {
+            return null;
+        }
+        long recordedAt = ping.getRecordedAt() != null
+            ? ping.getRecordedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+            : now;
+        if (recordedAt < now - maxPingAgeSeconds * 1000 || recordedAt > now + maxClockSkewSeconds * 1000) {
+            return null;
+        }
+        return new OfficerPosition(userId, stations.get(userId), ping.getLatitude(), ping.getLongitude(),
+            ping.getSpeed(), ping.getHeading(), ping.getAccuracy(), recordedAt);
+    }
+    
+    public OfficerPositionDTO getLatestPosition(Long userId) {
+        OfficerPosition position = store.get(userId.intValue());
+        if (position == null) {
+            throw new PositionNotFoundException(userId);
+        }
+        return convertToDTO(position, null);
+    }
+    
+    /**
+     * Officers whose latest position is within {@code radiusMeters} and no older
+     * than the live window, nearest first.
+     */
+    public List<OfficerPositionDTO> findOfficersNear(double latitude, double longitude, double radiusMeters,
+                                                     Integer stationId, int limit) {
+        checkSearchBounds(radiusMeters, limit);
+        long liveSince = System.currentTimeMillis() - liveSeconds * 1000;
+        // A user moving between cells during the scan can be seen twice
+        Map<Integer, OfficerPosition> found = new LinkedHashMap<>();
+        store.forEachWithin(latitude, longitude, radiusMeters, position -> {
+            if (position.recordedAt() >= liveSince
+                    && (stationId == null || stationId.equals(position.stationId()))) {
+                found.merge(position.userId(), position,
+                    (a, b) -> a.recordedAt() >= b.recordedAt() ? a : b);
+            }
+        });
+        
+        List<OfficerPositionDTO> result = new ArrayList<>(found.size());
+        for (OfficerPosition position : found.values()) {
+            result.add(convertToDTO(position, LatestPositionStore.distanceMeters(
+                latitude, longitude, position.latitude(), position.longitude())));
+        }
+        result.sort(Comparator.comparingDouble(OfficerPositionDTO::getDistanceMeters));
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+    
+    /**
+     * The {@code k} officers with a live position nearest to the point, ranked
+     * by great-circle distance entirely from the in-memory index.
+     */
+    public List<OfficerPositionDTO> findNearestOfficers(double latitude, double longitude, int k,
+                                                        double maxRadiusMeters, Integer stationId) {
+        checkSearchBounds(maxRadiusMeters, k);
+        long liveSince = System.currentTimeMillis() - liveSeconds * 1000;
+        List<LatestPositionStore.Neighbor> nearest = store.nearest(latitude, longitude, k, maxRadiusMeters,
+            position -> position.recordedAt() >= liveSince
+                && (stationId == null || stationId.equals(position.stationId())));
+        
+        List<OfficerPositionDTO> result = new ArrayList<>(nearest.size());
+        for (LatestPositionStore.Neighbor neighbor : nearest) {
+            result.add(convertToDTO(neighbor.position(), neighbor.distanceMeters()));
+        }
+        return result;
+    }
+    
+    private void checkSearchBounds(double radiusMeters, int count) {
+        if (!(radiusMeters > 0 && radiusMeters <= maxSearchRadiusMeters)) {
+            throw new IllegalArgumentException("Radius must be positive and at most " + maxSearchRadiusMeters + " meters");
+        }
+        if (count < 1 || count > maxSearchResults) {
+            throw new IllegalArgumentException("Result count must be between 1 and " + maxSearchResults);
+        }
+    }
+    
+    private OfficerPositionDTO convertToDTO(OfficerPosition position, Double distanceMeters) {
+        OfficerPositionDTO dto = new OfficerPositionDTO();
+        dto.setUserId((long) position.userId());
+        dto.setStationId(position.stationId());
+        dto.setLatitude(position.latitude());
+        dto.setLongitude(position.longitude());
+        dto.setSpeed(position.speed());
+        dto.setHeading(position.heading());
+        dto.setAccuracy(position.accuracy());
+        dto.setRecordedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(position.recordedAt()), ZoneId.systemDefault()));
+        dto.setDistanceMeters(distanceMeters);
+        return dto;
+    }
+}
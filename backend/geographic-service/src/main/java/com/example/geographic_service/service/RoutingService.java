@@ -0,0 +1,204 @@
+package com.example.geographic_service.service;
+
+import com.example.geographic_service.dto.LocationDTO;
+import com.example.geographic_service.dto.RouteDTO;
+import com.example.geographic_service.dto.TravelTimeMatrixDTO;
+import com.example.geographic_service.dto.TravelTimeMatrixRequest;
+import com.example.geographic_service.exception.RoutingUnavailableException;
+import com.example.geographic_service.routing.OsmGraphBuilder;
+import com.example.geographic_service.routing.RoadGraph;
+import com.example.geographic_service.routing.Router;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@Service
+public class RoutingService {
+    
+    private static final Logger log = LoggerFactory.getLogger(RoutingService.class);
+    
+    @Value("${geo.routing.osm-file:}")
+    private String osmFile;
+    
+    @Value("${geo.routing.graph-file:}")
+    private String graphFile;
+    
+    @Value("${geo.routing.landmarks:16}")
+    private int landmarks;
+    
+    @Value("${geo.routing.snap-radius-meters:500}")
+    private double snapRadiusMeters;
+    
+    @Value("${geo.routing.max-matrix-cells:10000}")
+    private int maxMatrixCells;
+    
+    @Value("${geo.routing.max-concurrent-searches:8}")
+    private int maxConcurrentSearches;
+    
+    private volatile Router router;
+    
+    /**
+     * Opens the road graph in the background so startup is not held up. The
+     * mapped graph file is reused while it is newer than the OSM extract;
+     * otherwise it is rebuilt from the extract first.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadGraph() {
+        if (graphFile.isBlank()) {
+            log.info("Road routing disabled: geo.routing.graph-file is not set");
+            return;
+        }
+        Thread loader = new Thread(this::load, "road-graph-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+    
+    private void load() {
+        try {
+            Path graphPath = Path.of(graphFile);
+            Path osmPath = osmFile.isBlank() ? null : Path.of(osmFile);
+            if (osmPath != null && Files.exists(osmPath) && (!Files.exists(graphPath)
+                    || Files.getLastModifiedTime(osmPath).compareTo(Files.getLastModifiedTime(graphPath)) > 0)) {
+                log.info("Building road graph from {}", osmPath);
+                RoadGraph.write(graphPath, OsmGraphBuilder.build(osmPath, landmarks));
+            }
+            if (!Files.exists(graphPath)) {
+                log.warn("Road routing disabled: no graph at {} and no OSM extract to build it from", graphPath);
+                return;
+            }
+            long start = System.currentTimeMillis();
+            RoadGraph graph = RoadGraph.open(graphPath);
+            router = new Router(graph, maxConcurrentSearches);
+            log.info("Road graph loaded from {}: {} nodes, {} edges, {} landmarks in {} ms", graphPath,
+                graph.nodeCount(), graph.edgeCount(), graph.landmarkCount(), System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not load road graph; routing is unavailable", e);
+        }
+    }
+    
+    @PreDestroy
+    public void close() throws IOException {
+        Router current = router;
+        router = null;
+        if (current != null) {
+            current.getGraph().close();
+        }
+    }
+    
+    public boolean isAvailable() {
+        return router != null;
+    }
+    
+    public RouteDTO route(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        Router current = requireRouter();
+        int source = snapOrThrow(current, fromLatitude, fromLongitude, "Origin");
+        int target = snapOrThrow(current, toLatitude, toLongitude, "Destination");
+        
+        Router.Route route = current.route(source, target);
+        if (route == null) {
+            throw new IllegalArgumentException("No road route between the given points");
+        }
+        RoadGraph graph = current.getGraph();
+        List<LocationDTO> path = new ArrayList<>(route.path().length);
+        for (int node : route.path()) {
+            path.add(new LocationDTO(graph.latitude(node), graph.longitude(node)));
+        }
+        return new RouteDTO(route.distanceMeters(), route.durationMillis() / 1000.0, path);
+    }
+    
+    /**
+     * Travel times between every source and destination, one forward search
+     * per source run in parallel. Points off the road network get nulls.
+     */
+    public TravelTimeMatrixDTO matrix(TravelTimeMatrixRequest request) {
+        Router current = requireRouter();
+        if (request.getSources() == null || request.getDestinations() == null
+                || request.getSources().isEmpty() || request.getDestinations().isEmpty()) {
+            throw new IllegalArgumentException("sources and destinations must not be empty");
+        }
+        if ((long) request.getSources().size() * request.getDestinations().size() > maxMatrixCells) {
+            throw new IllegalArgumentException("Matrix exceeds " + maxMatrixCells + " cells");
+        }
+        int[] sources = snapAll(current, request.getSources());
+        int[] destinations = snapAll(current, request.getDestinations());
+        
+        List<List<Double>> rows = IntStream.range(0, sources.length).parallel()
+            .mapToObj(i -> sources[i] < 0
+                ? toSeconds(unreachable(destinations.length))
+                : toSeconds(current.travelTimesFrom(sources[i], destinations)))
+            .toList();
+        return new TravelTimeMatrixDTO(rows);
+    }
+    
+    /**
+     * Travel time in seconds from each origin to one destination using a
+     * single backward search; null where an origin cannot reach it.
+     */
+    public List<Double> travelTimesTo(List<LocationDTO> origins, double toLatitude, double toLongitude) {
+        Router current = requireRouter();
+        int target = current.snap(toLatitude, toLongitude, snapRadiusMeters);
+        if (target < 0) {
+            return toSeconds(unreachable(origins.size()));
+        }
+        return toSeconds(current.travelTimesTo(snapAll(current, origins), target));
+    }
+    
+    private Router requireRouter() {
+        Router current = router;
+        if (current == null) {
+            throw new RoutingUnavailableException("Road routing is not available");
+        }
+        return current;
+    }
+    
+    private int snapOrThrow(Router current, double latitude, double longitude, String label) {
+        validate(latitude, longitude);
+        int node = current.snap(latitude, longitude, snapRadiusMeters);
+        if (node < 0) {
+            throw new IllegalArgumentException(label + " is more than " + snapRadiusMeters + " m from the road network");
+        }
+        return node;
+    }
+    
+    private int[] snapAll(Router current, List<LocationDTO> locations) {
+        int[] nodes = new int[locations.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            LocationDTO location = locations.get(i);
+            validate(location.getLatitude(), location.getLongitude());
+            nodes[i] = current.snap(location.getLatitude(), location.getLongitude(), snapRadiusMeters);
+        }
+        return nodes;
+    }
+    
+    private static void validate(double latitude, double longitude) {
+        if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+    }
+    
+    private static int[] unreachable(int size) {
+        int[] times = new int[size];
+        Arrays.fill(times, RoadGraph.UNREACHABLE);
+        return times;
+    }
+    
+    private static List<Double> toSeconds(int[] millis) {
+        List<Double> seconds = new ArrayList<>(millis.length);
+        for (int time : millis) {
+            seconds.add(time == RoadGraph.UNREACHABLE ? null : time / 1000.0);
+        }
+        return seconds;
+    }
+}
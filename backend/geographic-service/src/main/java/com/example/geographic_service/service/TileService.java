@@ -0,0 +1,170 @@
+package com.example.geographic_service.service;
+
+import com.example.geographic_service.feed.NewIncidentListener;
+import com.example.geographic_service.repository.IncidentLocationRepository.NewIncident;
+import com.example.geographic_service.repository.TileRepository;
+import com.example.geographic_service.tiles.TileCache;
+import com.example.geographic_service.tiles.TileKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves vector tiles for the boundaries and incidents layers from a
+ * two-tier cache, generating misses with PostGIS.
+ *
+ * Incident tiles covering a new incident are invalidated at every zoom as it
+ * arrives from the incident feed; updates and deletes are bounded by a short
+ * maximum age. Boundary tiles are dropped when the boundaries table's
+ * fingerprint changes.
+ */
+@Service
+public class TileService implements NewIncidentListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(TileService.class);
+    
+    public static final String BOUNDARIES = "boundaries";
+    public static final String INCIDENTS = "incidents";
+    public static final int MAX_ZOOM = 22;
+    
+    // Web mercator meters per 256px screen pixel at zoom 0
+    private static final double METERS_PER_PIXEL_Z0 = 2 * 20_037_508.342789244 / 256;
+    
+    @Autowired
+    private TileRepository tileRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${geo.tiles.simplify-pixels:1.0}")
+    private double simplifyPixels;
+    
+    @Value("${geo.tiles.incident-detail-zoom:12}")
+    private int incidentDetailZoom;
+    
+    @Value("${geo.tiles.cluster-grid-units:64}")
+    private int clusterGridUnits;
+    
+    @Value("${geo.tiles.incidents-max-age-seconds:60}")
+    private long incidentsMaxAgeSeconds;
+    
+    private final TileCache cache;
+    private final Map<TileKey, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> invalidations = Map.of(BOUNDARIES, new AtomicLong(), INCIDENTS, new AtomicLong());
+    private String boundariesFingerprint;
+    
+    public TileService(@Value("${geo.tiles.memory-cache-bytes:67108864}") long memoryBytes,
+                       @Value("${geo.tiles.disk-cache-bytes:1073741824}") long diskBytes,
+                       @Value("${geo.tiles.disk-cache-dir:${java.io.tmpdir}/nisircop/tiles}") String directory) throws IOException {
+        this.cache = new TileCache(memoryBytes, diskBytes, Paths.get(directory));
+    }
+    
+    /**
+     * @return the encoded tile, empty if it has no features
+     */
+    public byte[] getTile(String layer, int z, int x, int y) {
+        if (!invalidations.containsKey(layer)) {
+            throw new IllegalArgumentException("Unknown layer: " + layer);
+        }
+        if (z < 0 || z > MAX_ZOOM || x < 0 || y < 0 || x >= (1 << z) || y >= (1 << z)) {
+            throw new IllegalArgumentException("Tile " + z + "/" + x + "/" + y + " is out of range");
+        }
+        
+        TileKey key = new TileKey(layer, z, x, y);
+        long maxAge = INCIDENTS.equals(layer) ? incidentsMaxAgeSeconds * 1000 : Long.MAX_VALUE / 2;
+        byte[] cached = cache.get(key, maxAge);
+        if (cached != null) {
+            return cached;
+        }
+        
+        // Concurrent requests for the same missing tile share one query
+        CompletableFuture<byte[]> pending = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+        try {
+            AtomicLong layerInvalidations = invalidations.get(layer);
+            long seen = layerInvalidations.get();
+            long createdAt = System.currentTimeMillis();
+            byte[] tile = generate(key);
+            cache.put(key, tile, createdAt, () -> layerInvalidations.get() == seen);
+            pending.complete(tile);
+            return tile;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+    
+    private byte[] generate(TileKey key) {
+        if (BOUNDARIES.equals(key.layer())) {
+            double tolerance = simplifyPixels * METERS_PER_PIXEL_Z0 / (1L << key.z());
+            return tileRepository.boundariesTile(key.z(), key.x(), key.y(), tolerance);
+        }
+        if (key.z() < incidentDetailZoom) {
+            return tileRepository.incidentClustersTile(key.z(), key.x(), key.y(), clusterGridUnits);
+        }
+        return tileRepository.incidentsTile(key.z(), key.x(), key.y());
+    }
+    
+    /** Drops the incident tiles, at every zoom, that can show the new incident. */
+    @Override
+    public void onIncident(NewIncident incident) {
+        invalidations.get(INCIDENTS).incrementAndGet();
+        double buffer = (double) TileRepository.BUFFER / TileRepository.EXTENT;
+        double worldX = (incident.longitude() + 180) / 360;
+        double sinLat = Math.sin(Math.toRadians(incident.latitude()));
+        double worldY = 0.5 - Math.log((1 + sinLat) / (1 - sinLat)) / (4 * Math.PI);
+        
+        for (int z = 0; z <= MAX_ZOOM; z++) {
+            int tiles = 1 << z;
+            double tileX = worldX * tiles, tileY = worldY * tiles;
+            // The buffer means a point near an edge is also drawn in the neighboring tile
+            int minX = Math.max((int) Math.floor(tileX - buffer), 0), maxX = Math.min((int) Math.floor(tileX + buffer), tiles - 1);
+            int minY = Math.max((int) Math.floor(tileY - buffer), 0), maxY = Math.min((int) Math.floor(tileY + buffer), tiles - 1);
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    cache.invalidate(new TileKey(INCIDENTS, z, x, y));
+                }
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${geo.tiles.boundaries-check-interval-ms:60000}")
+    public void checkBoundaries() {
+        try {
+            String fingerprint = jdbcTemplate.queryForObject(
+                "SELECT md5(COALESCE(string_agg(id || ':' || name || ':' || md5(ST_AsBinary(geom)), ',' ORDER BY id), '')) FROM boundaries",
+                String.class);
+            if (boundariesFingerprint != null && !Objects.equals(boundariesFingerprint, fingerprint)) {
+                invalidations.get(BOUNDARIES).incrementAndGet();
+                cache.invalidateLayer(BOUNDARIES);
+                log.info("Boundaries changed, dropped cached boundary tiles");
+            }
+            boundariesFingerprint = fingerprint;
+        } catch (DataAccessException e) {
+            log.warn("Could not check boundaries for changes: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.geographic_service.tiles;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier LRU cache of encoded tiles, each tier bounded by total bytes: a
+ * small in-memory tier in front of a larger on-disk tier. Every tile is
+ * written through to disk, so tiles evicted from memory are still served
+ * from disk. Entries carry their creation time so callers can apply a
+ * per-layer maximum age.
+ *
+ * The disk tier is cleared on startup, since the data may have changed
+ * while the service was down.
+ */
+public final class TileCache {
+    
+    private static final Logger log = LoggerFactory.getLogger(TileCache.class);
+    
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final Path directory;
+    
+    private final LinkedHashMap<TileKey, MemoryEntry> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private final LinkedHashMap<TileKey, DiskEntry> disk = new LinkedHashMap<>(1024, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+    
+    public TileCache(long maxMemoryBytes, long maxDiskBytes, Path directory) throws IOException {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+        this.directory = directory;
+        if (Files.exists(directory)) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+        Files.createDirectories(directory);
+    }
+    
+    /**
+     * @return the tile, or null if it is not cached or older than {@code maxAgeMillis}
+     */
+    public byte[] get(TileKey key, long maxAgeMillis) {
+        long oldest = System.currentTimeMillis() - maxAgeMillis;
+        DiskEntry onDisk;
+        synchronized (this) {
+            MemoryEntry cached = memory.get(key);
+            if (cached != null && cached.createdAt() >= oldest) {
+                return cached.data();
+            }
+            onDisk = disk.get(key);
+            if (onDisk == null || onDisk.createdAt() < oldest) {
+                return null;
+            }
+        }
+        
+        byte[] data;
+        try {
+            data = Files.readAllBytes(path(key));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read cached tile {}: {}", key, e.getMessage());
+            return null;
+        }
+        synchronized (this) {
+            // Only promote if the tile was not invalidated while reading
+            if (disk.get(key) == onDisk) {
+                putInMemory(key, new MemoryEntry(data, onDisk.createdAt()));
+            }
+        }
+        return data;
+    }
+    
+    /**
+     * Caches a tile unless {@code stillValid} returns false. It is checked under
+     * the cache lock, so a concurrent invalidation either rejects the tile
+     * or removes it afterwards.
+     */
+    public void put(TileKey key, byte[] data, long createdAt, BooleanSupplier stillValid) {
+        boolean written = data.length <= maxDiskBytes && writeFile(key, data);
+        
+        List<TileKey> deleted = new ArrayList<>();
+        synchronized (this) {
+            DiskEntry previous = disk.remove(key);
+            if (previous != null) {
+                diskBytes -= previous.size();
+            }
+            if (!stillValid.getAsBoolean()) {
+                // Invalidated while it was generated; drop whatever was written
+                MemoryEntry cached = memory.remove(key);
+                if (cached != null) {
+                    memoryBytes -= cached.data().length;
+                }
+                if (written || previous != null) {
+                    deleted.add(key);
+                }
+            } else {
+                putInMemory(key, new MemoryEntry(data, createdAt));
+                if (written) {
+                    disk.put(key, new DiskEntry(data.length, createdAt));
+                    diskBytes += data.length;
+                } else if (previous != null) {
+                    deleted.add(key);
+                }
+                Iterator<Map.Entry<TileKey, DiskEntry>> it = disk.entrySet().iterator();
+                while (diskBytes > maxDiskBytes && it.hasNext()) {
+                    Map.Entry<TileKey, DiskEntry> eldest = it.next();
+                    diskBytes -= eldest.getValue().size();
+                    deleted.add(eldest.getKey());
+                    it.remove();
+                }
+            }
+        }
+        deleted.forEach(this::deleteFile);
+    }
+    
+    private boolean writeFile(TileKey key, byte[] data) {
+        Path file = path(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + "." + Thread.currentThread().threadId() + ".tmp");
+            Files.write(tmp, data);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not write tile {} to disk cache: {}", key, e.getMessage());
+            return false;
+        }
+    }
+    
+    public void invalidate(TileKey key) {
+        boolean onDisk;
+        synchronized (this) {
+            MemoryEntry cached = memory.remove(key);
+            if (cached != null) {
+                memoryBytes -= cached.data().length;
+            }
+            DiskEntry entry = disk.remove(key);
+            onDisk = entry != null;
+            if (onDisk) {
+                diskBytes -= entry.size();
+            }
+        }
+        if (onDisk) {
+            deleteFile(key);
+        }
+    }
+    
+    public void invalidateLayer(String layer) {
+        List<TileKey> keys = new ArrayList<>();
+        synchronized (this) {
+            keys.addAll(memory.keySet());
+            keys.addAll(disk.keySet());
+        }
+        keys.stream().filter(key -> key.layer().equals(layer)).distinct().forEach(this::invalidate);
+    }
+    
+    private void putInMemory(TileKey key, MemoryEntry entry) {
+        MemoryEntry previous = memory.put(key, entry);
+        if (previous != null) {
+            memoryBytes -= previous.data().length;
+        }
+        memoryBytes += entry.data().length;
+        Iterator<MemoryEntry> it = memory.values().iterator();
+        while (memoryBytes > maxMemoryBytes && it.hasNext()) {
+            memoryBytes -= it.next().data().length;
+            it.remove();
+        }
+    }
+    
+    private void deleteFile(TileKey key) {
+        try {
+            Files.deleteIfExists(path(key));
+        } catch (IOException e) {
+            log.warn("Could not delete cached tile {}: {}", key, e.getMessage());
+        }
+    }
+    
+    private Path path(TileKey key) {
+        return directory.resolve(key.layer()).resolve(Integer.toString(key.z()))
+            .resolve(Integer.toString(key.x())).resolve(key.y() + ".mvt");
+    }
+    
+    private record MemoryEntry(byte[] data, long createdAt) {}
+    
+    private record DiskEntry(long size, long createdAt) {}
+}
@@ -0,0 +1,9 @@
+package com.example.geographic_service.tiles;
+
+public record TileKey(String layer, int z, int x, int y) {
+    
+    @Override
+    public String toString() {
+        return layer + "/" + z + "/" + x + "/" + y;
+    }
+}
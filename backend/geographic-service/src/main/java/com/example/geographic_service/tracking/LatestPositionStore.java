@@ -0,0 +1,188 @@
+package com.example.geographic_service.tracking;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Latest position per officer plus a uniform lat/lng grid of who is in which
+ * cell, for radius queries that only look at nearby cells.
+ *
+ * Reads never lock. An update only locks its own user's hash bin, and moves the
+ * user between grid cells under that lock, so concurrent pings for different
+ * officers never contend and out-of-order pings for one officer are dropped.
+ */
+public final class LatestPositionStore {
+    
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    
+    private final double cellDegrees;
+    private final Map<Integer, OfficerPosition> latest = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Integer>> grid = new ConcurrentHashMap<>();
+    
+    public LatestPositionStore(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+    
+    /**
+     * Stores the position unless a newer one is already known.
+     *
+     * @return whether the position was applied
+     */
+    public boolean update(OfficerPosition position) {
+        boolean[] applied = {false};
+        latest.compute(position.userId(), (userId, current) -> {
+            if (current != null && current.recordedAt() >= position.recordedAt()) {
+                return current;
+            }
+            long cell = cellOf(position.latitude(), position.longitude());
+            if (current == null || cellOf(current.latitude(), current.longitude()) != cell) {
+                if (current != null) {
+                    removeFromCell(cellOf(current.latitude(), current.longitude()), userId);
+                }
+                addToCell(cell, userId);
+            }
+            applied[0] = true;
+            return position;
+        });
+        return applied[0];
+    }
+    
+    public OfficerPosition get(int userId) {
+        return latest.get(userId);
+    }
+    
+    public int size() {
+        return latest.size();
+    }
+    
+    /**
+     * Calls {@code consumer} with every position within {@code radiusMeters}
+     * of the given point.
+     */
+    public void forEachWithin(double latitude, double longitude, double radiusMeters, Consumer<OfficerPosition> consumer) {
+        double latSpan = radiusMeters / METERS_PER_DEGREE;
+        double lngSpan = radiusMeters / (METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        long minRow = row(latitude - latSpan), maxRow = row(latitude + latSpan);
+        long minColumn = column(longitude - lngSpan), maxColumn = column(longitude + lngSpan);
+        
+        for (long r = minRow; r <= maxRow; r++) {
+            for (long c = minColumn; c <= maxColumn; c++) {
+                Set<Integer> users = grid.get(key(r, c));
+                if (users == null) {
+                    continue;
+                }
+                for (Integer userId : users) {
+                    OfficerPosition position = latest.get(userId);
+                    if (position != null && distanceMeters(latitude, longitude, position.latitude(), position.longitude()) <= radiusMeters) {
+                        consumer.accept(position);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * The {@code k} positions nearest to the point that pass {@code filter},
+     * nearest first, searching rings of cells outward until no unvisited cell
+     * can hold anything closer or {@code maxRadiusMeters} is exceeded.
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, int k, double maxRadiusMeters,
+                                  Predicate<OfficerPosition> filter) {
+        // Farthest neighbor on top so it is the one replaced
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Neighbor::distanceMeters).reversed());
+        Set<Integer> seen = new HashSet<>();
+        double cellMeters = cellDegrees * METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        long row = row(latitude), column = column(longitude);
+        
+        for (long ring = 0; ; ring++) {
+            for (long r = row - ring; r <= row + ring; r++) {
+                // Only the border of the ring; the inside was visited already
+                long step = (r == row - ring || r == row + ring) ? 1 : Math.max(2 * ring, 1);
+                for (long c = column - ring; c <= column + ring; c += step) {
+                    Set<Integer> users = grid.get(key(r, c));
+                    if (users == null) {
+                        continue;
+                    }
+                    for (Integer userId : users) {
+                        OfficerPosition position = latest.get(userId);
+                        if (position == null || !filter.test(position) || !seen.add(userId)) {
+                            continue;
+                        }
+                        double distance = distanceMeters(latitude, longitude, position.latitude(), position.longitude());
+                        if (distance <= maxRadiusMeters && (best.size() < k || distance < best.peek().distanceMeters())) {
+                            best.add(new Neighbor(position, distance));
+                            if (best.size() > k) {
+                                best.poll();
+                            }
+                        }
+                    }
+                }
+            }
+            // Every cell beyond this ring is at least ring full cells away
+            double reach = ring * cellMeters;
+            if (reach > maxRadiusMeters || (best.size() == k && best.peek().distanceMeters() <= reach)) {
+                break;
+            }
+        }
+        
+        List<Neighbor> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceMeters));
+        return result;
+    }
+    
+    public record Neighbor(OfficerPosition position, double distanceMeters) {}
+    
+    /**
+     * Adds under the cell's bin lock; adding to a set fetched first could race
+     * with {@link #removeFromCell} dropping that set once it is empty.
+     */
+    private void addToCell(long cell, int userId) {
+        grid.compute(cell, (key, users) -> {
+            if (users == null) {
+                users = ConcurrentHashMap.newKeySet();
+            }
+            users.add(userId);
+            return users;
+        });
+    }
+    
+    private void removeFromCell(long cell, int userId) {
+        grid.computeIfPresent(cell, (key, users) -> {
+            users.remove(userId);
+            return users.isEmpty() ? null : users;
+        });
+    }
+    
+    private long cellOf(double latitude, double longitude) {
+        return key(row(latitude), column(longitude));
+    }
+    
+    private long row(double latitude) {
+        return (long) Math.floor((latitude + 90) / cellDegrees);
+    }
+    
+    private long column(double longitude) {
+        return (long) Math.floor((longitude + 180) / cellDegrees);
+    }
+    
+    private static long key(long row, long column) {
+        return (row << 32) | (column & 0xFFFFFFFFL);
+    }
+    
+    /** Haversine distance in meters. */
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * 6_371_000.0 * Math.asin(Math.sqrt(a));
+    }
+}
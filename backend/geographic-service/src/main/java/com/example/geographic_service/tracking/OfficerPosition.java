@@ -0,0 +1,16 @@
+package com.example.geographic_service.tracking;
+
+/**
+ * Last known position of an officer. {@code stationId} comes from the users
+ * table; speed, heading and accuracy are optional and may be null.
+ */
+public record OfficerPosition(
+    int userId,
+    Integer stationId,
+    double latitude,
+    double longitude,
+    Double speed,
+    Double heading,
+    Double accuracy,
+    long recordedAt
+) {}
@@ -0,0 +1,100 @@
+package com.example.geographic_service.tracking;
+
+import com.example.geographic_service.repository.PositionHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers accepted pings in a bounded queue and flushes them to the
+ * partitioned history table in JDBC batches, off the request path.
+ *
+ * History is best effort: if the database falls behind and the queue fills,
+ * new pings still update the latest-position store but are not recorded.
+ */
+@Component
+public class PositionHistoryWriter {
+    
+    private static final Logger log = LoggerFactory.getLogger(PositionHistoryWriter.class);
+    
+    @Autowired
+    private PositionHistoryRepository historyRepository;
+    
+    @Value("${geo.positions.history.batch-size:2000}")
+    private int batchSize;
+    
+    @Value("${geo.positions.history.retention-days:30}")
+    private int retentionDays;
+    
+    private final BlockingQueue<OfficerPosition> queue;
+    private final List<OfficerPosition> pending = new ArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private LocalDate partitionsReadyFor;
+    
+    public PositionHistoryWriter(@Value("${geo.positions.history.queue-capacity:200000}") int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+    
+    public void enqueue(OfficerPosition position) {
+        if (!queue.offer(position)) {
+            dropped.incrementAndGet();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${geo.positions.history.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        try {
+            maintainPartitions();
+        } catch (DataAccessException e) {
+            log.warn("Could not maintain officer position partitions: {}", e.getMessage());
+        }
+        
+        try {
+            do {
+                // A failed batch stays pending and is retried first
+                if (pending.isEmpty()) {
+                    queue.drainTo(pending, batchSize);
+                }
+                if (!pending.isEmpty()) {
+                    historyRepository.insertBatch(pending);
+                    pending.clear();
+                }
+            } while (queue.size() >= batchSize);
+        } catch (DataAccessException e) {
+            log.warn("Could not flush {} officer positions: {}", pending.size(), e.getMessage());
+        }
+        
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            log.warn("Position history queue full, {} pings were not recorded", lost);
+        }
+    }
+    
+    /** Keeps partitions for yesterday through tomorrow (UTC) and drops expired ones, once a day. */
+    private void maintainPartitions() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (today.equals(partitionsReadyFor)) {
+            return;
+        }
+        for (LocalDate day = today.minusDays(1); !day.isAfter(today.plusDays(1)); day = day.plusDays(1)) {
+            historyRepository.createPartition(day);
+        }
+        int expired = historyRepository.dropPartitionsBefore(today.minusDays(retentionDays));
+        if (expired > 0) {
+            log.info("Dropped {} expired officer position partitions", expired);
+        }
+        partitionsReadyFor = today;
+    }
+}
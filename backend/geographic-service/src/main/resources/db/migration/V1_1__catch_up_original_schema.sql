@@ -0,0 +1,26 @@
+-- Databases created from the original init.sql are baselined as version 1
+-- although they predate the geofence and position history tables later added
+-- to init.sql alone. Everything checks for the object first, so this is a
+-- no-op on a database created from the current init.sql.
+CREATE TABLE IF NOT EXISTS geofences (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    user_id INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    geom GEOMETRY(Polygon, 4326) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS geofences_user_id_idx ON geofences (user_id);
+
+-- The service creates the daily partitions ahead of time
+CREATE TABLE IF NOT EXISTS officer_positions (
+    user_id INT NOT NULL,
+    station_id INT,
+    location GEOMETRY(Point, 4326) NOT NULL,
+    speed REAL,
+    heading REAL,
+    accuracy REAL,
+    recorded_at TIMESTAMP WITH TIME ZONE NOT NULL
+) PARTITION BY RANGE (recorded_at);
+
+CREATE INDEX IF NOT EXISTS officer_positions_user_time_idx ON officer_positions (user_id, recorded_at);
@@ -0,0 +1,78 @@
+package com.example.geographic_service.geofence;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeofenceIndexTests {
+    
+    private static final GeometryFactory GEOMETRY = new GeometryFactory();
+    
+    /** Axis-aligned box; coordinates are (longitude, latitude). */
+    private static Polygon box(double minLat, double minLng, double maxLat, double maxLng) {
+        return GEOMETRY.createPolygon(new Coordinate[] {
+            new Coordinate(minLng, minLat), new Coordinate(maxLng, minLat), new Coordinate(maxLng, maxLat),
+            new Coordinate(minLng, maxLat), new Coordinate(minLng, minLat)});
+    }
+    
+    @Test
+    void aPointMatchesEveryGeofenceCoveringIt() {
+        GeofenceIndex index = new GeofenceIndex(List.of(
+            GeofenceIndex.entry(1L, 10L, box(9.0, 38.7, 9.1, 38.8)),
+            GeofenceIndex.entry(2L, 20L, box(9.05, 38.75, 9.2, 38.9)),
+            GeofenceIndex.entry(3L, 10L, box(8.0, 37.0, 8.1, 37.1))));
+        
+        assertEquals(Set.of(1L, 2L), ids(index, 9.07, 38.77));
+        assertEquals(Set.of(1L), ids(index, 9.01, 38.71));
+        // The boundary is inside
+        assertEquals(Set.of(1L), ids(index, 9.0, 38.72));
+        assertTrue(index.match(8.5, 38.0).isEmpty());
+        assertEquals(3, index.size());
+    }
+    
+    @Test
+    void aPointInsideTheEnvelopeButOutsideThePolygonDoesNotMatch() {
+        // A triangle over the lower-left half of its envelope
+        Polygon triangle = GEOMETRY.createPolygon(new Coordinate[] {
+            new Coordinate(38.7, 9.0), new Coordinate(38.8, 9.0), new Coordinate(38.7, 9.1), new Coordinate(38.7, 9.0)});
+        GeofenceIndex index = new GeofenceIndex(List.of(GeofenceIndex.entry(1L, 10L, triangle)));
+        
+        assertEquals(Set.of(1L), ids(index, 9.02, 38.72));
+        assertTrue(index.match(9.09, 38.79).isEmpty());
+    }
+    
+    @Test
+    void matchesAgreeWithTestingEveryPolygon() {
+        Random random = new Random(35);
+        List<GeofenceIndex.Entry> entries = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            double lat = 8.8 + random.nextDouble() * 0.5, lng = 38.5 + random.nextDouble() * 0.5;
+            entries.add(GeofenceIndex.entry(id, id % 50, box(lat, lng, lat + random.nextDouble() * 0.05,
+                lng + random.nextDouble() * 0.05)));
+        }
+        GeofenceIndex index = new GeofenceIndex(entries);
+        
+        for (int i = 0; i < 1_000; i++) {
+            double lat = 8.8 + random.nextDouble() * 0.55, lng = 38.5 + random.nextDouble() * 0.55;
+            Set<Long> expected = entries.stream()
+                .filter(entry -> entry.geometry().covers(GEOMETRY.createPoint(new Coordinate(lng, lat))))
+                .map(GeofenceIndex.Entry::id)
+                .collect(Collectors.toSet());
+            assertEquals(expected, ids(index, lat, lng));
+        }
+    }
+    
+    private static Set<Long> ids(GeofenceIndex index, double latitude, double longitude) {
+        return index.match(latitude, longitude).stream().map(GeofenceIndex.Entry::id).collect(Collectors.toSet());
+    }
+}
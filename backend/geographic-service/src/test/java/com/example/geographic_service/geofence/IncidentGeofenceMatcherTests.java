@@ -0,0 +1,135 @@
+package com.example.geographic_service.geofence;
+
+import com.example.geographic_service.dto.CreateGeofenceRequest;
+import com.example.geographic_service.dto.GeofenceNotificationDTO;
+import com.example.geographic_service.dto.LocationDTO;
+import com.example.geographic_service.entity.Geofence;
+import com.example.geographic_service.repository.GeofenceRepository;
+import com.example.geographic_service.repository.IncidentLocationRepository.FeedPosition;
+import com.example.geographic_service.repository.IncidentLocationRepository.NewIncident;
+import com.example.geographic_service.service.GeofenceService;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncidentGeofenceMatcherTests {
+    
+    // geofences, as the repository holds them
+    private final Map<Long, Geofence> table = new LinkedHashMap<>();
+    private final GeofenceService geofenceService = new GeofenceService();
+    private final InMemoryGeofenceNotifier notifier = new InMemoryGeofenceNotifier();
+    private final IncidentGeofenceMatcher matcher = new IncidentGeofenceMatcher();
+    
+    IncidentGeofenceMatcherTests() {
+        ReflectionTestUtils.setField(geofenceService, "geofenceRepository", repository());
+        ReflectionTestUtils.setField(notifier, "maxPerUser", 2);
+        ReflectionTestUtils.setField(matcher, "geofenceService", geofenceService);
+        ReflectionTestUtils.setField(matcher, "notifier", notifier);
+    }
+    
+    @Test
+    void eachSubscriberGetsOneNotificationListingTheirGeofences() {
+        geofenceService.createGeofence(request("Home", 10L, 9.0, 38.7, 9.1, 38.8));
+        geofenceService.createGeofence(request("Office", 10L, 9.05, 38.75, 9.2, 38.9));
+        geofenceService.createGeofence(request("Patrol area", 20L, 9.0, 38.7, 9.2, 38.9));
+        geofenceService.createGeofence(request("Elsewhere", 30L, 8.0, 37.0, 8.1, 37.1));
+        
+        matcher.onIncident(incident(100L, 9.07, 38.77));
+        
+        List<GeofenceNotificationDTO> home = notifier.getNotifications(10L, 0);
+        assertEquals(1, home.size());
+        assertEquals(100L, home.get(0).getIncidentId());
+        assertEquals("Theft", home.get(0).getIncidentType());
+        assertEquals(List.of(1L, 2L), home.get(0).getGeofenceIds().stream().sorted().toList());
+        assertEquals(List.of(3L), notifier.getNotifications(20L, 0).get(0).getGeofenceIds());
+        assertTrue(notifier.getNotifications(30L, 0).isEmpty());
+    }
+    
+    @Test
+    void theIndexFollowsCreatesDeletesAndReloads() {
+        assertFalse(matcher.isReady());
+        geofenceService.reloadIndex();
+        assertTrue(matcher.isReady());
+        
+        geofenceService.createGeofence(request("Home", 10L, 9.0, 38.7, 9.1, 38.8));
+        assertEquals(1, geofenceService.match(9.05, 38.75).size());
+        geofenceService.deleteGeofence(1L);
+        assertTrue(geofenceService.match(9.05, 38.75).isEmpty());
+        
+        // Created through another instance
+        Geofence other = new Geofence();
+        other.setId(7L);
+        other.setUserId(20L);
+        other.setGeom(new GeometryFactory().createPolygon(new Coordinate[] {
+            new Coordinate(38.7, 9.0), new Coordinate(38.8, 9.0), new Coordinate(38.8, 9.1), new Coordinate(38.7, 9.0)}));
+        table.put(7L, other);
+        geofenceService.reloadIndex();
+        assertEquals(7L, geofenceService.match(9.02, 38.78).get(0).id());
+    }
+    
+    @Test
+    void newestNotificationsAreKeptPerSubscriber() {
+        geofenceService.createGeofence(request("Home", 10L, 9.0, 38.7, 9.1, 38.8));
+        for (long id = 1; id <= 3; id++) {
+            matcher.onIncident(incident(id, 9.05, 38.75));
+        }
+        
+        List<GeofenceNotificationDTO> notifications = notifier.getNotifications(10L, 0);
+        assertEquals(List.of(3L, 2L), notifications.stream().map(GeofenceNotificationDTO::getIncidentId).toList());
+        assertEquals(List.of(3L), notifier.getNotifications(10L, notifications.get(1).getId()).stream()
+            .map(GeofenceNotificationDTO::getIncidentId).toList());
+    }
+    
+    @Test
+    void aSelfIntersectingBoundaryIsRejected() {
+        CreateGeofenceRequest bowtie = new CreateGeofenceRequest();
+        bowtie.setName("Bowtie");
+        bowtie.setUserId(10L);
+        bowtie.setBoundary(List.of(new LocationDTO(9.0, 38.7), new LocationDTO(9.1, 38.8),
+            new LocationDTO(9.0, 38.8), new LocationDTO(9.1, 38.7)));
+        assertThrows(IllegalArgumentException.class, () -> geofenceService.createGeofence(bowtie));
+        assertTrue(table.isEmpty());
+    }
+    
+    private static CreateGeofenceRequest request(String name, Long userId, double minLat, double minLng,
+                                                 double maxLat, double maxLng) {
+        CreateGeofenceRequest request = new CreateGeofenceRequest();
+        request.setName(name);
+        request.setUserId(userId);
+        request.setBoundary(List.of(new LocationDTO(minLat, minLng), new LocationDTO(minLat, maxLng),
+            new LocationDTO(maxLat, maxLng), new LocationDTO(maxLat, minLng)));
+        return request;
+    }
+    
+    private static NewIncident incident(long id, double latitude, double longitude) {
+        return new NewIncident(id, "Theft", "HIGH", latitude, longitude, new FeedPosition(id, id));
+    }
+    
+    private GeofenceRepository repository() {
+        return (GeofenceRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {GeofenceRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "findAll" -> new ArrayList<>(table.values());
+                case "saveAndFlush" -> {
+                    Geofence geofence = (Geofence) args[0];
+                    geofence.setId((long) table.size() + 1);
+                    table.put(geofence.getId(), geofence);
+                    yield geofence;
+                }
+                case "existsById" -> table.containsKey((Long) args[0]);
+                case "deleteById" -> table.remove((Long) args[0]);
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
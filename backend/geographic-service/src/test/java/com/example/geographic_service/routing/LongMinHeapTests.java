@@ -0,0 +1,75 @@
+package com.example.geographic_service.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongMinHeapTests {
+    
+    @Test
+    void popsInAscendingOrderAcrossGrowth() {
+        Random random = new Random(3);
+        long[] values = new long[10_000];
+        LongMinHeap heap = new LongMinHeap();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = LongMinHeap.entry(random.nextInt(1_000_000), random.nextInt(1 << 20));
+            heap.push(values[i]);
+        }
+        long[] popped = new long[values.length];
+        for (int i = 0; i < popped.length; i++) {
+            popped[i] = heap.pop();
+        }
+        Arrays.sort(values);
+        assertArrayEquals(values, popped);
+        assertTrue(heap.isEmpty());
+    }
+    
+    @Test
+    void interleavedPushAndPopKeepTheMinimumOnTop() {
+        Random random = new Random(4);
+        LongMinHeap heap = new LongMinHeap();
+        long[] reference = new long[5_000];
+        int size = 0;
+        for (int round = 0; round < 20_000; round++) {
+            if (size == 0 || (size < reference.length && random.nextBoolean())) {
+                long value = random.nextInt(1_000);
+                heap.push(value);
+                reference[size++] = value;
+            } else {
+                Arrays.sort(reference, 0, size);
+                assertEquals(reference[0], heap.pop());
+                reference[0] = reference[--size];
+            }
+        }
+    }
+    
+    @Test
+    void entriesOrderByKeyAndKeepTheNode() {
+        long small = LongMinHeap.entry(5, Integer.MAX_VALUE - 1);
+        long large = LongMinHeap.entry(6, 0);
+        assertTrue(small < large);
+        assertEquals(5, LongMinHeap.key(small));
+        assertEquals(Integer.MAX_VALUE - 1, LongMinHeap.node(small));
+        assertEquals(0, LongMinHeap.node(large));
+        
+        long unreachable = LongMinHeap.entry(RoadGraph.UNREACHABLE, 12);
+        assertEquals(RoadGraph.UNREACHABLE, LongMinHeap.key(unreachable));
+        assertEquals(12, LongMinHeap.node(unreachable));
+    }
+    
+    @Test
+    void clearEmptiesTheHeap() {
+        LongMinHeap heap = new LongMinHeap();
+        heap.push(3);
+        heap.push(1);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        heap.push(2);
+        assertEquals(2, heap.pop());
+    }
+}
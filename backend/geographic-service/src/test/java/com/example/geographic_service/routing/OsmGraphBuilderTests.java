@@ -0,0 +1,227 @@
+package com.example.geographic_service.routing;
+
+import com.google.protobuf.ByteString;
+import crosby.binary.Osmformat;
+import crosby.binary.file.BlockOutputStream;
+import crosby.binary.file.FileBlock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OsmGraphBuilderTests {
+    
+    @TempDir
+    Path dir;
+    
+    /**
+     * Nodes 1-4 form a two-way residential loop with a one-way secondary
+     * shortcut from 1 to 3. The rest must be dropped: node 5 is only entered
+     * (one-way from 3), 7-8 are their own component, 6 is on a footway, and
+     * 99 is referenced but missing from the extract.
+     */
+    private RoadGraph.Data buildSample(int landmarks) throws IOException {
+        Map<Long, double[]> nodes = new LinkedHashMap<>();
+        nodes.put(1L, new double[] {9.000, 38.700});
+        nodes.put(2L, new double[] {9.000, 38.702});
+        nodes.put(3L, new double[] {9.002, 38.702});
+        nodes.put(4L, new double[] {9.002, 38.700});
+        nodes.put(5L, new double[] {9.004, 38.704});
+        nodes.put(6L, new double[] {9.004, 38.698});
+        nodes.put(7L, new double[] {9.010, 38.710});
+        nodes.put(8L, new double[] {9.010, 38.712});
+        
+        Path pbf = dir.resolve("sample.osm.pbf");
+        try (OutputStream out = Files.newOutputStream(pbf)) {
+            BlockOutputStream blocks = new BlockOutputStream(out);
+            blocks.write(FileBlock.newInstance("OSMHeader", Osmformat.HeaderBlock.newBuilder()
+                .addRequiredFeatures("OsmSchema-V0.6").addRequiredFeatures("DenseNodes")
+                .build().toByteString(), null));
+            
+            Strings strings = new Strings();
+            Osmformat.PrimitiveGroup.Builder ways = Osmformat.PrimitiveGroup.newBuilder();
+            ways.addWays(way(strings, 10, new long[] {1, 2, 3, 4, 1}, "highway", "residential"));
+            ways.addWays(way(strings, 11, new long[] {1, 3}, "highway", "secondary", "oneway", "yes"));
+            ways.addWays(way(strings, 12, new long[] {3, 5}, "highway", "primary", "oneway", "yes"));
+            ways.addWays(way(strings, 13, new long[] {4, 6}, "highway", "footway"));
+            ways.addWays(way(strings, 14, new long[] {7, 8}, "highway", "residential"));
+            ways.addWays(way(strings, 15, new long[] {2, 99}, "highway", "residential"));
+            
+            Osmformat.DenseNodes.Builder dense = Osmformat.DenseNodes.newBuilder();
+            long id = 0, lat = 0, lon = 0;
+            for (Map.Entry<Long, double[]> node : nodes.entrySet()) {
+                long nodeLat = Math.round(node.getValue()[0] * 1e7), nodeLon = Math.round(node.getValue()[1] * 1e7);
+                dense.addId(node.getKey() - id).addLat(nodeLat - lat).addLon(nodeLon - lon);
+                id = node.getKey();
+                lat = nodeLat;
+                lon = nodeLon;
+            }
+            
+            Osmformat.PrimitiveBlock block = Osmformat.PrimitiveBlock.newBuilder()
+                .setStringtable(strings.table())
+                .addPrimitivegroup(Osmformat.PrimitiveGroup.newBuilder().setDense(dense))
+                .addPrimitivegroup(ways)
+                .build();
+            blocks.write(FileBlock.newInstance("OSMData", block.toByteString(), null));
+            blocks.close();
+        }
+        return OsmGraphBuilder.build(pbf, landmarks);
+    }
+    
+    @Test
+    void keepsOnlyTheLargestStronglyConnectedComponent() throws IOException {
+        RoadGraph.Data data = buildSample(2);
+        
+        // Nodes are renumbered densely in id order: 1 -> 0 ... 4 -> 3
+        assertEquals(4, data.latitudes().length);
+        assertEquals(RoadGraph.toFixed(9.002), data.latitudes()[2]);
+        assertEquals(RoadGraph.toFixed(38.702), data.longitudes()[2]);
+        // Four two-way loop segments and the one-way shortcut
+        assertEquals(9, data.forwardTarget().length);
+        assertEquals(9, data.backwardSource().length);
+        
+        int[][] times = allPairs(data);
+        int shortcut = edgeTime(data, 0, 2);
+        int residential = edgeTime(data, 0, 1);
+        assertEquals(shortcut, times[0][2]);
+        // The shortcut is one-way, so the way back goes round the loop
+        assertEquals(-1, edgeTime(data, 2, 0));
+        assertEquals(Math.min(edgeTime(data, 2, 1) + edgeTime(data, 1, 0), edgeTime(data, 2, 3) + edgeTime(data, 3, 0)),
+            times[2][0]);
+        
+        double meters = OsmGraphBuilder.distanceMeters(data.latitudes()[0], data.longitudes()[0],
+            data.latitudes()[1], data.longitudes()[1]);
+        assertEquals(Math.round(meters / (25 / 3.6 / 1000)), residential);
+    }
+    
+    @Test
+    void landmarkTablesHoldExactTravelTimes() throws IOException {
+        RoadGraph.Data data = buildSample(3);
+        int[][] times = allPairs(data);
+        assertEquals(3, data.landmarkFrom().length);
+        for (int l = 0; l < data.landmarkFrom().length; l++) {
+            int landmark = -1;
+            for (int node = 0; node < 4; node++) {
+                if (data.landmarkFrom()[l][node] == 0) {
+                    landmark = node;
+                }
+            }
+            int[] from = new int[4], to = new int[4];
+            for (int node = 0; node < 4; node++) {
+                from[node] = times[landmark][node];
+                to[node] = times[node][landmark];
+            }
+            assertArrayEquals(from, data.landmarkFrom()[l]);
+            assertArrayEquals(to, data.landmarkTo()[l]);
+        }
+    }
+    
+    @Test
+    void landmarkBoundsNeverOverestimate() throws IOException {
+        RoadGraph.Data data = buildSample(2);
+        int[][] times = allPairs(data);
+        for (int l = 0; l < data.landmarkFrom().length; l++) {
+            int[] from = data.landmarkFrom()[l], to = data.landmarkTo()[l];
+            for (int v = 0; v < 4; v++) {
+                for (int t = 0; t < 4; t++) {
+                    assertTrue(from[t] - from[v] <= times[v][t]);
+                    assertTrue(to[v] - to[t] <= times[v][t]);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void builtGraphRoutesThroughTheShortcut() throws IOException {
+        Path file = dir.resolve("sample.graph");
+        RoadGraph.write(file, buildSample(2));
+        try (RoadGraph graph = RoadGraph.open(file)) {
+            Router router = new Router(graph, 1);
+            assertArrayEquals(new int[] {0, 2}, router.route(0, 2).path());
+            assertEquals(3, router.route(2, 0).path().length);
+            // Every kept node reaches every other
+            for (int a = 0; a < 4; a++) {
+                for (int b = 0; b < 4; b++) {
+                    assertEquals(a == b, router.route(a, b).path().length == 1);
+                }
+            }
+        }
+    }
+    
+    private static int edgeTime(RoadGraph.Data data, int from, int to) {
+        for (int e = data.forwardFirst()[from]; e < data.forwardFirst()[from + 1]; e++) {
+            if (data.forwardTarget()[e] == to) {
+                return data.forwardTime()[e];
+            }
+        }
+        return -1;
+    }
+    
+    /** Floyd-Warshall over the forward edges. */
+    private static int[][] allPairs(RoadGraph.Data data) {
+        int n = data.latitudes().length;
+        int[][] times = new int[n][n];
+        for (int a = 0; a < n; a++) {
+            for (int b = 0; b < n; b++) {
+                times[a][b] = a == b ? 0 : RoadGraph.UNREACHABLE;
+            }
+            for (int e = data.forwardFirst()[a]; e < data.forwardFirst()[a + 1]; e++) {
+                times[a][data.forwardTarget()[e]] = Math.min(times[a][data.forwardTarget()[e]], data.forwardTime()[e]);
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int a = 0; a < n; a++) {
+                for (int b = 0; b < n; b++) {
+                    if (times[a][k] != RoadGraph.UNREACHABLE && times[k][b] != RoadGraph.UNREACHABLE) {
+                        times[a][b] = Math.min(times[a][b], times[a][k] + times[k][b]);
+                    }
+                }
+            }
+        }
+        return times;
+    }
+    
+    private static Osmformat.Way way(Strings strings, long id, long[] refs, String... tags) {
+        Osmformat.Way.Builder way = Osmformat.Way.newBuilder().setId(id);
+        for (int t = 0; t < tags.length; t += 2) {
+            way.addKeys(strings.index(tags[t])).addVals(strings.index(tags[t + 1]));
+        }
+        long previous = 0;
+        for (long ref : refs) {
+            way.addRefs(ref - previous);
+            previous = ref;
+        }
+        return way.build();
+    }
+    
+    /** PBF string table; index 0 is reserved for the empty string. */
+    private static final class Strings {
+        final List<String> values = new ArrayList<>(List.of(""));
+        
+        int index(String value) {
+            int index = values.indexOf(value);
+            if (index < 0) {
+                values.add(value);
+                index = values.size() - 1;
+            }
+            return index;
+        }
+        
+        Osmformat.StringTable table() {
+            Osmformat.StringTable.Builder table = Osmformat.StringTable.newBuilder();
+            values.forEach(value -> table.addS(ByteString.copyFromUtf8(value)));
+            return table.build();
+        }
+    }
+}
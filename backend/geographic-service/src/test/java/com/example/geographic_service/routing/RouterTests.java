@@ -0,0 +1,233 @@
+package com.example.geographic_service.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouterTests {
+    
+    private static final int WIDTH = 30;
+    private static final int HEIGHT = 20;
+    
+    @TempDir
+    Path dir;
+    
+    private int n;
+    private List<int[]> edges;
+    private int[][] forward;
+    private int[][] backward;
+    private RoadGraph graph;
+    
+    /**
+     * A grid of streets with a different random travel time in each
+     * direction, a few one-way blocks, and one isolated node at the end.
+     */
+    @BeforeEach
+    void buildGraph() throws IOException {
+        n = WIDTH * HEIGHT + 1;
+        edges = new ArrayList<>();
+        Random random = new Random(11);
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int column = 0; column < WIDTH; column++) {
+                int node = row * WIDTH + column;
+                if (column + 1 < WIDTH) {
+                    addStreet(node, node + 1, random);
+                }
+                if (row + 1 < HEIGHT) {
+                    addStreet(node, node + WIDTH, random);
+                }
+            }
+        }
+        
+        int[] latitudes = new int[n], longitudes = new int[n];
+        for (int node = 0; node < n - 1; node++) {
+            latitudes[node] = RoadGraph.toFixed(9.0 + (node / WIDTH) * 0.001);
+            longitudes[node] = RoadGraph.toFixed(38.7 + (node % WIDTH) * 0.001);
+        }
+        latitudes[n - 1] = RoadGraph.toFixed(9.5);
+        longitudes[n - 1] = RoadGraph.toFixed(39.0);
+        
+        forward = csr(false);
+        backward = csr(true);
+        int[] landmarks = {0, WIDTH - 1, WIDTH * (HEIGHT - 1), WIDTH * HEIGHT - 1};
+        int[][] landmarkFrom = new int[landmarks.length][], landmarkTo = new int[landmarks.length][];
+        for (int l = 0; l < landmarks.length; l++) {
+            landmarkFrom[l] = dijkstra(landmarks[l], false);
+            landmarkTo[l] = dijkstra(landmarks[l], true);
+        }
+        Path file = dir.resolve("roads.graph");
+        RoadGraph.write(file, new RoadGraph.Data(latitudes, longitudes, forward[0], forward[1], forward[2],
+            backward[0], backward[1], backward[2], landmarkFrom, landmarkTo));
+        graph = RoadGraph.open(file);
+    }
+    
+    @AfterEach
+    void closeGraph() throws IOException {
+        graph.close();
+    }
+    
+    @Test
+    void routesMatchDijkstraAndFollowTheGraph() {
+        Router router = new Router(graph, 1);
+        Random random = new Random(12);
+        for (int query = 0; query < 300; query++) {
+            int source = random.nextInt(n - 1), target = random.nextInt(n - 1);
+            Router.Route route = router.route(source, target);
+            int expected = dijkstra(source, false)[target];
+            if (expected == RoadGraph.UNREACHABLE) {
+                assertNull(route);
+                continue;
+            }
+            assertNotNull(route);
+            assertEquals(expected, route.durationMillis());
+            
+            int[] path = route.path();
+            assertEquals(source, path[0]);
+            assertEquals(target, path[path.length - 1]);
+            int total = 0;
+            for (int i = 0; i + 1 < path.length; i++) {
+                total += edgeTime(path[i], path[i + 1]);
+            }
+            assertEquals(route.durationMillis(), total);
+        }
+    }
+    
+    @Test
+    void manyToOneAndOneToManyMatchDijkstra() {
+        Router router = new Router(graph, 1);
+        int[] nodes = {0, 17, WIDTH * 5 + 3, WIDTH * HEIGHT - 1, n - 1, -1, 17};
+        
+        int origin = WIDTH * 10 + 15;
+        int[] from = dijkstra(origin, false), to = dijkstra(origin, true);
+        int[] expectedFrom = new int[nodes.length], expectedTo = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            expectedFrom[i] = nodes[i] >= 0 ? from[nodes[i]] : RoadGraph.UNREACHABLE;
+            expectedTo[i] = nodes[i] >= 0 ? to[nodes[i]] : RoadGraph.UNREACHABLE;
+        }
+        assertArrayEquals(expectedFrom, router.travelTimesFrom(origin, nodes));
+        assertArrayEquals(expectedTo, router.travelTimesTo(nodes, origin));
+    }
+    
+    @Test
+    void unreachableTargetHasNoRoute() {
+        Router router = new Router(graph, 1);
+        assertNull(router.route(0, n - 1));
+        assertNull(router.route(n - 1, 0));
+        // The failed searches must not leave state behind for the next one
+        assertEquals(dijkstra(0, false)[WIDTH + 1], router.route(0, WIDTH + 1).durationMillis());
+    }
+    
+    @Test
+    void snapsToTheNearestNodeWithinRange() {
+        Router router = new Router(graph, 1);
+        int node = 3 * WIDTH + 7;
+        assertEquals(node, router.snap(graph.latitude(node) + 0.0001, graph.longitude(node) - 0.0002, 500));
+        assertEquals(n - 1, router.snap(9.5001, 39.0, 500));
+        assertEquals(-1, router.snap(10.0, 40.0, 500));
+    }
+    
+    @Test
+    void concurrentQueriesShareABoundedPoolOfSearchStates() throws Exception {
+        Router router = new Router(graph, 2);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                long seed = t;
+                results.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int query = 0; query < 40; query++) {
+                        int source = random.nextInt(n - 1), target = random.nextInt(n - 1);
+                        Router.Route route = router.route(source, target);
+                        int expected = dijkstra(source, false)[target];
+                        assertEquals(expected, route != null ? route.durationMillis() : RoadGraph.UNREACHABLE);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    private void addStreet(int a, int b, Random random) {
+        boolean oneWay = random.nextInt(10) == 0;
+        edges.add(new int[] {a, b, 50 + random.nextInt(450)});
+        if (!oneWay) {
+            edges.add(new int[] {b, a, 50 + random.nextInt(450)});
+        }
+    }
+    
+    private int edgeTime(int a, int b) {
+        int best = Integer.MAX_VALUE;
+        for (int[] edge : edges) {
+            if (edge[0] == a && edge[1] == b) {
+                best = Math.min(best, edge[2]);
+            }
+        }
+        assertTrue(best != Integer.MAX_VALUE, "no edge " + a + " -> " + b);
+        return best;
+    }
+    
+    private int[][] csr(boolean reversed) {
+        int[] first = new int[n + 1];
+        for (int[] edge : edges) {
+            first[edge[reversed ? 1 : 0] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            first[i + 1] += first[i];
+        }
+        int[] next = Arrays.copyOf(first, n);
+        int[] adjacent = new int[edges.size()], times = new int[edges.size()];
+        for (int[] edge : edges) {
+            int slot = next[edge[reversed ? 1 : 0]]++;
+            adjacent[slot] = edge[reversed ? 0 : 1];
+            times[slot] = edge[2];
+        }
+        return new int[][] {first, adjacent, times};
+    }
+    
+    private int[] dijkstra(int source, boolean reversed) {
+        int[] dist = new int[n];
+        Arrays.fill(dist, RoadGraph.UNREACHABLE);
+        dist[source] = 0;
+        PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> Integer.compare(a[1], b[1]));
+        queue.add(new int[] {source, 0});
+        while (!queue.isEmpty()) {
+            int[] top = queue.poll();
+            if (top[1] > dist[top[0]]) {
+                continue;
+            }
+            int[][] adjacency = reversed ? backward : forward;
+            for (int e = adjacency[0][top[0]]; e < adjacency[0][top[0] + 1]; e++) {
+                int next = adjacency[1][e];
+                if (top[1] + adjacency[2][e] < dist[next]) {
+                    dist[next] = top[1] + adjacency[2][e];
+                    queue.add(new int[] {next, dist[next]});
+                }
+            }
+        }
+        return dist;
+    }
+}
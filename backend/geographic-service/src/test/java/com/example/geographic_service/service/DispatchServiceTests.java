@@ -0,0 +1,133 @@
+package com.example.geographic_service.service;
+
+import com.example.geographic_service.dto.DispatchCandidatesDTO;
+import com.example.geographic_service.dto.LocationDTO;
+import com.example.geographic_service.dto.OfficerPositionDTO;
+import com.example.geographic_service.dto.PositionPingDTO;
+import com.example.geographic_service.exception.IncidentNotFoundException;
+import com.example.geographic_service.repository.IncidentLocationRepository;
+import com.example.geographic_service.tracking.PositionHistoryWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DispatchServiceTests {
+    
+    private static final double LATITUDE = 9.03;
+    private static final double LONGITUDE = 38.74;
+    private static final double DEGREES_PER_METER = 1 / 111_320.0;
+    
+    private final PositionService positionService = new PositionService(0.01);
+    private final Routing routing = new Routing();
+    private final DispatchService dispatchService = new DispatchService();
+    
+    DispatchServiceTests() {
+        ReflectionTestUtils.setField(positionService, "historyWriter", new PositionHistoryWriter(100));
+        ReflectionTestUtils.setField(positionService, "maxPingAgeSeconds", 3600L);
+        ReflectionTestUtils.setField(positionService, "maxClockSkewSeconds", 300L);
+        ReflectionTestUtils.setField(positionService, "liveSeconds", 300L);
+        ReflectionTestUtils.setField(positionService, "maxSearchRadiusMeters", 50_000.0);
+        ReflectionTestUtils.setField(positionService, "maxSearchResults", 500);
+        ReflectionTestUtils.setField(positionService, "officerStations", Map.of(1, 1, 2, 1, 3, 1, 4, 2, 5, 1));
+        positionService.ingest(List.of(
+            ping(1, 100, 0), ping(2, 300, 0), ping(3, 600, 0), ping(4, 50, 0),
+            // Nearest of all, but not heard from for ten minutes
+            ping(5, 10, 600)));
+        
+        ReflectionTestUtils.setField(dispatchService, "incidentLocationRepository", new IncidentLocationRepository() {
+            @Override
+            public Optional<IncidentLocation> findById(Long id) {
+                return id == 7L ? Optional.of(new IncidentLocation(LATITUDE, LONGITUDE, "HIGH")) : Optional.empty();
+            }
+        });
+        ReflectionTestUtils.setField(dispatchService, "positionService", positionService);
+        ReflectionTestUtils.setField(dispatchService, "routingService", routing);
+        ReflectionTestUtils.setField(dispatchService, "dispatchPrefilter", 50);
+    }
+    
+    @Test
+    void withoutRoadsTheNearestLiveOfficersAreRankedByDistance() {
+        DispatchCandidatesDTO candidates = dispatchService.getCandidates(7L, 3, 10_000, null);
+        
+        assertEquals("HIGH", candidates.getPriority());
+        assertEquals(List.of(4L, 1L, 2L), userIds(candidates));
+        assertEquals(50, candidates.getCandidates().get(0).getDistanceMeters(), 1);
+        assertNull(candidates.getCandidates().get(0).getTravelTimeSeconds());
+        
+        assertEquals(List.of(1L, 2L), userIds(dispatchService.getCandidates(7L, 5, 500, 1)));
+    }
+    
+    @Test
+    void roadTravelTimeReRanksAWiderStraightLineShortlist() {
+        routing.available = true;
+        routing.seconds.putAll(Map.of(100L, -1.0, 300L, 60.0, 600L, 30.0, 50L, 90.0));
+        
+        assertEquals(List.of(3L, 2L), userIds(dispatchService.getCandidates(7L, 2, 10_000, null)));
+        // All four were routed, not just the two nearest
+        assertEquals(4, routing.origins);
+        
+        // Officers who cannot reach the incident by road go last
+        DispatchCandidatesDTO all = dispatchService.getCandidates(7L, 4, 10_000, null);
+        assertEquals(List.of(3L, 2L, 4L, 1L), userIds(all));
+        assertEquals(30.0, all.getCandidates().get(0).getTravelTimeSeconds());
+        assertNull(all.getCandidates().get(3).getTravelTimeSeconds());
+    }
+    
+    @Test
+    void anUnknownIncidentOrUnboundedSearchIsRejected() {
+        assertThrows(IncidentNotFoundException.class, () -> dispatchService.getCandidates(8L, 3, 10_000, null));
+        assertThrows(IllegalArgumentException.class, () -> dispatchService.getCandidates(7L, 0, 10_000, null));
+        assertThrows(IllegalArgumentException.class, () -> dispatchService.getCandidates(7L, 501, 10_000, null));
+        assertThrows(IllegalArgumentException.class, () -> dispatchService.getCandidates(7L, 3, 50_001, null));
+        assertThrows(IllegalArgumentException.class, () -> dispatchService.getCandidates(7L, 3, 0, null));
+    }
+    
+    /** A ping {@code metersNorth} of the incident, recorded {@code secondsAgo}. */
+    private static PositionPingDTO ping(long userId, double metersNorth, long secondsAgo) {
+        PositionPingDTO ping = new PositionPingDTO();
+        ping.setUserId(userId);
+        ping.setLatitude(LATITUDE + metersNorth * DEGREES_PER_METER);
+        ping.setLongitude(LONGITUDE);
+        ping.setRecordedAt(LocalDateTime.now().minusSeconds(secondsAgo));
+        return ping;
+    }
+    
+    private static List<Long> userIds(DispatchCandidatesDTO candidates) {
+        return candidates.getCandidates().stream().map(OfficerPositionDTO::getUserId).toList();
+    }
+    
+    /** Road travel times by the origin's meters north of the incident; negative is unreachable. */
+    private static class Routing extends RoutingService {
+        
+        final Map<Long, Double> seconds = new HashMap<>();
+        boolean available;
+        int origins;
+        
+        @Override
+        public boolean isAvailable() {
+            return available;
+        }
+        
+        @Override
+        public List<Double> travelTimesTo(List<LocationDTO> from, double toLatitude, double toLongitude) {
+            origins = from.size();
+            List<Double> times = new ArrayList<>();
+            for (LocationDTO origin : from) {
+                long metersNorth = Math.round((origin.getLatitude() - LATITUDE) / DEGREES_PER_METER);
+                double time = seconds.get(metersNorth);
+                times.add(time < 0 ? null : time);
+            }
+            return times;
+        }
+    }
+}
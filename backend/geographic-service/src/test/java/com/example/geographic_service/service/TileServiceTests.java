@@ -0,0 +1,144 @@
+package com.example.geographic_service.service;
+
+import com.example.geographic_service.repository.IncidentLocationRepository.FeedPosition;
+import com.example.geographic_service.repository.IncidentLocationRepository.NewIncident;
+import com.example.geographic_service.repository.TileRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TileServiceTests {
+    
+    // Addis Ababa is in tile 2488/1944 at zoom 12
+    private static final double LATITUDE = 9.03;
+    private static final double LONGITUDE = 38.74;
+    
+    private final Tiles tiles = new Tiles();
+    private String fingerprint = "a";
+    
+    @TempDir
+    Path directory;
+    
+    private TileService service() throws IOException {
+        TileService service = new TileService(1 << 20, 1 << 24, directory.toString());
+        ReflectionTestUtils.setField(service, "tileRepository", tiles);
+        ReflectionTestUtils.setField(service, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType) {
+                return requiredType.cast(fingerprint);
+            }
+        });
+        ReflectionTestUtils.setField(service, "simplifyPixels", 1.0);
+        ReflectionTestUtils.setField(service, "incidentDetailZoom", 12);
+        ReflectionTestUtils.setField(service, "clusterGridUnits", 64);
+        ReflectionTestUtils.setField(service, "incidentsMaxAgeSeconds", 60L);
+        return service;
+    }
+    
+    @Test
+    void boundariesAreSimplifiedToAboutAPixelAtEachZoom() throws IOException {
+        TileService service = service();
+        service.getTile(TileService.BOUNDARIES, 0, 0, 0);
+        service.getTile(TileService.BOUNDARIES, 10, 622, 486);
+        
+        // One 256px screen pixel of web mercator meters at zoom 0, halving per zoom
+        assertEquals(156_543.03, tiles.tolerances.get(0), 0.01);
+        assertEquals(156_543.03 / 1024, tiles.tolerances.get(1), 0.01);
+    }
+    
+    @Test
+    void aCachedTileIsGeneratedOnce() throws IOException {
+        TileService service = service();
+        byte[] first = service.getTile(TileService.BOUNDARIES, 10, 622, 486);
+        
+        assertArrayEquals(first, service.getTile(TileService.BOUNDARIES, 10, 622, 486));
+        assertEquals(List.of("boundaries/10/622/486"), tiles.generated);
+    }
+    
+    @Test
+    void lowZoomIncidentTilesAreClustered() throws IOException {
+        TileService service = service();
+        service.getTile(TileService.INCIDENTS, 11, 1244, 972);
+        service.getTile(TileService.INCIDENTS, 12, 2488, 1944);
+        
+        assertEquals(List.of("clusters/11/1244/972/64", "incidents/12/2488/1944"), tiles.generated);
+    }
+    
+    @Test
+    void aNewIncidentDropsOnlyTheIncidentTilesShowingIt() throws IOException {
+        TileService service = service();
+        service.getTile(TileService.INCIDENTS, 12, 2488, 1944);
+        service.getTile(TileService.INCIDENTS, 12, 2400, 1944);
+        service.getTile(TileService.BOUNDARIES, 12, 2488, 1944);
+        
+        service.onIncident(new NewIncident(1L, "Theft", "HIGH", LATITUDE, LONGITUDE, new FeedPosition(1, 1)));
+        tiles.generated.clear();
+        service.getTile(TileService.INCIDENTS, 12, 2488, 1944);
+        service.getTile(TileService.INCIDENTS, 12, 2400, 1944);
+        service.getTile(TileService.BOUNDARIES, 12, 2488, 1944);
+        
+        assertEquals(List.of("incidents/12/2488/1944"), tiles.generated);
+    }
+    
+    @Test
+    void changedBoundariesDropTheBoundaryTiles() throws IOException {
+        TileService service = service();
+        service.checkBoundaries();
+        service.getTile(TileService.BOUNDARIES, 10, 622, 486);
+        service.checkBoundaries();
+        service.getTile(TileService.BOUNDARIES, 10, 622, 486);
+        assertEquals(1, tiles.generated.size());
+        
+        fingerprint = "b";
+        service.checkBoundaries();
+        service.getTile(TileService.BOUNDARIES, 10, 622, 486);
+        assertEquals(2, tiles.generated.size());
+    }
+    
+    @Test
+    void unknownLayersAndTilesOutsideTheZoomAreRejected() throws IOException {
+        TileService service = service();
+        assertThrows(IllegalArgumentException.class, () -> service.getTile("roads", 1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.getTile(TileService.INCIDENTS, 1, 2, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.getTile(TileService.INCIDENTS, 23, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.getTile(TileService.INCIDENTS, 3, -1, 0));
+    }
+    
+    /** Records each tile generated; the tile bytes name the tile. */
+    private static class Tiles extends TileRepository {
+        
+        final List<String> generated = new ArrayList<>();
+        final List<Double> tolerances = new ArrayList<>();
+        
+        @Override
+        public byte[] boundariesTile(int z, int x, int y, double toleranceMeters) {
+            tolerances.add(toleranceMeters);
+            return record("boundaries/" + z + "/" + x + "/" + y);
+        }
+        
+        @Override
+        public byte[] incidentsTile(int z, int x, int y) {
+            return record("incidents/" + z + "/" + x + "/" + y);
+        }
+        
+        @Override
+        public byte[] incidentClustersTile(int z, int x, int y, int gridUnits) {
+            return record("clusters/" + z + "/" + x + "/" + y + "/" + gridUnits);
+        }
+        
+        private byte[] record(String tile) {
+            generated.add(tile);
+            return tile.getBytes();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.geographic_service.tiles;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TileCacheTests {
+    
+    private static final long FOREVER = Long.MAX_VALUE / 2;
+    
+    @TempDir
+    Path directory;
+    
+    private static TileKey key(int x) {
+        return new TileKey("boundaries", 10, x, 7);
+    }
+    
+    private static byte[] tile(int size, int fill) {
+        byte[] data = new byte[size];
+        Arrays.fill(data, (byte) fill);
+        return data;
+    }
+    
+    @Test
+    void tilesEvictedFromMemoryAreServedFromDisk() throws IOException {
+        TileCache cache = new TileCache(100, 10_000, directory);
+        long now = System.currentTimeMillis();
+        for (int x = 0; x < 5; x++) {
+            cache.put(key(x), tile(60, x), now, () -> true);
+        }
+        
+        // Memory holds one 60-byte tile; the rest come back from their files
+        for (int x = 0; x < 5; x++) {
+            assertArrayEquals(tile(60, x), cache.get(key(x), FOREVER));
+        }
+        assertTrue(Files.exists(directory.resolve("boundaries/10/0/7.mvt")));
+    }
+    
+    @Test
+    void theDiskTierDropsItsLeastRecentlyUsedTiles() throws IOException {
+        TileCache cache = new TileCache(50, 200, directory);
+        long now = System.currentTimeMillis();
+        for (int x = 0; x < 4; x++) {
+            cache.put(key(x), tile(60, x), now, () -> true);
+        }
+        
+        assertNull(cache.get(key(0), FOREVER));
+        assertFalse(Files.exists(directory.resolve("boundaries/10/0/7.mvt")));
+        assertArrayEquals(tile(60, 3), cache.get(key(3), FOREVER));
+    }
+    
+    @Test
+    void staleAndInvalidatedTilesAreMisses() throws IOException {
+        TileCache cache = new TileCache(1_000, 10_000, directory);
+        cache.put(key(0), tile(10, 0), System.currentTimeMillis() - 120_000, () -> true);
+        cache.put(key(1), tile(10, 1), System.currentTimeMillis(), () -> true);
+        cache.put(new TileKey("incidents", 10, 1, 7), tile(10, 2), System.currentTimeMillis(), () -> true);
+        
+        assertNull(cache.get(key(0), 60_000));
+        assertArrayEquals(tile(10, 0), cache.get(key(0), FOREVER));
+        
+        cache.invalidateLayer("boundaries");
+        assertNull(cache.get(key(1), FOREVER));
+        assertFalse(Files.exists(directory.resolve("boundaries/10/1/7.mvt")));
+        assertArrayEquals(tile(10, 2), cache.get(new TileKey("incidents", 10, 1, 7), FOREVER));
+    }
+    
+    @Test
+    void aTileInvalidatedWhileItWasGeneratedIsNotCached() throws IOException {
+        TileCache cache = new TileCache(1_000, 10_000, directory);
+        cache.put(key(0), tile(10, 0), System.currentTimeMillis(), () -> true);
+        cache.put(key(0), tile(10, 1), System.currentTimeMillis(), () -> false);
+        
+        assertNull(cache.get(key(0), FOREVER));
+        assertFalse(Files.exists(directory.resolve("boundaries/10/0/7.mvt")));
+    }
+    
+    @Test
+    void theDiskTierStartsEmpty() throws IOException {
+        new TileCache(1_000, 10_000, directory).put(key(0), tile(10, 0), System.currentTimeMillis(), () -> true);
+        
+        TileCache restarted = new TileCache(1_000, 10_000, directory);
+        assertNull(restarted.get(key(0), FOREVER));
+        assertFalse(Files.exists(directory.resolve("boundaries")));
+    }
+}
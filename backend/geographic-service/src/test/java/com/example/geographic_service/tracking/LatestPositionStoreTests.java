@@ -0,0 +1,84 @@
+package com.example.geographic_service.tracking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatestPositionStoreTests {
+    
+    private static OfficerPosition at(int userId, double latitude, double longitude, long recordedAt) {
+        return new OfficerPosition(userId, 1, latitude, longitude, null, null, null, recordedAt);
+    }
+    
+    @Test
+    void olderPingsAreDropped() {
+        LatestPositionStore store = new LatestPositionStore(0.01);
+        assertTrue(store.update(at(1, 9.0, 38.7, 200)));
+        assertFalse(store.update(at(1, 9.1, 38.8, 100)));
+        assertEquals(9.0, store.get(1).latitude());
+    }
+    
+    @Test
+    void movingBetweenCellsKeepsOneGridEntry() {
+        LatestPositionStore store = new LatestPositionStore(0.001);
+        store.update(at(1, 9.0005, 38.7005, 1));
+        store.update(at(1, 9.0105, 38.7105, 2));
+        
+        List<OfficerPosition> nearOld = new ArrayList<>();
+        store.forEachWithin(9.0005, 38.7005, 200, nearOld::add);
+        assertTrue(nearOld.isEmpty());
+        List<OfficerPosition> nearNew = new ArrayList<>();
+        store.forEachWithin(9.0105, 38.7105, 200, nearNew::add);
+        assertEquals(1, nearNew.size());
+    }
+    
+    @Test
+    void nearestReturnsTheClosestInOrder() {
+        LatestPositionStore store = new LatestPositionStore(0.005);
+        for (int i = 1; i <= 20; i++) {
+            store.update(at(i, 9.0 + i * 0.002, 38.7, 1));
+        }
+        List<LatestPositionStore.Neighbor> nearest = store.nearest(9.0, 38.7, 3, 10_000, position -> true);
+        assertEquals(List.of(1, 2, 3), nearest.stream().map(n -> n.position().userId()).toList());
+        assertTrue(store.nearest(9.0, 38.7, 3, 100, position -> true).isEmpty());
+    }
+    
+    @Test
+    void concurrentMovesThroughSharedCellsLoseNoOfficer() throws Exception {
+        LatestPositionStore store = new LatestPositionStore(0.001);
+        int officers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(officers);
+        try {
+            List<Future<?>> moves = new ArrayList<>();
+            for (int officer = 0; officer < officers; officer++) {
+                int userId = officer + 1;
+                // Every officer hops between the same two cells, so a cell
+                // keeps emptying out while others are being added to it
+                moves.add(pool.submit(() -> {
+                    for (int ping = 1; ping <= 20_000; ping++) {
+                        store.update(at(userId, ping % 2 == 0 ? 9.0005 : 9.0015, 38.7005, ping));
+                    }
+                }));
+            }
+            for (Future<?> move : moves) {
+                move.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        
+        Set<Integer> found = new HashSet<>();
+        store.forEachWithin(9.001, 38.7005, 500, position -> assertTrue(found.add(position.userId())));
+        assertEquals(officers, found.size());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.incident_service.config;
+
+import com.example.common.cache.InvalidationBus;
+import com.example.common.cache.LocalCache;
+import com.example.incident_service.dto.IncidentDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+    
+    @Value("${cache.incidents.max-entries:10000}")
+    private int maxEntries;
+    
+    @Value("${cache.incidents.ttl-seconds:60}")
+    private long ttlSeconds;
+    
+    @Bean
+    public LocalCache<Long, IncidentDTO> incidentsById(InvalidationBus bus) {
+        return new LocalCache<>("incidents-by-id", maxEntries, Duration.ofSeconds(ttlSeconds), bus);
+    }
+}
@@ -1,8 +1,19 @@
 package com.example.incident_service.controller;
 
+import com.example.common.idempotency.IdempotencyConflictException;
+import com.example.common.idempotency.IdempotencyStore;
+import com.example.incident_service.dto.BulkStatusUpdateRequest;
+import com.example.incident_service.dto.BulkStatusUpdateResult;
 import com.example.incident_service.dto.CreateIncidentRequest;
+import com.example.incident_service.dto.IncidentChangesDTO;
+import com.example.incident_service.dto.IncidentColumns;
 import com.example.incident_service.dto.IncidentDTO;
+import com.example.incident_service.dto.IncidentEventDTO;
+import com.example.incident_service.dto.IntakeReceipt;
 import com.example.incident_service.entity.IncidentPriority;
+import com.example.incident_service.entity.IncidentStatus;
+import com.example.incident_service.service.IncidentExportService;
+import com.example.incident_service.service.IncidentIntakeService;
 import com.example.incident_service.service.IncidentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,12 +21,20 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/incidents")
@@ -24,6 +43,9 @@ import java.util.List;
 public class IncidentController {
     
     private final IncidentService incidentService;
+    private final IncidentIntakeService intakeService;
+    private final IncidentExportService exportService;
+    private final IdempotencyStore idempotencyStore;
     
     @GetMapping
     @Operation(summary = "Get all incidents")
@@ -32,6 +54,44 @@ public class IncidentController {
         return ResponseEntity.ok(incidents);
     }
     
+    @GetMapping(produces = IncidentColumns.MEDIA_TYPE)
+    @Operation(summary = "Get all incidents (columnar encoding)")
+    public ResponseEntity<IncidentColumns> getAllIncidentColumns() {
+        return ResponseEntity.ok(incidentService.getAllIncidentColumns());
+    }
+    
+    @GetMapping("/changes")
+    @Operation(summary = "Get incident changes",
+               description = "Returns incidents created, updated or deleted after the given change version, "
+                   + "oldest first. Pass the returned nextSince on the next call; start from 0")
+    public ResponseEntity<IncidentChangesDTO> getIncidentChanges(
+            @Parameter(description = "Change version from the previous sync") @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Bounding box as minLng,minLat,maxLng,maxLat")
+            @RequestParam(required = false) String bbox,
+            @Parameter(description = "Maximum number of changes") @RequestParam(defaultValue = "1000") int limit) {
+        double[] bounds = bbox != null ? parseBbox(bbox) : null;
+        if (since < 0 || limit < 1 || limit > 5000 || (bbox != null && bounds == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(incidentService.getChangesSince(since, bounds, limit));
+    }
+    
+    private static double[] parseBbox(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            return null;
+        }
+        double[] bounds = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                bounds[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return bounds[0] <= bounds[2] && bounds[1] <= bounds[3] ? bounds : null;
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get incident by ID")
     public ResponseEntity<IncidentDTO> getIncidentById(@PathVariable Long id) {
@@ -39,6 +99,13 @@ public class IncidentController {
         return ResponseEntity.ok(incident);
     }
     
+    @GetMapping("/{id}/timeline")
+    @Operation(summary = "Get incident timeline",
+               description = "Retrieves every status change of an incident, oldest first")
+    public ResponseEntity<List<IncidentEventDTO>> getIncidentTimeline(@PathVariable Long id) {
+        return ResponseEntity.ok(incidentService.getTimeline(id));
+    }
+    
     @GetMapping("/reporter/{reporterId}")
     @Operation(summary = "Get incidents by reporter")
     public ResponseEntity<List<IncidentDTO>> getIncidentsByReporter(@PathVariable Long reporterId) {
@@ -46,6 +113,12 @@ public class IncidentController {
         return ResponseEntity.ok(incidents);
     }
     
+    @GetMapping(value = "/reporter/{reporterId}", produces = IncidentColumns.MEDIA_TYPE)
+    @Operation(summary = "Get incidents by reporter (columnar encoding)")
+    public ResponseEntity<IncidentColumns> getIncidentColumnsByReporter(@PathVariable Long reporterId) {
+        return ResponseEntity.ok(incidentService.getIncidentColumnsByReporter(reporterId));
+    }
+    
     @GetMapping("/type/{type}")
     @Operation(summary = "Get incidents by type")
     public ResponseEntity<List<IncidentDTO>> getIncidentsByType(@PathVariable String type) {
@@ -53,6 +126,12 @@ public class IncidentController {
         return ResponseEntity.ok(incidents);
     }
     
+    @GetMapping(value = "/type/{type}", produces = IncidentColumns.MEDIA_TYPE)
+    @Operation(summary = "Get incidents by type (columnar encoding)")
+    public ResponseEntity<IncidentColumns> getIncidentColumnsByType(@PathVariable String type) {
+        return ResponseEntity.ok(incidentService.getIncidentColumnsByType(type));
+    }
+    
     @GetMapping("/priority/{priority}")
     @Operation(summary = "Get incidents by priority")
     public ResponseEntity<List<IncidentDTO>> getIncidentsByPriority(@PathVariable IncidentPriority priority) {
@@ -60,6 +139,12 @@ public class IncidentController {
         return ResponseEntity.ok(incidents);
     }
     
+    @GetMapping(value = "/priority/{priority}", produces = IncidentColumns.MEDIA_TYPE)
+    @Operation(summary = "Get incidents by priority (columnar encoding)")
+    public ResponseEntity<IncidentColumns> getIncidentColumnsByPriority(@PathVariable IncidentPriority priority) {
+        return ResponseEntity.ok(incidentService.getIncidentColumnsByPriority(priority));
+    }
+    
     @GetMapping("/daterange")
     @Operation(summary = "Get incidents by date range")
     public ResponseEntity<List<IncidentDTO>> getIncidentsByDateRange(
@@ -71,6 +156,55 @@ public class IncidentController {
         return ResponseEntity.ok(incidents);
     }
     
+    @GetMapping(value = "/daterange", produces = IncidentColumns.MEDIA_TYPE)
+    @Operation(summary = "Get incidents by date range (columnar encoding)")
+    public ResponseEntity<IncidentColumns> getIncidentColumnsByDateRange(
+            @Parameter(description = "Start date (ISO format)") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "End date (ISO format)") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        return ResponseEntity.ok(incidentService.getIncidentColumnsByDateRange(startDate, endDate));
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Export incidents by date range",
+               description = "Streams incidents in id order as GeoJSON or CSV, gzip-compressed if the client accepts it. "
+                   + "An interrupted export, or one cut off at the server's time limit, ends without its closing "
+                   + "brackets or gzip trailer and can be resumed by passing the last id received as afterId")
+    public ResponseEntity<StreamingResponseBody> exportIncidents(
+            @Parameter(description = "geojson or csv") 
+            @RequestParam(defaultValue = "geojson") String format,
+            @Parameter(description = "Start date (ISO format)") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @Parameter(description = "End date (ISO format)") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @Parameter(description = "Only export incidents with an id greater than this") 
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"geojson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            if (csv) {
+                exportService.writeCsv(start, end, afterId, target);
+            } else {
+                exportService.writeGeoJson(start, end, afterId, target);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : new MediaType("application", "geo+json"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"incidents." + (csv ? "csv" : "geojson") + "\"")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+    
     @GetMapping("/near")
     @Operation(summary = "Get incidents near location", description = "Find incidents within specified radius of a location")
     public ResponseEntity<List<IncidentDTO>> getIncidentsNearLocation(
@@ -81,22 +215,111 @@ public class IncidentController {
         return ResponseEntity.ok(incidents);
     }
     
+    @GetMapping(value = "/near", produces = IncidentColumns.MEDIA_TYPE)
+    @Operation(summary = "Get incidents near location (columnar encoding)")
+    public ResponseEntity<IncidentColumns> getIncidentColumnsNearLocation(
+            @Parameter(description = "Latitude") @RequestParam double latitude,
+            @Parameter(description = "Longitude") @RequestParam double longitude,
+            @Parameter(description = "Radius in meters") @RequestParam(defaultValue = "1000") double radiusMeters) {
+        return ResponseEntity.ok(incidentService.getIncidentColumnsNearLocation(latitude, longitude, radiusMeters));
+    }
+    
     @PostMapping
-    @Operation(summary = "Create new incident")
-    public ResponseEntity<IncidentDTO> createIncident(@Valid @RequestBody CreateIncidentRequest request) {
-        IncidentDTO created = incidentService.createIncident(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    @Operation(summary = "Create new incident",
+               description = "Retries carrying the same Idempotency-Key return the original response instead of creating another incident; "
+                   + "reusing a key for a different request is rejected with 422. "
+                   + "A report repeating a recent nearby incident of the same type is linked to it and that incident is returned with 200")
+    public ResponseEntity<IncidentDTO> createIncident(
+            @Parameter(description = "Optional client-generated key identifying this submission")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CreateIncidentRequest request) {
+        if (idempotencyKey == null) {
+            return toResponse(incidentService.createIncident(request));
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 64) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        String scope = IncidentService.IDEMPOTENCY_SCOPE;
+        String fingerprint = idempotencyStore.fingerprint(request);
+        Optional<ResponseEntity<IncidentDTO>> replay = idempotencyStore.find(scope, idempotencyKey, fingerprint, IncidentDTO.class);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+        if (!idempotencyStore.begin(scope, idempotencyKey)) {
+            throw new IdempotencyConflictException(idempotencyKey);
+        }
+        try {
+            // A request with this key may have completed between the lookup and the claim
+            replay = idempotencyStore.find(scope, idempotencyKey, fingerprint, IncidentDTO.class);
+            if (replay.isPresent()) {
+                return replay.get();
+            }
+            try {
+                return toResponse(incidentService.createIncident(request, idempotencyKey));
+            } catch (IdempotencyConflictException e) {
+                // Another instance committed this key first; answer with its response
+                return idempotencyStore.find(scope, idempotencyKey, fingerprint, IncidentDTO.class).orElseThrow(() -> e);
+            }
+        } finally {
+            idempotencyStore.end(scope, idempotencyKey);
+        }
+    }
+    
+    private static ResponseEntity<IncidentDTO> toResponse(IncidentService.CreatedIncident result) {
+        return ResponseEntity.status(result.linked() ? HttpStatus.OK : HttpStatus.CREATED).body(result.incident());
+    }
+    
+    @PostMapping("/async")
+    @Operation(summary = "Create new incident asynchronously",
+               description = "Accepts the incident into a durable intake log and returns 202; retries with the same Idempotency-Key are applied once")
+    public ResponseEntity<IntakeReceipt> createIncidentAsync(
+            @Parameter(description = "Client-generated key identifying this submission")
+            @RequestHeader("Idempotency-Key") String idempotencyKey,
+            @Valid @RequestBody CreateIncidentRequest request) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 64) {
+            return ResponseEntity.badRequest().build();
+        }
+        IntakeReceipt receipt = intakeService.enqueue(idempotencyKey, request);
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/v1/incidents/async/" + idempotencyKey))
+            .body(receipt);
+    }
+    
+    @GetMapping("/async/{idempotencyKey}")
+    @Operation(summary = "Get asynchronously created incident",
+               description = "Returns 202 while the incident is still queued, then the created incident; "
+                   + "410 when the submission was rejected and 404 for a key not submitted to POST /async")
+    public ResponseEntity<?> getAsyncIncident(@PathVariable String idempotencyKey) {
+        IntakeReceipt pending = intakeService.getPending(idempotencyKey);
+        if (pending != null) {
+            return ResponseEntity.accepted().body(pending);
+        }
+        intakeService.checkNotRejected(idempotencyKey);
+        IncidentDTO incident = incidentService.getIncidentByIdempotencyKey(idempotencyKey);
+        return ResponseEntity.ok(incident);
     }
     
     @PatchMapping("/{id}/status")
-    @Operation(summary = "Update incident status")
+    @Operation(summary = "Update incident status",
+               description = "Applies only if the current status may move to the new one and, when expectedVersion "
+                   + "is given, the incident is still at that change version; otherwise 409")
     public ResponseEntity<IncidentDTO> updateIncidentStatus(
             @PathVariable Long id,
-            @Parameter(description = "New status") @RequestParam String status) {
-        IncidentDTO updated = incidentService.updateIncidentStatus(id, status);
+            @Parameter(description = "New status") @RequestParam IncidentStatus status,
+            @Parameter(description = "Change version the client last saw") @RequestParam(required = false) Long expectedVersion) {
+        IncidentDTO updated = incidentService.updateIncidentStatus(id, status, expectedVersion);
         return ResponseEntity.ok(updated);
     }
     
+    @PatchMapping("/status")
+    @Operation(summary = "Update status of many incidents",
+               description = "Moves every listed incident that allows it to the new status in one statement and reports "
+                   + "which were updated, already in that status, rejected or not found")
+    public ResponseEntity<BulkStatusUpdateResult> updateIncidentStatuses(@Valid @RequestBody BulkStatusUpdateRequest request) {
+        return ResponseEntity.ok(incidentService.updateIncidentStatuses(request.getIds(), request.getStatus()));
+    }
+    
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete incident")
     public ResponseEntity<Void> deleteIncident(@PathVariable Long id) {
@@ -0,0 +1,208 @@
+package com.example.incident_service.dedup;
+
+import com.example.incident_service.dictionary.IncidentTypeDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Ingest-time duplicate detection. A report of the same type within
+ * {@code incident.dedup.radius-meters} and {@code incident.dedup.window-minutes}
+ * of a recent incident is stored in incident_reports, linked to that incident,
+ * instead of becoming a new incident.
+ *
+ * The index is per instance and warmed from the database on startup; two
+ * reports of one event arriving at the same moment may both be inserted.
+ */
+@Component
+public class IncidentDeduplicator {
+    
+    private static final Logger log = LoggerFactory.getLogger(IncidentDeduplicator.class);
+    
+    private static final String RECENT_SQL = """
+        SELECT id, incident_type_id, ST_Y(location) AS latitude, ST_X(location) AS longitude,
+               occurred_at, idempotency_key
+        FROM incidents
+        WHERE occurred_at >= ? AND incident_type_id IS NOT NULL
+        """;
+    
+    // The original is referenced by id, or by idempotency key while its async write is pending.
+    // Async and synchronous submissions each have their own key namespace
+    private static final String INSERT_REPORT_SQL = """
+        INSERT INTO incident_reports (incident_id, title, description, reported_by, location,
+                                      occurred_at, created_at, idempotency_key, async)
+        SELECT i.id, ?, ?, ?, ST_SetSRID(ST_MakePoint(?, ?), 4326), ?, ?, ?, ?
+        FROM incidents i
+        WHERE i.id = ? OR i.idempotency_key = ?
+        ON CONFLICT (idempotency_key, async) DO NOTHING
+        """;
+    
+    private static final String STORED_REPORT_KEYS_SQL =
+        "SELECT idempotency_key FROM incident_reports WHERE idempotency_key = ANY(?) AND async = ?";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private IncidentTypeDictionary types;
+    
+    @Value("${incident.dedup.enabled:true}")
+    private boolean enabled;
+    
+    private final long windowMillis;
+    private final RecentIncidentIndex index;
+    
+    public IncidentDeduplicator(@Value("${incident.dedup.radius-meters:150}") double radiusMeters,
+                                @Value("${incident.dedup.window-minutes:15}") long windowMinutes) {
+        this.windowMillis = windowMinutes * 60_000;
+        this.index = new RecentIncidentIndex(radiusMeters, windowMillis);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime since = LocalDateTime.now().minusNanos(2 * windowMillis * 1_000_000);
+        try {
+            int[] loaded = {0};
+            jdbcTemplate.query(RECENT_SQL, rs -> {
+                index.add(types.name(rs.getShort("incident_type_id")), new RecentIncidentIndex.Entry(
+                    rs.getLong("id"), rs.getString("idempotency_key"),
+                    rs.getDouble("latitude"), rs.getDouble("longitude"),
+                    toEpochMillis(rs.getTimestamp("occurred_at").toLocalDateTime())));
+                loaded[0]++;
+            }, since);
+            log.info("Loaded {} recent incident(s) into the duplicate index", loaded[0]);
+        } catch (DataAccessException e) {
+            log.warn("Could not load recent incidents for duplicate detection: {}", e.getMessage());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${incident.dedup.purge-interval-ms:60000}")
+    public void purge() {
+        index.evictBefore(System.currentTimeMillis() - 2 * windowMillis);
+    }
+    
+    /** The recent incident this report duplicates, or null if it is new. */
+    public RecentIncidentIndex.Entry findOriginal(String type, double latitude, double longitude,
+                                                 LocalDateTime occurredAt, String idempotencyKey) {
+        if (!enabled || type == null) {
+            return null;
+        }
+        return index.findDuplicate(type, latitude, longitude, toEpochMillis(occurredAt), idempotencyKey);
+    }
+    
+    /**
+     * Indexes a newly created incident. Inside a transaction this waits for
+     * the commit, so a rolled-back insert never attracts duplicates.
+     */
+    public void register(String type, Long incidentId, String idempotencyKey,
+                         double latitude, double longitude, LocalDateTime occurredAt) {
+        if (!enabled || type == null) {
+            return;
+        }
+        RecentIncidentIndex.Entry entry = new RecentIncidentIndex.Entry(
+            incidentId, idempotencyKey, latitude, longitude, toEpochMillis(occurredAt));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index.add(type, entry);
+                }
+            });
+        } else {
+            index.add(type, entry);
+        }
+    }
+    
+    /** Removes an async submission registered earlier whose insert was dropped. */
+    public void unregister(String type, String idempotencyKey, double latitude, double longitude,
+                           LocalDateTime occurredAt) {
+        if (!enabled || type == null) {
+            return;
+        }
+        index.remove(type, new RecentIncidentIndex.Entry(
+            null, idempotencyKey, latitude, longitude, toEpochMillis(occurredAt)));
+    }
+    
+    /**
+     * Stores duplicate reports against their originals in one batch, under
+     * the key namespace of async submissions when {@code async} is set.
+     *
+     * @return the keyed reports that were not stored because their original
+     *         does not exist (its async insert was dropped, or it was
+     *         deleted), for the caller to create as new incidents instead
+     */
+    public List<LinkedReport> linkReports(List<LinkedReport> reports, boolean async) {
+        if (reports.isEmpty()) {
+            return List.of();
+        }
+        jdbcTemplate.batchUpdate(INSERT_REPORT_SQL, reports, reports.size(), (ps, report) -> bind(ps, report, async));
+        
+        // Batched inserts are rewritten into multi-row statements, which report no per-row counts
+        List<String> keys = reports.stream().map(LinkedReport::idempotencyKey).filter(Objects::nonNull).toList();
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        Set<String> stored = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(STORED_REPORT_KEYS_SQL);
+            ps.setArray(1, con.createArrayOf("varchar", keys.toArray()));
+            ps.setBoolean(2, async);
+            return ps;
+        }, rs -> {
+            stored.add(rs.getString(1));
+        });
+        List<LinkedReport> unlinked = new ArrayList<>();
+        for (LinkedReport report : reports) {
+            if (report.idempotencyKey() != null && !stored.contains(report.idempotencyKey())) {
+                unlinked.add(report);
+            }
+        }
+        return unlinked;
+    }
+    
+    private static void bind(PreparedStatement ps, LinkedReport report, boolean async) throws SQLException {
+        ps.setString(1, report.title());
+        ps.setString(2, report.description());
+        ps.setObject(3, report.reportedBy(), Types.BIGINT);
+        ps.setDouble(4, report.longitude());
+        ps.setDouble(5, report.latitude());
+        ps.setObject(6, report.occurredAt());
+        ps.setObject(7, report.createdAt());
+        ps.setString(8, report.idempotencyKey());
+        ps.setBoolean(9, async);
+        ps.setObject(10, report.original().incidentId(), Types.BIGINT);
+        ps.setString(11, report.original().incidentId() == null ? report.original().idempotencyKey() : null);
+    }
+    
+    /** Same clock as {@link #purge}: local times are in the system zone, like the database's. */
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    public record LinkedReport(RecentIncidentIndex.Entry original, String title, String description, Long reportedBy,
+                               double latitude, double longitude, LocalDateTime occurredAt,
+                               LocalDateTime createdAt, String idempotencyKey) {}
+}
@@ -0,0 +1,134 @@
+package com.example.incident_service.dedup;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spatio-temporal hash of recently reported incidents, used to spot repeat
+ * reports of the same event.
+ *
+ * Incidents are bucketed by type, by a lat/lng grid cell at least as wide as
+ * the match radius, and by a time bucket as long as the match window, so a
+ * lookup only has to check the 3 x 3 neighbouring cells in three buckets: a
+ * constant amount of work however many incidents are indexed. Cell contents
+ * are small arrays replaced on write, so readers never lock.
+ */
+public class RecentIncidentIndex {
+    
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    
+    private final double radiusMeters;
+    private final long windowMillis;
+    private final double cellDegrees;
+    private final Map<CellKey, Entry[]> cells = new ConcurrentHashMap<>();
+    
+    public RecentIncidentIndex(double radiusMeters, long windowMillis) {
+        this.radiusMeters = radiusMeters;
+        this.windowMillis = windowMillis;
+        this.cellDegrees = radiusMeters / METERS_PER_DEGREE;
+    }
+    
+    /**
+     * The nearest indexed incident of the same type within the radius whose
+     * occurrence time is within the window, or null. Entries carrying
+     * {@code ownKey} are ignored so a replayed submission never matches itself.
+     */
+    public Entry findDuplicate(String type, double latitude, double longitude, long occurredAt, String ownKey) {
+        int row = row(latitude);
+        long bucket = Math.floorDiv(occurredAt, windowMillis);
+        // Widest longitude span of the radius over the rows searched
+        double poleward = Math.min(89.0, Math.abs(latitude) + 2 * cellDegrees);
+        double lngRadius = radiusMeters / (METERS_PER_DEGREE * Math.cos(Math.toRadians(poleward)));
+        
+        Entry best = null;
+        double bestMeters = radiusMeters;
+        for (int r = row - 1; r <= row + 1; r++) {
+            double width = columnWidth(r);
+            int firstColumn = (int) Math.floor((longitude - lngRadius) / width);
+            int lastColumn = (int) Math.floor((longitude + lngRadius) / width);
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                for (long b = bucket - 1; b <= bucket + 1; b++) {
+                    Entry[] entries = cells.get(new CellKey(type, r, c, b));
+                    if (entries == null) {
+                        continue;
+                    }
+                    for (Entry entry : entries) {
+                        if (Math.abs(entry.occurredAt() - occurredAt) > windowMillis
+                                || (ownKey != null && ownKey.equals(entry.idempotencyKey()))) {
+                            continue;
+                        }
+                        double meters = distanceMeters(latitude, longitude, entry.latitude(), entry.longitude());
+                        if (meters <= bestMeters) {
+                            best = entry;
+                            bestMeters = meters;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+    
+    public void add(String type, Entry entry) {
+        cells.merge(cellKey(type, entry), new Entry[] {entry}, (existing, added) -> {
+            Entry[] merged = Arrays.copyOf(existing, existing.length + 1);
+            merged[existing.length] = added[0];
+            return merged;
+        });
+    }
+    
+    /** Removes an entry added earlier, matched by idempotency key within its cell. */
+    public void remove(String type, Entry entry) {
+        cells.computeIfPresent(cellKey(type, entry), (key, existing) -> {
+            Entry[] kept = Arrays.stream(existing)
+                .filter(e -> !Objects.equals(e.idempotencyKey(), entry.idempotencyKey()))
+                .toArray(Entry[]::new);
+            return kept.length > 0 ? kept : null;
+        });
+    }
+    
+    /** Drops every time bucket that ends before {@code cutoffMillis}. */
+    public void evictBefore(long cutoffMillis) {
+        long cutoffBucket = Math.floorDiv(cutoffMillis, windowMillis);
+        cells.keySet().removeIf(key -> key.bucket() < cutoffBucket);
+    }
+    
+    public int cellCount() {
+        return cells.size();
+    }
+    
+    private CellKey cellKey(String type, Entry entry) {
+        int row = row(entry.latitude());
+        return new CellKey(type, row, (int) Math.floor(entry.longitude() / columnWidth(row)),
+            Math.floorDiv(entry.occurredAt(), windowMillis));
+    }
+    
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+    
+    /** Columns narrow in degrees towards the poles so every cell is about radius wide. */
+    private double columnWidth(int row) {
+        double latitude = Math.min(89.0, Math.abs((row + 0.5) * cellDegrees));
+        return cellDegrees / Math.cos(Math.toRadians(latitude));
+    }
+    
+    static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double phi1 = Math.toRadians(lat1), phi2 = Math.toRadians(lat2);
+        double dPhi = phi2 - phi1;
+        double dLambda = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dPhi / 2) * Math.sin(dPhi / 2)
+            + Math.cos(phi1) * Math.cos(phi2) * Math.sin(dLambda / 2) * Math.sin(dLambda / 2);
+        return 2 * 6_371_000.0 * Math.asin(Math.sqrt(a));
+    }
+    
+    /**
+     * An indexed incident. {@code incidentId} is null for async submissions
+     * not yet written; they are referred to by idempotency key instead.
+     */
+    public record Entry(Long incidentId, String idempotencyKey, double latitude, double longitude, long occurredAt) {}
+    
+    private record CellKey(String type, int row, int column, long bucket) {}
+}
@@ -0,0 +1,20 @@
+package com.example.incident_service.dictionary;
+
+import com.example.incident_service.entity.IncidentPriority;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/** Stores a priority as its incident_priorities id. */
+@Converter
+public class IncidentPriorityConverter implements AttributeConverter<String, Short> {
+    
+    @Override
+    public Short convertToDatabaseColumn(String priority) {
+        return priority != null ? IncidentPriority.valueOf(priority).code() : null;
+    }
+    
+    @Override
+    public String convertToEntityAttribute(Short code) {
+        return code != null ? IncidentPriority.fromCode(code).name() : null;
+    }
+}
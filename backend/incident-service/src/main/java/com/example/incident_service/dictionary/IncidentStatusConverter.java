@@ -0,0 +1,20 @@
+package com.example.incident_service.dictionary;
+
+import com.example.incident_service.entity.IncidentStatus;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/** Stores a status as its incident_statuses id. */
+@Converter
+public class IncidentStatusConverter implements AttributeConverter<String, Short> {
+    
+    @Override
+    public Short convertToDatabaseColumn(String status) {
+        return status != null ? IncidentStatus.valueOf(status).code() : null;
+    }
+    
+    @Override
+    public String convertToEntityAttribute(Short code) {
+        return code != null ? IncidentStatus.fromCode(code).name() : null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.incident_service.dictionary;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.stereotype.Component;
+
+/** Stores an incident type as its incident_types id. */
+@Component
+@Converter
+public class IncidentTypeConverter implements AttributeConverter<String, Short> {
+    
+    private final IncidentTypeDictionary dictionary;
+    
+    public IncidentTypeConverter(IncidentTypeDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+    
+    @Override
+    public Short convertToDatabaseColumn(String type) {
+        return dictionary.getOrCreate(type);
+    }
+    
+    @Override
+    public String convertToEntityAttribute(Short id) {
+        return dictionary.name(id);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.incident_service.dictionary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory, two-way cache of the incident_types lookup table. Each name is
+ * held once, so every incident of a type shares the same String instead of
+ * allocating one per row.
+ *
+ * An unknown id read from the database was added by another instance and is
+ * fetched on its own. An unknown name may just as well be a client asking for
+ * a type that does not exist, so name misses reload the table at most once
+ * per {@link #RELOAD_INTERVAL_NANOS}. A new type is inserted in its own
+ * transaction so its id stays valid if the incident that introduced it rolls
+ * back.
+ */
+@Component
+public class IncidentTypeDictionary {
+    
+    private static final Logger log = LoggerFactory.getLogger(IncidentTypeDictionary.class);
+    
+    private static final String INSERT_SQL = """
+        INSERT INTO incident_types (name) VALUES (?)
+        ON CONFLICT (name) DO UPDATE SET name = EXCLUDED.name
+        RETURNING id
+        """;
+    
+    private static final long RELOAD_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    
+    private final Map<String, Short> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[0];
+    private boolean loaded;
+    private long lastReloadNanos;
+    
+    // The JPA converter needs this bean while the transaction manager's
+    // entity manager factory is still being built, hence the lazy proxy
+    public IncidentTypeDictionary(JdbcTemplate jdbcTemplate, @Lazy PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    /** The shared name of a type id, or null for null. */
+    public String name(Short id) {
+        if (id == null) {
+            return null;
+        }
+        String[] current = names;
+        if (id < current.length && current[id] != null) {
+            return current[id];
+        }
+        List<String> found = jdbcTemplate.queryForList("SELECT name FROM incident_types WHERE id = ?", String.class, id);
+        if (found.isEmpty()) {
+            throw new IllegalStateException("Unknown incident type id: " + id);
+        }
+        register(id, found.get(0));
+        return names[id];
+    }
+    
+    /** Id of an existing type, or null if there is no such type. */
+    public Short find(String name) {
+        if (name == null) {
+            return null;
+        }
+        Short id = ids.get(name);
+        if (id == null && reloadIfDue()) {
+            id = ids.get(name);
+        }
+        return id;
+    }
+    
+    /** Id of a type, adding it to the lookup table if it is new. */
+    public Short getOrCreate(String name) {
+        Short id = find(name);
+        if (id != null) {
+            return id;
+        }
+        Short created = newTransaction.execute(status -> jdbcTemplate.queryForObject(INSERT_SQL, Short.class, name));
+        log.info("Added incident type '{}' with id {}", name, created);
+        register(created, name);
+        return created;
+    }
+    
+    /** Reloads the table unless that was done recently; true if it reloaded. */
+    private synchronized boolean reloadIfDue() {
+        long now = System.nanoTime();
+        if (loaded && now - lastReloadNanos < RELOAD_INTERVAL_NANOS) {
+            return false;
+        }
+        jdbcTemplate.query("SELECT id, name FROM incident_types", rs -> {
+            register(rs.getShort("id"), rs.getString("name"));
+        });
+        loaded = true;
+        lastReloadNanos = now;
+        return true;
+    }
+    
+    private synchronized void register(short id, String name) {
+        String[] current = names;
+        if (id < current.length && current[id] != null) {
+            return;
+        }
+        String[] updated = Arrays.copyOf(current, Math.max(id + 1, current.length));
+        updated[id] = name;
+        ids.put(name, id);
+        names = updated;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.incident_service.dto;
+
+import com.example.incident_service.entity.IncidentStatus;
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+public class BulkStatusUpdateRequest {
+    
+    @NotEmpty(message = "At least one incident id is required")
+    @Size(max = 1000, message = "At most 1000 incidents can be updated at once")
+    private List<@NotNull Long> ids;
+    
+    @NotNull(message = "Status is required")
+    private IncidentStatus status;
+    
+    // Getters and Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+    
+    public IncidentStatus getStatus() { return status; }
+    public void setStatus(IncidentStatus status) { this.status = status; }
+}
@@ -0,0 +1,40 @@
+package com.example.incident_service.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class BulkStatusUpdateResult {
+    private String status;
+    private List<Long> updatedIds;
+    private List<Long> unchangedIds;
+    // Incidents whose current status cannot move to the requested one, id -> current status
+    private Map<Long, String> rejected;
+    private List<Long> notFoundIds;
+    
+    public BulkStatusUpdateResult() {}
+    
+    public BulkStatusUpdateResult(String status, List<Long> updatedIds, List<Long> unchangedIds,
+                                  Map<Long, String> rejected, List<Long> notFoundIds) {
+        this.status = status;
+        this.updatedIds = updatedIds;
+        this.unchangedIds = unchangedIds;
+        this.rejected = rejected;
+        this.notFoundIds = notFoundIds;
+    }
+    
+    // Getters and Setters
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public List<Long> getUpdatedIds() { return updatedIds; }
+    public void setUpdatedIds(List<Long> updatedIds) { this.updatedIds = updatedIds; }
+    
+    public List<Long> getUnchangedIds() { return unchangedIds; }
+    public void setUnchangedIds(List<Long> unchangedIds) { this.unchangedIds = unchangedIds; }
+    
+    public Map<Long, String> getRejected() { return rejected; }
+    public void setRejected(Map<Long, String> rejected) { this.rejected = rejected; }
+    
+    public List<Long> getNotFoundIds() { return notFoundIds; }
+    public void setNotFoundIds(List<Long> notFoundIds) { this.notFoundIds = notFoundIds; }
+}
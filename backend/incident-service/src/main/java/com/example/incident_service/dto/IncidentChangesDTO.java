@@ -0,0 +1,32 @@
+package com.example.incident_service.dto;
+
+import java.util.List;
+
+public class IncidentChangesDTO {
+    private List<IncidentDTO> incidents;
+    private List<Long> deletedIds;
+    private long nextSince;
+    private boolean hasMore;
+    
+    public IncidentChangesDTO() {}
+    
+    public IncidentChangesDTO(List<IncidentDTO> incidents, List<Long> deletedIds, long nextSince, boolean hasMore) {
+        this.incidents = incidents;
+        this.deletedIds = deletedIds;
+        this.nextSince = nextSince;
+        this.hasMore = hasMore;
+    }
+    
+    // Getters and Setters
+    public List<IncidentDTO> getIncidents() { return incidents; }
+    public void setIncidents(List<IncidentDTO> incidents) { this.incidents = incidents; }
+    
+    public List<Long> getDeletedIds() { return deletedIds; }
+    public void setDeletedIds(List<Long> deletedIds) { this.deletedIds = deletedIds; }
+    
+    public long getNextSince() { return nextSince; }
+    public void setNextSince(long nextSince) { this.nextSince = nextSince; }
+    
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,97 @@
+package com.example.incident_service.dto;
+
+/**
+ * Column-oriented encoding of an incident collection: one array per field
+ * instead of one object per incident, so field names are written once and
+ * numbers are serialized from primitive arrays.
+ *
+ * Values at the same index belong to the same incident. Timestamps are epoch
+ * milliseconds (0 when absent), reportedBy is 0 when unknown, and type,
+ * priority and status are indexes into the matching dictionary array.
+ */
+public class IncidentColumns {
+    
+    public static final String MEDIA_TYPE = "application/vnd.nisircop.incidents.columnar+json";
+    
+    private int count;
+    private long[] id;
+    private double[] latitude;
+    private double[] longitude;
+    private long[] occurredAt;
+    private long[] createdAt;
+    private long[] reportedBy;
+    private String[] title;
+    private String[] description;
+    private String[] incidentTypes;
+    private int[] incidentType;
+    private String[] priorities;
+    private int[] priority;
+    private String[] statuses;
+    private int[] status;
+    
+    public IncidentColumns() {}
+    
+    public IncidentColumns(int count) {
+        this.count = count;
+        this.id = new long[count];
+        this.latitude = new double[count];
+        this.longitude = new double[count];
+        this.occurredAt = new long[count];
+        this.createdAt = new long[count];
+        this.reportedBy = new long[count];
+        this.title = new String[count];
+        this.description = new String[count];
+        this.incidentTypes = new String[0];
+        this.incidentType = new int[count];
+        this.priorities = new String[0];
+        this.priority = new int[count];
+        this.statuses = new String[0];
+        this.status = new int[count];
+    }
+    
+    // Getters and Setters
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+    
+    public long[] getId() { return id; }
+    public void setId(long[] id) { this.id = id; }
+    
+    public double[] getLatitude() { return latitude; }
+    public void setLatitude(double[] latitude) { this.latitude = latitude; }
+    
+    public double[] getLongitude() { return longitude; }
+    public void setLongitude(double[] longitude) { this.longitude = longitude; }
+    
+    public long[] getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(long[] occurredAt) { this.occurredAt = occurredAt; }
+    
+    public long[] getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long[] createdAt) { this.createdAt = createdAt; }
+    
+    public long[] getReportedBy() { return reportedBy; }
+    public void setReportedBy(long[] reportedBy) { this.reportedBy = reportedBy; }
+    
+    public String[] getTitle() { return title; }
+    public void setTitle(String[] title) { this.title = title; }
+    
+    public String[] getDescription() { return description; }
+    public void setDescription(String[] description) { this.description = description; }
+    
+    public String[] getIncidentTypes() { return incidentTypes; }
+    public void setIncidentTypes(String[] incidentTypes) { this.incidentTypes = incidentTypes; }
+    
+    public int[] getIncidentType() { return incidentType; }
+    public void setIncidentType(int[] incidentType) { this.incidentType = incidentType; }
+    
+    public String[] getPriorities() { return priorities; }
+    public void setPriorities(String[] priorities) { this.priorities = priorities; }
+    
+    public int[] getPriority() { return priority; }
+    public void setPriority(int[] priority) { this.priority = priority; }
+    
+    public String[] getStatuses() { return statuses; }
+    public void setStatuses(String[] statuses) { this.statuses = statuses; }
+    
+    public int[] getStatus() { return status; }
+    public void setStatus(int[] status) { this.status = status; }
+}
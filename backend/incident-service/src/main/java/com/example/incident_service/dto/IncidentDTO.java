@@ -13,6 +13,7 @@ public class IncidentDTO {
     private LocalDateTime createdAt;
     private LocalDateTime occurredAt;
     private String status;
+    private Long changeVersion;
     
     public IncidentDTO() {}
     
@@ -61,4 +62,7 @@ public class IncidentDTO {
     
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+    
+    public Long getChangeVersion() { return changeVersion; }
+    public void setChangeVersion(Long changeVersion) { this.changeVersion = changeVersion; }
 }
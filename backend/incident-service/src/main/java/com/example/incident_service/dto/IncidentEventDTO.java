@@ -0,0 +1,37 @@
+package com.example.incident_service.dto;
+
+import java.time.LocalDateTime;
+
+public class IncidentEventDTO {
+    private Long id;
+    private Long incidentId;
+    private String fromStatus;
+    private String toStatus;
+    private LocalDateTime occurredAt;
+    
+    public IncidentEventDTO() {}
+    
+    public IncidentEventDTO(Long id, Long incidentId, String fromStatus, String toStatus, LocalDateTime occurredAt) {
+        this.id = id;
+        this.incidentId = incidentId;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.occurredAt = occurredAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getIncidentId() { return incidentId; }
+    public void setIncidentId(Long incidentId) { this.incidentId = incidentId; }
+    
+    public String getFromStatus() { return fromStatus; }
+    public void setFromStatus(String fromStatus) { this.fromStatus = fromStatus; }
+    
+    public String getToStatus() { return toStatus; }
+    public void setToStatus(String toStatus) { this.toStatus = toStatus; }
+    
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+}
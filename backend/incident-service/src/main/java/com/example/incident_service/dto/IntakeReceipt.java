@@ -0,0 +1,27 @@
+package com.example.incident_service.dto;
+
+import java.time.LocalDateTime;
+
+public class IntakeReceipt {
+    private String idempotencyKey;
+    private String status;
+    private LocalDateTime acceptedAt;
+    
+    public IntakeReceipt() {}
+    
+    public IntakeReceipt(String idempotencyKey, String status, LocalDateTime acceptedAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.status = status;
+        this.acceptedAt = acceptedAt;
+    }
+    
+    // Getters and Setters
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public LocalDateTime getAcceptedAt() { return acceptedAt; }
+    public void setAcceptedAt(LocalDateTime acceptedAt) { this.acceptedAt = acceptedAt; }
+}
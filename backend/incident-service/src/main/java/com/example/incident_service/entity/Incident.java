@@ -1,6 +1,11 @@
 package com.example.incident_service.entity;
 
+import com.example.incident_service.dictionary.IncidentPriorityConverter;
+import com.example.incident_service.dictionary.IncidentStatusConverter;
+import com.example.incident_service.dictionary.IncidentTypeConverter;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 import org.locationtech.jts.geom.Point;
 import java.time.LocalDateTime;
 
@@ -18,10 +23,13 @@ public class Incident {
     @Column(columnDefinition = "TEXT")
     private String description;
     
-    @Column(name = "incident_type", length = 100)
+    // Type, priority and status are stored as lookup-table ids
+    @Convert(converter = IncidentTypeConverter.class)
+    @Column(name = "incident_type_id")
     private String incidentType;
     
-    @Column(nullable = false, length = 20)
+    @Convert(converter = IncidentPriorityConverter.class)
+    @Column(name = "priority_id", nullable = false)
     private String priority;
     
     @Column(columnDefinition = "geometry(Point, 4326)", nullable = false)
@@ -36,9 +44,18 @@ public class Incident {
     @Column(name = "occurred_at")
     private LocalDateTime occurredAt;
     
-    @Column(length = 50)
+    @Convert(converter = IncidentStatusConverter.class)
+    @Column(name = "status_id", nullable = false)
     private String status = "REPORTED";
     
+    @Column(name = "idempotency_key", length = 64, unique = true)
+    private String idempotencyKey;
+    
+    // Maintained by a database trigger on every insert and update
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "change_version")
+    private Long changeVersion;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -77,4 +94,9 @@ public class Incident {
     
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+    
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+    
+    public Long getChangeVersion() { return changeVersion; }
 }
@@ -4,5 +4,16 @@ public enum IncidentPriority {
     LOW,
     MEDIUM,
     HIGH,
-    CRITICAL
+    CRITICAL;
+    
+    private static final IncidentPriority[] VALUES = values();
+    
+    /** Id in the incident_priorities lookup table. */
+    public short code() {
+        return (short) (ordinal() + 1);
+    }
+    
+    public static IncidentPriority fromCode(int code) {
+        return VALUES[code - 1];
+    }
 }
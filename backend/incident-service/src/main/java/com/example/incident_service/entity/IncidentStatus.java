@@ -0,0 +1,46 @@
+package com.example.incident_service.entity;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Lifecycle of an incident. An incident can be re-dispatched while being
+ * handled and reopened after resolution; CLOSED is final.
+ */
+public enum IncidentStatus {
+    REPORTED,
+    DISPATCHED,
+    IN_PROGRESS,
+    RESOLVED,
+    CLOSED;
+    
+    private static final IncidentStatus[] VALUES = values();
+    
+    /** Id in the incident_statuses lookup table. */
+    public short code() {
+        return (short) (ordinal() + 1);
+    }
+    
+    public static IncidentStatus fromCode(int code) {
+        return VALUES[code - 1];
+    }
+    
+    public Set<IncidentStatus> allowedNext() {
+        return switch (this) {
+            case REPORTED -> EnumSet.of(DISPATCHED, RESOLVED, CLOSED);
+            case DISPATCHED -> EnumSet.of(REPORTED, IN_PROGRESS, RESOLVED, CLOSED);
+            case IN_PROGRESS -> EnumSet.of(DISPATCHED, RESOLVED, CLOSED);
+            case RESOLVED -> EnumSet.of(IN_PROGRESS, CLOSED);
+            case CLOSED -> EnumSet.noneOf(IncidentStatus.class);
+        };
+    }
+    
+    /** Codes of the statuses that may move to this one, for use in SQL. */
+    public Short[] allowedPrevious() {
+        return Arrays.stream(VALUES)
+            .filter(status -> status.allowedNext().contains(this))
+            .map(IncidentStatus::code)
+            .toArray(Short[]::new);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.incident_service.exception;
+
+public class IncidentNotFoundException extends RuntimeException {
+    public IncidentNotFoundException(Long id) {
+        super("Incident not found with id: " + id);
+    }
+    
+    public IncidentNotFoundException(String idempotencyKey) {
+        super("Incident not found with idempotency key: " + idempotencyKey);
+    }
+}
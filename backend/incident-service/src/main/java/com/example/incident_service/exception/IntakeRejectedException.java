@@ -0,0 +1,7 @@
+package com.example.incident_service.exception;
+
+public class IntakeRejectedException extends RuntimeException {
+    public IntakeRejectedException(String idempotencyKey, String reason) {
+        super("Incident submission " + idempotencyKey + " was rejected: " + reason);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.incident_service.exception;
+
+public class InvalidStatusTransitionException extends RuntimeException {
+    public InvalidStatusTransitionException(Long id, String from, String to) {
+        super("Incident " + id + " cannot move from " + from + " to " + to);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.incident_service.exception;
+
+public class StaleIncidentVersionException extends RuntimeException {
+    public StaleIncidentVersionException(Long id, long expected, long actual) {
+        super("Incident " + id + " was modified: expected version " + expected + " but found " + actual);
+    }
+}
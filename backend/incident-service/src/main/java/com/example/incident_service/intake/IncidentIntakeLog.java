@@ -0,0 +1,248 @@
+package com.example.incident_service.intake;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable write-ahead log for incidents accepted through the async intake endpoint.
+ *
+ * Records are appended to fixed-size memory-mapped segment files as
+ * [length][crc32][payload]. A single consumer reads from the last committed
+ * position and commits once the records are safely in PostgreSQL; fully
+ * consumed segments are deleted. On startup the segments are rescanned so
+ * anything accepted but not yet written is replayed.
+ */
+@Component
+public class IncidentIntakeLog {
+
+    private static final Logger log = LoggerFactory.getLogger(IncidentIntakeLog.class);
+
+    private static final String SEGMENT_PREFIX = "intake-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "intake.checkpoint";
+    private static final int HEADER_BYTES = 8;
+
+    @Value("${incident.intake.dir:${java.io.tmpdir}/nisircop/incident-intake}")
+    private String directory;
+
+    @Value("${incident.intake.segment-size-bytes:16777216}")
+    private int segmentSize;
+
+    @Value("${incident.intake.fsync:true}")
+    private boolean fsync;
+
+    private Path dir;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private Segment head;
+    private Position committed = new Position(0, 0);
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        dir = Paths.get(directory);
+        Files.createDirectories(dir);
+
+        Path checkpoint = dir.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpoint)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+            committed = new Position(buffer.getLong(), buffer.getInt());
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    if (id < committed.segment()) {
+                        Files.delete(file);
+                    } else {
+                        Segment segment = Segment.open(file, id, segmentSize);
+                        segment.recover();
+                        segments.put(id, segment);
+                    }
+                }
+            }
+        }
+
+        if (segments.isEmpty()) {
+            long id = committed.segment();
+            segments.put(id, Segment.open(segmentPath(id), id, segmentSize));
+            committed = new Position(id, 0);
+        } else if (!segments.containsKey(committed.segment())) {
+            committed = new Position(segments.firstKey(), 0);
+        }
+        head = segments.lastEntry().getValue();
+        log.info("Incident intake log opened at {}: {} segment(s), committed position {}", dir, segments.size(), committed);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    public synchronized void append(byte[] payload) throws IOException {
+        int recordSize = HEADER_BYTES + payload.length;
+        if (recordSize + 4 > segmentSize) {
+            throw new IllegalArgumentException("Intake record of " + payload.length + " bytes exceeds segment size");
+        }
+        if (head.writePosition + recordSize + 4 > segmentSize) {
+            long id = head.id + 1;
+            head = Segment.open(segmentPath(id), id, segmentSize);
+            segments.put(id, head);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        int start = head.writePosition;
+        MappedByteBuffer buffer = head.buffer;
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.put(start + HEADER_BYTES, payload);
+        // Length goes in last so a torn write is never seen as a complete record
+        buffer.putInt(start, payload.length);
+        if (fsync) {
+            buffer.force(start, recordSize);
+        }
+        head.writePosition = start + recordSize;
+    }
+
+    /**
+     * Reads up to {@code maxRecords} records starting at the committed position.
+     * Nothing is consumed until {@link #commit(Position)} is called with the
+     * returned batch's end position.
+     */
+    public synchronized Batch read(int maxRecords) {
+        List<byte[]> records = new ArrayList<>();
+        long segmentId = committed.segment();
+        int position = committed.position();
+
+        while (records.size() < maxRecords) {
+            Segment segment = segments.get(segmentId);
+            if (segment == null) {
+                break;
+            }
+            if (position < segment.writePosition) {
+                int length = segment.buffer.getInt(position);
+                byte[] payload = new byte[length];
+                segment.buffer.get(position + HEADER_BYTES, payload);
+                records.add(payload);
+                position += HEADER_BYTES + length;
+            } else if (segment != head) {
+                segmentId = segments.higherKey(segmentId);
+                position = 0;
+            } else {
+                break;
+            }
+        }
+        return new Batch(records, new Position(segmentId, position));
+    }
+
+    public synchronized void commit(Position position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.putLong(position.segment()).putInt(position.position()).flip();
+
+        Path tmp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(tmp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        committed = position;
+
+        // Segments entirely before the checkpoint are no longer needed
+        Map<Long, Segment> consumed = segments.headMap(position.segment());
+        for (Segment segment : consumed.values()) {
+            segment.close();
+            Files.deleteIfExists(segment.path);
+        }
+        consumed.clear();
+    }
+
+    private Path segmentPath(long id) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    public record Position(long segment, int position) {}
+
+    public record Batch(List<byte[]> records, Position end) {
+        public boolean isEmpty() { return records.isEmpty(); }
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long id, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new Segment(id, path, channel, buffer);
+        }
+
+        /** Finds the end of the valid records, dropping a torn tail if the process died mid-append. */
+        void recover() {
+            int position = 0;
+            int capacity = buffer.capacity();
+            while (position + HEADER_BYTES <= capacity) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > capacity) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(position + HEADER_BYTES, payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    log.warn("Discarding corrupt intake record in {} at offset {}", path, position);
+                    break;
+                }
+                position += HEADER_BYTES + length;
+            }
+            if (position + 4 <= capacity) {
+                buffer.putInt(position, 0);
+            }
+            writePosition = position;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Error closing intake segment {}", path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.incident_service.intake;
+
+import com.example.incident_service.dedup.IncidentDeduplicator;
+import com.example.incident_service.dedup.RecentIncidentIndex;
+import com.example.incident_service.dictionary.IncidentTypeDictionary;
+import com.example.incident_service.dto.CreateIncidentRequest;
+import com.example.incident_service.entity.IncidentStatus;
+import com.example.incident_service.service.IncidentIntakeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drains the intake log into PostgreSQL in batches.
+ *
+ * Inserts are keyed on the client's idempotency key with ON CONFLICT DO NOTHING,
+ * so replaying a batch after a crash between the DB commit and the log
+ * checkpoint never creates a duplicate row. Reports that repeat a recent
+ * incident are linked to it instead of inserted.
+ */
+@Component
+public class IncidentIntakeWriter {
+    
+    private static final Logger log = LoggerFactory.getLogger(IncidentIntakeWriter.class);
+    
+    private static final String INSERT_SQL = """
+        INSERT INTO incidents (title, description, incident_type_id, priority_id, location,
+                               reported_by, created_at, occurred_at, status_id, idempotency_key)
+        VALUES (?, ?, ?, ?, ST_SetSRID(ST_MakePoint(?, ?), 4326), ?, ?, ?, ?, ?)
+        ON CONFLICT (idempotency_key) DO NOTHING
+        """;
+    
+    @Autowired
+    private IncidentIntakeLog intakeLog;
+    
+    @Autowired
+    private IncidentIntakeService intakeService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private IncidentDeduplicator deduplicator;
+    
+    @Autowired
+    private IncidentTypeDictionary types;
+    
+    @Autowired
+    private IntakeRejections rejections;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${incident.intake.batch-size:500}")
+    private int batchSize;
+    
+    public IncidentIntakeWriter(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Scheduled(fixedDelayString = "${incident.intake.flush-interval-ms:200}")
+    public void drain() {
+        IncidentIntakeLog.Batch batch;
+        while (!(batch = intakeLog.read(batchSize)).isEmpty()) {
+            List<IntakeEntry> entries = decode(batch.records());
+            try {
+                write(entries);
+                intakeLog.commit(batch.end());
+            } catch (DataAccessException e) {
+                log.warn("Intake drain failed, {} incident(s) will be retried: {}", entries.size(), e.getMessage());
+                return;
+            } catch (IOException e) {
+                log.error("Error checkpointing intake log", e);
+                return;
+            }
+            intakeService.markWritten(entries.stream().map(IntakeEntry::getIdempotencyKey).toList());
+            log.debug("Drained {} incident(s) from intake log", entries.size());
+        }
+    }
+    
+    private List<IntakeEntry> decode(List<byte[]> records) {
+        List<IntakeEntry> entries = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            try {
+                entries.add(objectMapper.readValue(record, IntakeEntry.class));
+            } catch (IOException e) {
+                log.error("Skipping unreadable intake record: {}", e.getMessage());
+            }
+        }
+        return entries;
+    }
+    
+    /**
+     * Splits the batch into new incidents and duplicate reports. New ones are
+     * indexed by idempotency key straight away so later entries of the same
+     * batch can link to them; links are written after the inserts they need.
+     * A new incident whose insert is dropped leaves the index again, and its
+     * reports, or any whose original has gone, become incidents themselves.
+     */
+    private void write(List<IntakeEntry> entries) {
+        List<IntakeEntry> inserts = new ArrayList<>(entries.size());
+        List<IncidentDeduplicator.LinkedReport> linked = new ArrayList<>();
+        Map<String, IntakeEntry> reportEntries = new HashMap<>();
+        for (IntakeEntry entry : entries) {
+            CreateIncidentRequest request = entry.getRequest();
+            LocalDateTime occurredAt = occurredAt(entry);
+            RecentIncidentIndex.Entry original = deduplicator.findOriginal(request.getIncidentType(),
+                request.getLatitude(), request.getLongitude(), occurredAt, entry.getIdempotencyKey());
+            if (original != null) {
+                linked.add(new IncidentDeduplicator.LinkedReport(original, request.getTitle(),
+                    request.getDescription(), request.getReportedBy(), request.getLatitude(), request.getLongitude(),
+                    occurredAt, entry.getAcceptedAt(), entry.getIdempotencyKey()));
+                reportEntries.put(entry.getIdempotencyKey(), entry);
+            } else {
+                inserts.add(entry);
+                register(entry);
+            }
+        }
+        
+        Set<String> dropped = new HashSet<>();
+        for (IntakeEntry entry : insert(inserts)) {
+            CreateIncidentRequest request = entry.getRequest();
+            deduplicator.unregister(request.getIncidentType(), entry.getIdempotencyKey(),
+                request.getLatitude(), request.getLongitude(), occurredAt(entry));
+            dropped.add(entry.getIdempotencyKey());
+        }
+        if (linked.isEmpty()) {
+            return;
+        }
+        
+        List<IntakeEntry> orphans = new ArrayList<>();
+        List<IncidentDeduplicator.LinkedReport> linkable = new ArrayList<>(linked.size());
+        for (IncidentDeduplicator.LinkedReport report : linked) {
+            if (report.original().incidentId() == null && dropped.contains(report.original().idempotencyKey())) {
+                orphans.add(reportEntries.get(report.idempotencyKey()));
+            } else {
+                linkable.add(report);
+            }
+        }
+        List<IncidentDeduplicator.LinkedReport> unlinked =
+            transactionTemplate.execute(status -> deduplicator.linkReports(linkable, true));
+        for (IncidentDeduplicator.LinkedReport report : unlinked) {
+            orphans.add(reportEntries.get(report.idempotencyKey()));
+        }
+        log.debug("Linked {} duplicate report(s) to existing incidents", linked.size() - orphans.size());
+        
+        if (!orphans.isEmpty()) {
+            log.warn("Creating {} duplicate report(s) as new incidents: their original was not stored", orphans.size());
+            List<IntakeEntry> orphansDropped = insert(orphans);
+            for (IntakeEntry orphan : orphans) {
+                if (!orphansDropped.contains(orphan)) {
+                    register(orphan);
+                }
+            }
+        }
+    }
+    
+    private void register(IntakeEntry entry) {
+        CreateIncidentRequest request = entry.getRequest();
+        deduplicator.register(request.getIncidentType(), null, entry.getIdempotencyKey(),
+            request.getLatitude(), request.getLongitude(), occurredAt(entry));
+    }
+    
+    /** Inserts the entries, isolating and recording any the database rejects. Returns those dropped. */
+    private List<IntakeEntry> insert(List<IntakeEntry> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        List<IntakeEntry> dropped = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), this::bind));
+        } catch (DataIntegrityViolationException e) {
+            // One bad record must not block the whole log; isolate it and move on
+            log.warn("Intake batch rejected, retrying {} incident(s) individually", entries.size());
+            for (IntakeEntry entry : entries) {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, entry)));
+                } catch (DataIntegrityViolationException rejected) {
+                    log.error("Dropping intake record: key={}, error={}", entry.getIdempotencyKey(), rejected.getMessage());
+                    rejections.record(entry.getIdempotencyKey(), rejected.getMostSpecificCause().getMessage());
+                    dropped.add(entry);
+                }
+            }
+        }
+        return dropped;
+    }
+    
+    private void bind(PreparedStatement ps, IntakeEntry entry) throws SQLException {
+        CreateIncidentRequest request = entry.getRequest();
+        LocalDateTime occurredAt = occurredAt(entry);
+        
+        ps.setString(1, request.getTitle());
+        ps.setString(2, request.getDescription());
+        ps.setObject(3, types.getOrCreate(request.getIncidentType()), Types.SMALLINT);
+        ps.setShort(4, request.getPriority().code());
+        ps.setDouble(5, request.getLongitude());
+        ps.setDouble(6, request.getLatitude());
+        ps.setObject(7, request.getReportedBy(), Types.BIGINT);
+        ps.setObject(8, entry.getAcceptedAt());
+        ps.setObject(9, occurredAt);
+        ps.setShort(10, IncidentStatus.REPORTED.code());
+        ps.setString(11, entry.getIdempotencyKey());
+    }
+    
+    private static LocalDateTime occurredAt(IntakeEntry entry) {
+        LocalDateTime occurredAt = entry.getRequest().getOccurredAt();
+        return occurredAt != null ? occurredAt : entry.getAcceptedAt();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.incident_service.intake;
+
+import com.example.incident_service.dto.CreateIncidentRequest;
+import java.time.LocalDateTime;
+
+/**
+ * Payload stored in the intake log for each accepted incident.
+ */
+public class IntakeEntry {
+    private String idempotencyKey;
+    private LocalDateTime acceptedAt;
+    private CreateIncidentRequest request;
+    
+    public IntakeEntry() {}
+    
+    public IntakeEntry(String idempotencyKey, LocalDateTime acceptedAt, CreateIncidentRequest request) {
+        this.idempotencyKey = idempotencyKey;
+        this.acceptedAt = acceptedAt;
+        this.request = request;
+    }
+    
+    // Getters and Setters
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+    
+    public LocalDateTime getAcceptedAt() { return acceptedAt; }
+    public void setAcceptedAt(LocalDateTime acceptedAt) { this.acceptedAt = acceptedAt; }
+    
+    public CreateIncidentRequest getRequest() { return request; }
+    public void setRequest(CreateIncidentRequest request) { this.request = request; }
+}
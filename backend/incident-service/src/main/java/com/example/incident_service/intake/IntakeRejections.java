@@ -0,0 +1,41 @@
+package com.example.incident_service.intake;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Async submissions dropped by the intake writer because the database
+ * rejected them. They are kept in PostgreSQL so every instance can answer
+ * for the key after the in-memory pending entry is gone.
+ */
+@Component
+public class IntakeRejections {
+    
+    private static final int MAX_REASON_LENGTH = 1000;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    public void record(String idempotencyKey, String reason) {
+        String stored = reason == null ? "rejected" : reason.length() > MAX_REASON_LENGTH
+            ? reason.substring(0, MAX_REASON_LENGTH) : reason;
+        jdbcTemplate.update("""
+            INSERT INTO incident_intake_rejections (idempotency_key, reason) VALUES (?, ?)
+            ON CONFLICT (idempotency_key) DO NOTHING
+            """, idempotencyKey, stored);
+    }
+    
+    public Optional<Rejection> find(String idempotencyKey) {
+        return jdbcTemplate.query("""
+            SELECT reason, rejected_at FROM incident_intake_rejections WHERE idempotency_key = ?
+            """, (rs, row) -> new Rejection(idempotencyKey, rs.getString("reason"),
+                rs.getObject("rejected_at", LocalDateTime.class)), idempotencyKey)
+            .stream().findFirst();
+    }
+    
+    public record Rejection(String idempotencyKey, String reason, LocalDateTime rejectedAt) {}
+}
@@ -0,0 +1,101 @@
+package com.example.incident_service.repository;
+
+import com.example.incident_service.dictionary.IncidentTypeDictionary;
+import com.example.incident_service.dto.IncidentDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads incident changes (updated rows and tombstones) in change-version
+ * order for delta sync, up to the snapshot horizon below which every writing
+ * transaction has finished.
+ */
+@Repository
+public class IncidentChangeRepository {
+    
+    // %1$s compares the change version ("> ?" for a page, "= ?" for one
+    // transaction's group); %2$s and %3$s are the optional bounding-box filters;
+    // %4$s is the incident column list
+    private static final String CHANGES_SQL = """
+        WITH horizon AS (SELECT txid_snapshot_xmin(txid_current_snapshot()) AS snapshot_xmin)
+        SELECT h.snapshot_xmin, c.* FROM horizon h
+        LEFT JOIN LATERAL (
+            SELECT FALSE AS deleted, %4$s
+            FROM incidents i
+            WHERE i.change_version %1$s AND i.change_version < h.snapshot_xmin %2$s
+            UNION ALL
+            SELECT TRUE, t.incident_id, NULL, NULL, NULL, NULL, NULL, NULL,
+                   NULL, NULL, NULL, NULL, t.change_version
+            FROM incident_tombstones t
+            WHERE t.change_version %1$s AND t.change_version < h.snapshot_xmin %3$s
+            ORDER BY change_version, id
+            LIMIT ?
+        ) c ON TRUE
+        """;
+    
+    private static final String INCIDENT_BBOX = "AND i.location && ST_MakeEnvelope(?, ?, ?, ?, 4326)";
+    private static final String TOMBSTONE_BBOX = "AND t.location && ST_MakeEnvelope(?, ?, ?, ?, 4326)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private IncidentTypeDictionary types;
+    
+    /**
+     * Up to {@code limit} changes with a version above {@code since}.
+     * {@code bbox} is minLng, minLat, maxLng, maxLat, or null for everything.
+     */
+    public ChangePage findChangesSince(long since, double[] bbox, int limit) {
+        return query("> ?", since, bbox, limit);
+    }
+    
+    /** Every change written by one transaction. */
+    public ChangePage findChangesAt(long version, double[] bbox) {
+        return query("= ?", version, bbox, Integer.MAX_VALUE);
+    }
+    
+    private ChangePage query(String versionCondition, long version, double[] bbox, int limit) {
+        String sql = CHANGES_SQL.formatted(versionCondition,
+            bbox != null ? INCIDENT_BBOX : "", bbox != null ? TOMBSTONE_BBOX : "", IncidentRows.COLUMNS);
+        List<Object> args = new ArrayList<>();
+        for (int branch = 0; branch < 2; branch++) {
+            args.add(version);
+            if (bbox != null) {
+                for (double bound : bbox) {
+                    args.add(bound);
+                }
+            }
+        }
+        args.add(limit);
+        
+        List<Change> changes = new ArrayList<>();
+        long[] horizon = {0};
+        jdbcTemplate.query(sql, rs -> {
+            horizon[0] = rs.getLong("snapshot_xmin");
+            rs.getLong("id");
+            if (!rs.wasNull()) {
+                changes.add(mapChange(rs));
+            }
+        }, args.toArray());
+        return new ChangePage(changes, horizon[0]);
+    }
+    
+    private Change mapChange(ResultSet rs) throws SQLException {
+        long id = rs.getLong("id");
+        long version = rs.getLong("change_version");
+        return new Change(id, version, rs.getBoolean("deleted") ? null : IncidentRows.map(rs, types));
+    }
+    
+    /** A changed incident, or a deletion when {@code incident} is null. */
+    public record Change(long id, long version, IncidentDTO incident) {}
+    
+    /** Changes in version order and the horizon they were read below. */
+    public record ChangePage(List<Change> changes, long horizon) {}
+}
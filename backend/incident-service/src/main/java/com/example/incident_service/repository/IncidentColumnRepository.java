@@ -0,0 +1,228 @@
+package com.example.incident_service.repository;
+
+import com.example.incident_service.dictionary.IncidentTypeDictionary;
+import com.example.incident_service.dto.IncidentColumns;
+import com.example.incident_service.entity.IncidentPriority;
+import com.example.incident_service.entity.IncidentStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Reads incident collections straight into {@link IncidentColumns}: only the
+ * columns the encoding carries are selected, and each row is written into the
+ * column arrays as it is read, so no entity or DTO is built per incident.
+ *
+ * Type, priority and status ids are coded into the dictionaries by id, so a
+ * name is looked up once per distinct value rather than once per row.
+ * Timestamps are read as the JVM's local time, as the JPA path did.
+ */
+@Repository
+public class IncidentColumnRepository {
+    
+    private static final int FETCH_SIZE = 1_000;
+    private static final int INITIAL_CAPACITY = 256;
+    
+    private static final String SELECT_SQL = """
+        SELECT i.id, ST_Y(i.location) AS latitude, ST_X(i.location) AS longitude,
+               i.occurred_at, i.created_at, i.reported_by, i.title, i.description,
+               i.incident_type_id, i.priority_id, i.status_id
+        FROM incidents i
+        """;
+    
+    private static final String NEAR_SQL = SELECT_SQL + """
+        WHERE ST_DWithin(i.location::geography, ST_SetSRID(ST_MakePoint(?, ?), 4326)::geography, ?)
+        ORDER BY ST_Distance(i.location::geography, ST_SetSRID(ST_MakePoint(?, ?), 4326)::geography)
+        """;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private IncidentTypeDictionary types;
+    
+    public IncidentColumns findAll() {
+        return query(SELECT_SQL, ps -> {});
+    }
+    
+    public IncidentColumns findByReportedBy(long reportedBy) {
+        return query(SELECT_SQL + "WHERE i.reported_by = ?", ps -> ps.setLong(1, reportedBy));
+    }
+    
+    public IncidentColumns findByIncidentType(short typeId) {
+        return query(SELECT_SQL + "WHERE i.incident_type_id = ?", ps -> ps.setShort(1, typeId));
+    }
+    
+    public IncidentColumns findByPriority(IncidentPriority priority) {
+        return query(SELECT_SQL + "WHERE i.priority_id = ?", ps -> ps.setShort(1, priority.code()));
+    }
+    
+    public IncidentColumns findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return query(SELECT_SQL + "WHERE i.occurred_at BETWEEN ? AND ?", ps -> {
+            ps.setObject(1, startDate);
+            ps.setObject(2, endDate);
+        });
+    }
+    
+    /** Incidents within {@code radiusMeters}, nearest first. */
+    public IncidentColumns findNearLocation(double latitude, double longitude, double radiusMeters) {
+        return query(NEAR_SQL, ps -> {
+            ps.setDouble(1, longitude);
+            ps.setDouble(2, latitude);
+            ps.setDouble(3, radiusMeters);
+            ps.setDouble(4, longitude);
+            ps.setDouble(5, latitude);
+        });
+    }
+    
+    // Rows stream through a cursor when the caller's transaction is open
+    private IncidentColumns query(String sql, PreparedStatementSetter parameters) {
+        ColumnBuilder builder = new ColumnBuilder(types);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            parameters.setValues(ps);
+            return ps;
+        }, (RowCallbackHandler) builder::add);
+        return builder.build();
+    }
+    
+    /** Growing column arrays, trimmed to the row count once the result is read. */
+    static final class ColumnBuilder {
+        
+        private final Dictionary incidentTypes;
+        private final Dictionary priorities = new Dictionary(code -> IncidentPriority.fromCode(code).name());
+        private final Dictionary statuses = new Dictionary(code -> IncidentStatus.fromCode(code).name());
+        
+        private int count;
+        private long[] id = new long[INITIAL_CAPACITY];
+        private double[] latitude = new double[INITIAL_CAPACITY];
+        private double[] longitude = new double[INITIAL_CAPACITY];
+        private long[] occurredAt = new long[INITIAL_CAPACITY];
+        private long[] createdAt = new long[INITIAL_CAPACITY];
+        private long[] reportedBy = new long[INITIAL_CAPACITY];
+        private String[] title = new String[INITIAL_CAPACITY];
+        private String[] description = new String[INITIAL_CAPACITY];
+        private int[] incidentType = new int[INITIAL_CAPACITY];
+        private int[] priority = new int[INITIAL_CAPACITY];
+        private int[] status = new int[INITIAL_CAPACITY];
+        
+        ColumnBuilder(IncidentTypeDictionary types) {
+            this.incidentTypes = new Dictionary(typeId -> types.name((short) typeId));
+        }
+        
+        void add(ResultSet rs) throws SQLException {
+            if (count == id.length) {
+                resize(count * 2);
+            }
+            int i = count++;
+            // Absent numbers read as 0, which is what the encoding uses for them
+            id[i] = rs.getLong("id");
+            latitude[i] = rs.getDouble("latitude");
+            longitude[i] = rs.getDouble("longitude");
+            occurredAt[i] = epochMillis(rs.getTimestamp("occurred_at"));
+            createdAt[i] = epochMillis(rs.getTimestamp("created_at"));
+            reportedBy[i] = rs.getLong("reported_by");
+            title[i] = rs.getString("title");
+            description[i] = rs.getString("description");
+            short typeId = rs.getShort("incident_type_id");
+            incidentType[i] = rs.wasNull() ? incidentTypes.nullCode() : incidentTypes.code(typeId);
+            priority[i] = priorities.code(rs.getShort("priority_id"));
+            status[i] = statuses.code(rs.getShort("status_id"));
+        }
+        
+        IncidentColumns build() {
+            if (count != id.length) {
+                resize(count);
+            }
+            IncidentColumns columns = new IncidentColumns();
+            columns.setCount(count);
+            columns.setId(id);
+            columns.setLatitude(latitude);
+            columns.setLongitude(longitude);
+            columns.setOccurredAt(occurredAt);
+            columns.setCreatedAt(createdAt);
+            columns.setReportedBy(reportedBy);
+            columns.setTitle(title);
+            columns.setDescription(description);
+            columns.setIncidentType(incidentType);
+            columns.setIncidentTypes(incidentTypes.values());
+            columns.setPriority(priority);
+            columns.setPriorities(priorities.values());
+            columns.setStatus(status);
+            columns.setStatuses(statuses.values());
+            return columns;
+        }
+        
+        private void resize(int capacity) {
+            id = Arrays.copyOf(id, capacity);
+            latitude = Arrays.copyOf(latitude, capacity);
+            longitude = Arrays.copyOf(longitude, capacity);
+            occurredAt = Arrays.copyOf(occurredAt, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            reportedBy = Arrays.copyOf(reportedBy, capacity);
+            title = Arrays.copyOf(title, capacity);
+            description = Arrays.copyOf(description, capacity);
+            incidentType = Arrays.copyOf(incidentType, capacity);
+            priority = Arrays.copyOf(priority, capacity);
+            status = Arrays.copyOf(status, capacity);
+        }
+        
+        private static long epochMillis(Timestamp timestamp) {
+            return timestamp != null ? timestamp.getTime() : 0L;
+        }
+    }
+    
+    /**
+     * Dictionary codes by lookup-table id, in order of first appearance; the
+     * name behind an id is resolved when the id is first seen.
+     */
+    private static final class Dictionary {
+        
+        private final IntFunction<String> names;
+        private final List<String> values = new ArrayList<>();
+        private int[] codes = new int[0];
+        private int nullCode = -1;
+        
+        Dictionary(IntFunction<String> names) {
+            this.names = names;
+        }
+        
+        int code(short id) {
+            if (id >= codes.length) {
+                int length = codes.length;
+                codes = Arrays.copyOf(codes, Math.max(id + 1, length * 2));
+                Arrays.fill(codes, length, codes.length, -1);
+            }
+            if (codes[id] < 0) {
+                codes[id] = values.size();
+                values.add(names.apply(id));
+            }
+            return codes[id];
+        }
+        
+        int nullCode() {
+            if (nullCode < 0) {
+                nullCode = values.size();
+                values.add(null);
+            }
+            return nullCode;
+        }
+        
+        String[] values() {
+            return values.toArray(new String[0]);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.incident_service.repository;
+
+import com.example.incident_service.dto.IncidentEventDTO;
+import com.example.incident_service.entity.IncidentStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Reads the append-only incident_events history. Rows are written by a
+ * database trigger, never by the service, so every status change is recorded
+ * in the transaction that made it.
+ */
+@Repository
+public class IncidentEventRepository {
+    
+    private static final String TIMELINE_SQL = """
+        SELECT id, incident_id, from_status_id, to_status_id, occurred_at
+        FROM incident_events
+        WHERE incident_id = ?
+        ORDER BY id
+        """;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /** Status events of one incident, oldest first. */
+    public List<IncidentEventDTO> findByIncidentId(long incidentId) {
+        return jdbcTemplate.query(TIMELINE_SQL, (rs, rowNum) -> new IncidentEventDTO(
+            rs.getLong("id"),
+            rs.getLong("incident_id"),
+            rs.getObject("from_status_id") != null ? IncidentStatus.fromCode(rs.getShort("from_status_id")).name() : null,
+            IncidentStatus.fromCode(rs.getShort("to_status_id")).name(),
+            rs.getTimestamp("occurred_at").toLocalDateTime()
+        ), incidentId);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.incident_service.repository;
+
+import com.example.incident_service.dictionary.IncidentTypeDictionary;
+import com.example.incident_service.dto.IncidentDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Reads incidents for export through a server-side cursor, so a year-long
+ * range is never held in memory. Rows come in id order, which lets an
+ * interrupted export resume after the last id it received.
+ *
+ * An export keeps its connection for as long as the client takes to read it,
+ * so exports get a small pool of their own instead of holding connections the
+ * request path needs; when it is exhausted further exports wait for a free
+ * connection and then fail.
+ */
+@Repository
+public class IncidentExportRepository {
+    
+    private static final int FETCH_SIZE = 1_000;
+    
+    private static final String EXPORT_SQL = """
+        SELECT %s
+        FROM incidents i
+        WHERE i.occurred_at BETWEEN ? AND ? AND i.id > ?
+        ORDER BY i.id
+        """.formatted(IncidentRows.COLUMNS);
+    
+    @Autowired
+    private IncidentTypeDictionary types;
+    
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    // The pool connects on first use, so startup does not need the database
+    public IncidentExportRepository(DataSourceProperties properties,
+                                    @Value("${incident.export.pool-size:4}") int poolSize,
+                                    @Value("${incident.export.connection-timeout-ms:30000}") long connectionTimeoutMs) {
+        this.dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.dataSource.setPoolName("incident-export");
+        this.dataSource.setMaximumPoolSize(poolSize);
+        this.dataSource.setMinimumIdle(0);
+        this.dataSource.setConnectionTimeout(connectionTimeoutMs);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+    
+    // The PostgreSQL driver only uses a cursor for the fetch size inside a transaction
+    public void streamByDateRange(LocalDateTime startDate, LocalDateTime endDate, long afterId,
+                                  Consumer<IncidentDTO> consumer) {
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(EXPORT_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setObject(1, startDate);
+            ps.setObject(2, endDate);
+            ps.setLong(3, afterId);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            consumer.accept(IncidentRows.map(rs, types));
+        }));
+    }
+}
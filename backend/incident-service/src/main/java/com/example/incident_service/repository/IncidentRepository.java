@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface IncidentRepository extends JpaRepository<Incident, Long> {
@@ -19,6 +20,16 @@ public interface IncidentRepository extends JpaRepository<Incident, Long> {
     
     List<Incident> findByPriority(String priority);
     
+    Optional<Incident> findByIdempotencyKey(String idempotencyKey);
+
+    // Only reports the async intake linked; synchronous keys are a namespace of their own
+    @Query(value = """
+        SELECT i.* FROM incidents i
+        JOIN incident_reports r ON r.incident_id = i.id
+        WHERE r.idempotency_key = :key AND r.async
+        """, nativeQuery = true)
+    Optional<Incident> findByReportIdempotencyKey(@Param("key") String idempotencyKey);
+    
     @Query("SELECT i FROM Incident i WHERE i.occurredAt BETWEEN :startDate AND :endDate")
     List<Incident> findByDateRange(@Param("startDate") LocalDateTime startDate, 
                                     @Param("endDate") LocalDateTime endDate);
@@ -0,0 +1,50 @@
+package com.example.incident_service.repository;
+
+import com.example.incident_service.dictionary.IncidentTypeDictionary;
+import com.example.incident_service.dto.IncidentDTO;
+import com.example.incident_service.dto.LocationDTO;
+import com.example.incident_service.entity.IncidentPriority;
+import com.example.incident_service.entity.IncidentStatus;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Column list and row mapping shared by the JDBC incident queries, so they
+ * build the same DTO as the JPA path without loading entities.
+ */
+final class IncidentRows {
+    
+    static final String COLUMNS = """
+        i.id, i.title, i.description, i.incident_type_id, i.priority_id,
+        ST_Y(i.location) AS latitude, ST_X(i.location) AS longitude,
+        i.reported_by, i.created_at, i.occurred_at, i.status_id, i.change_version""";
+    
+    private IncidentRows() {}
+    
+    /** Maps the current row; type, priority and status come from the shared dictionary values. */
+    static IncidentDTO map(ResultSet rs, IncidentTypeDictionary types) throws SQLException {
+        Long reportedBy = rs.getObject("reported_by") != null ? rs.getLong("reported_by") : null;
+        String type = rs.getObject("incident_type_id") != null ? types.name(rs.getShort("incident_type_id")) : null;
+        IncidentDTO incident = new IncidentDTO(
+            rs.getLong("id"),
+            rs.getString("title"),
+            rs.getString("description"),
+            type,
+            IncidentPriority.fromCode(rs.getShort("priority_id")).name(),
+            new LocationDTO(rs.getDouble("latitude"), rs.getDouble("longitude")),
+            reportedBy,
+            toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("occurred_at")),
+            IncidentStatus.fromCode(rs.getShort("status_id")).name()
+        );
+        incident.setChangeVersion(rs.getLong("change_version"));
+        return incident;
+    }
+    
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
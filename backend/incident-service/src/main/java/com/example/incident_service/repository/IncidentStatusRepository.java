@@ -0,0 +1,88 @@
+package com.example.incident_service.repository;
+
+import com.example.incident_service.dictionary.IncidentTypeDictionary;
+import com.example.incident_service.dto.IncidentDTO;
+import com.example.incident_service.entity.IncidentStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Status changes as single UPDATE ... RETURNING statements. The allowed
+ * previous statuses and the expected change version are part of the WHERE
+ * clause, so a concurrent change is caught by the database rather than by a
+ * read-modify-write in the service.
+ */
+@Repository
+public class IncidentStatusRepository {
+    
+    private static final String UPDATE_ONE_SQL = """
+        UPDATE incidents i SET status_id = ?
+        WHERE i.id = ? AND i.status_id = ANY(?) AND (CAST(? AS BIGINT) IS NULL OR i.change_version = ?)
+        RETURNING %s
+        """.formatted(IncidentRows.COLUMNS);
+    
+    private static final String UPDATE_MANY_SQL = """
+        UPDATE incidents SET status_id = ?
+        WHERE id = ANY(?) AND status_id = ANY(?)
+        RETURNING id
+        """;
+    
+    private static final String CURRENT_SQL = "SELECT id, status_id, change_version FROM incidents WHERE id = ANY(?)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private IncidentTypeDictionary types;
+    
+    /**
+     * Sets the status if the incident's current status may move to it and,
+     * when given, it is still at {@code expectedVersion}. Empty if not applied.
+     */
+    public Optional<IncidentDTO> updateStatus(long id, IncidentStatus status, Long expectedVersion) {
+        List<IncidentDTO> updated = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPDATE_ONE_SQL);
+            ps.setShort(1, status.code());
+            ps.setLong(2, id);
+            ps.setArray(3, con.createArrayOf("int2", status.allowedPrevious()));
+            ps.setObject(4, expectedVersion, Types.BIGINT);
+            ps.setObject(5, expectedVersion, Types.BIGINT);
+            return ps;
+        }, (rs, rowNum) -> IncidentRows.map(rs, types));
+        return updated.stream().findFirst();
+    }
+    
+    /** Sets the status on every listed incident whose status may move to it; returns the ids changed. */
+    public List<Long> updateStatuses(List<Long> ids, IncidentStatus status) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPDATE_MANY_SQL);
+            ps.setShort(1, status.code());
+            ps.setArray(2, con.createArrayOf("bigint", ids.toArray()));
+            ps.setArray(3, con.createArrayOf("int2", status.allowedPrevious()));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong("id"));
+    }
+    
+    /** Current status and change version of each incident that exists, by id. */
+    public Map<Long, CurrentStatus> findCurrent(List<Long> ids) {
+        Map<Long, CurrentStatus> current = new LinkedHashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CURRENT_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, rs -> {
+            current.put(rs.getLong("id"), new CurrentStatus(IncidentStatus.fromCode(rs.getShort("status_id")).name(), rs.getLong("change_version")));
+        });
+        return current;
+    }
+    
+    public record CurrentStatus(String status, long changeVersion) {}
+}
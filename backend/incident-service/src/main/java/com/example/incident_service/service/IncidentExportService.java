@@ -0,0 +1,192 @@
+package com.example.incident_service.service;
+
+import com.example.incident_service.dto.IncidentDTO;
+import com.example.incident_service.repository.IncidentExportRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes incident extracts row by row as they are read from the database,
+ * in GeoJSON or CSV, so memory use does not depend on the range exported.
+ *
+ * An export that fails part way is left unfinished: no closing brackets, no
+ * gzip trailer, and the exception reaches the container, which drops the
+ * connection instead of ending the response normally, so a client cannot
+ * take a truncated export for a complete one. An export that runs past the
+ * time limit is cut off the same way and is resumed with afterId.
+ */
+@Service
+public class IncidentExportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(IncidentExportService.class);
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private static final String CSV_HEADER =
+        "id,title,description,incident_type,priority,latitude,longitude,reported_by,created_at,occurred_at,status\r\n";
+    
+    @Autowired
+    private IncidentExportRepository exportRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${incident.export.max-duration-seconds:600}")
+    private long maxDurationSeconds;
+    
+    /** Writes a GeoJSON FeatureCollection of Point features, one per incident. */
+    public void writeGeoJson(LocalDateTime startDate, LocalDateTime endDate, long afterId, OutputStream out)
+            throws IOException {
+        long start = System.currentTimeMillis();
+        long[] count = {0};
+        JsonGenerator json = objectMapper.getFactory().createGenerator(new BufferedOutputStream(out, BUFFER_SIZE));
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        try {
+            json.writeStartObject();
+            json.writeStringField("type", "FeatureCollection");
+            json.writeArrayFieldStart("features");
+            stream(startDate, endDate, afterId, incident -> {
+                writeFeature(json, incident);
+                count[0]++;
+            });
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException | RuntimeException e) {
+            log.warn("GeoJSON export aborted after {} incident(s): {}", count[0], e.getMessage());
+            throw e;
+        }
+        json.close();
+        log.info("Exported {} incident(s) as GeoJSON in {} ms", count[0], System.currentTimeMillis() - start);
+    }
+    
+    /** Writes RFC 4180 CSV with a header row, one row per incident. */
+    public void writeCsv(LocalDateTime startDate, LocalDateTime endDate, long afterId, OutputStream out)
+            throws IOException {
+        long start = System.currentTimeMillis();
+        long[] count = {0};
+        Writer csv = new OutputStreamWriter(new BufferedOutputStream(out, BUFFER_SIZE), StandardCharsets.UTF_8);
+        try {
+            csv.write(CSV_HEADER);
+            StringBuilder row = new StringBuilder(256);
+            stream(startDate, endDate, afterId, incident -> {
+                row.setLength(0);
+                appendCsvRow(row, incident);
+                csv.write(row.toString());
+                count[0]++;
+            });
+        } catch (IOException | RuntimeException e) {
+            log.warn("CSV export aborted after {} incident(s): {}", count[0], e.getMessage());
+            throw e;
+        }
+        csv.close();
+        log.info("Exported {} incident(s) as CSV in {} ms", count[0], System.currentTimeMillis() - start);
+    }
+    
+    private void stream(LocalDateTime startDate, LocalDateTime endDate, long afterId, RowWriter writer)
+            throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxDurationSeconds);
+        long[] lastId = {afterId};
+        try {
+            exportRepository.streamByDateRange(startDate, endDate, afterId, incident -> {
+                try {
+                    if (System.nanoTime() - deadline > 0) {
+                        throw new IOException("Export time limit of " + maxDurationSeconds
+                            + " s reached; resume with afterId=" + lastId[0]);
+                    }
+                    writer.write(incident);
+                    lastId[0] = incident.getId();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away or the time limit was reached; the
+            // cursor and its transaction are already closed
+            throw e.getCause();
+        }
+    }
+    
+    private static void writeFeature(JsonGenerator json, IncidentDTO incident) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("type", "Feature");
+        json.writeNumberField("id", incident.getId());
+        json.writeObjectFieldStart("geometry");
+        json.writeStringField("type", "Point");
+        json.writeArrayFieldStart("coordinates");
+        json.writeNumber(incident.getLocation().getLongitude());
+        json.writeNumber(incident.getLocation().getLatitude());
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeObjectFieldStart("properties");
+        json.writeStringField("title", incident.getTitle());
+        json.writeStringField("description", incident.getDescription());
+        json.writeStringField("incidentType", incident.getIncidentType());
+        json.writeStringField("priority", incident.getPriority());
+        if (incident.getReportedBy() != null) {
+            json.writeNumberField("reportedBy", incident.getReportedBy());
+        } else {
+            json.writeNullField("reportedBy");
+        }
+        json.writeStringField("createdAt", toString(incident.getCreatedAt()));
+        json.writeStringField("occurredAt", toString(incident.getOccurredAt()));
+        json.writeStringField("status", incident.getStatus());
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+    
+    private static void appendCsvRow(StringBuilder row, IncidentDTO incident) {
+        row.append(incident.getId()).append(',');
+        appendCsvField(row, incident.getTitle()).append(',');
+        appendCsvField(row, incident.getDescription()).append(',');
+        appendCsvField(row, incident.getIncidentType()).append(',');
+        appendCsvField(row, incident.getPriority()).append(',');
+        row.append(incident.getLocation().getLatitude()).append(',');
+        row.append(incident.getLocation().getLongitude()).append(',');
+        row.append(incident.getReportedBy() != null ? incident.getReportedBy().toString() : "").append(',');
+        appendCsvField(row, toString(incident.getCreatedAt())).append(',');
+        appendCsvField(row, toString(incident.getOccurredAt())).append(',');
+        appendCsvField(row, incident.getStatus()).append("\r\n");
+    }
+    
+    private static StringBuilder appendCsvField(StringBuilder row, String value) {
+        if (value == null) {
+            return row;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return row.append(value);
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        return row.append('"');
+    }
+    
+    private static String toString(LocalDateTime time) {
+        return time != null ? time.toString() : null;
+    }
+    
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(IncidentDTO incident) throws IOException;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.incident_service.service;
+
+import com.example.incident_service.dto.CreateIncidentRequest;
+import com.example.incident_service.dto.IntakeReceipt;
+import com.example.incident_service.exception.IntakeRejectedException;
+import com.example.incident_service.intake.IncidentIntakeLog;
+import com.example.incident_service.intake.IntakeEntry;
+import com.example.incident_service.intake.IntakeRejections;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class IncidentIntakeService {
+    
+    private static final Logger log = LoggerFactory.getLogger(IncidentIntakeService.class);
+    
+    @Autowired
+    private IncidentIntakeLog intakeLog;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private IntakeRejections rejections;
+    
+    // Keys accepted but not yet written, so retries before the drain are not logged twice
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+    
+    /** Restores the keys still in the log after a restart; the writer replays their records. */
+    @PostConstruct
+    public void recoverPending() {
+        for (byte[] record : intakeLog.read(Integer.MAX_VALUE).records()) {
+            try {
+                IntakeEntry entry = objectMapper.readValue(record, IntakeEntry.class);
+                pending.putIfAbsent(entry.getIdempotencyKey(), entry.getAcceptedAt());
+            } catch (IOException e) {
+                log.warn("Unreadable intake record left out of pending keys: {}", e.getMessage());
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("Recovered {} pending async incident(s) from the intake log", pending.size());
+        }
+    }
+    
+    public IntakeReceipt enqueue(String idempotencyKey, CreateIncidentRequest request) {
+        LocalDateTime acceptedAt = LocalDateTime.now();
+        LocalDateTime previous = pending.putIfAbsent(idempotencyKey, acceptedAt);
+        if (previous != null) {
+            log.debug("Duplicate async incident submission: key={}", idempotencyKey);
+            return new IntakeReceipt(idempotencyKey, "ACCEPTED", previous);
+        }
+        
+        try {
+            intakeLog.append(objectMapper.writeValueAsBytes(new IntakeEntry(idempotencyKey, acceptedAt, request)));
+        } catch (IOException e) {
+            pending.remove(idempotencyKey);
+            log.error("Error enqueuing incident: key={}", idempotencyKey, e);
+            throw new RuntimeException("Failed to enqueue incident: " + e.getMessage());
+        }
+        
+        log.info("Incident accepted for async creation: key={}", idempotencyKey);
+        return new IntakeReceipt(idempotencyKey, "ACCEPTED", acceptedAt);
+    }
+    
+    public IntakeReceipt getPending(String idempotencyKey) {
+        LocalDateTime acceptedAt = pending.get(idempotencyKey);
+        return acceptedAt != null ? new IntakeReceipt(idempotencyKey, "ACCEPTED", acceptedAt) : null;
+    }
+    
+    /** Fails with {@link IntakeRejectedException} when the writer dropped the submission. */
+    public void checkNotRejected(String idempotencyKey) {
+        rejections.find(idempotencyKey).ifPresent(rejection -> {
+            throw new IntakeRejectedException(idempotencyKey, rejection.reason());
+        });
+    }
+    
+    public void markWritten(Collection<String> idempotencyKeys) {
+        idempotencyKeys.forEach(pending::remove);
+    }
+}
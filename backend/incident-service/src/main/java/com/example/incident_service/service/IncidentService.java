@@ -1,11 +1,29 @@
 package com.example.incident_service.service;
 
+import com.example.common.cache.LocalCache;
+import com.example.common.idempotency.IdempotencyConflictException;
+import com.example.common.idempotency.IdempotencyStore;
+import com.example.incident_service.dedup.IncidentDeduplicator;
+import com.example.incident_service.dedup.RecentIncidentIndex;
+import com.example.incident_service.dictionary.IncidentTypeDictionary;
+import com.example.incident_service.dto.BulkStatusUpdateResult;
 import com.example.incident_service.dto.CreateIncidentRequest;
+import com.example.incident_service.dto.IncidentChangesDTO;
+import com.example.incident_service.dto.IncidentColumns;
 import com.example.incident_service.dto.IncidentDTO;
+import com.example.incident_service.dto.IncidentEventDTO;
 import com.example.incident_service.dto.LocationDTO;
 import com.example.incident_service.entity.Incident;
 import com.example.incident_service.entity.IncidentPriority;
+import com.example.incident_service.entity.IncidentStatus;
+import com.example.incident_service.exception.IncidentNotFoundException;
+import com.example.incident_service.exception.InvalidStatusTransitionException;
+import com.example.incident_service.exception.StaleIncidentVersionException;
+import com.example.incident_service.repository.IncidentChangeRepository;
+import com.example.incident_service.repository.IncidentColumnRepository;
+import com.example.incident_service.repository.IncidentEventRepository;
 import com.example.incident_service.repository.IncidentRepository;
+import com.example.incident_service.repository.IncidentStatusRepository;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
@@ -13,12 +31,19 @@ import org.locationtech.jts.geom.PrecisionModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,9 +52,35 @@ public class IncidentService {
     
     private static final Logger log = LoggerFactory.getLogger(IncidentService.class);
     
+    public static final String IDEMPOTENCY_SCOPE = "incidents";
+    
     @Autowired
     private IncidentRepository incidentRepository;
     
+    @Autowired
+    private IncidentChangeRepository changeRepository;
+    
+    @Autowired
+    private IncidentColumnRepository columnRepository;
+    
+    @Autowired
+    private IncidentStatusRepository statusRepository;
+    
+    @Autowired
+    private IncidentEventRepository eventRepository;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private IncidentDeduplicator deduplicator;
+    
+    @Autowired
+    private IncidentTypeDictionary types;
+    
+    @Autowired
+    private LocalCache<Long, IncidentDTO> incidentsById;
+    
     private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
     
     @Transactional(readOnly = true)
@@ -56,11 +107,34 @@ public class IncidentService {
         }
     }
     
-    @Transactional(readOnly = true)
+    // Cache hits need no transaction; a miss reads in the repository's own
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public IncidentDTO getIncidentById(Long id) {
         log.debug("Fetching incident by id: {}", id);
-        Incident incident = incidentRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Incident not found with id: " + id));
+        return incidentsById.get(id, () -> convertToDTO(incidentRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Incident not found with id: " + id))));
+    }
+    
+    /**
+     * Status history of an incident, oldest first. The history outlives the
+     * incident, so a deleted incident still has a timeline.
+     */
+    @Transactional(readOnly = true)
+    public List<IncidentEventDTO> getTimeline(Long id) {
+        log.debug("Fetching timeline of incident: {}", id);
+        List<IncidentEventDTO> events = eventRepository.findByIncidentId(id);
+        if (events.isEmpty() && !incidentRepository.existsById(id)) {
+            throw new IncidentNotFoundException(id);
+        }
+        return events;
+    }
+    
+    @Transactional(readOnly = true)
+    public IncidentDTO getIncidentByIdempotencyKey(String idempotencyKey) {
+        log.debug("Fetching incident by idempotency key: {}", idempotencyKey);
+        Incident incident = incidentRepository.findByIdempotencyKey(idempotencyKey)
+            .or(() -> incidentRepository.findByReportIdempotencyKey(idempotencyKey))
+            .orElseThrow(() -> new IncidentNotFoundException(idempotencyKey));
         return convertToDTO(incident);
     }
     
@@ -75,6 +149,10 @@ public class IncidentService {
     @Transactional(readOnly = true)
     public List<IncidentDTO> getIncidentsByType(String type) {
         log.debug("Fetching incidents by type: {}", type);
+        // An unknown type has no incidents; querying it would register it
+        if (types.find(type) == null) {
+            return new ArrayList<>();
+        }
         return incidentRepository.findByIncidentType(type).stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
@@ -109,10 +187,117 @@ public class IncidentService {
         }
     }
     
-    public IncidentDTO createIncident(CreateIncidentRequest request) {
+    @Transactional(readOnly = true)
+    public IncidentColumns getAllIncidentColumns() {
+        log.debug("Fetching all incidents (columnar)");
+        return columnRepository.findAll();
+    }
+    
+    @Transactional(readOnly = true)
+    public IncidentColumns getIncidentColumnsByReporter(Long reporterId) {
+        log.debug("Fetching incidents by reporter (columnar): {}", reporterId);
+        return columnRepository.findByReportedBy(reporterId);
+    }
+    
+    @Transactional(readOnly = true)
+    public IncidentColumns getIncidentColumnsByType(String type) {
+        log.debug("Fetching incidents by type (columnar): {}", type);
+        Short typeId = types.find(type);
+        if (typeId == null) {
+            return new IncidentColumns(0);
+        }
+        return columnRepository.findByIncidentType(typeId);
+    }
+    
+    @Transactional(readOnly = true)
+    public IncidentColumns getIncidentColumnsByPriority(IncidentPriority priority) {
+        log.debug("Fetching incidents by priority (columnar): {}", priority);
+        return columnRepository.findByPriority(priority);
+    }
+    
+    @Transactional(readOnly = true)
+    public IncidentColumns getIncidentColumnsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        log.debug("Fetching incidents between {} and {} (columnar)", startDate, endDate);
+        return columnRepository.findByDateRange(startDate, endDate);
+    }
+    
+    @Transactional(readOnly = true)
+    public IncidentColumns getIncidentColumnsNearLocation(double latitude, double longitude, double radiusMeters) {
+        log.debug("Fetching incidents near ({}, {}) within {} meters (columnar)", latitude, longitude, radiusMeters);
+        return columnRepository.findNearLocation(latitude, longitude, radiusMeters);
+    }
+    
+    /**
+     * Incidents changed or deleted after {@code since}, oldest change first.
+     * A page never ends inside one transaction's changes, so resuming from
+     * {@code nextSince} cannot skip any.
+     */
+    @Transactional(readOnly = true)
+    public IncidentChangesDTO getChangesSince(long since, double[] bbox, int limit) {
+        log.debug("Fetching incident changes since version {}", since);
+        IncidentChangeRepository.ChangePage page = changeRepository.findChangesSince(since, bbox, limit + 1);
+        List<IncidentChangeRepository.Change> changes = page.changes();
+        boolean hasMore = changes.size() > limit;
+        long nextSince;
+        if (hasMore) {
+            long cut = changes.get(limit).version();
+            int end = limit;
+            while (end > 0 && changes.get(end - 1).version() == cut) {
+                end--;
+            }
+            // One transaction larger than the page is returned whole
+            changes = end > 0 ? changes.subList(0, end) : changeRepository.findChangesAt(cut, bbox).changes();
+            nextSince = changes.get(changes.size() - 1).version();
+        } else {
+            nextSince = Math.max(since, page.horizon() - 1);
+        }
+        
+        List<IncidentDTO> incidents = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        for (IncidentChangeRepository.Change change : changes) {
+            if (change.incident() != null) {
+                incidents.add(change.incident());
+            } else {
+                deletedIds.add(change.id());
+            }
+        }
+        return new IncidentChangesDTO(incidents, deletedIds, nextSince, hasMore);
+    }
+    
+    public CreatedIncident createIncident(CreateIncidentRequest request) {
+        return createIncident(request, null);
+    }
+    
+    /**
+     * Creates an incident, unless it repeats a recent report of the same type
+     * nearby; then the report is linked to that incident, which is returned.
+     */
+    public CreatedIncident createIncident(CreateIncidentRequest request, String idempotencyKey) {
         log.info("Creating new incident: {}", request.getTitle());
         
         try {
+            String fingerprint = idempotencyKey != null ? idempotencyStore.fingerprint(request) : null;
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime occurredAt = request.getOccurredAt() != null ? request.getOccurredAt() : now;
+            RecentIncidentIndex.Entry original = deduplicator.findOriginal(request.getIncidentType(),
+                request.getLatitude(), request.getLongitude(), occurredAt, idempotencyKey);
+            Optional<Incident> existing = original == null ? Optional.empty()
+                : original.incidentId() != null ? incidentRepository.findById(original.incidentId())
+                : incidentRepository.findByIdempotencyKey(original.idempotencyKey());
+            
+            // Unlinked when the original is deleted in between; the report then becomes an incident
+            if (existing.isPresent() && deduplicator.linkReports(List.of(new IncidentDeduplicator.LinkedReport(original,
+                    request.getTitle(), request.getDescription(), request.getReportedBy(),
+                    request.getLatitude(), request.getLongitude(), occurredAt, now, idempotencyKey)), false).isEmpty()) {
+                log.info("Report linked to existing incident: id={}", existing.get().getId());
+                
+                IncidentDTO linked = convertToDTO(existing.get());
+                if (idempotencyKey != null) {
+                    idempotencyStore.save(IDEMPOTENCY_SCOPE, idempotencyKey, fingerprint, HttpStatus.OK.value(), linked);
+                }
+                return new CreatedIncident(linked, true);
+            }
+            
             Incident incident = new Incident();
             incident.setTitle(request.getTitle());
             incident.setDescription(request.getDescription());
@@ -124,25 +309,84 @@ public class IncidentService {
             
             Incident saved = incidentRepository.save(incident);
             log.info("Incident created successfully: id={}", saved.getId());
+            deduplicator.register(saved.getIncidentType(), saved.getId(), idempotencyKey,
+                request.getLatitude(), request.getLongitude(), saved.getOccurredAt());
             
-            return convertToDTO(saved);
+            IncidentDTO created = convertToDTO(saved);
+            if (idempotencyKey != null) {
+                idempotencyStore.save(IDEMPOTENCY_SCOPE, idempotencyKey, fingerprint, HttpStatus.CREATED.value(), created);
+            }
+            return new CreatedIncident(created, false);
+        } catch (IdempotencyConflictException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error creating incident", e);
             throw new RuntimeException("Failed to create incident: " + e.getMessage());
         }
     }
     
-    public IncidentDTO updateIncidentStatus(Long id, String status) {
+    /**
+     * Moves one incident to {@code status} in a single UPDATE ... RETURNING.
+     * When {@code expectedVersion} is given the update only applies if the
+     * incident has not changed since the caller read that version.
+     */
+    public IncidentDTO updateIncidentStatus(Long id, IncidentStatus status, Long expectedVersion) {
         log.info("Updating incident status: id={}, status={}", id, status);
         
-        Incident incident = incidentRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Incident not found with id: " + id));
+        Optional<IncidentDTO> updated = statusRepository.updateStatus(id, status, expectedVersion);
+        if (updated.isPresent()) {
+            incidentsById.evict(List.of(id));
+            log.info("Incident status updated successfully: id={}", id);
+            return updated.get();
+        }
+        
+        // Not applied; read the row only now to report why
+        IncidentStatusRepository.CurrentStatus current = statusRepository.findCurrent(List.of(id)).get(id);
+        if (current == null) {
+            throw new IncidentNotFoundException(id);
+        }
+        if (expectedVersion != null && current.changeVersion() != expectedVersion) {
+            throw new StaleIncidentVersionException(id, expectedVersion, current.changeVersion());
+        }
+        if (status.name().equals(current.status())) {
+            return getIncidentById(id);
+        }
+        throw new InvalidStatusTransitionException(id, current.status(), status.name());
+    }
+    
+    /**
+     * Moves many incidents to {@code status} in one statement. Incidents
+     * already there are reported as unchanged; those whose status cannot move
+     * to it are rejected individually without failing the rest.
+     */
+    public BulkStatusUpdateResult updateIncidentStatuses(List<Long> ids, IncidentStatus status) {
+        log.info("Updating status of {} incident(s) to {}", ids.size(), status);
+        List<Long> distinctIds = ids.stream().distinct().toList();
         
-        incident.setStatus(status);
-        Incident updated = incidentRepository.save(incident);
+        List<Long> updatedIds = statusRepository.updateStatuses(distinctIds, status);
+        incidentsById.evict(updatedIds);
+        List<Long> unchangedIds = new ArrayList<>();
+        Map<Long, String> rejected = new LinkedHashMap<>();
+        List<Long> notFoundIds = new ArrayList<>();
         
-        log.info("Incident status updated successfully: id={}", updated.getId());
-        return convertToDTO(updated);
+        if (updatedIds.size() < distinctIds.size()) {
+            Set<Long> updatedSet = new HashSet<>(updatedIds);
+            List<Long> remaining = distinctIds.stream().filter(id -> !updatedSet.contains(id)).toList();
+            Map<Long, IncidentStatusRepository.CurrentStatus> current = statusRepository.findCurrent(remaining);
+            for (Long id : remaining) {
+                IncidentStatusRepository.CurrentStatus row = current.get(id);
+                if (row == null) {
+                    notFoundIds.add(id);
+                } else if (status.name().equals(row.status())) {
+                    unchangedIds.add(id);
+                } else {
+                    rejected.put(id, row.status());
+                }
+            }
+        }
+        log.info("Bulk status update to {}: {} updated, {} unchanged, {} rejected, {} not found",
+            status, updatedIds.size(), unchangedIds.size(), rejected.size(), notFoundIds.size());
+        return new BulkStatusUpdateResult(status.name(), updatedIds, unchangedIds, rejected, notFoundIds);
     }
     
     public void deleteIncident(Long id) {
@@ -153,6 +397,7 @@ public class IncidentService {
         }
         
         incidentRepository.deleteById(id);
+        incidentsById.evict(List.of(id));
         log.info("Incident deleted successfully: id={}", id);
     }
     
@@ -177,7 +422,7 @@ public class IncidentService {
                 );
             }
             
-            return new IncidentDTO(
+            IncidentDTO dto = new IncidentDTO(
                 incident.getId(),
                 incident.getTitle(),
                 incident.getDescription(),
@@ -189,6 +434,8 @@ public class IncidentService {
                 incident.getOccurredAt(),
                 incident.getStatus()
             );
+            dto.setChangeVersion(incident.getChangeVersion());
+            return dto;
         } catch (Exception e) {
             log.error("Error converting incident to DTO: id={}, error={}", 
                      incident != null ? incident.getId() : "null", e.getMessage());
@@ -207,4 +454,7 @@ public class IncidentService {
             );
         }
     }
+    
+    /** Result of a create: the new incident, or the existing one a duplicate report was linked to. */
+    public record CreatedIncident(IncidentDTO incident, boolean linked) {}
 }
@@ -0,0 +1,169 @@
+-- Databases created from the original init.sql are baselined as version 1
+-- although they predate every table and column later added to init.sql alone:
+-- occurrence time, status, change tracking, idempotency keys, the status
+-- history, repeat reports, the shared idempotency and audit tables. Status and
+-- its history are added already encoded as ids, so the result is the same
+-- whether 1.2 runs after this or already ran. Everything checks for the object
+-- first, so this is a no-op on a database created from the current init.sql,
+-- and leaves the text status of a database from in between to 1.1 and 1.2.
+ALTER TABLE incidents ADD COLUMN IF NOT EXISTS occurred_at TIMESTAMP WITH TIME ZONE;
+ALTER TABLE incidents ADD COLUMN IF NOT EXISTS idempotency_key VARCHAR(64) UNIQUE;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema()
+                     AND table_name = 'incidents' AND column_name = 'change_version') THEN
+        ALTER TABLE incidents ADD COLUMN change_version BIGINT;
+        UPDATE incidents SET change_version = txid_current();
+        ALTER TABLE incidents ALTER COLUMN change_version SET NOT NULL;
+    END IF;
+    
+    -- Existing rows were never given a status; they start out REPORTED
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema()
+                     AND table_name = 'incidents' AND column_name IN ('status', 'status_id')) THEN
+        CREATE TABLE IF NOT EXISTS incident_statuses (
+            id SMALLINT PRIMARY KEY,
+            name VARCHAR(50) UNIQUE NOT NULL
+        );
+        
+        INSERT INTO incident_statuses (id, name) VALUES
+        (1, 'REPORTED'), (2, 'DISPATCHED'), (3, 'IN_PROGRESS'), (4, 'RESOLVED'), (5, 'CLOSED')
+        ON CONFLICT DO NOTHING;
+        
+        ALTER TABLE incidents ADD COLUMN status_id SMALLINT NOT NULL DEFAULT 1
+            REFERENCES incident_statuses(id);
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS incidents_change_version_idx ON incidents (change_version);
+
+CREATE TABLE IF NOT EXISTS incident_tombstones (
+    incident_id INT PRIMARY KEY,
+    location GEOMETRY(Point, 4326),
+    change_version BIGINT NOT NULL,
+    deleted_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS incident_tombstones_change_version_idx ON incident_tombstones (change_version);
+
+CREATE OR REPLACE FUNCTION incidents_set_change_version() RETURNS trigger AS $$
+BEGIN
+    NEW.change_version := txid_current();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE TRIGGER incidents_change_version BEFORE INSERT OR UPDATE ON incidents
+    FOR EACH ROW EXECUTE FUNCTION incidents_set_change_version();
+
+CREATE OR REPLACE FUNCTION incidents_record_tombstone() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO incident_tombstones (incident_id, location, change_version)
+    VALUES (OLD.id, OLD.location, txid_current())
+    ON CONFLICT (incident_id) DO UPDATE SET change_version = EXCLUDED.change_version;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE TRIGGER incidents_tombstone AFTER DELETE ON incidents
+    FOR EACH ROW EXECUTE FUNCTION incidents_record_tombstone();
+
+CREATE OR REPLACE FUNCTION reject_append_only_change() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION '% is append-only', TG_TABLE_NAME;
+END;
+$$ LANGUAGE plpgsql;
+
+-- The status history, with a creation event for every existing incident so
+-- their timelines are not empty. A database without it has no text status
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.tables
+                   WHERE table_schema = current_schema() AND table_name = 'incident_events') THEN
+        CREATE TABLE incident_events (
+            id BIGSERIAL PRIMARY KEY,
+            incident_id INT NOT NULL,
+            from_status_id SMALLINT REFERENCES incident_statuses(id),
+            to_status_id SMALLINT NOT NULL REFERENCES incident_statuses(id),
+            occurred_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+            change_version BIGINT NOT NULL
+        );
+        
+        CREATE INDEX incident_events_incident_id_idx ON incident_events (incident_id, id);
+        CREATE INDEX incident_events_change_version_idx ON incident_events (change_version, id);
+        
+        INSERT INTO incident_events (incident_id, to_status_id, occurred_at, change_version)
+        SELECT id, status_id, COALESCE(created_at, CURRENT_TIMESTAMP), change_version
+        FROM incidents ORDER BY id;
+        
+        CREATE TRIGGER incident_events_append_only BEFORE UPDATE OR DELETE ON incident_events
+            FOR EACH ROW EXECUTE FUNCTION reject_append_only_change();
+        
+        CREATE OR REPLACE FUNCTION incidents_record_status_event() RETURNS trigger AS $fn$
+        BEGIN
+            INSERT INTO incident_events (incident_id, from_status_id, to_status_id, change_version)
+            VALUES (NEW.id, CASE WHEN TG_OP = 'UPDATE' THEN OLD.status_id END, NEW.status_id, txid_current());
+            RETURN NULL;
+        END;
+        $fn$ LANGUAGE plpgsql;
+        
+        CREATE TRIGGER incidents_status_event_insert AFTER INSERT ON incidents
+            FOR EACH ROW EXECUTE FUNCTION incidents_record_status_event();
+        
+        CREATE TRIGGER incidents_status_event_update AFTER UPDATE OF status_id ON incidents
+            FOR EACH ROW WHEN (OLD.status_id IS DISTINCT FROM NEW.status_id)
+            EXECUTE FUNCTION incidents_record_status_event();
+    END IF;
+END $$;
+
+CREATE TABLE IF NOT EXISTS incident_reports (
+    id SERIAL PRIMARY KEY,
+    incident_id INT NOT NULL REFERENCES incidents(id) ON DELETE CASCADE,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    reported_by INT REFERENCES users(id),
+    location GEOMETRY(Point, 4326) NOT NULL,
+    occurred_at TIMESTAMP WITH TIME ZONE,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    idempotency_key VARCHAR(64) UNIQUE
+);
+
+CREATE INDEX IF NOT EXISTS incident_reports_incident_id_idx ON incident_reports (incident_id);
+
+-- Shared with user-service, whose own catch-up creates them if it runs first
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    scope VARCHAR(50) NOT NULL,
+    idempotency_key VARCHAR(64) NOT NULL,
+    status_code SMALLINT NOT NULL,
+    response_body TEXT,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (scope, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_keys_expires_at_idx ON idempotency_keys (expires_at);
+
+CREATE TABLE IF NOT EXISTS audit_log (
+    chain_id UUID NOT NULL,
+    seq BIGINT NOT NULL,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    service VARCHAR(50) NOT NULL,
+    actor_id INT,
+    action VARCHAR(10) NOT NULL,
+    resource_type VARCHAR(20) NOT NULL,
+    resource_id VARCHAR(100),
+    route VARCHAR(255) NOT NULL,
+    status_code SMALLINT NOT NULL,
+    client_address VARCHAR(64),
+    prev_hash BYTEA NOT NULL,
+    hash BYTEA NOT NULL,
+    PRIMARY KEY (chain_id, seq)
+);
+
+CREATE INDEX IF NOT EXISTS audit_log_occurred_at_idx ON audit_log (occurred_at);
+CREATE INDEX IF NOT EXISTS audit_log_actor_id_idx ON audit_log (actor_id, occurred_at);
+
+CREATE OR REPLACE TRIGGER audit_log_append_only BEFORE UPDATE OR DELETE ON audit_log
+    FOR EACH ROW EXECUTE FUNCTION reject_append_only_change();
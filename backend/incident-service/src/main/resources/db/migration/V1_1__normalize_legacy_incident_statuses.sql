@@ -0,0 +1,40 @@
+-- Databases created before statuses had transition rules hold whatever text
+-- clients sent as status. A status update only applies to rows in one of the
+-- allowed previous statuses, so such rows could never be moved again. Map the
+-- common free-form values onto the lifecycle and anything unknown to
+-- REPORTED, from which every other status can be reached.
+-- A database created from the current init.sql has no status text column, so
+-- this is a no-op there. Runs before V2, whose indexes need the encoded columns.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema()
+                 AND table_name = 'incidents' AND column_name = 'status') THEN
+        UPDATE incidents
+        SET status = CASE upper(regexp_replace(btrim(status), '[[:space:]-]+', '_', 'g'))
+                WHEN 'REPORTED' THEN 'REPORTED'
+                WHEN 'OPEN' THEN 'REPORTED'
+                WHEN 'NEW' THEN 'REPORTED'
+                WHEN 'PENDING' THEN 'REPORTED'
+                WHEN 'DISPATCHED' THEN 'DISPATCHED'
+                WHEN 'ASSIGNED' THEN 'DISPATCHED'
+                WHEN 'EN_ROUTE' THEN 'DISPATCHED'
+                WHEN 'IN_PROGRESS' THEN 'IN_PROGRESS'
+                WHEN 'INPROGRESS' THEN 'IN_PROGRESS'
+                WHEN 'ACTIVE' THEN 'IN_PROGRESS'
+                WHEN 'ONGOING' THEN 'IN_PROGRESS'
+                WHEN 'ON_SCENE' THEN 'IN_PROGRESS'
+                WHEN 'RESOLVED' THEN 'RESOLVED'
+                WHEN 'DONE' THEN 'RESOLVED'
+                WHEN 'COMPLETED' THEN 'RESOLVED'
+                WHEN 'CLOSED' THEN 'CLOSED'
+                WHEN 'CANCELLED' THEN 'CLOSED'
+                WHEN 'CANCELED' THEN 'CLOSED'
+                WHEN 'ARCHIVED' THEN 'CLOSED'
+                WHEN 'DUPLICATE' THEN 'CLOSED'
+                ELSE 'REPORTED'
+            END
+        WHERE status IS NULL
+           OR status NOT IN ('REPORTED', 'DISPATCHED', 'IN_PROGRESS', 'RESOLVED', 'CLOSED');
+    END IF;
+END $$;
@@ -0,0 +1,111 @@
+-- Incidents store smallint ids into lookup tables instead of the type,
+-- priority and status text (see init.sql). Brings a database created before
+-- that change over: fills the lookup tables, adds and populates the id
+-- columns, drops the text columns and points the status history trigger at
+-- status_id. Every step checks for the old column first, so this is a no-op on
+-- a database created from the current init.sql. Runs after 1.1 has mapped
+-- legacy statuses and before V2, whose indexes need the id columns.
+CREATE TABLE IF NOT EXISTS incident_priorities (
+    id SMALLINT PRIMARY KEY,
+    name VARCHAR(20) UNIQUE NOT NULL
+);
+
+INSERT INTO incident_priorities (id, name) VALUES
+(1, 'LOW'), (2, 'MEDIUM'), (3, 'HIGH'), (4, 'CRITICAL')
+ON CONFLICT DO NOTHING;
+
+CREATE TABLE IF NOT EXISTS incident_statuses (
+    id SMALLINT PRIMARY KEY,
+    name VARCHAR(50) UNIQUE NOT NULL
+);
+
+INSERT INTO incident_statuses (id, name) VALUES
+(1, 'REPORTED'), (2, 'DISPATCHED'), (3, 'IN_PROGRESS'), (4, 'RESOLVED'), (5, 'CLOSED')
+ON CONFLICT DO NOTHING;
+
+CREATE TABLE IF NOT EXISTS incident_types (
+    id SMALLSERIAL PRIMARY KEY,
+    name VARCHAR(100) UNIQUE NOT NULL
+);
+
+DO $$
+DECLARE
+    had_status_text BOOLEAN;
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema()
+                 AND table_name = 'incidents' AND column_name = 'incident_type') THEN
+        INSERT INTO incident_types (name)
+        SELECT DISTINCT incident_type FROM incidents WHERE incident_type IS NOT NULL
+        ORDER BY incident_type
+        ON CONFLICT DO NOTHING;
+        
+        ALTER TABLE incidents ADD COLUMN incident_type_id SMALLINT REFERENCES incident_types(id);
+        UPDATE incidents i SET incident_type_id = t.id
+        FROM incident_types t WHERE t.name = i.incident_type;
+        ALTER TABLE incidents DROP COLUMN incident_type;
+    END IF;
+    
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema()
+                 AND table_name = 'incidents' AND column_name = 'priority') THEN
+        ALTER TABLE incidents ADD COLUMN priority_id SMALLINT REFERENCES incident_priorities(id);
+        -- The priority column was a PostgreSQL enum of these same names; any
+        -- other text left by a hand-made schema becomes MEDIUM
+        UPDATE incidents i SET priority_id = COALESCE(
+            (SELECT p.id FROM incident_priorities p WHERE p.name = upper(btrim(i.priority::text))), 2);
+        ALTER TABLE incidents ALTER COLUMN priority_id SET NOT NULL;
+        ALTER TABLE incidents DROP COLUMN priority;
+        DROP TYPE IF EXISTS incident_priority;
+    END IF;
+    
+    had_status_text := EXISTS (SELECT 1 FROM information_schema.columns
+                                 WHERE table_schema = current_schema()
+                                   AND table_name = 'incidents' AND column_name = 'status');
+    IF had_status_text THEN
+        DROP TRIGGER IF EXISTS incidents_status_event_update ON incidents;
+        
+        ALTER TABLE incidents ADD COLUMN status_id SMALLINT NOT NULL DEFAULT 1
+            REFERENCES incident_statuses(id);
+        UPDATE incidents i SET status_id = s.id
+        FROM incident_statuses s WHERE s.name = i.status;
+        ALTER TABLE incidents DROP COLUMN status;
+    END IF;
+    
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema()
+                 AND table_name = 'incident_events' AND column_name = 'to_status') THEN
+        -- History is append-only; this rewrite is the one exception
+        ALTER TABLE incident_events DISABLE TRIGGER incident_events_append_only;
+        
+        ALTER TABLE incident_events
+            ADD COLUMN from_status_id SMALLINT REFERENCES incident_statuses(id),
+            ADD COLUMN to_status_id SMALLINT REFERENCES incident_statuses(id);
+        -- Text outside the lifecycle, from before 1.1 mapped it, becomes
+        -- REPORTED like 1.1 did. A null from_status marks a creation event
+        -- and must stay null only for those
+        UPDATE incident_events e SET
+            from_status_id = CASE WHEN e.from_status IS NOT NULL THEN COALESCE(
+                (SELECT s.id FROM incident_statuses s WHERE s.name = e.from_status), 1) END,
+            to_status_id = COALESCE((SELECT s.id FROM incident_statuses s WHERE s.name = e.to_status), 1);
+        ALTER TABLE incident_events ALTER COLUMN to_status_id SET NOT NULL;
+        ALTER TABLE incident_events DROP COLUMN from_status, DROP COLUMN to_status;
+        
+        ALTER TABLE incident_events ENABLE TRIGGER incident_events_append_only;
+    END IF;
+    
+    IF had_status_text
+       AND EXISTS (SELECT 1 FROM pg_proc WHERE proname = 'incidents_record_status_event') THEN
+        CREATE OR REPLACE FUNCTION incidents_record_status_event() RETURNS trigger AS $fn$
+        BEGIN
+            INSERT INTO incident_events (incident_id, from_status_id, to_status_id, change_version)
+            VALUES (NEW.id, CASE WHEN TG_OP = 'UPDATE' THEN OLD.status_id END, NEW.status_id, txid_current());
+            RETURN NULL;
+        END;
+        $fn$ LANGUAGE plpgsql;
+        
+        CREATE TRIGGER incidents_status_event_update AFTER UPDATE OF status_id ON incidents
+            FOR EACH ROW WHEN (OLD.status_id IS DISTINCT FROM NEW.status_id)
+            EXECUTE FUNCTION incidents_record_status_event();
+    END IF;
+END $$;
@@ -0,0 +1,30 @@
+-- Indexes for the incident repository queries. init.sql is baseline version 1.
+-- CONCURRENTLY keeps incidents writable while an index builds; Flyway runs a
+-- migration made only of such statements outside a transaction.
+
+-- findByReportedBy; anonymous reports have no reporter and are never looked up
+CREATE INDEX CONCURRENTLY IF NOT EXISTS incidents_reported_by_idx
+    ON incidents (reported_by) WHERE reported_by IS NOT NULL;
+
+-- findByIncidentType and findByTypeAndPriority, and the analytics heatmap
+-- points filtered by type over a time range
+CREATE INDEX CONCURRENTLY IF NOT EXISTS incidents_type_occurred_at_idx
+    ON incidents (incident_type_id, occurred_at) WHERE incident_type_id IS NOT NULL;
+
+-- findByPriority
+CREATE INDEX CONCURRENTLY IF NOT EXISTS incidents_priority_idx
+    ON incidents (priority_id);
+
+-- findByDateRange, the export range, the duplicate index warm-up and the
+-- analytics heatmap points. Rows from before occurred_at existed have none
+CREATE INDEX CONCURRENTLY IF NOT EXISTS incidents_occurred_at_idx
+    ON incidents (occurred_at) WHERE occurred_at IS NOT NULL;
+
+-- The analytics incident feed, read in (created_at, id) order
+CREATE INDEX CONCURRENTLY IF NOT EXISTS incidents_created_at_idx
+    ON incidents (created_at, id);
+
+-- findNearLocation measures in meters on location::geography, which the
+-- geometry index on location cannot serve
+CREATE INDEX CONCURRENTLY IF NOT EXISTS incidents_location_geography_idx
+    ON incidents USING GIST ((location::geography));
@@ -0,0 +1,7 @@
+-- Async intake submissions the writer could not insert, so clients polling
+-- their key learn the submission was rejected instead of waiting forever
+CREATE TABLE IF NOT EXISTS incident_intake_rejections (
+    idempotency_key VARCHAR(64) PRIMARY KEY,
+    reason TEXT NOT NULL,
+    rejected_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,4 @@
+-- Fingerprint of the request each key was first used with, so reusing a key
+-- for a different request is rejected instead of replaying the other response.
+-- Both services migrate this shared table; whichever runs first adds it
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS request_fingerprint CHAR(64);
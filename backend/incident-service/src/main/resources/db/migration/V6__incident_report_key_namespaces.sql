@@ -0,0 +1,15 @@
+-- Async and synchronous submissions keep separate Idempotency-Key namespaces
+-- in incident_reports, so GET /async/{key} only finds reports the intake
+-- writer linked and the same key used on both paths links both reports.
+ALTER TABLE incident_reports ADD COLUMN IF NOT EXISTS async BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Synchronous keys still in idempotency_keys are known; older reports keep
+-- the visibility they had
+UPDATE incident_reports r SET async = TRUE
+WHERE r.idempotency_key IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM idempotency_keys k
+                  WHERE k.scope = 'incidents' AND k.idempotency_key = r.idempotency_key);
+
+ALTER TABLE incident_reports DROP CONSTRAINT IF EXISTS incident_reports_idempotency_key_key;
+CREATE UNIQUE INDEX IF NOT EXISTS incident_reports_idempotency_key_async_idx
+    ON incident_reports (idempotency_key, async);
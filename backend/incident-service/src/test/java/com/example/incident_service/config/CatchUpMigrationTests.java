@@ -0,0 +1,136 @@
+package com.example.incident_service.config;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Migrates a database created from the original init.sql and one created from
+ * the current init.sql, and checks they end up with the same schema. Tables
+ * geographic-service migrates itself are left out. Skipped when Docker is
+ * unavailable.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CatchUpMigrationTests {
+    
+    private static final DockerImageName POSTGIS =
+        DockerImageName.parse("postgis/postgis:15-3.3").asCompatibleSubstituteFor("postgres");
+    
+    private static final String OTHER_SERVICES_TABLES = "'geofences', 'officer_positions'";
+    
+    @Container
+    static final PostgreSQLContainer<?> original = new PostgreSQLContainer<>(POSTGIS)
+        .withDatabaseName("nisircop")
+        .withCopyFileToContainer(MountableFile.forClasspathResource("db/original-init.sql"),
+            "/docker-entrypoint-initdb.d/init.sql");
+    
+    @Container
+    static final PostgreSQLContainer<?> current = new PostgreSQLContainer<>(POSTGIS)
+        .withDatabaseName("nisircop")
+        .withCopyFileToContainer(MountableFile.forHostPath("../../database/init.sql"),
+            "/docker-entrypoint-initdb.d/init.sql");
+    
+    private JdbcTemplate originalDb;
+    private JdbcTemplate currentDb;
+    
+    @BeforeAll
+    void migrate() {
+        originalDb = new JdbcTemplate(migrated(original));
+        currentDb = new JdbcTemplate(migrated(current));
+    }
+    
+    /** Migrates the way the service does at startup (see application.properties). */
+    private static DataSource migrated(PostgreSQLContainer<?> postgres) {
+        DataSource dataSource = new DriverManagerDataSource(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure()
+            .dataSource(dataSource)
+            .table("incident_schema_history")
+            .baselineOnMigrate(true)
+            .baselineVersion("1")
+            .outOfOrder(true)
+            .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+            .load()
+            .migrate();
+        return dataSource;
+    }
+    
+    @Test
+    void columnsMatch() {
+        assertSame("""
+            SELECT table_name, column_name, data_type, character_maximum_length, is_nullable,
+                   regexp_replace(column_default, 'nextval.*', 'nextval')
+            FROM information_schema.columns
+            WHERE table_schema = 'public' AND table_name NOT LIKE '%schema_history'
+              AND table_name NOT IN (""" + OTHER_SERVICES_TABLES + """
+            ) ORDER BY 1, 2
+            """);
+    }
+    
+    @Test
+    void indexesAndConstraintsMatch() {
+        assertSame("""
+            SELECT tablename, regexp_replace(indexdef, 'INDEX \\S+ ON', 'INDEX ON')
+            FROM pg_indexes
+            WHERE schemaname = 'public' AND tablename NOT LIKE '%schema_history'
+              AND tablename NOT IN (""" + OTHER_SERVICES_TABLES + """
+            ) ORDER BY 1, 2
+            """);
+        assertSame("""
+            SELECT conrelid::regclass::text, contype, pg_get_constraintdef(oid)
+            FROM pg_constraint
+            WHERE connamespace = 'public'::regnamespace AND conrelid <> 0
+              AND conrelid::regclass::text NOT LIKE '%schema_history'
+              AND conrelid::regclass::text NOT IN (""" + OTHER_SERVICES_TABLES + """
+            ) ORDER BY 1, 2, 3
+            """);
+    }
+    
+    @Test
+    void triggersAndFunctionsMatch() {
+        assertSame("""
+            SELECT event_object_table, trigger_name, action_timing, event_manipulation,
+                   action_statement, action_condition
+            FROM information_schema.triggers
+            WHERE trigger_schema = 'public'
+            ORDER BY 1, 2, 4
+            """);
+        assertSame("""
+            SELECT proname, regexp_replace(prosrc, '\\s+', ' ', 'g')
+            FROM pg_proc p JOIN pg_namespace n ON n.oid = p.pronamespace
+            WHERE n.nspname = 'public' AND p.prolang = (SELECT oid FROM pg_language WHERE lanname = 'plpgsql')
+            ORDER BY 1
+            """);
+    }
+    
+    @Test
+    void originalIncidentsGetAStatusAndHistory() {
+        assertEquals(List.of(Map.of("status", "REPORTED", "events", 1L)), originalDb.queryForList("""
+            SELECT DISTINCT s.name AS status, (SELECT count(*) FROM incident_events e WHERE e.incident_id = i.id) AS events
+            FROM incidents i JOIN incident_statuses s ON s.id = i.status_id
+            """));
+        
+        originalDb.update("UPDATE incidents SET status_id = 2 WHERE id = 1");
+        assertEquals(List.of(Map.of("from_status_id", 1, "to_status_id", 2)), originalDb.queryForList(
+            "SELECT from_status_id, to_status_id FROM incident_events WHERE incident_id = 1 AND from_status_id IS NOT NULL"));
+    }
+    
+    private void assertSame(String sql) {
+        assertEquals(currentDb.queryForList(sql), originalDb.queryForList(sql), sql);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.incident_service.dedup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncidentDeduplicatorTests {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 10, 30);
+    
+    private final ReportTable table = new ReportTable(Set.of(1L));
+    private final IncidentDeduplicator deduplicator = new IncidentDeduplicator(150, 15);
+    
+    IncidentDeduplicatorTests() {
+        ReflectionTestUtils.setField(deduplicator, "jdbcTemplate", table);
+    }
+    
+    @Test
+    void asyncAndSynchronousKeysAreSeparateNamespaces() {
+        assertTrue(deduplicator.linkReports(List.of(report(1L, "key-1")), false).isEmpty());
+        assertTrue(deduplicator.linkReports(List.of(report(1L, "key-1")), true).isEmpty());
+        
+        assertEquals(Set.of("key-1|false", "key-1|true"), table.stored);
+    }
+    
+    @Test
+    void aSynchronousReportDoesNotCountAsAnAsyncOne() {
+        deduplicator.linkReports(List.of(report(1L, "key-1")), false);
+        
+        // The async report's original is gone; the synchronous row must not hide that
+        List<IncidentDeduplicator.LinkedReport> unlinked = deduplicator.linkReports(List.of(report(2L, "key-1")), true);
+        
+        assertEquals(1, unlinked.size());
+        assertEquals(Set.of("key-1|false"), table.stored);
+    }
+    
+    @Test
+    void aRetriedAsyncReportIsStoredOnce() {
+        deduplicator.linkReports(List.of(report(1L, "key-1")), true);
+        
+        assertTrue(deduplicator.linkReports(List.of(report(1L, "key-1")), true).isEmpty());
+        assertEquals(Set.of("key-1|true"), table.stored);
+    }
+    
+    private static IncidentDeduplicator.LinkedReport report(long originalId, String key) {
+        return new IncidentDeduplicator.LinkedReport(new RecentIncidentIndex.Entry(originalId, null, 9.03, 38.74, 0),
+            "Fire", null, null, 9.03, 38.74, NOW, NOW, key);
+    }
+    
+    /** incident_reports with its (idempotency_key, async) uniqueness, over the given incidents. */
+    private static class ReportTable extends JdbcTemplate {
+        
+        final Set<String> stored = new HashSet<>();
+        private final Set<Long> incidents;
+        
+        ReportTable(Set<Long> incidents) {
+            this.incidents = incidents;
+        }
+        
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> setter) {
+            assertTrue(sql.contains("ON CONFLICT (idempotency_key, async)"));
+            for (T report : batchArgs) {
+                Map<Integer, Object> values = new HashMap<>();
+                try {
+                    setter.setValues(statement(values), report);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (incidents.contains((Long) values.get(10))) {
+                    stored.add(values.get(8) + "|" + values.get(9));
+                }
+            }
+            return new int[0][];
+        }
+        
+        @Override
+        public void query(PreparedStatementCreator creator, RowCallbackHandler handler) {
+            Map<Integer, Object> values = new HashMap<>();
+            try {
+                creator.createPreparedStatement(connection(statement(values)));
+                for (Object key : (Object[]) ((Array) values.get(1)).getArray()) {
+                    if (stored.contains(key + "|" + values.get(2))) {
+                        handler.processRow((ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                            new Class<?>[] {ResultSet.class}, (proxy, method, args) -> key));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        
+        private static PreparedStatement statement(Map<Integer, Object> values) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    values.put((int) args[0], args[1]);
+                    return null;
+                });
+        }
+        
+        private static Connection connection(PreparedStatement ps) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "createArrayOf" -> Proxy.newProxyInstance(Array.class.getClassLoader(),
+                        new Class<?>[] {Array.class}, (array, arrayMethod, arrayArgs) -> args[1]);
+                    default -> ps;
+                });
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.incident_service.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RecentIncidentIndexTests {
+    
+    private static final long WINDOW = 15 * 60_000L;
+    private static final long NOW = 1_700_000_000_000L;
+    
+    @Test
+    void findsTheNearestSameTypeIncidentInRadiusAndWindow() {
+        RecentIncidentIndex index = new RecentIncidentIndex(150, WINDOW);
+        index.add("FIRE", new RecentIncidentIndex.Entry(1L, null, 9.0300, 38.7400, NOW));
+        index.add("FIRE", new RecentIncidentIndex.Entry(2L, null, 9.0305, 38.7400, NOW));
+        
+        assertEquals(2L, index.findDuplicate("FIRE", 9.0306, 38.7400, NOW + 60_000, null).incidentId());
+        assertNull(index.findDuplicate("THEFT", 9.0306, 38.7400, NOW, null));
+        assertNull(index.findDuplicate("FIRE", 9.0400, 38.7400, NOW, null));
+        assertNull(index.findDuplicate("FIRE", 9.0306, 38.7400, NOW + WINDOW + 1, null));
+    }
+    
+    @Test
+    void ignoresItsOwnKeyAndForgetsRemovedSubmissions() {
+        RecentIncidentIndex index = new RecentIncidentIndex(150, WINDOW);
+        RecentIncidentIndex.Entry pending = new RecentIncidentIndex.Entry(null, "key-1", 9.03, 38.74, NOW);
+        index.add("FIRE", pending);
+        index.add("FIRE", new RecentIncidentIndex.Entry(null, "key-2", 9.03, 38.74, NOW));
+        
+        assertEquals("key-2", index.findDuplicate("FIRE", 9.03, 38.74, NOW, "key-1").idempotencyKey());
+        index.remove("FIRE", new RecentIncidentIndex.Entry(null, "key-2", 9.03, 38.74, NOW));
+        assertNull(index.findDuplicate("FIRE", 9.03, 38.74, NOW, "key-1"));
+        
+        index.remove("FIRE", pending);
+        assertNull(index.findDuplicate("FIRE", 9.03, 38.74, NOW, null));
+        assertEquals(0, index.cellCount());
+    }
+    
+    @Test
+    void evictsOldTimeBuckets() {
+        RecentIncidentIndex index = new RecentIncidentIndex(150, WINDOW);
+        index.add("FIRE", new RecentIncidentIndex.Entry(1L, null, 9.03, 38.74, NOW));
+        index.evictBefore(NOW + 3 * WINDOW);
+        assertNull(index.findDuplicate("FIRE", 9.03, 38.74, NOW, null));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.incident_service.dictionary;
+
+import com.example.incident_service.entity.IncidentPriority;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IncidentPriorityConverterTests {
+    
+    private final IncidentPriorityConverter converter = new IncidentPriorityConverter();
+    
+    @Test
+    void everyPriorityIsStoredAsItsSeededId() throws IOException {
+        Map<String, Short> seeded = seededRows("incident_priorities");
+        
+        assertEquals(IncidentPriority.values().length, seeded.size());
+        for (IncidentPriority priority : IncidentPriority.values()) {
+            assertEquals(seeded.get(priority.name()), converter.convertToDatabaseColumn(priority.name()));
+            assertEquals(priority.name(), converter.convertToEntityAttribute(seeded.get(priority.name())));
+        }
+    }
+    
+    @Test
+    void nullStaysNull() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+    
+    /** The (id, name) rows the dictionary migration inserts into a lookup table. */
+    static Map<String, Short> seededRows(String table) throws IOException {
+        String sql;
+        try (InputStream in = IncidentPriorityConverterTests.class
+                .getResourceAsStream("/db/migration/V1_2__dictionary_encode_incidents.sql")) {
+            sql = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        int start = sql.indexOf("INSERT INTO " + table + " ");
+        String values = sql.substring(start, sql.indexOf(';', start));
+        Map<String, Short> rows = new LinkedHashMap<>();
+        Matcher row = Pattern.compile("\\((\\d+), '(\\w+)'\\)").matcher(values);
+        while (row.find()) {
+            rows.put(row.group(2), Short.valueOf(row.group(1)));
+        }
+        return rows;
+    }
+}
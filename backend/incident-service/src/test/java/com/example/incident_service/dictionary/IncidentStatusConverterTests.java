@@ -0,0 +1,32 @@
+package com.example.incident_service.dictionary;
+
+import com.example.incident_service.entity.IncidentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IncidentStatusConverterTests {
+    
+    private final IncidentStatusConverter converter = new IncidentStatusConverter();
+    
+    @Test
+    void everyStatusIsStoredAsItsSeededId() throws IOException {
+        Map<String, Short> seeded = IncidentPriorityConverterTests.seededRows("incident_statuses");
+        
+        assertEquals(IncidentStatus.values().length, seeded.size());
+        for (IncidentStatus status : IncidentStatus.values()) {
+            assertEquals(seeded.get(status.name()), converter.convertToDatabaseColumn(status.name()));
+            assertEquals(status.name(), converter.convertToEntityAttribute(seeded.get(status.name())));
+        }
+    }
+    
+    @Test
+    void nullStaysNull() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.incident_service.dictionary;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IncidentTypeDictionaryTests {
+    
+    private final TypeTable table = new TypeTable();
+    private final List<Integer> propagations = new ArrayList<>();
+    private final IncidentTypeDictionary dictionary = new IncidentTypeDictionary(table, new PlatformTransactionManager() {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            propagations.add(definition.getPropagationBehavior());
+            return new SimpleTransactionStatus();
+        }
+        
+        @Override
+        public void commit(TransactionStatus status) {}
+        
+        @Override
+        public void rollback(TransactionStatus status) {}
+    });
+    
+    IncidentTypeDictionaryTests() {
+        table.rows.put((short) 1, "Theft");
+        table.rows.put((short) 2, "Fire");
+    }
+    
+    @Test
+    void everyRowOfATypeSharesOneName() {
+        String first = dictionary.name((short) 1);
+        
+        assertEquals("Theft", first);
+        assertSame(first, dictionary.name((short) 1));
+        assertEquals(1, table.queries);
+        assertNull(dictionary.name(null));
+    }
+    
+    @Test
+    void nameMissesReloadTheTableAtMostOncePerInterval() {
+        assertEquals((short) 2, dictionary.find("Fire"));
+        assertNull(dictionary.find("Flood"));
+        assertNull(dictionary.find("Flood"));
+        
+        // Both types came with the first reload; the misses did not reload again
+        assertEquals(1, table.queries);
+        assertEquals("Theft", dictionary.name((short) 1));
+        assertEquals(1, table.queries);
+    }
+    
+    @Test
+    void aNewTypeIsAddedInItsOwnTransaction() {
+        Short id = dictionary.getOrCreate("Flood");
+        
+        assertEquals((short) 3, id);
+        assertEquals(List.of(TransactionDefinition.PROPAGATION_REQUIRES_NEW), propagations);
+        assertEquals(id, dictionary.getOrCreate("Flood"));
+        assertEquals("Flood", dictionary.name(id));
+        assertEquals(1, propagations.size());
+    }
+    
+    @Test
+    void anIdMissingFromTheTableIsAnError() {
+        assertThrows(IllegalStateException.class, () -> dictionary.name((short) 9));
+    }
+    
+    /** incident_types; counts the statements that read it. */
+    private static class TypeTable extends JdbcTemplate {
+        
+        final Map<Short, String> rows = new LinkedHashMap<>();
+        int queries;
+        
+        @Override
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            queries++;
+            String name = rows.get((Short) args[0]);
+            return name != null ? List.of(elementType.cast(name)) : List.of();
+        }
+        
+        @Override
+        public void query(String sql, RowCallbackHandler handler) {
+            queries++;
+            for (Map.Entry<Short, String> row : rows.entrySet()) {
+                try {
+                    handler.processRow((ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[] {ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+                            case "getShort" -> row.getKey();
+                            case "getString" -> row.getValue();
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        }));
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        
+        @Override
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            // INSERT ... ON CONFLICT (name) DO UPDATE ... RETURNING id
+            String name = (String) args[0];
+            short id = rows.entrySet().stream().filter(row -> row.getValue().equals(name)).map(Map.Entry::getKey)
+                .findFirst().orElse((short) (rows.size() + 1));
+            rows.put(id, name);
+            return requiredType.cast(id);
+        }
+    }
+}
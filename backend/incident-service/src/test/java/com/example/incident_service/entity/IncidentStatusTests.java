@@ -0,0 +1,44 @@
+package com.example.incident_service.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncidentStatusTests {
+    
+    @Test
+    void codesFollowTheLookupTable() {
+        assertEquals(1, IncidentStatus.REPORTED.code());
+        assertEquals(5, IncidentStatus.CLOSED.code());
+        for (IncidentStatus status : IncidentStatus.values()) {
+            assertEquals(status, IncidentStatus.fromCode(status.code()));
+        }
+    }
+    
+    @Test
+    void allowedPreviousIsTheInverseOfAllowedNext() {
+        for (IncidentStatus to : IncidentStatus.values()) {
+            Set<IncidentStatus> previous = Arrays.stream(to.allowedPrevious())
+                .map(IncidentStatus::fromCode)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(IncidentStatus.class)));
+            for (IncidentStatus from : IncidentStatus.values()) {
+                assertEquals(from.allowedNext().contains(to), previous.contains(from), from + " -> " + to);
+            }
+        }
+    }
+    
+    @Test
+    void closedIsFinalAndReachableFromEveryOtherStatus() {
+        assertTrue(IncidentStatus.CLOSED.allowedNext().isEmpty());
+        assertEquals(Set.of((short) 1, (short) 2, (short) 3, (short) 4),
+            Set.of(IncidentStatus.CLOSED.allowedPrevious()));
+        // Nothing moves back to REPORTED except an undone dispatch
+        assertEquals(Set.of(IncidentStatus.DISPATCHED.code()), Set.of(IncidentStatus.REPORTED.allowedPrevious()));
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.incident_service.intake;
+
+import com.example.incident_service.dto.CreateIncidentRequest;
+import com.example.incident_service.dto.IntakeReceipt;
+import com.example.incident_service.service.IncidentIntakeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Crash recovery of the intake write-ahead log: reopening the directory must
+ * yield exactly the appended, uncommitted records, and a torn or corrupt
+ * final record must be dropped without losing the ones before it.
+ */
+class IncidentIntakeLogTests {
+    
+    private static final int SEGMENT_SIZE = 4096;
+    
+    @TempDir
+    Path dir;
+    
+    private final List<IncidentIntakeLog> opened = new ArrayList<>();
+    
+    @AfterEach
+    void closeLogs() {
+        opened.forEach(IncidentIntakeLog::close);
+    }
+    
+    @Test
+    void replaysUncommittedRecordsAfterRestart() throws IOException {
+        IncidentIntakeLog log = open();
+        log.append(bytes("first"));
+        log.append(bytes("second"));
+        log.append(bytes("third"));
+        IncidentIntakeLog.Batch first = log.read(1);
+        log.commit(first.end());
+        log.close();
+        
+        assertEquals(List.of("second", "third"), strings(open().read(10)));
+    }
+    
+    @Test
+    void dropsTornFinalRecord() throws IOException {
+        IncidentIntakeLog log = open();
+        log.append(bytes("complete"));
+        log.close();
+        
+        // The process died after the payload but before the length of the next record
+        int tail = 8 + "complete".length();
+        writeAt(segmentFile(), tail + 4, ByteBuffer.allocate(4 + 7).putInt(123).put(bytes("partial")).flip());
+        
+        IncidentIntakeLog reopened = open();
+        assertEquals(List.of("complete"), strings(reopened.read(10)));
+        reopened.append(bytes("after"));
+        assertEquals(List.of("complete", "after"), strings(reopened.read(10)));
+    }
+    
+    @Test
+    void dropsRecordWithBadChecksumAndEverythingAfterIt() throws IOException {
+        IncidentIntakeLog log = open();
+        log.append(bytes("good"));
+        log.append(bytes("flipped"));
+        log.append(bytes("later"));
+        log.close();
+        
+        int second = 8 + "good".length();
+        writeAt(segmentFile(), second + 8, ByteBuffer.wrap(bytes("F")));
+        
+        assertEquals(List.of("good"), strings(open().read(10)));
+    }
+    
+    @Test
+    void recordsSpanningSegmentsSurviveRestart() throws IOException {
+        IncidentIntakeLog log = open();
+        List<String> appended = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String value = "record-" + i + "-" + "x".repeat(100);
+            log.append(bytes(value));
+            appended.add(value);
+        }
+        log.close();
+        
+        assertTrue(segmentFiles().size() > 1);
+        assertEquals(appended, strings(open().read(1000)));
+    }
+    
+    @Test
+    void pendingKeysAreRecoveredFromTheLog() throws IOException {
+        ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+        IncidentIntakeService before = service(open(), objectMapper);
+        before.enqueue("key-1", new CreateIncidentRequest());
+        opened.get(0).close();
+        
+        IncidentIntakeService after = service(open(), objectMapper);
+        after.recoverPending();
+        IntakeReceipt receipt = after.getPending("key-1");
+        assertNotNull(receipt);
+        assertEquals("ACCEPTED", receipt.getStatus());
+    }
+    
+    private IncidentIntakeLog open() throws IOException {
+        IncidentIntakeLog log = new IncidentIntakeLog();
+        ReflectionTestUtils.setField(log, "directory", dir.toString());
+        ReflectionTestUtils.setField(log, "segmentSize", SEGMENT_SIZE);
+        ReflectionTestUtils.setField(log, "fsync", false);
+        log.open();
+        opened.add(log);
+        return log;
+    }
+    
+    private static IncidentIntakeService service(IncidentIntakeLog log, ObjectMapper objectMapper) {
+        IncidentIntakeService service = new IncidentIntakeService();
+        ReflectionTestUtils.setField(service, "intakeLog", log);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        return service;
+    }
+    
+    private Path segmentFile() throws IOException {
+        return segmentFiles().get(0);
+    }
+    
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+    
+    private static void writeAt(Path file, int position, ByteBuffer data) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(data, position);
+        }
+    }
+    
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static List<String> strings(IncidentIntakeLog.Batch batch) {
+        return batch.records().stream().map(record -> new String(record, StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.incident_service.repository;
+
+import com.example.incident_service.dictionary.IncidentTypeDictionary;
+import com.example.incident_service.dto.IncidentColumns;
+import com.example.incident_service.entity.IncidentPriority;
+import com.example.incident_service.entity.IncidentStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncidentColumnRepositoryTests {
+    
+    private static final LocalDateTime OCCURRED_AT = LocalDateTime.of(2024, 3, 1, 10, 30);
+    
+    private final List<Map<String, Object>> rows = new ArrayList<>();
+    private final Map<Integer, Object> parameters = new HashMap<>();
+    private final List<Short> typeLookups = new ArrayList<>();
+    private String sql;
+    private int fetchSize;
+    
+    @Test
+    void rowsAreWrittenStraightIntoTheColumns() {
+        for (int i = 0; i < 600; i++) {
+            rows.add(row(i + 1, (short) (i % 3 + 1), i % 2 == 0 ? IncidentPriority.HIGH : IncidentPriority.LOW));
+        }
+        rows.get(1).put("incident_type_id", null);
+        rows.get(1).put("reported_by", null);
+        rows.get(1).put("created_at", null);
+        
+        IncidentColumns columns = repository().findAll();
+        
+        assertEquals(600, columns.getCount());
+        assertEquals(600, columns.getId().length);
+        assertEquals(600, columns.getStatus().length);
+        assertEquals(600L, columns.getId()[599]);
+        assertEquals(9.03, columns.getLatitude()[0]);
+        assertEquals(38.74, columns.getLongitude()[0]);
+        assertEquals(OCCURRED_AT.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), columns.getOccurredAt()[0]);
+        assertEquals(0L, columns.getCreatedAt()[1]);
+        assertEquals(0L, columns.getReportedBy()[1]);
+        assertEquals(7L, columns.getReportedBy()[0]);
+        assertEquals("Incident 1", columns.getTitle()[0]);
+        // Dictionaries in order of first appearance, each name looked up once
+        assertArrayEquals(new String[] {"type-1", null, "type-3", "type-2"}, columns.getIncidentTypes());
+        assertEquals(List.of((short) 1, (short) 3, (short) 2), typeLookups);
+        assertEquals("type-3", columns.getIncidentTypes()[columns.getIncidentType()[599]]);
+        assertArrayEquals(new String[] {"HIGH", "LOW"}, columns.getPriorities());
+        assertEquals(1, columns.getPriority()[599]);
+        assertArrayEquals(new String[] {"REPORTED"}, columns.getStatuses());
+    }
+    
+    @Test
+    void onlyTheEncodedColumnsAreReadThroughACursor() {
+        IncidentColumns columns = repository().findByPriority(IncidentPriority.MEDIUM);
+        
+        assertEquals(0, columns.getCount());
+        assertEquals(0, columns.getPriorities().length);
+        assertTrue(sql.contains("WHERE i.priority_id = ?"));
+        assertEquals(IncidentPriority.MEDIUM.code(), parameters.get(1));
+        assertFalse(sql.contains("i.*"));
+        assertFalse(sql.contains("change_version"));
+        assertTrue(fetchSize > 0);
+    }
+    
+    @Test
+    void nearbyIncidentsBindThePointAsLongitudeLatitude() {
+        repository().findNearLocation(9.03, 38.74, 500);
+        
+        assertTrue(sql.contains("ORDER BY ST_Distance"));
+        assertEquals(Map.of(1, 38.74, 2, 9.03, 3, 500.0, 4, 38.74, 5, 9.03), parameters);
+    }
+    
+    private IncidentColumnRepository repository() {
+        IncidentColumnRepository repository = new IncidentColumnRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            public void query(PreparedStatementCreator creator, RowCallbackHandler handler) {
+                try {
+                    creator.createPreparedStatement(connection());
+                    for (Map<String, Object> row : rows) {
+                        handler.processRow(resultSet(row));
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        ReflectionTestUtils.setField(repository, "types", new IncidentTypeDictionary(null, null) {
+            @Override
+            public String name(Short id) {
+                typeLookups.add(id);
+                return "type-" + id;
+            }
+        });
+        return repository;
+    }
+    
+    private static Map<String, Object> row(long id, short typeId, IncidentPriority priority) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("latitude", 9.03);
+        row.put("longitude", 38.74);
+        row.put("occurred_at", Timestamp.valueOf(OCCURRED_AT));
+        row.put("created_at", Timestamp.valueOf(OCCURRED_AT.plusMinutes(5)));
+        row.put("reported_by", 7L);
+        row.put("title", "Incident " + id);
+        row.put("description", null);
+        row.put("incident_type_id", typeId);
+        row.put("priority_id", priority.code());
+        row.put("status_id", IncidentStatus.REPORTED.code());
+        return row;
+    }
+    
+    private Connection connection() {
+        PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                if (method.getName().equals("setFetchSize")) {
+                    fetchSize = (int) args[0];
+                } else if (method.getName().startsWith("set")) {
+                    parameters.put((int) args[0], args[1]);
+                }
+                return null;
+            });
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                sql = (String) args[0];
+                return ps;
+            });
+    }
+    
+    // Reads the way the PostgreSQL driver does: SQL NULL as 0 for numbers
+    private static ResultSet resultSet(Map<String, Object> row) {
+        Object[] last = new Object[1];
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("wasNull")) {
+                    return last[0] == null;
+                }
+                Object value = row.get((String) args[0]);
+                last[0] = value;
+                return switch (method.getName()) {
+                    case "getLong" -> value != null ? ((Number) value).longValue() : 0L;
+                    case "getShort" -> value != null ? ((Number) value).shortValue() : (short) 0;
+                    case "getDouble" -> value != null ? ((Number) value).doubleValue() : 0.0;
+                    case "getTimestamp", "getString" -> value;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                };
+            });
+    }
+}
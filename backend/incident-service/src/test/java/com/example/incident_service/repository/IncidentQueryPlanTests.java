@@ -0,0 +1,189 @@
+package com.example.incident_service.repository;
+
+import com.example.incident_service.dictionary.IncidentTypeDictionary;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on the SQL each repository method issues, against a seeded
+ * database with init.sql and the migrations applied, and fails when the plan
+ * reads a table of more than {@link #SEQ_SCAN_ROW_LIMIT} rows with a seq scan.
+ *
+ * Parameters are selective values: for a value covering a large share of the
+ * table a seq scan is the right plan. Skipped when Docker is unavailable.
+ */
+@SpringBootTest(properties = {
+    "eureka.client.enabled=false",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.incident_service.repository.IncidentQueryPlanTests$RecordingInspector"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IncidentQueryPlanTests {
+    
+    private static final long SEQ_SCAN_ROW_LIMIT = 1_000;
+    
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgis/postgis:15-3.3").asCompatibleSubstituteFor("postgres"))
+        .withDatabaseName("nisircop")
+        .withCopyFileToContainer(MountableFile.forHostPath("../../database/init.sql"),
+            "/docker-entrypoint-initdb.d/init.sql");
+    
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+    
+    @Autowired
+    private IncidentRepository incidentRepository;
+    
+    @Autowired
+    private IncidentTypeDictionary types;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+            INSERT INTO users (username, password, role, station_id)
+            SELECT 'seed_user_' || g, 'x', 'OFFICER', 1 + g % 20 FROM generate_series(1, 2000) g
+            """);
+        jdbcTemplate.update("""
+            INSERT INTO incident_types (name)
+            SELECT 'Seed type ' || g FROM generate_series(0, 39) g UNION ALL SELECT 'Rare type'
+            """);
+        // 200k incidents, one a minute going back; every 1000th is of the rare
+        // type and CRITICAL, a third have no reporter
+        jdbcTemplate.update("""
+            WITH u AS (SELECT array_agg(id ORDER BY id) AS ids FROM users WHERE username LIKE 'seed_user_%'),
+                 t AS (SELECT array_agg(id ORDER BY id) AS ids FROM incident_types WHERE name LIKE 'Seed type %'),
+                 rare AS (SELECT id FROM incident_types WHERE name = 'Rare type')
+            INSERT INTO incidents (title, incident_type_id, priority_id, status_id, location,
+                                   reported_by, created_at, occurred_at, idempotency_key)
+            SELECT 'Seed incident ' || g,
+                   CASE WHEN g % 1000 = 0 THEN rare.id ELSE t.ids[1 + g % 40] END,
+                   CASE WHEN g % 1000 = 0 THEN 4 WHEN g % 50 = 0 THEN 3 ELSE 1 + g % 2 END,
+                   1 + g % 5,
+                   ST_SetSRID(ST_MakePoint(38.6 + (g % 997) * 0.0003, 8.9 + (g % 991) * 0.0002), 4326),
+                   CASE WHEN g % 3 = 0 THEN NULL ELSE u.ids[1 + g % 2000] END,
+                   now() - g * INTERVAL '1 minute', now() - g * INTERVAL '1 minute',
+                   'seed-' || g
+            FROM generate_series(1, 200000) g, u, t, rare
+            """);
+        jdbcTemplate.execute("ANALYZE");
+    }
+    
+    @Test
+    void findByReportedBy() {
+        Long reporter = jdbcTemplate.queryForObject(
+            "SELECT id FROM users WHERE username = 'seed_user_42'", Long.class);
+        assertNoLargeSeqScan(() -> incidentRepository.findByReportedBy(reporter), reporter);
+    }
+    
+    @Test
+    void findByIncidentType() {
+        assertNoLargeSeqScan(() -> incidentRepository.findByIncidentType("Rare type"), types.find("Rare type"));
+    }
+    
+    @Test
+    void findByPriority() {
+        assertNoLargeSeqScan(() -> incidentRepository.findByPriority("CRITICAL"), (short) 4);
+    }
+    
+    @Test
+    void findByIdempotencyKey() {
+        assertNoLargeSeqScan(() -> incidentRepository.findByIdempotencyKey("seed-42"), "seed-42");
+    }
+    
+    @Test
+    void findByReportIdempotencyKey() {
+        assertNoLargeSeqScan(() -> incidentRepository.findByReportIdempotencyKey("seed-42"), "seed-42");
+    }
+    
+    @Test
+    void findByDateRange() {
+        LocalDateTime end = LocalDateTime.now().minusDays(30);
+        LocalDateTime start = end.minusDays(1);
+        assertNoLargeSeqScan(() -> incidentRepository.findByDateRange(start, end), start, end);
+    }
+    
+    @Test
+    void findNearLocation() {
+        double latitude = 8.95;
+        double longitude = 38.75;
+        assertNoLargeSeqScan(() -> incidentRepository.findNearLocation(latitude, longitude, 500),
+            longitude, latitude, 500.0, longitude, latitude);
+    }
+    
+    /**
+     * Calls the repository method to capture its SQL, then explains that SQL
+     * with {@code args} bound in statement order.
+     */
+    private void assertNoLargeSeqScan(Runnable call, Object... args) {
+        RecordingInspector.statements.clear();
+        call.run();
+        String sql = RecordingInspector.statements.get(RecordingInspector.statements.size() - 1);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, args);
+        
+        List<String> scanned = new ArrayList<>();
+        try {
+            collectSeqScans(objectMapper.readTree(plan).get(0).get("Plan"), scanned);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan: " + plan, e);
+        }
+        List<String> large = scanned.stream()
+            .filter(relation -> jdbcTemplate.queryForObject(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, relation)
+                > SEQ_SCAN_ROW_LIMIT)
+            .toList();
+        assertTrue(large.isEmpty(), () -> "Seq scan on " + large + " for:\n" + sql + "\n" + plan);
+    }
+    
+    private static void collectSeqScans(JsonNode node, List<String> relations) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            relations.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, relations);
+        }
+    }
+    
+    /** Records the SQL Hibernate prepares. */
+    public static class RecordingInspector implements StatementInspector {
+        
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+        
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
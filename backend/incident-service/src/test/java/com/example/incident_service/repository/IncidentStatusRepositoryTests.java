@@ -0,0 +1,97 @@
+package com.example.incident_service.repository;
+
+import com.example.incident_service.entity.IncidentStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncidentStatusRepositoryTests {
+    
+    private final Map<Integer, Object> parameters = new HashMap<>();
+    private final Map<String, Object[]> arrays = new HashMap<>();
+    private String sql;
+    private final IncidentStatusRepository repository = new IncidentStatusRepository();
+    
+    IncidentStatusRepositoryTests() {
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            public <T> List<T> query(PreparedStatementCreator creator, RowMapper<T> rowMapper) {
+                try {
+                    creator.createPreparedStatement(connection());
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+                return List.of();
+            }
+        });
+    }
+    
+    @Test
+    void theTransitionRuleAndVersionCheckArePartOfTheUpdate() {
+        assertTrue(repository.updateStatus(7L, IncidentStatus.RESOLVED, 42L).isEmpty());
+        
+        assertTrue(sql.startsWith("UPDATE incidents"));
+        assertTrue(sql.contains("status_id = ANY(?)"));
+        assertTrue(sql.contains("RETURNING"));
+        assertEquals(IncidentStatus.RESOLVED.code(), parameters.get(1));
+        assertEquals(7L, parameters.get(2));
+        assertArrayEquals(IncidentStatus.RESOLVED.allowedPrevious(), arrays.get("int2"));
+        assertEquals(42L, parameters.get(4));
+        assertEquals(42L, parameters.get(5));
+    }
+    
+    @Test
+    void withoutAVersionAnyVersionMatches() {
+        repository.updateStatus(7L, IncidentStatus.CLOSED, null);
+        
+        assertTrue(sql.contains("CAST(? AS BIGINT) IS NULL"));
+        assertNull(parameters.get(4));
+        assertNull(parameters.get(5));
+    }
+    
+    @Test
+    void aBulkUpdateIsOneStatementOverEveryId() {
+        repository.updateStatuses(List.of(1L, 2L, 3L), IncidentStatus.DISPATCHED);
+        
+        assertTrue(sql.contains("WHERE id = ANY(?) AND status_id = ANY(?)"));
+        assertEquals(IncidentStatus.DISPATCHED.code(), parameters.get(1));
+        assertArrayEquals(new Object[] {1L, 2L, 3L}, arrays.get("bigint"));
+        assertArrayEquals(IncidentStatus.DISPATCHED.allowedPrevious(), arrays.get("int2"));
+    }
+    
+    private Connection connection() {
+        PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                if (method.getName().startsWith("set")) {
+                    parameters.put((int) args[0], args[1]);
+                }
+                return null;
+            });
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "createArrayOf" -> {
+                    arrays.put((String) args[0], (Object[]) args[1]);
+                    yield null;
+                }
+                default -> {
+                    sql = (String) args[0];
+                    yield ps;
+                }
+            });
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.incident_service.service;
+
+import com.example.incident_service.dto.IncidentDTO;
+import com.example.incident_service.dto.LocationDTO;
+import com.example.incident_service.repository.IncidentExportRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncidentExportServiceTests {
+    
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2025, 1, 1, 0, 0);
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Incidents incidents = new Incidents();
+    private final IncidentExportService exportService = new IncidentExportService();
+    
+    IncidentExportServiceTests() {
+        ReflectionTestUtils.setField(exportService, "exportRepository", incidents);
+        ReflectionTestUtils.setField(exportService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(exportService, "maxDurationSeconds", 600L);
+    }
+    
+    @Test
+    void geoJsonIsAFeatureCollectionOfPoints() throws IOException {
+        incidents.rows.add(incident(11, "Theft", null));
+        incidents.rows.add(incident(12, "Fire", 7L));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        exportService.writeGeoJson(START, END, 10, out);
+        
+        JsonNode collection = objectMapper.readTree(out.toByteArray());
+        assertEquals("FeatureCollection", collection.get("type").asText());
+        JsonNode feature = collection.get("features").get(0);
+        assertEquals(11, feature.get("id").asLong());
+        assertEquals("Point", feature.get("geometry").get("type").asText());
+        // GeoJSON positions are longitude first
+        assertEquals(38.74, feature.get("geometry").get("coordinates").get(0).asDouble());
+        assertEquals(9.03, feature.get("geometry").get("coordinates").get(1).asDouble());
+        assertTrue(feature.get("properties").get("reportedBy").isNull());
+        assertEquals("2024-03-01T10:30", feature.get("properties").get("occurredAt").asText());
+        assertEquals(7, collection.get("features").get(1).get("properties").get("reportedBy").asLong());
+        assertEquals(10, incidents.afterId);
+    }
+    
+    @Test
+    void csvFieldsAreQuotedOnlyWhenNeeded() throws IOException {
+        incidents.rows.add(incident(1, "Theft, armed", null));
+        incidents.rows.add(incident(2, "Said \"help\"\nthen ran", 7L));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        exportService.writeCsv(START, END, 0, out);
+        
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("id,title,description,incident_type,priority,latitude,longitude,reported_by,created_at,occurred_at,status",
+            lines[0]);
+        assertEquals("1,\"Theft, armed\",,Theft,HIGH,9.03,38.74,,,2024-03-01T10:30,REPORTED", lines[1]);
+        assertEquals("2,\"Said \"\"help\"\"\nthen ran\",,Theft,HIGH,9.03,38.74,7,,2024-03-01T10:30,REPORTED", lines[2]);
+    }
+    
+    @Test
+    void rowsReachTheClientWhileTheCursorIsStillOpen() throws IOException {
+        for (long id = 1; id <= 5_000; id++) {
+            incidents.rows.add(incident(id, "Theft", null));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        incidents.whileStreaming = out::size;
+        
+        exportService.writeGeoJson(START, END, 0, out);
+        
+        assertTrue(incidents.writtenBeforeTheEnd > 0);
+        assertEquals(5_000, objectMapper.readTree(out.toByteArray()).get("features").size());
+    }
+    
+    @Test
+    void aFailedExportIsLeftUnfinished() {
+        for (long id = 1; id <= 5_000; id++) {
+            incidents.rows.add(incident(id, "Theft", null));
+        }
+        incidents.failAfter = 4_000;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        assertThrows(DataAccessResourceFailureException.class, () -> exportService.writeGeoJson(START, END, 0, out));
+        
+        String written = out.toString(StandardCharsets.UTF_8);
+        assertTrue(written.startsWith("{\"type\":\"FeatureCollection\""));
+        assertFalse(written.endsWith("]}"));
+    }
+    
+    @Test
+    void aClientThatGoesAwayStopsTheCursor() {
+        for (long id = 1; id <= 5_000; id++) {
+            incidents.rows.add(incident(id, "Theft", null));
+        }
+        OutputStream closed = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        
+        IOException e = assertThrows(IOException.class, () -> exportService.writeCsv(START, END, 0, closed));
+        
+        assertEquals("Broken pipe", e.getMessage());
+        assertTrue(incidents.read < 5_000);
+    }
+    
+    @Test
+    void anExportPastTheTimeLimitSaysWhereToResume() {
+        incidents.rows.add(incident(6, "Theft", null));
+        ReflectionTestUtils.setField(exportService, "maxDurationSeconds", -1L);
+        
+        IOException e = assertThrows(IOException.class,
+            () -> exportService.writeCsv(START, END, 5, new ByteArrayOutputStream()));
+        
+        assertTrue(e.getMessage().endsWith("resume with afterId=5"));
+    }
+    
+    private static IncidentDTO incident(long id, String title, Long reportedBy) {
+        return new IncidentDTO(id, title, null, "Theft", "HIGH", new LocationDTO(9.03, 38.74), reportedBy,
+            null, LocalDateTime.of(2024, 3, 1, 10, 30), "REPORTED");
+    }
+    
+    /** Streams {@code rows} after afterId as the cursor would, optionally failing part way. */
+    private static class Incidents extends IncidentExportRepository {
+        
+        final List<IncidentDTO> rows = new ArrayList<>();
+        long afterId;
+        int failAfter = Integer.MAX_VALUE;
+        int read;
+        IntSupplier whileStreaming = () -> 0;
+        int writtenBeforeTheEnd;
+        
+        Incidents() {
+            super(properties(), 1, 1000);
+        }
+        
+        private static DataSourceProperties properties() {
+            DataSourceProperties properties = new DataSourceProperties();
+            properties.setUrl("jdbc:postgresql://localhost:1/unused");
+            return properties;
+        }
+        
+        @Override
+        public void streamByDateRange(LocalDateTime startDate, LocalDateTime endDate, long afterId,
+                                      Consumer<IncidentDTO> consumer) {
+            this.afterId = afterId;
+            for (IncidentDTO row : rows) {
+                if (row.getId() <= afterId) {
+                    continue;
+                }
+                if (read == failAfter) {
+                    throw new DataAccessResourceFailureException("Connection reset");
+                }
+                read++;
+                consumer.accept(row);
+            }
+            writtenBeforeTheEnd = whileStreaming.getAsInt();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.incident_service.service;
+
+import com.example.common.cache.InvalidationBus;
+import com.example.common.cache.LocalCache;
+import com.example.incident_service.dto.BulkStatusUpdateResult;
+import com.example.incident_service.dto.IncidentChangesDTO;
+import com.example.incident_service.dto.IncidentDTO;
+import com.example.incident_service.entity.IncidentStatus;
+import com.example.incident_service.exception.IncidentNotFoundException;
+import com.example.incident_service.exception.InvalidStatusTransitionException;
+import com.example.incident_service.exception.StaleIncidentVersionException;
+import com.example.incident_service.repository.IncidentChangeRepository;
+import com.example.incident_service.repository.IncidentChangeRepository.Change;
+import com.example.incident_service.repository.IncidentChangeRepository.ChangePage;
+import com.example.incident_service.repository.IncidentStatusRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncidentServiceTests {
+    
+    private final List<Change> changes = new ArrayList<>();
+    private long horizon = 100;
+    private final IncidentService service = new IncidentService();
+    
+    // incidents by id: their status and change version
+    private final Map<Long, IncidentStatusRepository.CurrentStatus> statuses = new LinkedHashMap<>();
+    private final List<Long> evicted = new ArrayList<>();
+    private int statements;
+    
+    IncidentServiceTests() {
+        ReflectionTestUtils.setField(service, "statusRepository", new StatusTable());
+        ReflectionTestUtils.setField(service, "incidentsById", new LocalCache<Long, IncidentDTO>("incidents-by-id", 10,
+                Duration.ofMinutes(1), new InvalidationBus(null, null, false, "incidents", 500, 5000, 1000)) {
+            @Override
+            public IncidentDTO get(Long id, Supplier<IncidentDTO> loader) {
+                return dto(id, statuses.get(id));
+            }
+            
+            @Override
+            public void evict(Collection<? extends Long> keys) {
+                evicted.addAll(keys);
+            }
+        });
+        ReflectionTestUtils.setField(service, "changeRepository", new IncidentChangeRepository() {
+            @Override
+            public ChangePage findChangesSince(long since, double[] bbox, int limit) {
+                return new ChangePage(changes.stream().filter(c -> c.version() > since).limit(limit).toList(), horizon);
+            }
+            
+            @Override
+            public ChangePage findChangesAt(long version, double[] bbox) {
+                return new ChangePage(changes.stream().filter(c -> c.version() == version).toList(), horizon);
+            }
+        });
+    }
+    
+    @Test
+    void updatesAndDeletionsAreReturnedApart() {
+        changes.add(updated(1, 5));
+        changes.add(deleted(2, 6));
+        changes.add(updated(3, 7));
+        
+        IncidentChangesDTO page = service.getChangesSince(0, null, 10);
+        
+        assertEquals(List.of(1L, 3L), page.getIncidents().stream().map(IncidentDTO::getId).toList());
+        assertEquals(List.of(2L), page.getDeletedIds());
+        assertFalse(page.isHasMore());
+    }
+    
+    @Test
+    void aPageNeverSplitsOneTransactionsChanges() {
+        changes.add(updated(1, 5));
+        changes.add(updated(2, 6));
+        changes.add(updated(3, 7));
+        changes.add(deleted(4, 7));
+        changes.add(updated(5, 7));
+        
+        IncidentChangesDTO first = service.getChangesSince(0, null, 3);
+        assertEquals(List.of(1L, 2L), first.getIncidents().stream().map(IncidentDTO::getId).toList());
+        assertEquals(6, first.getNextSince());
+        assertTrue(first.isHasMore());
+        
+        IncidentChangesDTO second = service.getChangesSince(first.getNextSince(), null, 3);
+        assertEquals(List.of(3L, 5L), second.getIncidents().stream().map(IncidentDTO::getId).toList());
+        assertEquals(List.of(4L), second.getDeletedIds());
+        assertFalse(second.isHasMore());
+    }
+    
+    @Test
+    void aTransactionLargerThanThePageIsReturnedWhole() {
+        for (long id = 1; id <= 5; id++) {
+            changes.add(updated(id, 7));
+        }
+        changes.add(updated(6, 8));
+        
+        IncidentChangesDTO page = service.getChangesSince(0, null, 3);
+        
+        assertEquals(5, page.getIncidents().size());
+        assertEquals(7, page.getNextSince());
+        assertTrue(page.isHasMore());
+    }
+    
+    @Test
+    void theLastPageResumesBelowTheSnapshotHorizon() {
+        changes.add(updated(1, 5));
+        
+        // Nothing below the horizon can still commit, so the next sync starts just under it
+        assertEquals(99, service.getChangesSince(0, null, 10).getNextSince());
+        horizon = 3;
+        assertEquals(5, service.getChangesSince(5, null, 10).getNextSince());
+    }
+    
+    @Test
+    void aStatusChangeIsOneConditionalUpdate() {
+        statuses.put(1L, new IncidentStatusRepository.CurrentStatus("REPORTED", 5));
+        
+        IncidentDTO updated = service.updateIncidentStatus(1L, IncidentStatus.DISPATCHED, 5L);
+        
+        assertEquals("DISPATCHED", updated.getStatus());
+        assertEquals(1, statements);
+        assertEquals(List.of(1L), evicted);
+    }
+    
+    @Test
+    void aRejectedStatusChangeReportsWhy() {
+        statuses.put(1L, new IncidentStatusRepository.CurrentStatus("CLOSED", 5));
+        statuses.put(2L, new IncidentStatusRepository.CurrentStatus("REPORTED", 6));
+        
+        assertThrows(IncidentNotFoundException.class, () -> service.updateIncidentStatus(9L, IncidentStatus.RESOLVED, null));
+        assertThrows(InvalidStatusTransitionException.class,
+            () -> service.updateIncidentStatus(1L, IncidentStatus.RESOLVED, null));
+        // Changed since the caller read version 5
+        assertThrows(StaleIncidentVersionException.class,
+            () -> service.updateIncidentStatus(2L, IncidentStatus.DISPATCHED, 5L));
+        assertEquals("REPORTED", statuses.get(2L).status());
+        // Already there: nothing to change, not an error
+        assertEquals("CLOSED", service.updateIncidentStatus(1L, IncidentStatus.CLOSED, null).getStatus());
+        assertTrue(evicted.isEmpty());
+    }
+    
+    @Test
+    void aBulkUpdateReportsEachIncidentsOutcome() {
+        statuses.put(1L, new IncidentStatusRepository.CurrentStatus("REPORTED", 5));
+        statuses.put(2L, new IncidentStatusRepository.CurrentStatus("IN_PROGRESS", 5));
+        statuses.put(3L, new IncidentStatusRepository.CurrentStatus("RESOLVED", 5));
+        statuses.put(4L, new IncidentStatusRepository.CurrentStatus("CLOSED", 5));
+        
+        BulkStatusUpdateResult result = service.updateIncidentStatuses(List.of(1L, 2L, 2L, 3L, 4L, 9L), IncidentStatus.RESOLVED);
+        
+        assertEquals(List.of(1L, 2L), result.getUpdatedIds());
+        assertEquals(List.of(3L), result.getUnchangedIds());
+        assertEquals(Map.of(4L, "CLOSED"), result.getRejected());
+        assertEquals(List.of(9L), result.getNotFoundIds());
+        assertEquals(1, statements);
+        assertEquals(List.of(1L, 2L), evicted);
+    }
+    
+    private static IncidentDTO dto(long id, IncidentStatusRepository.CurrentStatus current) {
+        IncidentDTO incident = new IncidentDTO();
+        incident.setId(id);
+        incident.setStatus(current.status());
+        incident.setChangeVersion(current.changeVersion());
+        return incident;
+    }
+    
+    /** Applies the repository's WHERE clauses to {@code statuses}, counting the updates run. */
+    private class StatusTable extends IncidentStatusRepository {
+        
+        @Override
+        public Optional<IncidentDTO> updateStatus(long id, IncidentStatus status, Long expectedVersion) {
+            statements++;
+            CurrentStatus current = statuses.get(id);
+            if (current == null || !movable(current, status)
+                    || (expectedVersion != null && current.changeVersion() != expectedVersion)) {
+                return Optional.empty();
+            }
+            statuses.put(id, new CurrentStatus(status.name(), current.changeVersion() + 1));
+            return Optional.of(dto(id, statuses.get(id)));
+        }
+        
+        @Override
+        public List<Long> updateStatuses(List<Long> ids, IncidentStatus status) {
+            statements++;
+            List<Long> updated = new ArrayList<>();
+            for (Long id : ids) {
+                CurrentStatus current = statuses.get(id);
+                if (current != null && movable(current, status)) {
+                    statuses.put(id, new CurrentStatus(status.name(), current.changeVersion() + 1));
+                    updated.add(id);
+                }
+            }
+            return updated;
+        }
+        
+        @Override
+        public Map<Long, CurrentStatus> findCurrent(List<Long> ids) {
+            Map<Long, CurrentStatus> current = new LinkedHashMap<>();
+            ids.stream().filter(statuses::containsKey).forEach(id -> current.put(id, statuses.get(id)));
+            return current;
+        }
+        
+        private static boolean movable(CurrentStatus current, IncidentStatus to) {
+            return List.of(to.allowedPrevious()).contains(IncidentStatus.valueOf(current.status()).code());
+        }
+    }
+    
+    private static Change updated(long id, long version) {
+        IncidentDTO incident = new IncidentDTO();
+        incident.setId(id);
+        incident.setChangeVersion(version);
+        return new Change(id, version, incident);
+    }
+    
+    private static Change deleted(long id, long version) {
+        return new Change(id, version, null);
+    }
+}
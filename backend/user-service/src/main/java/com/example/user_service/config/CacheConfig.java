@@ -0,0 +1,30 @@
+package com.example.user_service.config;
+
+import com.example.common.cache.InvalidationBus;
+import com.example.common.cache.LocalCache;
+import com.example.user_service.dto.UserDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+    
+    @Value("${cache.users.max-entries:10000}")
+    private int maxEntries;
+    
+    @Value("${cache.users.ttl-seconds:300}")
+    private long ttlSeconds;
+    
+    @Bean
+    public LocalCache<Long, UserDTO> usersById(InvalidationBus bus) {
+        return new LocalCache<>("users-by-id", maxEntries, Duration.ofSeconds(ttlSeconds), bus);
+    }
+    
+    @Bean
+    public LocalCache<String, UserDTO> usersByUsername(InvalidationBus bus) {
+        return new LocalCache<>("users-by-username", maxEntries, Duration.ofSeconds(ttlSeconds), bus);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.user_service.controller;
 
+import com.example.common.idempotency.IdempotencyConflictException;
+import com.example.common.idempotency.IdempotencyStore;
 import com.example.user_service.dto.CreateUserRequest;
 import com.example.user_service.dto.UpdateUserRequest;
 import com.example.user_service.dto.UserDTO;
@@ -17,6 +19,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -25,6 +28,7 @@ import java.util.List;
 public class UserController {
     
     private final UserService userService;
+    private final IdempotencyStore idempotencyStore;
     
     @GetMapping
     @Operation(summary = "Get all users", description = "Retrieves a list of all users in the system")
@@ -86,15 +90,51 @@ public class UserController {
     }
     
     @PostMapping
-    @Operation(summary = "Create new user", description = "Creates a new user in the system")
+    @Operation(summary = "Create new user", description = "Creates a new user in the system. " +
+               "Retries carrying the same Idempotency-Key return the original response")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "User created successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid request data"),
-        @ApiResponse(responseCode = "409", description = "User already exists")
+        @ApiResponse(responseCode = "409", description = "User already exists or a request with the same Idempotency-Key is in progress"),
+        @ApiResponse(responseCode = "422", description = "The Idempotency-Key was already used for a different request")
     })
-    public ResponseEntity<UserDTO> createUser(@Valid @RequestBody CreateUserRequest request) {
-        UserDTO created = userService.createUser(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    public ResponseEntity<UserDTO> createUser(
+            @Parameter(description = "Optional client-generated key identifying this request")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CreateUserRequest request) {
+        if (idempotencyKey == null) {
+            UserDTO created = userService.createUser(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 64) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        String scope = UserService.IDEMPOTENCY_SCOPE;
+        String fingerprint = userService.requestFingerprint(request);
+        Optional<ResponseEntity<UserDTO>> replay = idempotencyStore.find(scope, idempotencyKey, fingerprint, UserDTO.class);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+        if (!idempotencyStore.begin(scope, idempotencyKey)) {
+            throw new IdempotencyConflictException(idempotencyKey);
+        }
+        try {
+            // A request with this key may have completed between the lookup and the claim
+            replay = idempotencyStore.find(scope, idempotencyKey, fingerprint, UserDTO.class);
+            if (replay.isPresent()) {
+                return replay.get();
+            }
+            try {
+                UserDTO created = userService.createUser(request, idempotencyKey);
+                return ResponseEntity.status(HttpStatus.CREATED).body(created);
+            } catch (IdempotencyConflictException e) {
+                // Another instance committed this key first; answer with its response
+                return idempotencyStore.find(scope, idempotencyKey, fingerprint, UserDTO.class).orElseThrow(() -> e);
+            }
+        } finally {
+            idempotencyStore.end(scope, idempotencyKey);
+        }
     }
     
     @PutMapping("/{id}")
@@ -15,9 +15,11 @@ public interface UserRepository extends JpaRepository<User, Long>, UserRepositor
     
     Optional<User> findByUsername(String username);
     
-    List<User> findByRole(String role);
+    // role is a user_role enum column; a plain string parameter needs the cast
+    @Query(value = "SELECT * FROM users WHERE role = CAST(:role AS user_role)", nativeQuery = true)
+    List<User> findByRole(@Param("role") String role);
     
-    @Query("SELECT u FROM User u WHERE u.role = :role")
+    @Query(value = "SELECT * FROM users WHERE role = CAST(:role AS user_role)", nativeQuery = true)
     List<User> findByRoleString(@Param("role") String role);
     
     List<User> findByStationId(Integer stationId);
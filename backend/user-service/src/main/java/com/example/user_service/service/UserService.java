@@ -1,5 +1,7 @@
 package com.example.user_service.service;
 
+import com.example.common.cache.LocalCache;
+import com.example.common.idempotency.IdempotencyStore;
 import com.example.user_service.dto.CreateUserRequest;
 import com.example.user_service.dto.UpdateUserRequest;
 import com.example.user_service.dto.UserDTO;
@@ -11,10 +13,13 @@ import com.example.user_service.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,9 +29,20 @@ public class UserService {
     
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
     
+    public static final String IDEMPOTENCY_SCOPE = "users";
+    
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private LocalCache<Long, UserDTO> usersById;
+    
+    @Autowired
+    private LocalCache<String, UserDTO> usersByUsername;
+    
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(12);
     
     @Transactional(readOnly = true)
@@ -37,20 +53,19 @@ public class UserService {
             .collect(Collectors.toList());
     }
     
-    @Transactional(readOnly = true)
+    // Cache hits need no transaction; a miss reads in the repository's own
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserDTO getUserById(Long id) {
         log.debug("Fetching user by id: {}", id);
-        User user = userRepository.findById(id)
-            .orElseThrow(() -> new UserNotFoundException(id));
-        return convertToDTO(user);
+        return usersById.get(id, () -> convertToDTO(userRepository.findById(id)
+            .orElseThrow(() -> new UserNotFoundException(id))));
     }
     
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserDTO getUserByUsername(String username) {
         log.debug("Fetching user by username: {}", username);
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new UserNotFoundException(username));
-        return convertToDTO(user);
+        return usersByUsername.get(username, () -> convertToDTO(userRepository.findByUsername(username)
+            .orElseThrow(() -> new UserNotFoundException(username))));
     }
     
     @Transactional(readOnly = true)
@@ -70,6 +85,10 @@ public class UserService {
     }
     
     public UserDTO createUser(CreateUserRequest request) {
+        return createUser(request, null);
+    }
+    
+    public UserDTO createUser(CreateUserRequest request, String idempotencyKey) {
         log.info("Creating new user: {}", request.getUsername());
         
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -86,7 +105,21 @@ public class UserService {
         User saved = userRepository.saveWithEnumCast(user);
         log.info("User created successfully: id={}, username={}", saved.getId(), saved.getUsername());
         
-        return convertToDTO(saved);
+        UserDTO created = convertToDTO(saved);
+        if (idempotencyKey != null) {
+            idempotencyStore.save(IDEMPOTENCY_SCOPE, idempotencyKey, requestFingerprint(request),
+                HttpStatus.CREATED.value(), created);
+        }
+        return created;
+    }
+    
+    /**
+     * Fingerprint of a create request for its Idempotency-Key. The password is
+     * left out so the idempotency table never holds a fast hash of it.
+     */
+    public String requestFingerprint(CreateUserRequest request) {
+        return idempotencyStore.fingerprint(Arrays.asList(request.getUsername(), request.getRole(),
+            request.getFullName(), request.getStationId()));
     }
     
     public UserDTO updateUser(Long id, UpdateUserRequest request) {
@@ -106,6 +139,7 @@ public class UserService {
         }
         
         User updated = userRepository.save(user);
+        evict(updated);
         log.info("User updated successfully: id={}", updated.getId());
         
         return convertToDTO(updated);
@@ -114,14 +148,19 @@ public class UserService {
     public void deleteUser(Long id) {
         log.info("Deleting user: {}", id);
         
-        if (!userRepository.existsById(id)) {
-            throw new UserNotFoundException(id);
-        }
+        User user = userRepository.findById(id)
+            .orElseThrow(() -> new UserNotFoundException(id));
         
         userRepository.deleteById(id);
+        evict(user);
         log.info("User deleted successfully: id={}", id);
     }
     
+    private void evict(User user) {
+        usersById.evict(List.of(user.getId()));
+        usersByUsername.evict(List.of(user.getUsername()));
+    }
+    
     private UserDTO convertToDTO(User user) {
         return new UserDTO(
             user.getId(),
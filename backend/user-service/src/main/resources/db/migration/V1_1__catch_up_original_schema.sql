@@ -0,0 +1,45 @@
+-- Databases created from the original init.sql are baselined as version 1
+-- although they predate the idempotency and audit tables later added to
+-- init.sql alone. Both are shared with incident-service, whose own catch-up
+-- creates them if it runs first; everything checks for the object first, so
+-- this is a no-op on a database created from the current init.sql.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    scope VARCHAR(50) NOT NULL,
+    idempotency_key VARCHAR(64) NOT NULL,
+    status_code SMALLINT NOT NULL,
+    response_body TEXT,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (scope, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_keys_expires_at_idx ON idempotency_keys (expires_at);
+
+CREATE OR REPLACE FUNCTION reject_append_only_change() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION '% is append-only', TG_TABLE_NAME;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TABLE IF NOT EXISTS audit_log (
+    chain_id UUID NOT NULL,
+    seq BIGINT NOT NULL,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    service VARCHAR(50) NOT NULL,
+    actor_id INT,
+    action VARCHAR(10) NOT NULL,
+    resource_type VARCHAR(20) NOT NULL,
+    resource_id VARCHAR(100),
+    route VARCHAR(255) NOT NULL,
+    status_code SMALLINT NOT NULL,
+    client_address VARCHAR(64),
+    prev_hash BYTEA NOT NULL,
+    hash BYTEA NOT NULL,
+    PRIMARY KEY (chain_id, seq)
+);
+
+CREATE INDEX IF NOT EXISTS audit_log_occurred_at_idx ON audit_log (occurred_at);
+CREATE INDEX IF NOT EXISTS audit_log_actor_id_idx ON audit_log (actor_id, occurred_at);
+
+CREATE OR REPLACE TRIGGER audit_log_append_only BEFORE UPDATE OR DELETE ON audit_log
+    FOR EACH ROW EXECUTE FUNCTION reject_append_only_change();
@@ -0,0 +1,11 @@
+-- Indexes for the user repository queries. init.sql is baseline version 1.
+-- CONCURRENTLY keeps users writable while an index builds; Flyway runs a
+-- migration made only of such statements outside a transaction.
+
+-- findByStationId; users not attached to a station are never looked up by it
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_station_id_idx
+    ON users (station_id) WHERE station_id IS NOT NULL;
+
+-- findByRole and findByRoleString
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_role_idx
+    ON users (role);
@@ -0,0 +1,25 @@
+-- Audit rows audit_log rejected for their data. They keep their chain id,
+-- sequence and hashes, so a chain is verified over both tables together.
+-- Columns are unbounded so anything audit_log refused still fits. Both
+-- services migrate this shared table; whichever runs first creates it
+CREATE TABLE IF NOT EXISTS audit_log_quarantine (
+    chain_id UUID NOT NULL,
+    seq BIGINT NOT NULL,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    service TEXT NOT NULL,
+    actor_id BIGINT,
+    action TEXT NOT NULL,
+    resource_type TEXT NOT NULL,
+    resource_id TEXT,
+    route TEXT NOT NULL,
+    status_code INT NOT NULL,
+    client_address TEXT,
+    prev_hash BYTEA NOT NULL,
+    hash BYTEA NOT NULL,
+    error TEXT NOT NULL,
+    quarantined_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (chain_id, seq)
+);
+
+CREATE OR REPLACE TRIGGER audit_log_quarantine_append_only BEFORE UPDATE OR DELETE ON audit_log_quarantine
+    FOR EACH ROW EXECUTE FUNCTION reject_append_only_change();
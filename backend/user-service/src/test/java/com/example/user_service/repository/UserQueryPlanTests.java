@@ -0,0 +1,145 @@
+package com.example.user_service.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on the SQL each repository method issues, against a seeded
+ * database with init.sql and the migrations applied, and fails when the plan
+ * reads a table of more than {@link #SEQ_SCAN_ROW_LIMIT} rows with a seq scan.
+ *
+ * Parameters are selective values: for a value covering a large share of the
+ * table a seq scan is the right plan. Skipped when Docker is unavailable.
+ */
+@SpringBootTest(properties = {
+    "eureka.client.enabled=false",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.user_service.repository.UserQueryPlanTests$RecordingInspector"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserQueryPlanTests {
+    
+    private static final long SEQ_SCAN_ROW_LIMIT = 1_000;
+    
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgis/postgis:15-3.3").asCompatibleSubstituteFor("postgres"))
+        .withDatabaseName("nisircop")
+        .withCopyFileToContainer(MountableFile.forHostPath("../../database/init.sql"),
+            "/docker-entrypoint-initdb.d/init.sql");
+    
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @BeforeAll
+    void seed() {
+        // 20k users over 200 stations; every 1000th is a super user with no station
+        jdbcTemplate.update("""
+            INSERT INTO users (username, password, role, station_id)
+            SELECT 'seed_user_' || g, 'x',
+                   CAST(CASE WHEN g % 1000 = 0 THEN 'SUPER_USER' WHEN g % 50 = 0 THEN 'POLICE_STATION'
+                             ELSE 'OFFICER' END AS user_role),
+                   CASE WHEN g % 1000 = 0 THEN NULL ELSE 1 + g % 200 END
+            FROM generate_series(1, 20000) g
+            """);
+        jdbcTemplate.execute("ANALYZE");
+    }
+    
+    @Test
+    void findByUsername() {
+        assertNoLargeSeqScan(() -> userRepository.findByUsername("seed_user_42"), "seed_user_42");
+    }
+    
+    @Test
+    void findByRole() {
+        assertNoLargeSeqScan(() -> userRepository.findByRole("SUPER_USER"), "SUPER_USER");
+    }
+    
+    @Test
+    void findByRoleString() {
+        assertNoLargeSeqScan(() -> userRepository.findByRoleString("SUPER_USER"), "SUPER_USER");
+    }
+    
+    @Test
+    void findByStationId() {
+        assertNoLargeSeqScan(() -> userRepository.findByStationId(42), 42);
+    }
+    
+    /**
+     * Calls the repository method to capture its SQL, then explains that SQL
+     * with {@code args} bound in statement order.
+     */
+    private void assertNoLargeSeqScan(Runnable call, Object... args) {
+        RecordingInspector.statements.clear();
+        call.run();
+        String sql = RecordingInspector.statements.get(RecordingInspector.statements.size() - 1);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, args);
+        
+        List<String> scanned = new ArrayList<>();
+        try {
+            collectSeqScans(objectMapper.readTree(plan).get(0).get("Plan"), scanned);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan: " + plan, e);
+        }
+        List<String> large = scanned.stream()
+            .filter(relation -> jdbcTemplate.queryForObject(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, relation)
+                > SEQ_SCAN_ROW_LIMIT)
+            .toList();
+        assertTrue(large.isEmpty(), () -> "Seq scan on " + large + " for:\n" + sql + "\n" + plan);
+    }
+    
+    private static void collectSeqScans(JsonNode node, List<String> relations) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            relations.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, relations);
+        }
+    }
+    
+    /** Records the SQL Hibernate prepares. */
+    public static class RecordingInspector implements StatementInspector {
+        
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+        
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
@@ -7,9 +7,8 @@
 -- Enable PostGIS extension
 CREATE EXTENSION IF NOT EXISTS postgis;
 
--- Define ENUM types for roles and incident properties
+-- Define ENUM types for roles
 CREATE TYPE user_role AS ENUM ('OFFICER', 'POLICE_STATION', 'SUPER_USER');
-CREATE TYPE incident_priority AS ENUM ('LOW', 'MEDIUM', 'HIGH', 'CRITICAL');
 
 -- Create users table
 CREATE TABLE users (
@@ -32,21 +31,208 @@ CREATE TABLE boundaries (
 -- Create a spatial index on the geometry column
 CREATE INDEX boundaries_geom_idx ON boundaries USING GIST (geom);
 
+-- Lookup tables for the repeated incident attributes; incidents store their
+-- smallint ids. Priority and status ids follow the order of the Java enums
+-- (id = ordinal + 1), types are added by incident-service as they appear.
+CREATE TABLE incident_priorities (
+    id SMALLINT PRIMARY KEY,
+    name VARCHAR(20) UNIQUE NOT NULL
+);
+
+INSERT INTO incident_priorities (id, name) VALUES
+(1, 'LOW'), (2, 'MEDIUM'), (3, 'HIGH'), (4, 'CRITICAL');
+
+CREATE TABLE incident_statuses (
+    id SMALLINT PRIMARY KEY,
+    name VARCHAR(50) UNIQUE NOT NULL
+);
+
+INSERT INTO incident_statuses (id, name) VALUES
+(1, 'REPORTED'), (2, 'DISPATCHED'), (3, 'IN_PROGRESS'), (4, 'RESOLVED'), (5, 'CLOSED');
+
+CREATE TABLE incident_types (
+    id SMALLSERIAL PRIMARY KEY,
+    name VARCHAR(100) UNIQUE NOT NULL
+);
+
 -- Create incidents table
 CREATE TABLE incidents (
     id SERIAL PRIMARY KEY,
     title VARCHAR(255) NOT NULL,
     description TEXT,
-    incident_type VARCHAR(100),
-    priority incident_priority NOT NULL,
+    incident_type_id SMALLINT REFERENCES incident_types(id),
+    priority_id SMALLINT NOT NULL REFERENCES incident_priorities(id),
+    status_id SMALLINT NOT NULL DEFAULT 1 REFERENCES incident_statuses(id),
     location GEOMETRY(Point, 4326) NOT NULL, -- SRID 4326 for WGS 84
     reported_by INT REFERENCES users(id),
-    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    occurred_at TIMESTAMP WITH TIME ZONE,
+    idempotency_key VARCHAR(64) UNIQUE, -- Client key for async/retried submissions
+    change_version BIGINT NOT NULL -- Set by trigger; see incidents_set_change_version
 );
 
 -- Create a spatial index on the location column
 CREATE INDEX incidents_location_idx ON incidents USING GIST (location);
 
+-- Change tracking for delta sync. The change version of a row is the id of the
+-- transaction that last wrote it. Transaction ids below the snapshot xmin are
+-- all finished, so a reader returning only versions below its xmin never skips
+-- a change that commits later with a smaller version (which a plain sequence,
+-- drawn before commit, would allow).
+CREATE INDEX incidents_change_version_idx ON incidents (change_version);
+
+-- Deleted incidents, kept so clients can drop them from their local copy
+CREATE TABLE incident_tombstones (
+    incident_id INT PRIMARY KEY,
+    location GEOMETRY(Point, 4326),
+    change_version BIGINT NOT NULL,
+    deleted_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX incident_tombstones_change_version_idx ON incident_tombstones (change_version);
+
+CREATE FUNCTION incidents_set_change_version() RETURNS trigger AS $$
+BEGIN
+    NEW.change_version := txid_current();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER incidents_change_version BEFORE INSERT OR UPDATE ON incidents
+    FOR EACH ROW EXECUTE FUNCTION incidents_set_change_version();
+
+CREATE FUNCTION incidents_record_tombstone() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO incident_tombstones (incident_id, location, change_version)
+    VALUES (OLD.id, OLD.location, txid_current())
+    ON CONFLICT (incident_id) DO UPDATE SET change_version = EXCLUDED.change_version;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER incidents_tombstone AFTER DELETE ON incidents
+    FOR EACH ROW EXECUTE FUNCTION incidents_record_tombstone();
+
+-- Append-only status history. A row is written by trigger in the same
+-- transaction as every insert and status change, whatever path made it, and
+-- is kept after the incident is deleted.
+CREATE TABLE incident_events (
+    id BIGSERIAL PRIMARY KEY,
+    incident_id INT NOT NULL,
+    from_status_id SMALLINT REFERENCES incident_statuses(id),
+    to_status_id SMALLINT NOT NULL REFERENCES incident_statuses(id),
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    change_version BIGINT NOT NULL
+);
+
+CREATE INDEX incident_events_incident_id_idx ON incident_events (incident_id, id);
+CREATE INDEX incident_events_change_version_idx ON incident_events (change_version, id);
+
+CREATE FUNCTION incidents_record_status_event() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO incident_events (incident_id, from_status_id, to_status_id, change_version)
+    VALUES (NEW.id, CASE WHEN TG_OP = 'UPDATE' THEN OLD.status_id END, NEW.status_id, txid_current());
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER incidents_status_event_insert AFTER INSERT ON incidents
+    FOR EACH ROW EXECUTE FUNCTION incidents_record_status_event();
+
+CREATE TRIGGER incidents_status_event_update AFTER UPDATE OF status_id ON incidents
+    FOR EACH ROW WHEN (OLD.status_id IS DISTINCT FROM NEW.status_id)
+    EXECUTE FUNCTION incidents_record_status_event();
+
+CREATE FUNCTION reject_append_only_change() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION '% is append-only', TG_TABLE_NAME;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER incident_events_append_only BEFORE UPDATE OR DELETE ON incident_events
+    FOR EACH ROW EXECUTE FUNCTION reject_append_only_change();
+
+-- Repeat reports of an incident, linked to it at ingest instead of stored as new incidents
+CREATE TABLE incident_reports (
+    id SERIAL PRIMARY KEY,
+    incident_id INT NOT NULL REFERENCES incidents(id) ON DELETE CASCADE,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    reported_by INT REFERENCES users(id),
+    location GEOMETRY(Point, 4326) NOT NULL,
+    occurred_at TIMESTAMP WITH TIME ZONE,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    idempotency_key VARCHAR(64) UNIQUE
+);
+
+CREATE INDEX incident_reports_incident_id_idx ON incident_reports (incident_id);
+
+-- Responses of POST requests keyed by the client's Idempotency-Key, so retries are not re-executed
+CREATE TABLE idempotency_keys (
+    scope VARCHAR(50) NOT NULL,
+    idempotency_key VARCHAR(64) NOT NULL,
+    status_code SMALLINT NOT NULL,
+    response_body TEXT,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (scope, idempotency_key)
+);
+
+CREATE INDEX idempotency_keys_expires_at_idx ON idempotency_keys (expires_at);
+
+-- User-defined watch areas; subscribers are notified of incidents inside them
+CREATE TABLE geofences (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    user_id INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    geom GEOMETRY(Polygon, 4326) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX geofences_user_id_idx ON geofences (user_id);
+
+-- Officer GPS history, partitioned by UTC day. geographic-service creates the
+-- partitions ahead of time and drops expired ones. No foreign key on user_id:
+-- pings are validated against users in the service before they are queued.
+CREATE TABLE officer_positions (
+    user_id INT NOT NULL,
+    station_id INT,
+    location GEOMETRY(Point, 4326) NOT NULL,
+    speed REAL,
+    heading REAL,
+    accuracy REAL,
+    recorded_at TIMESTAMP WITH TIME ZONE NOT NULL
+) PARTITION BY RANGE (recorded_at);
+
+CREATE INDEX officer_positions_user_time_idx ON officer_positions (user_id, recorded_at);
+
+-- Audit trail of API reads and changes, written in batches by each service.
+-- Every service process writes its own chain (chain_id) with a gap-free seq,
+-- and hash = SHA-256(prev_hash || row), so an edited, removed or reordered
+-- row breaks every later hash of its chain.
+CREATE TABLE audit_log (
+    chain_id UUID NOT NULL,
+    seq BIGINT NOT NULL,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    service VARCHAR(50) NOT NULL,
+    actor_id INT,
+    action VARCHAR(10) NOT NULL,
+    resource_type VARCHAR(20) NOT NULL,
+    resource_id VARCHAR(100),
+    route VARCHAR(255) NOT NULL,
+    status_code SMALLINT NOT NULL,
+    client_address VARCHAR(64),
+    prev_hash BYTEA NOT NULL,
+    hash BYTEA NOT NULL,
+    PRIMARY KEY (chain_id, seq)
+);
+
+CREATE INDEX audit_log_occurred_at_idx ON audit_log (occurred_at);
+CREATE INDEX audit_log_actor_id_idx ON audit_log (actor_id, occurred_at);
+
+CREATE TRIGGER audit_log_append_only BEFORE UPDATE OR DELETE ON audit_log
+    FOR EACH ROW EXECUTE FUNCTION reject_append_only_change();
+
 -- Insert Sample Data
 
 -- Users (passwords are placeholders and should be hashed in a real app)
@@ -63,7 +249,9 @@ INSERT INTO boundaries (id, name, geom) VALUES
 (1, 'Central Station Zone', ST_GeomFromText('POLYGON((-74.0 40.7, -74.0 40.8, -73.9 40.8, -73.9 40.7, -74.0 40.7))', 4326));
 
 -- Incidents (Sample incidents within the Central Station Zone)
-INSERT INTO incidents (title, description, incident_type, priority, location, reported_by) VALUES
-('Robbery at Main St', 'Armed robbery reported at the corner of Main St and 1st Ave.', 'Robbery', 'CRITICAL', ST_SetSRID(ST_MakePoint(-73.95, 40.75), 4326), 3),
-('Vandalism at City Park', 'Graffiti reported on the park statues.', 'Vandalism', 'LOW', ST_SetSRID(ST_MakePoint(-73.98, 40.76), 4326), 4),
-('Suspicious Package', 'A suspicious package was found near the subway entrance.', 'Public Hazard', 'HIGH', ST_SetSRID(ST_MakePoint(-73.92, 40.78), 4326), 3);
+INSERT INTO incident_types (name) VALUES ('Robbery'), ('Vandalism'), ('Public Hazard');
+
+INSERT INTO incidents (title, description, incident_type_id, priority_id, location, reported_by) VALUES
+('Robbery at Main St', 'Armed robbery reported at the corner of Main St and 1st Ave.', 1, 4, ST_SetSRID(ST_MakePoint(-73.95, 40.75), 4326), 3),
+('Vandalism at City Park', 'Graffiti reported on the park statues.', 2, 1, ST_SetSRID(ST_MakePoint(-73.98, 40.76), 4326), 4),
+('Suspicious Package', 'A suspicious package was found near the subway entrance.', 3, 3, ST_SetSRID(ST_MakePoint(-73.92, 40.78), 4326), 3);